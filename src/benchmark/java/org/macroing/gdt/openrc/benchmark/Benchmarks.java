@@ -0,0 +1,168 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.benchmark;
+
+import java.util.Random;
+
+import org.macroing.gdt.openrc.AbstractRayCasterKernel;
+import org.macroing.gdt.openrc.Constants;
+import org.macroing.gdt.openrc.geometry.Camera;
+import org.macroing.gdt.openrc.geometry.Material;
+import org.macroing.gdt.openrc.geometry.PointLight;
+import org.macroing.gdt.openrc.geometry.Scene;
+import org.macroing.gdt.openrc.geometry.Sphere;
+import org.macroing.gdt.openrc.geometry.Texture;
+import org.macroing.gdt.openrc.geometry.Triangle;
+
+/**
+ * A class with utility methods that create the scenes, rays and kernels used by the benchmarks.
+ * <p>
+ * Everything is created from fixed seeds, so the benchmarks measure the same work on every run.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class Benchmarks {
+	private Benchmarks() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns a new {@link AbstractRayCasterKernel} whose methods can be called directly in Java.
+	 * 
+	 * @return a new {@code AbstractRayCasterKernel} whose methods can be called directly in Java
+	 */
+	public static AbstractRayCasterKernel createKernel() {
+		return new AbstractRayCasterKernel() {
+			@Override
+			public void run() {
+//				Do nothing here, as the benchmarks call the methods directly.
+			}
+		};
+	}
+	
+	/**
+	 * Returns a {@code float} array with {@code columns * rows} primary rays of {@code camera}, evenly spread over a screen of {@code width} by {@code height} pixels.
+	 * <p>
+	 * The rays are laid out the same way as in the {@code RayCasterKernel}, with {@code Constants.SIZE_OF_RAY} values per ray.
+	 * 
+	 * @param camera the {@link Camera} to fire the rays from
+	 * @param columns the number of columns of rays
+	 * @param rows the number of rows of rays
+	 * @param width the width of the screen
+	 * @param height the height of the screen
+	 * @return a {@code float} array with {@code columns * rows} primary rays of {@code camera}
+	 * @throws NullPointerException thrown if, and only if, {@code camera} is {@code null}
+	 */
+	public static float[] createRays(final Camera camera, final int columns, final int rows, final int width, final int height) {
+		final float[] array = camera.getArray();
+		final float[] rays = new float[columns * rows * Constants.SIZE_OF_RAY];
+		
+		final float zoomReciprocal = 1.0F / array[Camera.ABSOLUTE_OFFSET_OF_ZOOM];
+		final float viewPlaneDistance = array[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE];
+		
+		for(int row = 0, rayOffset = 0; row < rows; row++) {
+			for(int column = 0; column < columns; column++, rayOffset += Constants.SIZE_OF_RAY) {
+				final float u = ((column + 0.5F) * width / columns - width * 0.5F) * zoomReciprocal;
+				final float v = ((row + 0.5F) * height / rows - height * 0.5F) * zoomReciprocal;
+				
+				for(int i = 0; i < 3; i++) {
+					rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + i] = array[Camera.ABSOLUTE_OFFSET_OF_EYE + i];
+					rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + i] = array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + i] * u + array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + i] * v - array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + i] * viewPlaneDistance;
+				}
+				
+				final float directionX = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0];
+				final float directionY = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1];
+				final float directionZ = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2];
+				
+				final float lengthReciprocal = 1.0F / (float)(Math.sqrt(directionX * directionX + directionY * directionY + directionZ * directionZ));
+				
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0] = directionX * lengthReciprocal;
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1] = directionY * lengthReciprocal;
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2] = directionZ * lengthReciprocal;
+			}
+		}
+		
+		return rays;
+	}
+	
+	/**
+	 * Returns a new {@link Scene} with {@code sphereCount} spheres scattered over two textured triangles, seen from the camera of the {@code Scene}.
+	 * <p>
+	 * The spheres are placed using a {@code Random} seeded with {@code sphereCount}, so the same {@code sphereCount} always gives the same {@code Scene}.
+	 * 
+	 * @param sphereCount the number of spheres
+	 * @return a new {@code Scene} with {@code sphereCount} spheres scattered over two textured triangles
+	 */
+	public static Scene createScene(final int sphereCount) {
+		return createScene(sphereCount, Texture.TYPE_SOLID, Texture.TYPE_NORMAL_MAP);
+	}
+	
+	/**
+	 * Returns a new {@link Scene} with {@code sphereCount} spheres scattered over two textured triangles, seen from the camera of the {@code Scene}.
+	 * <p>
+	 * The solid textures are created with the type {@code solidTextureType} and the normal maps with the type {@code normalMapTextureType}, so the texel formats can be compared.
+	 * <p>
+	 * The spheres are placed using a {@code Random} seeded with {@code sphereCount}, so the same {@code sphereCount} always gives the same {@code Scene}.
+	 * 
+	 * @param sphereCount the number of spheres
+	 * @param solidTextureType the type of the solid textures, such as {@code Texture.TYPE_SOLID_RGB565}
+	 * @param normalMapTextureType the type of the normal maps, such as {@code Texture.TYPE_NORMAL_MAP_XY}
+	 * @return a new {@code Scene} with {@code sphereCount} spheres scattered over two textured triangles
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code solidTextureType} or {@code normalMapTextureType} is not a valid type
+	 */
+	public static Scene createScene(final int sphereCount, final int solidTextureType, final int normalMapTextureType) {
+		final Camera camera = new Camera();
+		
+		final
+		Scene.Builder builder = new Scene.Builder(camera);
+		builder.addTexture(() -> Texture.createTexture(solidTextureType, "154.JPG"));
+		builder.addTexture(() -> Texture.createTexture(normalMapTextureType, "154_norm.JPG"));
+		builder.addTexture(() -> Texture.createTexture(solidTextureType, "197.JPG"));
+		builder.addTexture(() -> Texture.createTexture(normalMapTextureType, "197_norm.JPG"));
+		
+		final int[] textureOffsets = builder.calculateTextureOffsets();
+		
+		builder.addMaterial(Material.blackPlastic().setSpecularPower(100.0F).setTextureOffsets(textureOffsets[1], textureOffsets[0]));
+		builder.addMaterial(Material.blackPlastic().setSpecularPower(100.0F).setTextureOffsets(textureOffsets[3], textureOffsets[2]));
+		builder.addLight(new PointLight(300.0F, -200.0F, 300.0F, 100.0F));
+		
+		final float[] materialOffsets = builder.calculateMaterialOffsets();
+		
+		final Random random = new Random(sphereCount);
+		
+		for(int i = 0; i < sphereCount; i++) {
+			builder.addShape(new Sphere(materialOffsets[i % 2], 200.0F + random.nextFloat() * 200.0F, 12.5F, random.nextFloat() * 600.0F, 16.5F));
+		}
+		
+		builder.addShape(new Triangle(materialOffsets[0], 2500.0F, 40.0F, 2500.0F, 1000.0F, 40.0F, 1500.0F, -1000.0F, 40.0F, -1000.0F));
+		builder.addShape(new Triangle(materialOffsets[1], -1000.0F, 40.0F, -1000.0F, 1000.0F, -2500.0F, 1500.0F, 2500.0F, 40.0F, 2500.0F));
+		
+		final Scene scene = builder.build();
+		
+		camera.setScene(scene);
+		camera.setEye(500.0F, 0.0F, 500.0F);
+		camera.setLookAt(300.0F, 10.0F, 300.0F);
+		camera.calculateOrthonormalBasis();
+		
+		return scene;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.macroing.gdt.openrc.Constants;
+import org.macroing.gdt.openrc.PathTracerKernel;
+import org.macroing.gdt.openrc.geometry.Scene;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks rendering a sample per pixel with the {@link PathTracerKernel}, with and without compaction of its queues, for varying maximum depths.
+ * <p>
+ * The sample is rendered both by the Fork/Join execution mode and by the API, which uses the GPU if available and JTP (Java Thread Pool) otherwise. Without compaction, every bounce launches a work-item per pixel, whether or not its
+ * path has terminated.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+public class PathTracerBenchmark {
+	private ForkJoinPool forkJoinPool;
+	private PathTracerKernel pathTracerKernel;
+	private int[] rGB;
+	
+	/**
+	 * The compaction, which is either {@code COMPACTING} or {@code NONE}.
+	 */
+	@Param({"COMPACTING", "NONE"})
+	public String compaction;
+	
+	/**
+	 * The maximum depth of the paths.
+	 */
+	@Param({"4", "8"})
+	public int maximumDepth;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Benchmark
+	public int render() {
+		this.pathTracerKernel.render(this.forkJoinPool);
+		
+		return this.rGB[this.rGB.length / 2];
+	}
+	
+	@Benchmark
+	public int renderUsingRange() {
+		this.pathTracerKernel.render();
+		this.pathTracerKernel.get(this.rGB);
+		
+		return this.rGB[this.rGB.length / 2];
+	}
+	
+	@Setup
+	public void setup() {
+		final Scene scene = Benchmarks.createScene(100);
+		
+		this.forkJoinPool = new ForkJoinPool();
+		this.rGB = new int[Constants.WIDTH * Constants.HEIGHT];
+		this.pathTracerKernel = new PathTracerKernel(this.rGB, scene, Constants.WIDTH, Constants.HEIGHT);
+		this.pathTracerKernel.setCompacting(this.compaction.equals("COMPACTING"));
+		this.pathTracerKernel.setMaximumDepth(this.maximumDepth);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.forkJoinPool.shutdown();
+		this.pathTracerKernel.dispose();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.macroing.gdt.openrc.Constants;
+import org.macroing.gdt.openrc.RayCasterKernel;
+import org.macroing.gdt.openrc.geometry.Scene;
+import org.macroing.gdt.openrc.geometry.TileGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amd.aparapi.Range;
+
+/**
+ * Benchmarks rendering a whole frame with the scanline and Morton pixel orders of the {@link RayCasterKernel}, over scenes of varying size.
+ * <p>
+ * The scenes are texture-heavy, as both triangles and all spheres are textured and normal mapped, so most of the time is spent on fetching texels and shape data. The frame is rendered both by the Fork/Join execution mode and by
+ * the API, which uses the GPU if available and JTP (Java Thread Pool) otherwise. Progressive rendering is disabled, so each invocation renders the same sample per pixel.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+public class PixelOrderBenchmark {
+	private ForkJoinPool forkJoinPool;
+	private Range range;
+	private RayCasterKernel rayCasterKernel;
+	private int[] rGB;
+	
+	/**
+	 * The pixel order, which is either {@code MORTON} or {@code SCANLINE}.
+	 */
+	@Param({"SCANLINE", "MORTON"})
+	public String pixelOrder;
+	
+	/**
+	 * The number of spheres in the {@code Scene}.
+	 */
+	@Param({"100", "1000"})
+	public int sphereCount;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Benchmark
+	public int render() {
+		this.rayCasterKernel.render(this.forkJoinPool);
+		
+		return this.rGB[this.rGB.length / 2];
+	}
+	
+	@Benchmark
+	public int renderUsingRange() {
+		this.rayCasterKernel.render(this.range);
+		this.rayCasterKernel.get(this.rGB);
+		
+		return this.rGB[this.rGB.length / 2];
+	}
+	
+	@Setup
+	public void setup() {
+		final Scene scene = Benchmarks.createScene(this.sphereCount);
+		
+		this.forkJoinPool = new ForkJoinPool();
+		this.range = Range.create(Math.max(Constants.WIDTH * Constants.HEIGHT, RayCasterKernel.MAXIMUM_TEXTURE_UPDATES));
+		this.rGB = new int[Constants.WIDTH * Constants.HEIGHT];
+		this.rayCasterKernel = new RayCasterKernel(new float[Constants.SIZE_OF_PICK], this.rGB, new int[Constants.WIDTH * Constants.HEIGHT], scene, new TileGrid(Constants.WIDTH, Constants.HEIGHT));
+		this.rayCasterKernel.setPixelOrder(this.pixelOrder.equals("MORTON") ? RayCasterKernel.PIXEL_ORDER_MORTON : RayCasterKernel.PIXEL_ORDER_SCANLINE);
+		this.rayCasterKernel.setProgressive(false);
+		this.rayCasterKernel.updateCamera(scene.getCamera().getArray());
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.forkJoinPool.shutdown();
+		this.rayCasterKernel.dispose();
+	}
+}
\ No newline at end of file
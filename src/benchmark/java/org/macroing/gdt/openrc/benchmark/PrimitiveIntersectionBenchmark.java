@@ -0,0 +1,115 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.macroing.gdt.openrc.AbstractRayCasterKernel;
+import org.macroing.gdt.openrc.geometry.PackedShapes;
+import org.macroing.gdt.openrc.geometry.Plane;
+import org.macroing.gdt.openrc.geometry.Sphere;
+import org.macroing.gdt.openrc.geometry.Triangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the ray intersection tests for a single sphere, plane and triangle. The triangle is also tested in the layout of the {@link PackedShapes}, both by the M&#246;ller-Trumbore test, using the precomputed edges, and by the
+ * test of Wald, using the precomputed projection data.
+ * <p>
+ * Each ray hits the shape, so the full intersection test is measured.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+public class PrimitiveIntersectionBenchmark {
+	private AbstractRayCasterKernel kernel;
+	private float rayDirectionX;
+	private float rayDirectionY;
+	private float rayDirectionZ;
+	private float rayOriginX;
+	private float rayOriginY;
+	private float rayOriginZ;
+	private float[] packedTriangleProjections;
+	private float[] packedTriangles;
+	private float[] plane;
+	private float[] sphere;
+	private float[] triangle;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Benchmark
+	public float findIntersectionForPlane() {
+		return this.kernel.findIntersectionForPlane(this.rayOriginX, this.rayOriginY, this.rayOriginZ, this.rayDirectionX, this.rayDirectionY, this.rayDirectionZ, this.plane, 0);
+	}
+	
+	@Benchmark
+	public float findIntersectionForSphere() {
+		return this.kernel.findIntersectionForSphere(this.rayOriginX, this.rayOriginY, this.rayOriginZ, this.rayDirectionX, this.rayDirectionY, this.rayDirectionZ, this.sphere, 0);
+	}
+	
+	@Benchmark
+	public float findIntersectionForTriangle() {
+		return AbstractRayCasterKernel.findIntersectionForTriangle(this.rayOriginX, this.rayOriginY, this.rayOriginZ, this.rayDirectionX, this.rayDirectionY, this.rayDirectionZ, this.triangle, 0);
+	}
+	
+	@Benchmark
+	public float findIntersectionForPackedTriangle() {
+		return this.kernel.findIntersectionForPackedTriangle(this.rayOriginX, this.rayOriginY, this.rayOriginZ, this.rayDirectionX, this.rayDirectionY, this.rayDirectionZ, this.packedTriangles, 1, 0);
+	}
+	
+	@Benchmark
+	public float findIntersectionForPackedTriangleUsingProjection() {
+		return this.kernel.findIntersectionForPackedTriangleUsingProjection(this.rayOriginX, this.rayOriginY, this.rayOriginZ, this.rayDirectionX, this.rayDirectionY, this.rayDirectionZ, this.packedTriangleProjections, 1, 0);
+	}
+	
+	@Setup
+	public void setup() {
+		final Triangle triangle = new Triangle(0.0F, -10.0F, -10.0F, 0.0F, 10.0F, -10.0F, 0.0F, 0.0F, 10.0F, 0.0F);
+		
+		final PackedShapes packedShapes = PackedShapes.create(Arrays.asList(triangle));
+		
+		this.kernel = Benchmarks.createKernel();
+		this.rayOriginX = 0.0F;
+		this.rayOriginY = 0.0F;
+		this.rayOriginZ = 100.0F;
+		this.rayDirectionX = 0.0F;
+		this.rayDirectionY = 0.0F;
+		this.rayDirectionZ = -1.0F;
+		this.plane = new Plane(0.0F, 0.0F, 0.0F, 1.0F).toFloatArray();
+		this.sphere = new Sphere(0.0F, 0.0F, 0.0F, 0.0F, 10.0F).toFloatArray();
+		this.packedTriangleProjections = packedShapes.getTriangleProjections();
+		this.packedTriangles = packedShapes.getTriangles();
+		this.triangle = triangle.toFloatArray();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.macroing.gdt.openrc.Constants;
+import org.macroing.gdt.openrc.RayCasterKernel;
+import org.macroing.gdt.openrc.geometry.Scene;
+import org.macroing.gdt.openrc.geometry.TileGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks rendering a whole frame on the CPU, using the Fork/Join execution mode of the {@link RayCasterKernel}, over scenes of varying size and screens of varying size.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+public class RenderBenchmark {
+	private ForkJoinPool forkJoinPool;
+	private RayCasterKernel rayCasterKernel;
+	private int[] rGB;
+	
+	/**
+	 * The size of the screen, given as width and height separated by {@code x}.
+	 */
+	@Param({"320x240", "640x480", "1024x768"})
+	public String screenSize;
+	
+	/**
+	 * The number of spheres in the {@code Scene}.
+	 */
+	@Param({"10", "100", "1000"})
+	public int sphereCount;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Benchmark
+	public int render() {
+		this.rayCasterKernel.render(this.forkJoinPool);
+		
+		return this.rGB[this.rGB.length / 2];
+	}
+	
+	@Setup
+	public void setup() {
+		final String[] screenSize = this.screenSize.split("x");
+		
+		final int width = Integer.parseInt(screenSize[0]);
+		final int height = Integer.parseInt(screenSize[1]);
+		
+		final Scene scene = Benchmarks.createScene(this.sphereCount);
+		
+		this.forkJoinPool = new ForkJoinPool();
+		this.rGB = new int[width * height];
+		this.rayCasterKernel = new RayCasterKernel(new float[Constants.SIZE_OF_PICK], this.rGB, new int[width * height], scene, new TileGrid(width, height));
+		this.rayCasterKernel.updateCamera(scene.getCamera().getArray());
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.forkJoinPool.shutdown();
+		this.rayCasterKernel.dispose();
+	}
+}
\ No newline at end of file
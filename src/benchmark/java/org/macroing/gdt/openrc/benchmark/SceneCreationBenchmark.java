@@ -0,0 +1,105 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.benchmark;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.macroing.gdt.openrc.geometry.Camera;
+import org.macroing.gdt.openrc.geometry.Material;
+import org.macroing.gdt.openrc.geometry.Scene;
+import org.macroing.gdt.openrc.geometry.Texture;
+import org.macroing.gdt.openrc.geometry.Triangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the startup time of a texture-heavy {@link Scene}, from decoding its JPG-images to assembling its texture atlas, with the textures decoded either one after another or concurrently.
+ * <p>
+ * Each invocation builds a new {@code Scene} with {@code textureCount} textures, alternating between the four large JPG-images of the default {@code Scene}, so the images are decoded again every time.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Fork(1)
+@Measurement(iterations = 10)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+public class SceneCreationBenchmark {
+	private static final String[] NAMES = {"154.JPG", "154_norm.JPG", "197.JPG", "197_norm.JPG"};
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Executor executor;
+	
+	/**
+	 * The texture loading, which is either {@code PARALLEL} or {@code SERIAL}.
+	 */
+	@Param({"SERIAL", "PARALLEL"})
+	public String textureLoading;
+	
+	/**
+	 * The number of textures in the {@code Scene}.
+	 */
+	@Param({"4", "32"})
+	public int textureCount;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Benchmark
+	public int createScene() {
+		final
+		Scene.Builder builder = new Scene.Builder(new Camera(), this.executor);
+		
+		for(int i = 0; i < this.textureCount; i++) {
+			final String name = NAMES[i % NAMES.length];
+			
+			final int type = name.endsWith("_norm.JPG") ? Texture.TYPE_NORMAL_MAP_XY : Texture.TYPE_SOLID_RGB565;
+			
+			builder.addTexture(() -> Texture.createTexture(type, name));
+		}
+		
+		final int[] textureOffsets = builder.calculateTextureOffsets();
+		
+		builder.addMaterial(Material.blackPlastic().setTextureOffsets(textureOffsets[1], textureOffsets[0]));
+		
+		final float[] materialOffsets = builder.calculateMaterialOffsets();
+		
+		builder.addShape(new Triangle(materialOffsets[0], 2500.0F, 40.0F, 2500.0F, 1000.0F, 40.0F, 1500.0F, -1000.0F, 40.0F, -1000.0F));
+		
+		return builder.build().getTexturesAsArray().length;
+	}
+	
+	@Setup
+	public void setup() {
+		this.executor = this.textureLoading.equals("PARALLEL") ? ForkJoinPool.commonPool() : Runnable::run;
+	}
+}
\ No newline at end of file
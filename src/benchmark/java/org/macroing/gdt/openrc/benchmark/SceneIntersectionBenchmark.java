@@ -0,0 +1,141 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.macroing.gdt.openrc.AbstractRayCasterKernel;
+import org.macroing.gdt.openrc.Constants;
+import org.macroing.gdt.openrc.geometry.Intersection;
+import org.macroing.gdt.openrc.geometry.Scene;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks finding the closest intersection of a primary ray in scenes of varying size, by looping through all shapes, by traversing the bounding volume hierarchy and by looping through the packed shapes of each type. The packed
+ * triangles are tested both by the M&#246;ller-Trumbore test and by the test of Wald.
+ * <p>
+ * Each invocation uses the next ray in a grid of {@code RAY_COLUMNS * RAY_ROWS} rays spread over the screen, so both hits and misses are measured.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+public class SceneIntersectionBenchmark {
+	private static final int RAY_COLUMNS = 32;
+	private static final int RAY_COUNT = 32 * 24;
+	private static final int RAY_ROWS = 24;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private AbstractRayCasterKernel kernel;
+	private float[] boundingVolumeHierarchy;
+	private float[] intersections;
+	private float[] packedPlanes;
+	private float[] packedSpheres;
+	private float[] packedTriangleProjections;
+	private float[] packedTriangles;
+	private float[] pick;
+	private float[] rays;
+	private float[] shapes;
+	private int rayIndex;
+	private int shapeIndicesLength;
+	private int[] boundingVolumeHierarchyShapeIndices;
+	private int[] shapeIndices;
+	
+	/**
+	 * The number of spheres in the {@code Scene}.
+	 */
+	@Param({"10", "100", "1000", "10000"})
+	public int sphereCount;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Benchmark
+	public float findIntersection() {
+		final int rayIndex = doNextRayIndex();
+		
+		return this.kernel.findIntersection(true, false, this.intersections, this.pick, this.rays, this.shapes, rayIndex * Intersection.SIZE, rayIndex * Constants.SIZE_OF_RAY, this.shapeIndicesLength, 0, this.shapeIndices);
+	}
+	
+	@Benchmark
+	public float findIntersectionUsingBoundingVolumeHierarchy() {
+		final int rayIndex = doNextRayIndex();
+		
+		return this.kernel.findIntersectionUsingBoundingVolumeHierarchy(true, this.boundingVolumeHierarchy, this.intersections, this.rays, this.shapes, rayIndex * Intersection.SIZE, rayIndex * Constants.SIZE_OF_RAY, this.boundingVolumeHierarchyShapeIndices);
+	}
+	
+	@Benchmark
+	public float findIntersectionUsingPackedShapes() {
+		final int rayIndex = doNextRayIndex();
+		
+		return this.kernel.findIntersectionUsingPackedShapes(true, false, this.intersections, this.packedPlanes, this.packedSpheres, this.packedTriangleProjections, this.packedTriangles, this.rays, this.shapes, rayIndex * Intersection.SIZE, rayIndex * Constants.SIZE_OF_RAY);
+	}
+	
+	@Benchmark
+	public float findIntersectionUsingPackedShapesAndTriangleProjection() {
+		final int rayIndex = doNextRayIndex();
+		
+		return this.kernel.findIntersectionUsingPackedShapes(true, true, this.intersections, this.packedPlanes, this.packedSpheres, this.packedTriangleProjections, this.packedTriangles, this.rays, this.shapes, rayIndex * Intersection.SIZE, rayIndex * Constants.SIZE_OF_RAY);
+	}
+	
+	@Setup
+	public void setup() {
+		final Scene scene = Benchmarks.createScene(this.sphereCount);
+		
+		this.kernel = Benchmarks.createKernel();
+		this.boundingVolumeHierarchy = scene.getBoundingVolumeHierarchyAsArray();
+		this.intersections = Intersection.create(RAY_COUNT);
+		this.packedPlanes = scene.getPackedShapes().getPlanes();
+		this.packedSpheres = scene.getPackedShapes().getSpheres();
+		this.packedTriangleProjections = scene.getPackedShapes().getTriangleProjections();
+		this.packedTriangles = scene.getPackedShapes().getTriangles();
+		this.pick = new float[Constants.SIZE_OF_PICK];
+		this.rays = Benchmarks.createRays(scene.getCamera(), RAY_COLUMNS, RAY_ROWS, Constants.WIDTH, Constants.HEIGHT);
+		this.shapes = scene.getShapesAsArray();
+		this.rayIndex = 0;
+		this.shapeIndicesLength = scene.getShapeCount();
+		this.boundingVolumeHierarchyShapeIndices = scene.getBoundingVolumeHierarchyShapeIndices();
+		this.shapeIndices = scene.getShapeIndices();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private int doNextRayIndex() {
+		final int rayIndex = this.rayIndex;
+		
+		this.rayIndex = rayIndex + 1 < RAY_COUNT ? rayIndex + 1 : 0;
+		
+		return rayIndex;
+	}
+}
\ No newline at end of file
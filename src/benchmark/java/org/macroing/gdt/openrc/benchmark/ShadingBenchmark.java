@@ -0,0 +1,175 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.macroing.gdt.openrc.AbstractRayCasterKernel;
+import org.macroing.gdt.openrc.Constants;
+import org.macroing.gdt.openrc.geometry.Intersection;
+import org.macroing.gdt.openrc.geometry.Material;
+import org.macroing.gdt.openrc.geometry.Scene;
+import org.macroing.gdt.openrc.geometry.Shape;
+import org.macroing.gdt.openrc.geometry.Sphere;
+import org.macroing.gdt.openrc.geometry.Texture;
+import org.macroing.gdt.openrc.geometry.Triangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the spherical and planar triangle texture mapping of a single surface intersection point, and the gamma correction and tone mapping of a single pixel.
+ * <p>
+ * The texture mapping is measured for each texel format, as decoding the compact formats costs some arithmetic per texel fetch in exchange for less memory traffic.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+public class ShadingBenchmark {
+	private AbstractRayCasterKernel kernel;
+	private float[] materials;
+	private float[] pick;
+	private float[] pixels;
+	private float[] shapes;
+	private float[] sphereIntersections;
+	private float[] triangleIntersections;
+	private int sphereMaterialOffset;
+	private int sphereOffset;
+	private int sphereTextureOffset;
+	private int triangleMaterialOffset;
+	private int triangleOffset;
+	private int triangleTextureOffset;
+	private int[] rGB;
+	private int[] textures;
+	
+	/**
+	 * The texel format of the textures, which is either {@code BLOCK_COMPRESSED}, {@code RGB} or {@code RGB565}. The normal maps use {@code Texture.TYPE_NORMAL_MAP_XY} for all but {@code RGB}.
+	 */
+	@Param({"RGB", "RGB565", "BLOCK_COMPRESSED"})
+	public String textureFormat;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Benchmark
+	public float performPlanarTriangleTextureMapping() {
+		AbstractRayCasterKernel.clearPixel(this.pixels, 0);
+		
+		this.kernel.performPlanarTriangleTextureMapping(false, this.triangleIntersections, this.materials, this.pick, this.pixels, this.shapes, 0, this.triangleMaterialOffset, 0, this.triangleOffset, this.triangleTextureOffset, this.textures);
+		
+		return this.pixels[0];
+	}
+	
+	@Benchmark
+	public float performSphericalTextureMapping() {
+		AbstractRayCasterKernel.clearPixel(this.pixels, 0);
+		
+		this.kernel.performSphericalTextureMapping(false, this.sphereIntersections, this.materials, this.pick, this.pixels, this.shapes, 0, this.sphereMaterialOffset, 0, this.sphereOffset, this.sphereTextureOffset, this.textures);
+		
+		return this.pixels[0];
+	}
+	
+	@Benchmark
+	public int updatePixel() {
+		this.kernel.updatePixel(1.0F, this.pixels, 0, 0, this.rGB);
+		
+		return this.rGB[0];
+	}
+	
+	@Setup
+	public void setup() {
+		final int solidTextureType = this.textureFormat.equals("BLOCK_COMPRESSED") ? Texture.TYPE_SOLID_BLOCK_COMPRESSED : this.textureFormat.equals("RGB565") ? Texture.TYPE_SOLID_RGB565 : Texture.TYPE_SOLID;
+		final int normalMapTextureType = this.textureFormat.equals("RGB") ? Texture.TYPE_NORMAL_MAP : Texture.TYPE_NORMAL_MAP_XY;
+		
+		final Scene scene = Benchmarks.createScene(1, solidTextureType, normalMapTextureType);
+		
+		this.kernel = Benchmarks.createKernel();
+		this.materials = scene.getMaterialsAsArray();
+		this.pick = new float[Constants.SIZE_OF_PICK];
+		this.pixels = new float[] {0.8F, 0.5F, 0.2F, 0.0F, 0.0F, 0.0F};
+		this.shapes = scene.getShapesAsArray();
+		this.rGB = new int[1];
+		this.textures = scene.getTexturesAsArray();
+		
+		for(final Shape shape : scene.getShapesAsList()) {
+			if(shape instanceof Sphere) {
+				final Sphere sphere = Sphere.class.cast(shape);
+				
+				this.sphereOffset = shape.getIndex();
+				this.sphereMaterialOffset = (int)(this.shapes[this.sphereOffset + Shape.RELATIVE_OFFSET_OF_MATERIAL_OFFSET]);
+				this.sphereTextureOffset = doFindSolidTextureOffset(this.materials, this.textures, this.sphereMaterialOffset);
+				this.sphereIntersections = doCreateIntersection(this.kernel, this.shapes, this.sphereOffset, sphere.getX(), sphere.getY(), sphere.getZ() + sphere.getRadius() * 4.0F, 0.0F, 0.0F, -1.0F);
+			} else if(shape instanceof Triangle) {
+				this.triangleOffset = shape.getIndex();
+				this.triangleMaterialOffset = (int)(this.shapes[this.triangleOffset + Shape.RELATIVE_OFFSET_OF_MATERIAL_OFFSET]);
+				this.triangleTextureOffset = doFindSolidTextureOffset(this.materials, this.textures, this.triangleMaterialOffset);
+				this.triangleIntersections = doCreateIntersection(this.kernel, this.shapes, this.triangleOffset, 500.0F, 0.0F, 500.0F, 0.0F, 1.0F, 0.0F);
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static float[] doCreateIntersection(final AbstractRayCasterKernel kernel, final float[] shapes, final int shapeOffset, final float rayOriginX, final float rayOriginY, final float rayOriginZ, final float rayDirectionX, final float rayDirectionY, final float rayDirectionZ) {
+		final float[] intersections = Intersection.create(1);
+		final float[] rays = new float[Constants.SIZE_OF_RAY];
+		
+		rays[Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 0] = rayOriginX;
+		rays[Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 1] = rayOriginY;
+		rays[Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 2] = rayOriginZ;
+		rays[Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0] = rayDirectionX;
+		rays[Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1] = rayDirectionY;
+		rays[Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2] = rayDirectionZ;
+		
+		final float distance = kernel.findIntersection(true, false, intersections, new float[Constants.SIZE_OF_PICK], rays, shapes, 0, 0, 1, 0, new int[] {shapeOffset});
+		
+		if(distance >= Constants.MAXIMUM_DISTANCE) {
+			throw new IllegalStateException(String.format("The ray does not intersect the shape at offset %s.", Integer.toString(shapeOffset)));
+		}
+		
+		return intersections;
+	}
+	
+	private static int doFindSolidTextureOffset(final float[] materials, final int[] textures, final int materialOffset) {
+		final int textureCount = (int)(materials[materialOffset + Material.RELATIVE_OFFSET_OF_TEXTURE_COUNT]);
+		
+		for(int i = 0; i < textureCount; i++) {
+			final int textureOffset = (int)(materials[materialOffset + Material.RELATIVE_OFFSET_OF_TEXTURE_COUNT + i + 1]);
+			
+			if(textures[textureOffset + Texture.RELATIVE_OFFSET_OF_TYPE] == Texture.TYPE_SOLID) {
+				return textureOffset;
+			}
+		}
+		
+		throw new IllegalStateException(String.format("The material at offset %s has no solid texture.", Integer.toString(materialOffset)));
+	}
+}
\ No newline at end of file
@@ -20,21 +20,29 @@ package org.macroing.gdt.openrc;
 
 import static org.macroing.gdt.openrc.Mathematics.PI;
 
+import org.macroing.gdt.openrc.geometry.BoundingVolumeHierarchy;
 import org.macroing.gdt.openrc.geometry.Intersection;
 import org.macroing.gdt.openrc.geometry.Light;
 import org.macroing.gdt.openrc.geometry.Material;
+import org.macroing.gdt.openrc.geometry.PackedShapes;
 import org.macroing.gdt.openrc.geometry.Plane;
 import org.macroing.gdt.openrc.geometry.PointLight;
 import org.macroing.gdt.openrc.geometry.Shape;
 import org.macroing.gdt.openrc.geometry.Sphere;
 import org.macroing.gdt.openrc.geometry.Texture;
+import org.macroing.gdt.openrc.geometry.TextureCache;
 import org.macroing.gdt.openrc.geometry.Triangle;
 
 import com.amd.aparapi.Kernel;
 
 public abstract class AbstractRayCasterKernel extends Kernel {
+	public static final float LOG_2_RECIPROCAL = 1.0F / 0.6931472F;
 	public static final float PI_RECIPROCAL = 1.0F / PI;
 	public static final float RGB_RECIPROCAL = 1.0F / 255.0F;
+	public static final int INTERSECTION_MODE_BOUNDING_VOLUME_HIERARCHY = 1;
+	public static final int INTERSECTION_MODE_PACKED_SHAPES = 4;
+	public static final int INTERSECTION_MODE_SHAPE_INDICES = 2;
+	public static final int INTERSECTION_MODE_TILES = 3;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -44,7 +52,7 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	public float calculateShadeForPointLight(final boolean isUpdatingPick, final float[] intersections, final float[] lights, final float[] pick, final float[] rays, final float[] shapes, final int intersectionOffset, final int lightOffset, final int rayOffset, final int shapeIndicesLength, final int[] shapeIndices) {
+	public float calculateShadeForPointLight(final float[] boundingVolumeHierarchy, final float[] intersections, final float[] lights, final float[] packedPlanes, final float[] packedSpheres, final float[] packedTriangles, final float[] rays, final float[] shapes, final int intersectionMode, final int intersectionOffset, final int lightOffset, final int rayOffset, final int shapeIndicesLength, final int[] boundingVolumeHierarchyShapeIndices, final int[] shapeIndices) {
 //		Get the location of the point light:
 		final float pointLightX = lights[lightOffset + PointLight.RELATIVE_OFFSET_OF_POSITION + 0];
 		final float pointLightY = lights[lightOffset + PointLight.RELATIVE_OFFSET_OF_POSITION + 1];
@@ -82,21 +90,16 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		final float deltaZ = pointLightZ - surfaceIntersectionZ;
 		final float distance0 = sqrt(deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ);
 		
-//		Calculate the distance between the surface intersection point and the closest intersecting shape:
-		final float distance1 = findIntersectionFirst(intersections, pick, rays, shapes, shapeIndicesLength, shapeIndices);
+//		Calculate the distance between the surface intersection point and any intersecting shape in front of the point light, using either the bounding volume hierarchy, the shape indices or the packed shapes:
+		final float distance1 = intersectionMode == INTERSECTION_MODE_SHAPE_INDICES ? findIntersectionAny(distance0, rays, shapes, rayOffset, shapeIndicesLength, shapeIndices) : intersectionMode == INTERSECTION_MODE_PACKED_SHAPES ? findIntersectionAnyUsingPackedShapes(distance0, packedPlanes, packedSpheres, packedTriangles, rays, rayOffset) : findIntersectionAnyUsingBoundingVolumeHierarchy(distance0, boundingVolumeHierarchy, rays, shapes, rayOffset, boundingVolumeHierarchyShapeIndices);
 		
-//		Calculate the shade as 1.0 if, and only if, the distance between the surface intersection point and the point light is less than the distance between the surface intersection point and the closest intersecting shape, 0.0 otherwise:
+//		Calculate the shade as 1.0 if, and only if, the distance between the surface intersection point and the point light is less than the distance between the surface intersection point and any intersecting shape, 0.0 otherwise:
 		final float shade = distance0 < distance1 ? 1.0F : 0.0F;
 		
 		return shade;
 	}
 	
-	public float findIntersection(final boolean isPrimaryIntersection, final boolean isUpdatingPick, final float[] intersections, final float[] pick, final float[] rays, final float[] shapes, final int shapeIndicesLength, final int[] shapeIndices) {
-//		Initialize the index and offset values:
-		final int index = getGlobalId();
-		final int intersectionOffset = index * Intersection.SIZE;
-		final int rayOffset = index * Constants.SIZE_OF_RAY;
-		
+	public float findIntersection(final boolean isPrimaryIntersection, final boolean isUpdatingPick, final float[] intersections, final float[] pick, final float[] rays, final float[] shapes, final int intersectionOffset, final int rayOffset, final int shapeIndicesLength, final int shapeIndicesOffset, final int[] shapeIndices) {
 //		Initialize offset to closest shape:
 		int shapeClosestOffset = -1;
 		
@@ -118,28 +121,9 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET] = -1.0F;
 		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_DISTANCE] = Constants.MAXIMUM_DISTANCE;
 		
-		for(int i = 0, shapeOffset = shapeIndices[i]; i < shapeIndicesLength && shapeOffset >= 0; i++, shapeOffset = shapeIndices[min(i, shapeIndicesLength - 1)]) {
-//			Initialize the temporary type and size variables of the current shape:
-			final float shapeType = shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_TYPE];
-//			final float shapeSize = shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_SIZE];
-			
-//			Initialize the shape distance to the maximum value:
-			float shapeDistance = Constants.MAXIMUM_DISTANCE;
-			
-			if(shapeType == Plane.TYPE) {
-//				Update the shape distance based on the intersected plane:
-				shapeDistance = findIntersectionForPlane(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
-			}
-			
-			if(shapeType == Sphere.TYPE) {
-//				Update the shape distance based on the intersected sphere:
-				shapeDistance = findIntersectionForSphere(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
-			}
-			
-			if(shapeType == Triangle.TYPE) {
-//				Update the shape distance based on the intersected triangle:
-				shapeDistance = findIntersectionForTriangle(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
-			}
+		for(int i = 0, shapeOffset = shapeIndices[shapeIndicesOffset]; i < shapeIndicesLength && shapeOffset >= 0; i++, shapeOffset = shapeIndices[shapeIndicesOffset + min(i, shapeIndicesLength - 1)]) {
+//			Calculate the distance to the current shape:
+			final float shapeDistance = findIntersectionForShape(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
 			
 			if(shapeDistance > 0.0F && shapeDistance < shapeClosestDistance) {
 //				Update the distance to and the offset of the closest shape:
@@ -150,41 +134,43 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		
 		if(shapeClosestOffset > -1) {
 //			Update the intersections array with values found:
-			intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET] = shapeClosestOffset;
-			intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_DISTANCE] = shapeClosestDistance;
-			intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 0] = rayOriginX + rayDirectionX * shapeClosestDistance;
-			intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 1] = rayOriginY + rayDirectionY * shapeClosestDistance;
-			intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 2] = rayOriginZ + rayDirectionZ * shapeClosestDistance;
-			
-			if(shapes[shapeClosestOffset + Shape.RELATIVE_OFFSET_OF_TYPE] == Plane.TYPE) {
-//				Update the intersections array with the surface normal of the intersected plane:
-				updateSurfaceNormalForPlane(intersections, shapes, intersectionOffset, shapeClosestOffset);
-			}
-			
-			if(shapes[shapeClosestOffset + Shape.RELATIVE_OFFSET_OF_TYPE] == Sphere.TYPE) {
-//				Update the intersections array with the surface normal of the intersected sphere:
-				updateSurfaceNormalForSphere(intersections, shapes, intersectionOffset, shapeClosestOffset);
-			}
-			
-			if(shapes[shapeClosestOffset + Shape.RELATIVE_OFFSET_OF_TYPE] == Triangle.TYPE) {
-//				Update the intersections array with the surface normal of the intersected triangle:
-				updateSurfaceNormalForTriangle(intersections, shapes, intersectionOffset, shapeClosestOffset);
-			}
+			updateIntersection(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapeClosestDistance, intersections, shapes, intersectionOffset, shapeClosestOffset);
 		}
 		
 		return shapeClosestDistance;
 	}
 	
-	public float findIntersectionFirst(final float[] intersections, final float[] pick, final float[] rays, final float[] shapes, final int shapeIndicesLength, final int[] shapeIndices) {
-//		Initialize the index and offset values:
-		final int index = getGlobalId();
-		final int rayOffset = index * Constants.SIZE_OF_RAY;
+	public float findIntersectionAny(final float maximumDistance, final float[] rays, final float[] shapes, final int rayOffset, final int shapeIndicesLength, final int[] shapeIndices) {
+//		Initialize distance to the intersected shape:
+		float shapeHitDistance = Constants.MAXIMUM_DISTANCE;
 		
-//		Initialize offset to closest shape:
-		int shapeClosestOffset = -1;
+		final int rayOriginOffset = Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1;
+		final int rayDirectionOffset = Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1;
 		
-//		Initialize distance to closest shape:
-		float shapeClosestDistance = Constants.MAXIMUM_DISTANCE;
+//		Initialize the ray values (origin and direction):
+		final float rayOriginX = rays[rayOffset + rayOriginOffset + 0];
+		final float rayOriginY = rays[rayOffset + rayOriginOffset + 1];
+		final float rayOriginZ = rays[rayOffset + rayOriginOffset + 2];
+		final float rayDirectionX = rays[rayOffset + rayDirectionOffset + 0];
+		final float rayDirectionY = rays[rayOffset + rayDirectionOffset + 1];
+		final float rayDirectionZ = rays[rayOffset + rayDirectionOffset + 2];
+		
+		for(int i = 0, shapeOffset = shapeIndices[i]; shapeHitDistance == Constants.MAXIMUM_DISTANCE && i < shapeIndicesLength && shapeOffset >= 0; i++, shapeOffset = shapeIndices[min(i, shapeIndicesLength - 1)]) {
+//			Calculate the distance to the current shape:
+			final float shapeDistance = findIntersectionForShape(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
+			
+			if(shapeDistance > 0.0F && shapeDistance < maximumDistance) {
+//				Update the distance to the intersected shape, which terminates the loop:
+				shapeHitDistance = shapeDistance;
+			}
+		}
+		
+		return shapeHitDistance;
+	}
+	
+	public float findIntersectionAnyUsingBoundingVolumeHierarchy(final float maximumDistance, final float[] boundingVolumeHierarchy, final float[] rays, final float[] shapes, final int rayOffset, final int[] boundingVolumeHierarchyShapeIndices) {
+//		Initialize distance to the intersected shape:
+		float shapeHitDistance = Constants.MAXIMUM_DISTANCE;
 		
 		final int rayOriginOffset = Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1;
 		final int rayDirectionOffset = Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1;
@@ -197,37 +183,257 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		final float rayDirectionY = rays[rayOffset + rayDirectionOffset + 1];
 		final float rayDirectionZ = rays[rayOffset + rayDirectionOffset + 2];
 		
-		for(int i = 0, shapeOffset = shapeIndices[i]; shapeClosestOffset == -1 && i < shapeIndicesLength && shapeOffset >= 0; i++, shapeOffset = shapeIndices[min(i, shapeIndicesLength - 1)]) {
-//			Initialize the temporary type and size variables of the current shape:
-			final float shapeType = shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_TYPE];
-//			final float shapeSize = shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_SIZE];
+//		Initialize a variable with the smallest ray direction component to use when calculating its reciprocal:
+		final float rayDirectionMinimum = 1.e-9F;
+		
+//		Initialize the reciprocal of the ray direction, where components close to 0.0 are clamped, so no infinities or NaNs are produced by the bounding box test:
+		final float rayDirectionReciprocalX = 1.0F / (abs(rayDirectionX) > rayDirectionMinimum ? rayDirectionX : rayDirectionMinimum);
+		final float rayDirectionReciprocalY = 1.0F / (abs(rayDirectionY) > rayDirectionMinimum ? rayDirectionY : rayDirectionMinimum);
+		final float rayDirectionReciprocalZ = 1.0F / (abs(rayDirectionZ) > rayDirectionMinimum ? rayDirectionZ : rayDirectionMinimum);
+		
+//		Traverse the nodes in depth-first order until a shape closer than the maximum distance has been intersected:
+		for(int nodeOffset = 0; shapeHitDistance == Constants.MAXIMUM_DISTANCE && nodeOffset != -1;) {
+//			Initialize the next offset and shape values of the current node:
+			final int nextOffset = (int)(boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_NEXT_OFFSET]);
+			final int shapeCount = (int)(boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_SHAPE_COUNT]);
+			final int shapeIndex = (int)(boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_SHAPE_INDEX]);
 			
-//			Initialize the shape distance to the maximum value:
-			float shapeDistance = Constants.MAXIMUM_DISTANCE;
+//			Calculate the distance to the bounding box of the current node:
+			final float nodeDistance = findIntersectionForBoundingVolumeHierarchyNode(rayOriginX, rayOriginY, rayOriginZ, rayDirectionReciprocalX, rayDirectionReciprocalY, rayDirectionReciprocalZ, boundingVolumeHierarchy, nodeOffset);
 			
-			if(shapeType == Plane.TYPE) {
-//				Update the shape distance based on the intersected plane:
-				shapeDistance = findIntersectionForPlane(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
+			if(nodeDistance < maximumDistance) {
+				for(int i = 0; shapeHitDistance == Constants.MAXIMUM_DISTANCE && i < shapeCount; i++) {
+//					Initialize the offset of the current shape:
+					final int shapeOffset = boundingVolumeHierarchyShapeIndices[shapeIndex + i];
+					
+//					Calculate the distance to the current shape:
+					final float shapeDistance = findIntersectionForShape(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
+					
+					if(shapeDistance > 0.0F && shapeDistance < maximumDistance) {
+//						Update the distance to the intersected shape, which terminates the traversal:
+						shapeHitDistance = shapeDistance;
+					}
+				}
+				
+//				Continue with the left child of an inner node, or the next node of a leaf:
+				nodeOffset = shapeCount > 0 ? nextOffset : nodeOffset + BoundingVolumeHierarchy.SIZE;
+			} else {
+//				Skip the current node and all of its children:
+				nodeOffset = nextOffset;
 			}
+		}
+		
+		return shapeHitDistance;
+	}
+	
+	public float findIntersectionAnyUsingPackedShapes(final float maximumDistance, final float[] packedPlanes, final float[] packedSpheres, final float[] packedTriangles, final float[] rays, final int rayOffset) {
+//		Initialize distance to the intersected shape:
+		float shapeHitDistance = Constants.MAXIMUM_DISTANCE;
+		
+		final int rayOriginOffset = Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1;
+		final int rayDirectionOffset = Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1;
+		
+//		Initialize the ray values (origin and direction):
+		final float rayOriginX = rays[rayOffset + rayOriginOffset + 0];
+		final float rayOriginY = rays[rayOffset + rayOriginOffset + 1];
+		final float rayOriginZ = rays[rayOffset + rayOriginOffset + 2];
+		final float rayDirectionX = rays[rayOffset + rayDirectionOffset + 0];
+		final float rayDirectionY = rays[rayOffset + rayDirectionOffset + 1];
+		final float rayDirectionZ = rays[rayOffset + rayDirectionOffset + 2];
+		
+//		Initialize the number of shapes of each type:
+		final int planeCount = (int)(packedPlanes[PackedShapes.RELATIVE_OFFSET_OF_COUNT]);
+		final int sphereCount = (int)(packedSpheres[PackedShapes.RELATIVE_OFFSET_OF_COUNT]);
+		final int triangleCount = (int)(packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_COUNT]);
+		
+		for(int i = 0; shapeHitDistance == Constants.MAXIMUM_DISTANCE && i < sphereCount; i++) {
+//			Calculate the distance to the current sphere:
+			final float shapeDistance = findIntersectionForPackedSphere(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, packedSpheres, sphereCount, i);
 			
-			if(shapeType == Sphere.TYPE) {
-//				Update the shape distance based on the intersected sphere:
-				shapeDistance = findIntersectionForSphere(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
+			if(shapeDistance > 0.0F && shapeDistance < maximumDistance) {
+//				Update the distance to the intersected shape, which terminates the loops:
+				shapeHitDistance = shapeDistance;
 			}
+		}
+		
+		for(int i = 0; shapeHitDistance == Constants.MAXIMUM_DISTANCE && i < triangleCount; i++) {
+//			Calculate the distance to the current triangle:
+			final float shapeDistance = findIntersectionForPackedTriangle(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, packedTriangles, triangleCount, i);
 			
-			if(shapeType == Triangle.TYPE) {
-//				Update the shape distance based on the intersected triangle:
-				shapeDistance = findIntersectionForTriangle(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
+			if(shapeDistance > 0.0F && shapeDistance < maximumDistance) {
+//				Update the distance to the intersected shape, which terminates the loops:
+				shapeHitDistance = shapeDistance;
 			}
+		}
+		
+		for(int i = 0; shapeHitDistance == Constants.MAXIMUM_DISTANCE && i < planeCount; i++) {
+//			Calculate the distance to the current plane:
+			final float shapeDistance = findIntersectionForPackedPlane(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, packedPlanes, planeCount, i);
 			
-			if(shapeDistance > 0.0F && shapeDistance < shapeClosestDistance) {
-//				Update the distance to and the offset of the closest shape:
-				shapeClosestDistance = shapeDistance;
-				shapeClosestOffset = shapeOffset;
+			if(shapeDistance > 0.0F && shapeDistance < maximumDistance) {
+//				Update the distance to the intersected shape, which terminates the loops:
+				shapeHitDistance = shapeDistance;
 			}
 		}
 		
-		return shapeClosestDistance;
+		return shapeHitDistance;
+	}
+	
+	public float findIntersectionForBoundingVolumeHierarchyNode(final float rayOriginX, final float rayOriginY, final float rayOriginZ, final float rayDirectionReciprocalX, final float rayDirectionReciprocalY, final float rayDirectionReciprocalZ, final float[] boundingVolumeHierarchy, final int nodeOffset) {
+//		Initialize the temporary minimum and maximum variables of the current node:
+		final float minimumX = boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_MINIMUM + 0];
+		final float minimumY = boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_MINIMUM + 1];
+		final float minimumZ = boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_MINIMUM + 2];
+		final float maximumX = boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_MAXIMUM + 0];
+		final float maximumY = boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_MAXIMUM + 1];
+		final float maximumZ = boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_MAXIMUM + 2];
+		
+//		Calculate the distances to the slabs of the bounding box:
+		final float t0X = (minimumX - rayOriginX) * rayDirectionReciprocalX;
+		final float t0Y = (minimumY - rayOriginY) * rayDirectionReciprocalY;
+		final float t0Z = (minimumZ - rayOriginZ) * rayDirectionReciprocalZ;
+		final float t1X = (maximumX - rayOriginX) * rayDirectionReciprocalX;
+		final float t1Y = (maximumY - rayOriginY) * rayDirectionReciprocalY;
+		final float t1Z = (maximumZ - rayOriginZ) * rayDirectionReciprocalZ;
+		
+//		Calculate the distances to where the ray enters and exits the bounding box:
+		final float tMinimum = max(max(max(min(t0X, t1X), min(t0Y, t1Y)), min(t0Z, t1Z)), 0.0F);
+		final float tMaximum = min(min(max(t0X, t1X), max(t0Y, t1Y)), max(t0Z, t1Z));
+		
+//		Initialize the node distance variable:
+		final float nodeDistance = tMaximum >= tMinimum ? tMinimum : Constants.MAXIMUM_DISTANCE;
+		
+		return nodeDistance;
+	}
+	
+	public float findIntersectionForPackedPlane(final float rayOriginX, final float rayOriginY, final float rayOriginZ, final float rayDirectionX, final float rayDirectionY, final float rayDirectionZ, final float[] packedPlanes, final int planeCount, final int planeIndex) {
+//		Initialize a variable with the plane constant:
+		final float planeConstant = -2.0F;
+		
+//		Initialize the temporary X-, Y- and Z- variables of the current plane, where each field of all planes is packed together:
+		final float planeSurfaceNormalX = packedPlanes[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.PLANE_FIELD_OF_SURFACE_NORMAL + 0) * planeCount + planeIndex];
+		final float planeSurfaceNormalY = packedPlanes[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.PLANE_FIELD_OF_SURFACE_NORMAL + 1) * planeCount + planeIndex];
+		final float planeSurfaceNormalZ = packedPlanes[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.PLANE_FIELD_OF_SURFACE_NORMAL + 2) * planeCount + planeIndex];
+		
+//		Calculate the dot product:
+		final float dotProduct = rayDirectionX * planeSurfaceNormalX + rayDirectionY * planeSurfaceNormalY + rayDirectionZ * planeSurfaceNormalZ;
+		
+//		Calculate the distance, or 0.0 if the ray is parallel to the plane:
+		final float shapeDistance = abs(dotProduct) >= Constants.EPSILON ? (planeConstant - (rayOriginX * planeSurfaceNormalX + rayOriginY * planeSurfaceNormalY + rayOriginZ * planeSurfaceNormalZ)) / dotProduct : 0.0F;
+		
+		return shapeDistance;
+	}
+	
+	public float findIntersectionForPackedSphere(final float rayOriginX, final float rayOriginY, final float rayOriginZ, final float rayDirectionX, final float rayDirectionY, final float rayDirectionZ, final float[] packedSpheres, final int sphereCount, final int sphereIndex) {
+//		Initialize the temporary X-, Y-, Z- and radius squared variables of the current sphere, where each field of all spheres is packed together:
+		final float sphereX = packedSpheres[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.SPHERE_FIELD_OF_POSITION + 0) * sphereCount + sphereIndex];
+		final float sphereY = packedSpheres[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.SPHERE_FIELD_OF_POSITION + 1) * sphereCount + sphereIndex];
+		final float sphereZ = packedSpheres[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.SPHERE_FIELD_OF_POSITION + 2) * sphereCount + sphereIndex];
+		final float sphereRadiusSquared = packedSpheres[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + PackedShapes.SPHERE_FIELD_OF_RADIUS_SQUARED * sphereCount + sphereIndex];
+		
+//		Calculate the delta values between the current sphere and the origin of the camera:
+		final float dx = sphereX - rayOriginX;
+		final float dy = sphereY - rayOriginY;
+		final float dz = sphereZ - rayOriginZ;
+		
+//		Calculate the dot product:
+		final float b = dx * rayDirectionX + dy * rayDirectionY + dz * rayDirectionZ;
+		
+//		Calculate the discriminant and its square root, which is clamped so no NaNs are produced when the sphere is missed:
+		final float discriminant = b * b - (dx * dx + dy * dy + dz * dz) + sphereRadiusSquared;
+		final float discriminantSquareRoot = sqrt(max(discriminant, 0.0F));
+		
+//		Calculate the distances to the near and far intersections:
+		final float shapeDistance0 = b - discriminantSquareRoot;
+		final float shapeDistance1 = b + discriminantSquareRoot;
+		
+//		Select the nearest distance in front of the ray, or 0.0 if the sphere is missed or we're too close to it:
+		final float shapeDistance = discriminant >= 0.0F ? shapeDistance0 > Constants.EPSILON ? shapeDistance0 : shapeDistance1 > Constants.EPSILON ? shapeDistance1 : 0.0F : 0.0F;
+		
+		return shapeDistance;
+	}
+	
+	public float findIntersectionForPackedTriangle(final float rayOriginX, final float rayOriginY, final float rayOriginZ, final float rayDirectionX, final float rayDirectionY, final float rayDirectionZ, final float[] packedTriangles, final int triangleCount, final int triangleIndex) {
+//		Initialize the X-, Y- and Z-values of the A point of the triangle, where each field of all triangles is packed together:
+		final float triangleAX = packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_FIELD_OF_A + 0) * triangleCount + triangleIndex];
+		final float triangleAY = packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_FIELD_OF_A + 1) * triangleCount + triangleIndex];
+		final float triangleAZ = packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_FIELD_OF_A + 2) * triangleCount + triangleIndex];
+		
+//		Initialize the precomputed X-, Y- and Z-values of the first edge of the triangle:
+		final float edge0X = packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_FIELD_OF_EDGE_0 + 0) * triangleCount + triangleIndex];
+		final float edge0Y = packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_FIELD_OF_EDGE_0 + 1) * triangleCount + triangleIndex];
+		final float edge0Z = packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_FIELD_OF_EDGE_0 + 2) * triangleCount + triangleIndex];
+		
+//		Initialize the precomputed X-, Y- and Z-values of the second edge of the triangle:
+		final float edge1X = packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_FIELD_OF_EDGE_1 + 0) * triangleCount + triangleIndex];
+		final float edge1Y = packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_FIELD_OF_EDGE_1 + 1) * triangleCount + triangleIndex];
+		final float edge1Z = packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_FIELD_OF_EDGE_1 + 2) * triangleCount + triangleIndex];
+		
+//		Calculate the cross product between the ray direction and the second edge:
+		final float pX = rayDirectionY * edge1Z - rayDirectionZ * edge1Y;
+		final float pY = rayDirectionZ * edge1X - rayDirectionX * edge1Z;
+		final float pZ = rayDirectionX * edge1Y - rayDirectionY * edge1X;
+		
+//		Calculate the determinant and its reciprocal:
+		final float determinant = edge0X * pX + edge0Y * pY + edge0Z * pZ;
+		final float determinantReciprocal = 1.0F / determinant;
+		
+//		Calculate the direction between the ray origin and the triangle A point:
+		final float vX = rayOriginX - triangleAX;
+		final float vY = rayOriginY - triangleAY;
+		final float vZ = rayOriginZ - triangleAZ;
+		
+//		Calculate the cross product between the previously calculated direction (between the ray origin and the triangle A point) and the first edge:
+		final float qX = vY * edge0Z - vZ * edge0Y;
+		final float qY = vZ * edge0X - vX * edge0Z;
+		final float qZ = vX * edge0Y - vY * edge0X;
+		
+//		Calculate the barycentric coordinates and the distance, by multiplying the dot products with the reciprocal of the determinant:
+		final float u = (vX * pX + vY * pY + vZ * pZ) * determinantReciprocal;
+		final float v = (rayDirectionX * qX + rayDirectionY * qY + rayDirectionZ * qZ) * determinantReciprocal;
+		final float t = (edge1X * qX + edge1Y * qY + edge1Z * qZ) * determinantReciprocal;
+		
+//		Select the distance if, and only if, the ray hits the triangle, 0.0 otherwise:
+		final float shapeDistance = determinant != 0.0F && u >= 0.0F && u <= 1.0F && v >= 0.0F && u + v <= 1.0F ? t : 0.0F;
+		
+		return shapeDistance;
+	}
+	
+	public float findIntersectionForPackedTriangleUsingProjection(final float rayOriginX, final float rayOriginY, final float rayOriginZ, final float rayDirectionX, final float rayDirectionY, final float rayDirectionZ, final float[] packedTriangleProjections, final int triangleCount, final int triangleIndex) {
+//		Initialize the precomputed projection axis of the triangle, which is the dominant axis of its geometric normal, where each field of all triangles is packed together:
+		final int axis = (int)(packedTriangleProjections[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + PackedShapes.TRIANGLE_PROJECTION_FIELD_OF_AXIS * triangleCount + triangleIndex]);
+		
+//		Initialize the precomputed plane equation of the triangle, divided by the component of the geometric normal along the projection axis:
+		final float normalU = packedTriangleProjections[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_PROJECTION_FIELD_OF_NORMAL + 0) * triangleCount + triangleIndex];
+		final float normalV = packedTriangleProjections[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_PROJECTION_FIELD_OF_NORMAL + 1) * triangleCount + triangleIndex];
+		final float normalD = packedTriangleProjections[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_PROJECTION_FIELD_OF_NORMAL + 2) * triangleCount + triangleIndex];
+		
+//		Initialize the ray origin and direction components along the projection axis (K) and the two other axes (U and V):
+		final float rayOriginK = axis == 0 ? rayOriginX : axis == 1 ? rayOriginY : rayOriginZ;
+		final float rayOriginU = axis == 0 ? rayOriginY : axis == 1 ? rayOriginZ : rayOriginX;
+		final float rayOriginV = axis == 0 ? rayOriginZ : axis == 1 ? rayOriginX : rayOriginY;
+		final float rayDirectionK = axis == 0 ? rayDirectionX : axis == 1 ? rayDirectionY : rayDirectionZ;
+		final float rayDirectionU = axis == 0 ? rayDirectionY : axis == 1 ? rayDirectionZ : rayDirectionX;
+		final float rayDirectionV = axis == 0 ? rayDirectionZ : axis == 1 ? rayDirectionX : rayDirectionY;
+		
+//		Calculate the denominator, which is 0.0 if the ray is parallel to the plane of the triangle:
+		final float denominator = rayDirectionK + normalU * rayDirectionU + normalV * rayDirectionV;
+		
+//		Calculate the distance to the plane of the triangle:
+		final float t = (normalD - rayOriginK - normalU * rayOriginU - normalV * rayOriginV) / denominator;
+		
+//		Calculate the point on the plane of the triangle, projected onto the U- and V-axes:
+		final float hitU = rayOriginU + t * rayDirectionU;
+		final float hitV = rayOriginV + t * rayDirectionV;
+		
+//		Calculate the barycentric coordinates of B and C from the precomputed linear functions of the projected point:
+		final float beta = hitU * packedTriangleProjections[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_PROJECTION_FIELD_OF_BETA + 0) * triangleCount + triangleIndex] + hitV * packedTriangleProjections[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_PROJECTION_FIELD_OF_BETA + 1) * triangleCount + triangleIndex] + packedTriangleProjections[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_PROJECTION_FIELD_OF_BETA + 2) * triangleCount + triangleIndex];
+		final float gamma = hitU * packedTriangleProjections[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_PROJECTION_FIELD_OF_GAMMA + 0) * triangleCount + triangleIndex] + hitV * packedTriangleProjections[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_PROJECTION_FIELD_OF_GAMMA + 1) * triangleCount + triangleIndex] + packedTriangleProjections[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + (PackedShapes.TRIANGLE_PROJECTION_FIELD_OF_GAMMA + 2) * triangleCount + triangleIndex];
+		
+//		Select the distance if, and only if, the ray hits the triangle, 0.0 otherwise:
+		final float shapeDistance = denominator != 0.0F && beta >= 0.0F && gamma >= 0.0F && beta + gamma <= 1.0F ? t : 0.0F;
+		
+		return shapeDistance;
 	}
 	
 	public float findIntersectionForPlane(final float rayOriginX, final float rayOriginY, final float rayOriginZ, final float rayDirectionX, final float rayDirectionY, final float rayDirectionZ, final float[] shapes, final int shapeOffset) {
@@ -254,6 +460,32 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		return shapeDistance;
 	}
 	
+	public float findIntersectionForShape(final float rayOriginX, final float rayOriginY, final float rayOriginZ, final float rayDirectionX, final float rayDirectionY, final float rayDirectionZ, final float[] shapes, final int shapeOffset) {
+//		Initialize the temporary type and size variables of the current shape:
+		final float shapeType = shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_TYPE];
+//		final float shapeSize = shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_SIZE];
+		
+//		Initialize the shape distance to the maximum value:
+		float shapeDistance = Constants.MAXIMUM_DISTANCE;
+		
+		if(shapeType == Plane.TYPE) {
+//			Update the shape distance based on the intersected plane:
+			shapeDistance = findIntersectionForPlane(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
+		}
+		
+		if(shapeType == Sphere.TYPE) {
+//			Update the shape distance based on the intersected sphere:
+			shapeDistance = findIntersectionForSphere(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
+		}
+		
+		if(shapeType == Triangle.TYPE) {
+//			Update the shape distance based on the intersected triangle:
+			shapeDistance = findIntersectionForTriangle(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
+		}
+		
+		return shapeDistance;
+	}
+	
 	public float findIntersectionForSphere(final float rayOriginX, final float rayOriginY, final float rayOriginZ, final float rayDirectionX, final float rayDirectionY, final float rayDirectionZ, final float[] shapes, final int shapeOffset) {
 //		Initialize the temporary X-, Y-, Z- and radius variables of the current sphere:
 		final float sphereX = shapes[shapeOffset + Sphere.RELATIVE_OFFSET_OF_POSITION + 0];
@@ -296,10 +528,295 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		return shapeDistance;
 	}
 	
+	public float findIntersectionUsingBoundingVolumeHierarchy(final boolean isPrimaryIntersection, final float[] boundingVolumeHierarchy, final float[] intersections, final float[] rays, final float[] shapes, final int intersectionOffset, final int rayOffset, final int[] boundingVolumeHierarchyShapeIndices) {
+//		Initialize offset to closest shape:
+		int shapeClosestOffset = -1;
+		
+//		Initialize distance to closest shape:
+		float shapeClosestDistance = Constants.MAXIMUM_DISTANCE;
+		
+		final int rayOriginOffset = isPrimaryIntersection ? Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 : Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1;
+		final int rayDirectionOffset = isPrimaryIntersection ? Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 : Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1;
+		
+//		Initialize the ray values (origin and direction):
+		final float rayOriginX = rays[rayOffset + rayOriginOffset + 0];
+		final float rayOriginY = rays[rayOffset + rayOriginOffset + 1];
+		final float rayOriginZ = rays[rayOffset + rayOriginOffset + 2];
+		final float rayDirectionX = rays[rayOffset + rayDirectionOffset + 0];
+		final float rayDirectionY = rays[rayOffset + rayDirectionOffset + 1];
+		final float rayDirectionZ = rays[rayOffset + rayDirectionOffset + 2];
+		
+//		Initialize a variable with the smallest ray direction component to use when calculating its reciprocal:
+		final float rayDirectionMinimum = 1.e-9F;
+		
+//		Initialize the reciprocal of the ray direction, where components close to 0.0 are clamped, so no infinities or NaNs are produced by the bounding box test:
+		final float rayDirectionReciprocalX = 1.0F / (abs(rayDirectionX) > rayDirectionMinimum ? rayDirectionX : rayDirectionMinimum);
+		final float rayDirectionReciprocalY = 1.0F / (abs(rayDirectionY) > rayDirectionMinimum ? rayDirectionY : rayDirectionMinimum);
+		final float rayDirectionReciprocalZ = 1.0F / (abs(rayDirectionZ) > rayDirectionMinimum ? rayDirectionZ : rayDirectionMinimum);
+		
+//		Reset the float array intersections, so we can perform a new intersection test:
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET] = -1.0F;
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_DISTANCE] = Constants.MAXIMUM_DISTANCE;
+		
+//		Traverse the nodes in depth-first order, following the next offset of a node whenever it is missed or is a leaf:
+		for(int nodeOffset = 0; nodeOffset != -1;) {
+//			Initialize the next offset and shape values of the current node:
+			final int nextOffset = (int)(boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_NEXT_OFFSET]);
+			final int shapeCount = (int)(boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_SHAPE_COUNT]);
+			final int shapeIndex = (int)(boundingVolumeHierarchy[nodeOffset + BoundingVolumeHierarchy.RELATIVE_OFFSET_OF_SHAPE_INDEX]);
+			
+//			Calculate the distance to the bounding box of the current node:
+			final float nodeDistance = findIntersectionForBoundingVolumeHierarchyNode(rayOriginX, rayOriginY, rayOriginZ, rayDirectionReciprocalX, rayDirectionReciprocalY, rayDirectionReciprocalZ, boundingVolumeHierarchy, nodeOffset);
+			
+			if(nodeDistance < shapeClosestDistance) {
+				for(int i = 0; i < shapeCount; i++) {
+//					Initialize the offset of the current shape:
+					final int shapeOffset = boundingVolumeHierarchyShapeIndices[shapeIndex + i];
+					
+//					Calculate the distance to the current shape:
+					final float shapeDistance = findIntersectionForShape(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapes, shapeOffset);
+					
+					if(shapeDistance > 0.0F && shapeDistance < shapeClosestDistance) {
+//						Update the distance to and the offset of the closest shape:
+						shapeClosestDistance = shapeDistance;
+						shapeClosestOffset = shapeOffset;
+					}
+				}
+				
+//				Continue with the left child of an inner node, or the next node of a leaf:
+				nodeOffset = shapeCount > 0 ? nextOffset : nodeOffset + BoundingVolumeHierarchy.SIZE;
+			} else {
+//				Skip the current node and all of its children:
+				nodeOffset = nextOffset;
+			}
+		}
+		
+		if(shapeClosestOffset > -1) {
+//			Update the intersections array with values found:
+			updateIntersection(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapeClosestDistance, intersections, shapes, intersectionOffset, shapeClosestOffset);
+		}
+		
+		return shapeClosestDistance;
+	}
+	
+	public float findIntersectionUsingPackedShapes(final boolean isPrimaryIntersection, final boolean isUsingTriangleProjection, final float[] intersections, final float[] packedPlanes, final float[] packedSpheres, final float[] packedTriangleProjections, final float[] packedTriangles, final float[] rays, final float[] shapes, final int intersectionOffset, final int rayOffset) {
+//		Initialize offset to closest shape:
+		int shapeClosestOffset = -1;
+		
+//		Initialize distance to closest shape:
+		float shapeClosestDistance = Constants.MAXIMUM_DISTANCE;
+		
+		final int rayOriginOffset = isPrimaryIntersection ? Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 : Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1;
+		final int rayDirectionOffset = isPrimaryIntersection ? Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 : Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1;
+		
+//		Initialize the ray values (origin and direction):
+		final float rayOriginX = rays[rayOffset + rayOriginOffset + 0];
+		final float rayOriginY = rays[rayOffset + rayOriginOffset + 1];
+		final float rayOriginZ = rays[rayOffset + rayOriginOffset + 2];
+		final float rayDirectionX = rays[rayOffset + rayDirectionOffset + 0];
+		final float rayDirectionY = rays[rayOffset + rayDirectionOffset + 1];
+		final float rayDirectionZ = rays[rayOffset + rayDirectionOffset + 2];
+		
+//		Initialize the number of shapes of each type:
+		final int planeCount = (int)(packedPlanes[PackedShapes.RELATIVE_OFFSET_OF_COUNT]);
+		final int sphereCount = (int)(packedSpheres[PackedShapes.RELATIVE_OFFSET_OF_COUNT]);
+		final int triangleCount = (int)(packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_COUNT]);
+		
+//		Reset the float array intersections, so we can perform a new intersection test:
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET] = -1.0F;
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_DISTANCE] = Constants.MAXIMUM_DISTANCE;
+		
+//		Loop through each type of shape separately, so no loop has to branch on the type of the shape:
+		for(int i = 0; i < sphereCount; i++) {
+//			Calculate the distance to the current sphere:
+			final float shapeDistance = findIntersectionForPackedSphere(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, packedSpheres, sphereCount, i);
+			
+			if(shapeDistance > 0.0F && shapeDistance < shapeClosestDistance) {
+//				Update the distance to and the offset of the closest shape:
+				shapeClosestDistance = shapeDistance;
+				shapeClosestOffset = (int)(packedSpheres[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + PackedShapes.SPHERE_FIELD_OF_SHAPE_OFFSET * sphereCount + i]);
+			}
+		}
+		
+		for(int i = 0; i < triangleCount; i++) {
+//			Calculate the distance to the current triangle, using either the intersection test of Wald or the one of Moller-Trumbore:
+			final float shapeDistance = isUsingTriangleProjection ? findIntersectionForPackedTriangleUsingProjection(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, packedTriangleProjections, triangleCount, i) : findIntersectionForPackedTriangle(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, packedTriangles, triangleCount, i);
+			
+			if(shapeDistance > 0.0F && shapeDistance < shapeClosestDistance) {
+//				Update the distance to and the offset of the closest shape:
+				shapeClosestDistance = shapeDistance;
+				shapeClosestOffset = (int)(packedTriangles[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + PackedShapes.TRIANGLE_FIELD_OF_SHAPE_OFFSET * triangleCount + i]);
+			}
+		}
+		
+		for(int i = 0; i < planeCount; i++) {
+//			Calculate the distance to the current plane:
+			final float shapeDistance = findIntersectionForPackedPlane(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, packedPlanes, planeCount, i);
+			
+			if(shapeDistance > 0.0F && shapeDistance < shapeClosestDistance) {
+//				Update the distance to and the offset of the closest shape:
+				shapeClosestDistance = shapeDistance;
+				shapeClosestOffset = (int)(packedPlanes[PackedShapes.RELATIVE_OFFSET_OF_FIELDS + PackedShapes.PLANE_FIELD_OF_SHAPE_OFFSET * planeCount + i]);
+			}
+		}
+		
+		if(shapeClosestOffset > -1) {
+//			Update the intersections array with values found, where the shape offset resolves the rest of the data of the shape:
+			updateIntersection(rayOriginX, rayOriginY, rayOriginZ, rayDirectionX, rayDirectionY, rayDirectionZ, shapeClosestDistance, intersections, shapes, intersectionOffset, shapeClosestOffset);
+		}
+		
+		return shapeClosestDistance;
+	}
+	
 	public float length(final float[] vector, final int offset) {
 		return sqrt(lengthSquared(vector, offset));
 	}
 	
+	public int calculateTextureLevel(final float texelDensity, final float[] intersections, final int intersectionOffset, final int textureOffset, final int[] textures) {
+//		Calculate the number of texels of level 0 covered by the pixel footprint:
+		final float texelFootprint = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_PIXEL_FOOTPRINT] * texelDensity;
+		
+//		Calculate the level, where each level halves the number of texels covered:
+		final int level = texelFootprint > 1.0F ? (int)(log(texelFootprint) * LOG_2_RECIPROCAL + 0.5F) : 0;
+		
+		return min(level, textures[textureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_COUNT] - 1);
+	}
+	
+	public int calculateTexturePageId(final int level, final int textureOffset, final int textureX, final int textureY, final int[] textures) {
+//		Initialize the width and height of the level, and the number of pages per row of it:
+		final int levelWidth = max(textures[textureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH] >> level, 1);
+		final int levelHeight = max(textures[textureOffset + Texture.RELATIVE_OFFSET_OF_HEIGHT] >> level, 1);
+		final int pageCountX = (levelWidth + TextureCache.PAGE_SIZE - 1) / TextureCache.PAGE_SIZE;
+		
+//		Scale the X- and Y-values of level 0 down to the level:
+		final int levelX = min(textureX >> level, levelWidth - 1);
+		final int levelY = min(textureY >> level, levelHeight - 1);
+		
+		return textures[textureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level] + (levelY / TextureCache.PAGE_SIZE) * pageCountX + levelX / TextureCache.PAGE_SIZE;
+	}
+	
+	public int decodeBlockCompressedTexel(final int endpoints, final int indices, final int texelIndex) {
+//		Initialize the two RGB565 endpoints of the block:
+		final int rGB0 = decodeRGB565Texel(endpoints & 0xFFFF);
+		final int rGB1 = decodeRGB565Texel((endpoints >> 16) & 0xFFFF);
+		
+//		Initialize the weight of the first endpoint, in thirds, given the 2-bit index of the texel:
+		final int index = (indices >> (texelIndex * 2)) & 3;
+		final int weight = index == 0 ? 3 : index == 1 ? 0 : index == 2 ? 2 : 1;
+		
+//		Interpolate between the two endpoints:
+		final int r = (((rGB0 >> 16) & 0xFF) * weight + ((rGB1 >> 16) & 0xFF) * (3 - weight) + 1) / 3;
+		final int g = (((rGB0 >> 8) & 0xFF) * weight + ((rGB1 >> 8) & 0xFF) * (3 - weight) + 1) / 3;
+		final int b = ((rGB0 & 0xFF) * weight + (rGB1 & 0xFF) * (3 - weight) + 1) / 3;
+		
+		return (r << 16) | (g << 8) | b;
+	}
+	
+	public int decodeRGB565Texel(final int bits) {
+		final int r = (bits >> 11) & 0x1F;
+		final int g = (bits >> 5) & 0x3F;
+		final int b = bits & 0x1F;
+		
+		return (((r << 3) | (r >> 2)) << 16) | (((g << 2) | (g >> 4)) << 8) | ((b << 3) | (b >> 2));
+	}
+	
+	public int decodeXYTexel(final int bits) {
+//		Initialize the X- and Y-components of the normal:
+		final int r = (bits >> 8) & 0xFF;
+		final int g = bits & 0xFF;
+		
+		final float x = r * (2.0F / 255.0F) - 1.0F;
+		final float y = g * (2.0F / 255.0F) - 1.0F;
+		
+//		Reconstruct the positive Z-component of the unit vector:
+		final float z = sqrt(max(1.0F - x * x - y * y, 0.0F));
+		
+		final int b = (int)((z * 0.5F + 0.5F) * 255.0F + 0.5F);
+		
+		return (r << 16) | (g << 8) | b;
+	}
+	
+	public int fetchTexel(final float[] intersections, final int intersectionOffset, final int level, final int textureOffset, final int textureX, final int textureY, final int[] textures) {
+//		Initialize the width and height of level 0, the format and whether the texture is a virtual texture, whose levels are split into pages that may not be resident:
+		final int textureWidth = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH];
+		final int textureHeight = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_HEIGHT];
+		final int textureFormat = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_FORMAT];
+		final int format = textureFormat & (TextureCache.FORMAT_FLAG_VIRTUAL - 1);
+		final int levelCount = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_COUNT];
+		
+		final boolean isVirtual = textureFormat >= TextureCache.FORMAT_FLAG_VIRTUAL;
+		
+//		Wrap the X- and Y-values around level 0:
+		final int wrappedX = ((textureX % textureWidth) + textureWidth) % textureWidth;
+		final int wrappedY = ((textureY % textureHeight) + textureHeight) % textureHeight;
+		
+//		Initialize the ID of the requested page and the length of the page table, if the texture is a virtual texture:
+		final int requestedPageId = isVirtual ? calculateTexturePageId(level, textureOffset, wrappedX, wrappedY, textures) : 0;
+		final int pageTableLength = isVirtual ? textures[textureOffset + TextureCache.RELATIVE_OFFSET_OF_PAGE_TABLE_LENGTH] : 0;
+		
+		int fetchedLevel = level;
+		int slotOffset = isVirtual ? findTexturePageSlotOffset(requestedPageId, pageTableLength, textures) : 0;
+		
+		while(isVirtual && slotOffset < 0 && fetchedLevel + 1 < levelCount) {
+//			The requested page is not resident, so fall back to the closest coarser level whose page is:
+			fetchedLevel = fetchedLevel + 1;
+			slotOffset = findTexturePageSlotOffset(calculateTexturePageId(fetchedLevel, textureOffset, wrappedX, wrappedY, textures), pageTableLength, textures);
+		}
+		
+		if(isVirtual && (fetchedLevel != level || slotOffset < 0 || intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_TEXTURE_PAGE_REQUEST + 0] < 0.0F)) {
+//			Request the page, where a page that is not resident replaces any other request of the intersection, and where the ID is split in two 16-bit halves, such that both are exact as float values:
+			intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_TEXTURE_PAGE_REQUEST + 0] = requestedPageId >> 16;
+			intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_TEXTURE_PAGE_REQUEST + 1] = requestedPageId & 0xFFFF;
+		}
+		
+//		Initialize the width and height of the level to fetch from, and scale the X- and Y-values down to it:
+		final int levelWidth = max(textureWidth >> fetchedLevel, 1);
+		final int levelHeight = max(textureHeight >> fetchedLevel, 1);
+		final int levelX = min(wrappedX >> fetchedLevel, levelWidth - 1);
+		final int levelY = min(wrappedY >> fetchedLevel, levelHeight - 1);
+		
+//		Initialize the offset, the width and the X- and Y-values of the data to fetch from, which is either the level or the page of a virtual texture, whose rows are at most TextureCache.PAGE_SIZE texels wide:
+		final int dataOffset = isVirtual ? slotOffset : textureOffset + textures[textureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_OFFSETS + fetchedLevel];
+		final int dataWidth = isVirtual ? min(levelWidth, TextureCache.PAGE_SIZE) : levelWidth;
+		final int dataX = isVirtual ? levelX % TextureCache.PAGE_SIZE : levelX;
+		final int dataY = isVirtual ? levelY % TextureCache.PAGE_SIZE : levelY;
+		
+//		Calculate the index of the texel in the data:
+		final int dataIndex = dataY * dataWidth + dataX;
+		
+//		Calculate the index of the block with the texel, in case the format is block compressed, where each block of 4 by 4 texels is stored in two int values:
+		final int blockIndex = dataOffset + ((dataY >> 2) * ((dataWidth + 3) >> 2) + (dataX >> 2)) * 2;
+		
+//		Fetch the RGB-value by decoding the texel given the format, where the 16-bit formats store two texels per int value, or take the fallback RGB-value of a virtual texture none of whose levels has a resident page:
+		return isVirtual && slotOffset < 0 ? textures[textureOffset + TextureCache.RELATIVE_OFFSET_OF_FALLBACK_RGB] : format == Texture.FORMAT_BLOCK_COMPRESSED ? decodeBlockCompressedTexel(textures[blockIndex], textures[blockIndex + 1], (dataY & 3) * 4 + (dataX & 3)) : format == Texture.FORMAT_RGB565 ? decodeRGB565Texel((textures[dataOffset + dataIndex / 2] >> ((dataIndex & 1) * 16)) & 0xFFFF) : format == Texture.FORMAT_XY ? decodeXYTexel((textures[dataOffset + dataIndex / 2] >> ((dataIndex & 1) * 16)) & 0xFFFF) : textures[dataOffset + dataIndex];
+	}
+	
+	public int findTexturePageSlotOffset(final int pageId, final int pageTableLength, final int[] textures) {
+//		Hash the page ID in the same way as TextureCache, and initialize the index of the first page table entry to probe, where the length of the page table is a power of two:
+		final int hash = (pageId ^ (pageId >> 16)) * 0x45D9F3B;
+		
+		int index = (hash ^ (hash >> 16)) & (pageTableLength - 1);
+		int probeCount = 0;
+		int slotOffset = -1;
+		
+		boolean isProbing = true;
+		
+		while(isProbing) {
+			final int entryPageId = textures[index * TextureCache.PAGE_TABLE_ENTRY_SIZE + 0];
+			
+			slotOffset = entryPageId == pageId ? textures[index * TextureCache.PAGE_TABLE_ENTRY_SIZE + 1] : -1;
+			
+			probeCount = probeCount + 1;
+			
+//			Probe the next entry, until the page is found or an empty entry ends the run of entries the page could be stored in:
+			isProbing = entryPageId != pageId && entryPageId >= 0 && probeCount < pageTableLength;
+			
+			index = (index + 1) & (pageTableLength - 1);
+		}
+		
+		return slotOffset;
+	}
+	
 	public void addAmbientLightBRDF(final boolean isUpdatingPick, final float[] intersections, final float[] materials, final float[] pick, final float[] pixels, final float[] shapes, final int intersectionOffset, final int materialOffset, final int pixelOffset, final int shapeOffset, final int[] textures) {
 //		Get the ambient intensity:
 		final float ambientIntensity = materials[materialOffset + Material.RELATIVE_OFFSET_OF_AMBIENT_INTENSITY];
@@ -376,7 +893,7 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		}
 	}
 	
-	public void attemptToAddDirectLight(final boolean isUpdatingPick, final float[] intersections, final float[] lights, final float[] materials, final float[] pick, final float[] pixels, final float[] rays, final float[] shapes, final int intersectionOffset, final int lightsLength, final int materialOffset, final int pixelOffset, final int rayOffset, final int shapeIndicesLength, final int shapeOffset, final int[] shapeIndices, final int[] textures) {
+	public void attemptToAddDirectLight(final boolean isUpdatingPick, final float[] boundingVolumeHierarchy, final float[] intersections, final float[] lights, final float[] materials, final float[] packedPlanes, final float[] packedSpheres, final float[] packedTriangles, final float[] pick, final float[] pixels, final float[] rays, final float[] shapes, final int intersectionMode, final int intersectionOffset, final int lightsLength, final int materialOffset, final int pixelOffset, final int rayOffset, final int shapeIndicesLength, final int shapeOffset, final int[] boundingVolumeHierarchyShapeIndices, final int[] shapeIndices, final int[] textures) {
 //		Get the outgoing direction vector:
 		final float woX = -rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0];
 		final float woY = -rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1];
@@ -395,7 +912,7 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 			j = (int)(lightSize);
 			
 			if(lightType == PointLight.TYPE) {
-				final float shade = calculateShadeForPointLight(isUpdatingPick, intersections, lights, pick, rays, shapes, intersectionOffset, i, rayOffset, shapeIndicesLength, shapeIndices);
+				final float shade = calculateShadeForPointLight(boundingVolumeHierarchy, intersections, lights, packedPlanes, packedSpheres, packedTriangles, rays, shapes, intersectionMode, intersectionOffset, i, rayOffset, shapeIndicesLength, boundingVolumeHierarchyShapeIndices, shapeIndices);
 				
 				if(shade > 0.0F) {
 //					Get the location from the point light:
@@ -540,18 +1057,8 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 			final float factorBLength = sqrt(factorBX * factorBX + factorBY * factorBY + factorBZ * factorBZ);
 			final float factorCLength = sqrt(factorCX * factorCX + factorCY * factorCY + factorCZ * factorCZ);
 			
-			final float deltaABX = triangleAX - triangleBX;
-			final float deltaABY = triangleAY - triangleBY;
-			final float deltaABZ = triangleAZ - triangleBZ;
-			final float deltaACX = triangleAX - triangleCX;
-			final float deltaACY = triangleAY - triangleCY;
-			final float deltaACZ = triangleAZ - triangleCZ;
-			
-			final float crossProduct0X = deltaABY * deltaACZ - deltaABZ * deltaACY;
-			final float crossProduct0Y = deltaABZ * deltaACX - deltaABX * deltaACZ;
-			final float crossProduct0Z = deltaABX * deltaACY - deltaABY * deltaACX;
-			
-			final float lengthReciprocal0 = 1.0F / sqrt(crossProduct0X * crossProduct0X + crossProduct0Y * crossProduct0Y + crossProduct0Z * crossProduct0Z);
+//			Initialize the precomputed reciprocal of twice the area of the triangle:
+			final float lengthReciprocal0 = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_AREA_RECIPROCAL];
 			
 			final float crossProduct1X = factorBY * factorCZ - factorBZ * factorCY;
 			final float crossProduct1Y = factorBZ * factorCX - factorBX * factorCZ;
@@ -591,9 +1098,26 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 			final int textureX = (int)(IEEEremainder(textureU * factorALength + textureU * factorBLength + textureU * factorCLength, textureWidth));
 			final int textureY = (int)(IEEEremainder(textureV * factorALength + textureV * factorBLength + textureV * factorCLength, textureHeight));
 			
-//			Calculate the index of the RGB-value and fetch the RGB-value using said index:
-			final int textureIndex = textureY * textureWidth + textureX;
-			final int textureRGB = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_DATA + (int)(IEEEremainder(abs(textureIndex), textureWidth * textureHeight))];
+//			Calculate the gradient of the sum of the distances to the vertices of the triangle, which scales the UV-coordinates above:
+			final float factorLengthSum = factorALength + factorBLength + factorCLength;
+			final float factorLengthSumGradientX = -(factorAX / factorALength + factorBX / factorBLength + factorCX / factorCLength);
+			final float factorLengthSumGradientY = -(factorAY / factorALength + factorBY / factorBLength + factorCY / factorCLength);
+			final float factorLengthSumGradientZ = -(factorAZ / factorALength + factorBZ / factorBLength + factorCZ / factorCLength);
+			
+//			Calculate the texel density, which is the number of texels per unit of distance on the surface of the triangle, from the gradients of the X- and Y-values of the texture (the U-value follows X and the V-value follows Z):
+			final float textureXGradientX = factorLengthSum * 0.001F + textureU * factorLengthSumGradientX;
+			final float textureXGradientY = textureU * factorLengthSumGradientY;
+			final float textureXGradientZ = textureU * factorLengthSumGradientZ;
+			final float textureYGradientX = textureV * factorLengthSumGradientX;
+			final float textureYGradientY = textureV * factorLengthSumGradientY;
+			final float textureYGradientZ = factorLengthSum * 0.001F + textureV * factorLengthSumGradientZ;
+			final float texelDensity = sqrt(max(textureXGradientX * textureXGradientX + textureXGradientY * textureXGradientY + textureXGradientZ * textureXGradientZ, textureYGradientX * textureYGradientX + textureYGradientY * textureYGradientY + textureYGradientZ * textureYGradientZ));
+			
+//			Calculate the level of the mip chain to fetch the RGB-value from, using the pixel footprint and the texel density:
+			final int textureLevel = calculateTextureLevel(texelDensity, intersections, intersectionOffset, textureOffset, textures);
+			
+//			Fetch the RGB-value from said level:
+			final int textureRGB = fetchTexel(intersections, intersectionOffset, textureLevel, textureOffset, textureX, textureY, textures);
 			
 //			Calculate the R-, G- and B-components of the RGB-value:
 			float r = toR(textureRGB) * RGB_RECIPROCAL - 0.5F;
@@ -652,18 +1176,8 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		final float factorBLength = sqrt(factorBX * factorBX + factorBY * factorBY + factorBZ * factorBZ);
 		final float factorCLength = sqrt(factorCX * factorCX + factorCY * factorCY + factorCZ * factorCZ);
 		
-		final float deltaABX = triangleAX - triangleBX;
-		final float deltaABY = triangleAY - triangleBY;
-		final float deltaABZ = triangleAZ - triangleBZ;
-		final float deltaACX = triangleAX - triangleCX;
-		final float deltaACY = triangleAY - triangleCY;
-		final float deltaACZ = triangleAZ - triangleCZ;
-		
-		final float crossProduct0X = deltaABY * deltaACZ - deltaABZ * deltaACY;
-		final float crossProduct0Y = deltaABZ * deltaACX - deltaABX * deltaACZ;
-		final float crossProduct0Z = deltaABX * deltaACY - deltaABY * deltaACX;
-		
-		final float lengthReciprocal0 = 1.0F / sqrt(crossProduct0X * crossProduct0X + crossProduct0Y * crossProduct0Y + crossProduct0Z * crossProduct0Z);
+//		Initialize the precomputed reciprocal of twice the area of the triangle:
+		final float lengthReciprocal0 = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_AREA_RECIPROCAL];
 		
 		final float crossProduct1X = factorBY * factorCZ - factorBZ * factorCY;
 		final float crossProduct1Y = factorBZ * factorCX - factorBX * factorCZ;
@@ -703,9 +1217,26 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		final int textureX = (int)(IEEEremainder(textureU * factorALength + textureU * factorBLength + textureU * factorCLength, textureWidth));
 		final int textureY = (int)(IEEEremainder(textureV * factorALength + textureV * factorBLength + textureV * factorCLength, textureHeight));
 		
-//		Calculate the index of the RGB-value and fetch the RGB-value using said index:
-		final int textureIndex = textureY * textureWidth + textureX;
-		final int textureRGB = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_DATA + (int)(IEEEremainder(abs(textureIndex), textureWidth * textureHeight))];
+//		Calculate the gradient of the sum of the distances to the vertices of the triangle, which scales the UV-coordinates above:
+		final float factorLengthSum = factorALength + factorBLength + factorCLength;
+		final float factorLengthSumGradientX = -(factorAX / factorALength + factorBX / factorBLength + factorCX / factorCLength);
+		final float factorLengthSumGradientY = -(factorAY / factorALength + factorBY / factorBLength + factorCY / factorCLength);
+		final float factorLengthSumGradientZ = -(factorAZ / factorALength + factorBZ / factorBLength + factorCZ / factorCLength);
+		
+//		Calculate the texel density, which is the number of texels per unit of distance on the surface of the triangle, from the gradients of the X- and Y-values of the texture (the U-value follows X and the V-value follows Z):
+		final float textureXGradientX = factorLengthSum * 0.001F + textureU * factorLengthSumGradientX;
+		final float textureXGradientY = textureU * factorLengthSumGradientY;
+		final float textureXGradientZ = textureU * factorLengthSumGradientZ;
+		final float textureYGradientX = textureV * factorLengthSumGradientX;
+		final float textureYGradientY = textureV * factorLengthSumGradientY;
+		final float textureYGradientZ = factorLengthSum * 0.001F + textureV * factorLengthSumGradientZ;
+		final float texelDensity = sqrt(max(textureXGradientX * textureXGradientX + textureXGradientY * textureXGradientY + textureXGradientZ * textureXGradientZ, textureYGradientX * textureYGradientX + textureYGradientY * textureYGradientY + textureYGradientZ * textureYGradientZ));
+		
+//		Calculate the level of the mip chain to fetch the RGB-value from, using the pixel footprint and the texel density:
+		final int textureLevel = calculateTextureLevel(texelDensity, intersections, intersectionOffset, textureOffset, textures);
+		
+//		Fetch the RGB-value from said level:
+		final int textureRGB = fetchTexel(intersections, intersectionOffset, textureLevel, textureOffset, textureX, textureY, textures);
 		
 //		Calculate the R-, G- and B-components of the RGB-value:
 		float r = toR(textureRGB) * RGB_RECIPROCAL;
@@ -719,7 +1250,7 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 			b = b < 0.5F ? 0.0F : ((b - 0.5F) * 2.0F);
 			
 			if(isUpdatingPick) {
-				pick[Constants.RELATIVE_OFFSET_OF_PICK_TEXTURE_OFFSET] = textureOffset;
+				pick[Constants.RELATIVE_OFFSET_OF_PICK_TEXTURE_OFFSET] = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_FORMAT] >= TextureCache.FORMAT_FLAG_VIRTUAL ? textures[textureOffset + TextureCache.RELATIVE_OFFSET_OF_TEXTURE_OFFSET] : textureOffset;
 				pick[Constants.RELATIVE_OFFSET_OF_PICK_TEXTURE_UV + 0] = textureX;
 				pick[Constants.RELATIVE_OFFSET_OF_PICK_TEXTURE_UV + 1] = textureY;
 			}
@@ -768,9 +1299,16 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 			final int textureX = (int)(textureWidth * ((textureU + 1.0F) * 0.5F));
 			final int textureY = (int)(textureHeight * ((textureV + 1.0F) * 0.5F));
 			
-//			Calculate the index of the RGB-value and fetch the RGB-value using said index:
-			final int textureIndex = textureY * textureWidth + textureX;
-			final int textureRGB = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_DATA + textureIndex];
+//			Calculate the texel density, which is the number of texels per unit of distance on the surface of the sphere, where the U-value spans a circle of latitude and the V-value spans half a circle of longitude:
+			final float radius = sqrt(dx * dx + dy * dy + dz * dz);
+			final float latitudeCosine = max(sqrt(max(1.0F - distanceY * distanceY, 0.0F)), 0.001F);
+			final float texelDensity = max(textureWidth * 0.25F * PI_RECIPROCAL / (radius * latitudeCosine), textureHeight * 0.5F * PI_RECIPROCAL / radius);
+			
+//			Calculate the level of the mip chain to fetch the RGB-value from, using the pixel footprint and the texel density:
+			final int textureLevel = calculateTextureLevel(texelDensity, intersections, intersectionOffset, textureOffset, textures);
+			
+//			Fetch the RGB-value from said level:
+			final int textureRGB = fetchTexel(intersections, intersectionOffset, textureLevel, textureOffset, textureX, textureY, textures);
 			
 //			Calculate the R-, G- and B-components of the RGB-value:
 			float r = toR(textureRGB) * RGB_RECIPROCAL - 0.5F;
@@ -834,9 +1372,16 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		final int textureX = (int)(textureWidth * ((textureU + 1.0F) * 0.5F));
 		final int textureY = (int)(textureHeight * ((textureV + 1.0F) * 0.5F));
 		
-//		Calculate the index of the RGB-value and fetch the RGB-value using said index:
-		final int textureIndex = textureY * textureWidth + textureX;
-		final int textureRGB = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_DATA + textureIndex];
+//		Calculate the texel density, which is the number of texels per unit of distance on the surface of the sphere, where the U-value spans a circle of latitude and the V-value spans half a circle of longitude:
+		final float radius = sqrt(dx * dx + dy * dy + dz * dz);
+		final float latitudeCosine = max(sqrt(max(1.0F - distanceY * distanceY, 0.0F)), 0.001F);
+		final float texelDensity = max(textureWidth * 0.25F * PI_RECIPROCAL / (radius * latitudeCosine), textureHeight * 0.5F * PI_RECIPROCAL / radius);
+		
+//		Calculate the level of the mip chain to fetch the RGB-value from, using the pixel footprint and the texel density:
+		final int textureLevel = calculateTextureLevel(texelDensity, intersections, intersectionOffset, textureOffset, textures);
+		
+//		Fetch the RGB-value from said level:
+		final int textureRGB = fetchTexel(intersections, intersectionOffset, textureLevel, textureOffset, textureX, textureY, textures);
 		
 //		Calculate the R-, G- and B-components of the RGB-value:
 		float r = toR(textureRGB) * RGB_RECIPROCAL;
@@ -856,7 +1401,7 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		pixels[pixelOffset + 2] += b;
 		
 		if(isUpdatingPick) {
-			pick[Constants.RELATIVE_OFFSET_OF_PICK_TEXTURE_OFFSET] = textureOffset;
+			pick[Constants.RELATIVE_OFFSET_OF_PICK_TEXTURE_OFFSET] = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_FORMAT] >= TextureCache.FORMAT_FLAG_VIRTUAL ? textures[textureOffset + TextureCache.RELATIVE_OFFSET_OF_TEXTURE_OFFSET] : textureOffset;
 			pick[Constants.RELATIVE_OFFSET_OF_PICK_TEXTURE_UV + 0] = textureX;
 			pick[Constants.RELATIVE_OFFSET_OF_PICK_TEXTURE_UV + 1] = textureY;
 		}
@@ -889,6 +1434,30 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		}
 	}
 	
+	public void updateIntersection(final float rayOriginX, final float rayOriginY, final float rayOriginZ, final float rayDirectionX, final float rayDirectionY, final float rayDirectionZ, final float shapeDistance, final float[] intersections, final float[] shapes, final int intersectionOffset, final int shapeOffset) {
+//		Update the intersections array with the shape offset, the distance and the surface intersection point:
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET] = shapeOffset;
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_DISTANCE] = shapeDistance;
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 0] = rayOriginX + rayDirectionX * shapeDistance;
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 1] = rayOriginY + rayDirectionY * shapeDistance;
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 2] = rayOriginZ + rayDirectionZ * shapeDistance;
+		
+		if(shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_TYPE] == Plane.TYPE) {
+//			Update the intersections array with the surface normal of the intersected plane:
+			updateSurfaceNormalForPlane(intersections, shapes, intersectionOffset, shapeOffset);
+		}
+		
+		if(shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_TYPE] == Sphere.TYPE) {
+//			Update the intersections array with the surface normal of the intersected sphere:
+			updateSurfaceNormalForSphere(intersections, shapes, intersectionOffset, shapeOffset);
+		}
+		
+		if(shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_TYPE] == Triangle.TYPE) {
+//			Update the intersections array with the surface normal of the intersected triangle:
+			updateSurfaceNormalForTriangle(intersections, shapes, intersectionOffset, shapeOffset);
+		}
+	}
+	
 	public void updateSurfaceNormalForSphere(final float[] intersections, final float[] shapes, final int intersectionOffset, final int shapeOffset) {
 //		Initialize variables with the position of the sphere:
 		final float sphereX = shapes[shapeOffset + Sphere.RELATIVE_OFFSET_OF_POSITION + 0];
@@ -978,25 +1547,15 @@ public abstract class AbstractRayCasterKernel extends Kernel {
 		final float triangleAY = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_A + 1];
 		final float triangleAZ = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_A + 2];
 		
-//		Initialize the X-, Y- and Z-values of the B point of the triangle:
-		final float triangleBX = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_B + 0];
-		final float triangleBY = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_B + 1];
-		final float triangleBZ = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_B + 2];
-		
-//		Initialize the X-, Y- and Z-values of the C point of the triangle:
-		final float triangleCX = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_C + 0];
-		final float triangleCY = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_C + 1];
-		final float triangleCZ = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_C + 2];
-		
-//		Calculate the X-, Y- and Z-values of the first edge of the triangle:
-		final float edge0X = triangleBX - triangleAX;
-		final float edge0Y = triangleBY - triangleAY;
-		final float edge0Z = triangleBZ - triangleAZ;
+//		Initialize the precomputed X-, Y- and Z-values of the first edge of the triangle:
+		final float edge0X = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_EDGE_0 + 0];
+		final float edge0Y = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_EDGE_0 + 1];
+		final float edge0Z = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_EDGE_0 + 2];
 		
-//		Calculate the X-, Y- and Z-values of the second edge of the triangle:
-		final float edge1X = triangleCX - triangleAX;
-		final float edge1Y = triangleCY - triangleAY;
-		final float edge1Z = triangleCZ - triangleAZ;
+//		Initialize the precomputed X-, Y- and Z-values of the second edge of the triangle:
+		final float edge1X = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_EDGE_1 + 0];
+		final float edge1Y = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_EDGE_1 + 1];
+		final float edge1Z = shapes[shapeOffset + Triangle.RELATIVE_OFFSET_OF_EDGE_1 + 2];
 		
 //		Calculate the cross product between the ray direction and the second edge:
 		final float pX = rayDirectionY * edge1Z - rayDirectionZ * edge1Y;
@@ -33,66 +33,258 @@ import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferInt;
 import java.awt.image.WritableRaster;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 
+import org.macroing.gdt.openrc.geometry.Frustum;
+import org.macroing.gdt.openrc.geometry.Light;
+import org.macroing.gdt.openrc.geometry.PointLight;
 import org.macroing.gdt.openrc.geometry.Scene;
 import org.macroing.gdt.openrc.geometry.Shape;
+import org.macroing.gdt.openrc.geometry.Texture;
+import org.macroing.gdt.openrc.geometry.TextureCache;
+import org.macroing.gdt.openrc.geometry.TileGrid;
 import org.macroing.gdt.openrc.swing.AbsoluteLayout;
 import org.macroing.gdt.openrc.swing.JBufferedImagePanel;
 import org.macroing.gdt.openrc.swing.SwingUtilities2;
+import org.macroing.gdt.openrc.util.Ranges;
 
 import com.amd.aparapi.Kernel;
+import com.amd.aparapi.Kernel.EXECUTION_MODE;
 import com.amd.aparapi.Range;
 
 public abstract class Application implements KeyListener, MouseMotionListener {
+	private final AtomicBoolean isAdaptive = new AtomicBoolean(true);
+	private final AtomicBoolean isCachingShading = new AtomicBoolean();
+	private final AtomicBoolean isCheckerboard = new AtomicBoolean();
+	private final AtomicBoolean isKeepingShadowCasters = new AtomicBoolean(true);
 	private final AtomicBoolean isLightUpdateRequired = new AtomicBoolean();
+	private final AtomicBoolean isMipmapping = new AtomicBoolean(true);
+	private final AtomicBoolean isPipelining = new AtomicBoolean(true);
+	private final AtomicBoolean isProgressive = new AtomicBoolean(true);
 	private final AtomicBoolean isRecenteringMouse = new AtomicBoolean(true);
 	private final AtomicBoolean isRunning = new AtomicBoolean();
+	private final AtomicBoolean isShowingFrameProfiler = new AtomicBoolean();
 	private final AtomicBoolean isTextureUpdateRequired = new AtomicBoolean();
+	private final AtomicBoolean isUsingDynamicResolution = new AtomicBoolean(true);
+	private final AtomicBoolean isUsingForkJoinPool = new AtomicBoolean();
+	private final AtomicInteger intersectionMode = new AtomicInteger(AbstractRayCasterKernel.INTERSECTION_MODE_BOUNDING_VOLUME_HIERARCHY);
+	private final AtomicInteger maximumDepth = new AtomicInteger();
 	private final AtomicInteger mouseLeft = new AtomicInteger();
 	private final AtomicInteger mouseUp = new AtomicInteger();
+	private final AtomicInteger pixelOrder = new AtomicInteger(RayCasterKernel.PIXEL_ORDER_SCANLINE);
+	private final AtomicLong textureUpdateCount = new AtomicLong();
+	private final AtomicReference<EXECUTION_MODE> executionMode = new AtomicReference<>();
+	private final AtomicReference<Range> range = new AtomicReference<>(doCreateRange(Constants.WIDTH / Constants.WIDTH_SCALE, Constants.HEIGHT / Constants.HEIGHT_SCALE));
 	private final boolean[] isKeyPressed = new boolean[1024];
-	private final BufferedImage bufferedImage = new BufferedImage(Constants.WIDTH / Constants.WIDTH_SCALE, Constants.HEIGHT / Constants.HEIGHT_SCALE, BufferedImage.TYPE_INT_RGB);
+	private final BufferedImage bufferedImage0 = new BufferedImage(Constants.WIDTH / Constants.WIDTH_SCALE, Constants.HEIGHT / Constants.HEIGHT_SCALE, BufferedImage.TYPE_INT_RGB);
+	private final BufferedImage bufferedImage1 = new BufferedImage(Constants.WIDTH / Constants.WIDTH_SCALE, Constants.HEIGHT / Constants.HEIGHT_SCALE, BufferedImage.TYPE_INT_RGB);
+	private final DynamicResolution dynamicResolution = new DynamicResolution(Constants.WIDTH / Constants.WIDTH_SCALE, Constants.HEIGHT / Constants.HEIGHT_SCALE, Constants.WIDTH / Constants.WIDTH_SCALE / 4, Constants.HEIGHT / Constants.HEIGHT_SCALE / 4);
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor(Application::doCreateRenderThread);
 	private final float[] pick = new float[Constants.SIZE_OF_PICK];
+	private final float[] renderedPick = new float[Constants.SIZE_OF_PICK];
 	private final FPSCounter fPSCounter = new FPSCounter();
-	private final int[] rGB;
+	private final ForkJoinPool forkJoinPool = new ForkJoinPool();
+	private final FrameProfiler frameProfiler = new FrameProfiler();
+	private final Frustum frustum = new Frustum();
+	private final int[] rGB0;
+	private final int[] rGB1;
+	private final JBufferedImagePanel jBufferedImagePanel;
 	private final JFrame jFrame;
-	private final Kernel kernel;
+	private final List<Shape> visibleShapes = new ArrayList<>();
+	private final RayCasterKernel kernel;
 	private final Point centerPoint = new Point();
-	private final Range range = Range.create((Constants.WIDTH / Constants.WIDTH_SCALE) * (Constants.HEIGHT / Constants.HEIGHT_SCALE));
+	private final Queue<int[]> texelUpdates = new ConcurrentLinkedQueue<>();
 	private final Robot robot = doCreateRobot();
 	private final Scene scene;
+	private final TileGrid tileGrid = new TileGrid(Constants.WIDTH / Constants.WIDTH_SCALE, Constants.HEIGHT / Constants.HEIGHT_SCALE);
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	protected Application(final Scene scene) {
-		this.rGB = doToRGB(this.bufferedImage);
+		this.rGB0 = doToRGB(this.bufferedImage0);
+		this.rGB1 = doToRGB(this.bufferedImage1);
 		this.scene = scene;
-		this.jFrame = doCreateJFrame(this.bufferedImage, this::render);
-		this.kernel = new RayCasterKernel(this.pick, this.rGB, this.scene);
+		this.jBufferedImagePanel = doCreateJBufferedImagePanel(this.bufferedImage0, this::render);
+		this.jFrame = doCreateJFrame(this.jBufferedImagePanel);
+		this.kernel = new RayCasterKernel(this.renderedPick, this.rGB0, this.rGB1, this.scene, this.tileGrid);
+		this.executionMode.set(this.kernel.getExecutionMode());
+	}
+	
+	protected Application(final Scene scene, final TextureCache textureCache) {
+		this.rGB0 = doToRGB(this.bufferedImage0);
+		this.rGB1 = doToRGB(this.bufferedImage1);
+		this.scene = scene;
+		this.jBufferedImagePanel = doCreateJBufferedImagePanel(this.bufferedImage0, this::render);
+		this.jFrame = doCreateJFrame(this.jBufferedImagePanel);
+		this.kernel = new RayCasterKernel(this.renderedPick, this.rGB0, this.rGB1, this.scene, textureCache, this.tileGrid);
+		this.executionMode.set(this.kernel.getExecutionMode());
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	/**
+	 * Returns {@code true} if, and only if, adaptive supersampling is enabled.
+	 * 
+	 * @return {@code true} if, and only if, adaptive supersampling is enabled
+	 */
+	public final boolean isAdaptive() {
+		return this.isAdaptive.get();
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the shading cache is enabled.
+	 * 
+	 * @return {@code true} if, and only if, the shading cache is enabled
+	 */
+	public final boolean isCachingShading() {
+		return this.isCachingShading.get();
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, checkerboard rendering is enabled.
+	 * 
+	 * @return {@code true} if, and only if, checkerboard rendering is enabled
+	 */
+	public final boolean isCheckerboard() {
+		return this.isCheckerboard.get();
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, view frustum culling keeps the shapes outside of the view frustum that may cast shadows into it.
+	 * 
+	 * @return {@code true} if, and only if, view frustum culling keeps the shapes outside of the view frustum that may cast shadows into it
+	 */
+	public final boolean isKeepingShadowCasters() {
+		return this.isKeepingShadowCasters.get();
+	}
+	
 	public final boolean isKeyPressed(final int keyCode) {
 		return this.isKeyPressed[keyCode];
 	}
 	
+	/**
+	 * Returns {@code true} if, and only if, mipmapping is enabled.
+	 * 
+	 * @return {@code true} if, and only if, mipmapping is enabled
+	 */
+	public final boolean isMipmapping() {
+		return this.isMipmapping.get();
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the rendering is pipelined.
+	 * 
+	 * @return {@code true} if, and only if, the rendering is pipelined
+	 */
+	public final boolean isPipelining() {
+		return this.isPipelining.get();
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, progressive rendering is enabled.
+	 * 
+	 * @return {@code true} if, and only if, progressive rendering is enabled
+	 */
+	public final boolean isProgressive() {
+		return this.isProgressive.get();
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the {@link FrameProfiler} should be shown as an overlay.
+	 * 
+	 * @return {@code true} if, and only if, the {@code FrameProfiler} should be shown as an overlay
+	 */
+	public final boolean isShowingFrameProfiler() {
+		return this.isShowingFrameProfiler.get();
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the resolution is adjusted by the {@link DynamicResolution} to hold its target frame time.
+	 * 
+	 * @return {@code true} if, and only if, the resolution is adjusted by the {@code DynamicResolution} to hold its target frame time
+	 */
+	public final boolean isUsingDynamicResolution() {
+		return this.isUsingDynamicResolution.get();
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the rays are cast in Java using a {@code ForkJoinPool}, rather than by executing the {@code Kernel} in its execution mode.
+	 * 
+	 * @return {@code true} if, and only if, the rays are cast in Java using a {@code ForkJoinPool}
+	 */
+	public final boolean isUsingForkJoinPool() {
+		return this.isUsingForkJoinPool.get();
+	}
+	
+	/**
+	 * Returns the pick result of the frame that was displayed last.
+	 * <p>
+	 * The pick result is copied from the one written by the {@code Kernel} whenever a frame is displayed, so it does not change while {@link #update()} reads it, even if the next frame is rendering.
+	 * 
+	 * @return the pick result of the frame that was displayed last
+	 */
 	public final float[] getPick() {
 		return this.pick;
 	}
 	
+	/**
+	 * Returns the {@link DynamicResolution} that adjusts the resolution to render at, if enabled.
+	 * 
+	 * @return the {@code DynamicResolution} that adjusts the resolution to render at, if enabled
+	 */
+	public final DynamicResolution getDynamicResolution() {
+		return this.dynamicResolution;
+	}
+	
 	public final FPSCounter getFPSCounter() {
 		return this.fPSCounter;
 	}
 	
+	/**
+	 * Returns the {@link FrameProfiler} that keeps track of the time spent in each stage of the frames.
+	 * 
+	 * @return the {@code FrameProfiler} that keeps track of the time spent in each stage of the frames
+	 */
+	public final FrameProfiler getFrameProfiler() {
+		return this.frameProfiler;
+	}
+	
+	/**
+	 * Returns the intersection mode, which is either {@code AbstractRayCasterKernel.INTERSECTION_MODE_BOUNDING_VOLUME_HIERARCHY}, {@code AbstractRayCasterKernel.INTERSECTION_MODE_PACKED_SHAPES},
+	 * {@code AbstractRayCasterKernel.INTERSECTION_MODE_SHAPE_INDICES} or {@code AbstractRayCasterKernel.INTERSECTION_MODE_TILES}.
+	 * 
+	 * @return the intersection mode
+	 */
+	public final int getIntersectionMode() {
+		return this.intersectionMode.get();
+	}
+	
+	/**
+	 * Returns the maximum depth of the reflected and refracted rays, where {@code 0} means that only the primary rays are cast.
+	 * 
+	 * @return the maximum depth of the reflected and refracted rays
+	 */
+	public final int getMaximumDepth() {
+		return this.maximumDepth.get();
+	}
+	
 	public final int getMouseLeftAndReset() {
 		return this.mouseLeft.getAndSet(0);
 	}
@@ -101,10 +293,28 @@ public abstract class Application implements KeyListener, MouseMotionListener {
 		return this.mouseUp.getAndSet(0);
 	}
 	
+	/**
+	 * Returns the pixel order, which is either {@code RayCasterKernel.PIXEL_ORDER_MORTON} or {@code RayCasterKernel.PIXEL_ORDER_SCANLINE}.
+	 * 
+	 * @return the pixel order
+	 */
+	public final int getPixelOrder() {
+		return this.pixelOrder.get();
+	}
+	
 	public final Kernel getKernel() {
 		return this.kernel;
 	}
 	
+	/**
+	 * Returns the execution mode of the {@code Kernel}, which is used unless the rays are cast in Java using a {@code ForkJoinPool}.
+	 * 
+	 * @return the execution mode of the {@code Kernel}
+	 */
+	public final EXECUTION_MODE getExecutionMode() {
+		return this.executionMode.get();
+	}
+	
 	public final Scene getScene() {
 		return this.scene;
 	}
@@ -159,14 +369,208 @@ public abstract class Application implements KeyListener, MouseMotionListener {
 		doMoveMouse(e);
 	}
 	
+	/**
+	 * Sets the execution mode of the {@code Kernel}, which is used unless the rays are cast in Java using a {@code ForkJoinPool}.
+	 * <p>
+	 * The execution mode is changed when the next frame is prepared, as the {@code Kernel} may be executing the current one.
+	 * <p>
+	 * If {@code executionMode} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param executionMode the execution mode of the {@code Kernel}
+	 * @throws NullPointerException thrown if, and only if, {@code executionMode} is {@code null}
+	 */
+	public final void setExecutionMode(final EXECUTION_MODE executionMode) {
+		this.executionMode.set(Objects.requireNonNull(executionMode, "executionMode == null"));
+	}
+	
+	/**
+	 * Sets whether adaptive supersampling should be enabled.
+	 * <p>
+	 * If enabled, the pixels whose neighbours differ too much are found after the first sample of each pixel has been rendered, and only those pixels get additional jittered samples.
+	 * 
+	 * @param isAdaptive {@code true} if, and only if, adaptive supersampling should be enabled
+	 */
+	public final void setAdaptive(final boolean isAdaptive) {
+		this.isAdaptive.set(isAdaptive);
+	}
+	
+	/**
+	 * Sets whether the shading cache should be enabled.
+	 * <p>
+	 * If enabled, the shading of each pixel is reprojected from the previous frame and reused, unless it shows another shape or surface, or the lights or textures have changed. A small set of pixels is shaded anyway every frame.
+	 * 
+	 * @param isCachingShading {@code true} if, and only if, the shading cache should be enabled
+	 */
+	public final void setCachingShading(final boolean isCachingShading) {
+		this.isCachingShading.set(isCachingShading);
+	}
+	
+	/**
+	 * Sets whether checkerboard rendering should be enabled.
+	 * <p>
+	 * If enabled, only half of the pixels are shaded while the camera moves, and the other half is reconstructed from the previous frame. This roughly halves the number of rays per frame.
+	 * 
+	 * @param isCheckerboard {@code true} if, and only if, checkerboard rendering should be enabled
+	 */
+	public final void setCheckerboard(final boolean isCheckerboard) {
+		this.isCheckerboard.set(isCheckerboard);
+	}
+	
+	/**
+	 * Sets the intersection mode to use.
+	 * <p>
+	 * View frustum culling is only performed if {@code intersectionMode} is {@code AbstractRayCasterKernel.INTERSECTION_MODE_SHAPE_INDICES} or {@code AbstractRayCasterKernel.INTERSECTION_MODE_TILES}. The tiles are only updated if
+	 * {@code intersectionMode} is {@code AbstractRayCasterKernel.INTERSECTION_MODE_TILES}. If {@code intersectionMode} is {@code AbstractRayCasterKernel.INTERSECTION_MODE_PACKED_SHAPES}, all shapes are tested, but without branching on
+	 * their types.
+	 * <p>
+	 * The intersection mode is changed when the next frame is prepared, as the frame that may be rendering uses the tiles and shape indices of the current one.
+	 * <p>
+	 * If {@code intersectionMode} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param intersectionMode the intersection mode to use
+	 * @throws IllegalArgumentException thrown if, and only if, {@code intersectionMode} is invalid
+	 */
+	public final void setIntersectionMode(final int intersectionMode) {
+		if(intersectionMode != AbstractRayCasterKernel.INTERSECTION_MODE_BOUNDING_VOLUME_HIERARCHY && intersectionMode != AbstractRayCasterKernel.INTERSECTION_MODE_PACKED_SHAPES && intersectionMode != AbstractRayCasterKernel.INTERSECTION_MODE_SHAPE_INDICES && intersectionMode != AbstractRayCasterKernel.INTERSECTION_MODE_TILES) {
+			throw new IllegalArgumentException(String.format("Illegal intersection mode: %s", Integer.toString(intersectionMode)));
+		}
+		
+		this.intersectionMode.set(intersectionMode);
+	}
+	
+	/**
+	 * Sets the pixel order to use, which is the order in which the pixels are mapped to the work-items.
+	 * <p>
+	 * The pixel order is changed when the next frame is prepared.
+	 * <p>
+	 * If {@code pixelOrder} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param pixelOrder the pixel order to use
+	 * @throws IllegalArgumentException thrown if, and only if, {@code pixelOrder} is invalid
+	 */
+	public final void setPixelOrder(final int pixelOrder) {
+		if(pixelOrder != RayCasterKernel.PIXEL_ORDER_MORTON && pixelOrder != RayCasterKernel.PIXEL_ORDER_SCANLINE) {
+			throw new IllegalArgumentException(String.format("Illegal pixel order: %s", Integer.toString(pixelOrder)));
+		}
+		
+		this.pixelOrder.set(pixelOrder);
+	}
+	
+	/**
+	 * Sets whether view frustum culling should keep the shapes outside of the view frustum that may cast shadows into it.
+	 * 
+	 * @param isKeepingShadowCasters {@code true} if, and only if, shapes that may cast shadows should be kept
+	 */
+	public final void setKeepingShadowCasters(final boolean isKeepingShadowCasters) {
+		this.isKeepingShadowCasters.set(isKeepingShadowCasters);
+	}
+	
+	/**
+	 * Sets the maximum depth of the reflected and refracted rays, where {@code 0} means that only the primary rays are cast.
+	 * <p>
+	 * If greater than {@code 0}, the materials with a reflection or a refraction show the shading of the reflected or refracted rays, up to {@code maximumDepth} intersections away from the primary intersection.
+	 * <p>
+	 * If {@code maximumDepth} is less than {@code 0} or greater than {@code RayCasterKernel.MAXIMUM_DEPTH}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param maximumDepth the maximum depth of the reflected and refracted rays
+	 * @throws IllegalArgumentException thrown if, and only if, {@code maximumDepth} is less than {@code 0} or greater than {@code RayCasterKernel.MAXIMUM_DEPTH}
+	 */
+	public final void setMaximumDepth(final int maximumDepth) {
+		this.maximumDepth.set(Ranges.requireRange(maximumDepth, 0, RayCasterKernel.MAXIMUM_DEPTH));
+	}
+	
+	/**
+	 * Sets whether mipmapping should be enabled.
+	 * <p>
+	 * If enabled, the texels of distant surfaces are fetched from the smaller levels of the mip chains of the textures, which reduces the memory bandwidth and the shimmering of the textures.
+	 * 
+	 * @param isMipmapping {@code true} if, and only if, mipmapping should be enabled
+	 */
+	public final void setMipmapping(final boolean isMipmapping) {
+		this.isMipmapping.set(isMipmapping);
+	}
+	
+	/**
+	 * Sets whether the rendering should be pipelined.
+	 * <p>
+	 * If pipelining, the {@code Kernel} executes the current frame in a separate thread, while the next frame is updated and the previous frame is displayed. At most one frame is in flight. Otherwise every frame is updated, rendered and
+	 * displayed in sequence.
+	 * 
+	 * @param isPipelining {@code true} if, and only if, the rendering should be pipelined
+	 */
+	public final void setPipelining(final boolean isPipelining) {
+		this.isPipelining.set(isPipelining);
+	}
+	
+	/**
+	 * Sets whether the {@link FrameProfiler} should be shown as an overlay.
+	 * <p>
+	 * The {@code FrameProfiler} is updated either way. It is up to {@link #render(Graphics2D)} to show it.
+	 * 
+	 * @param isShowingFrameProfiler {@code true} if, and only if, the {@code FrameProfiler} should be shown as an overlay
+	 */
+	public final void setShowingFrameProfiler(final boolean isShowingFrameProfiler) {
+		this.isShowingFrameProfiler.set(isShowingFrameProfiler);
+	}
+	
+	/**
+	 * Sets whether progressive rendering should be enabled.
+	 * <p>
+	 * If enabled, each frame adds a jittered sample per pixel to the previous ones for as long as the camera, lights and textures do not change, such that a still image converges to an anti-aliased one.
+	 * 
+	 * @param isProgressive {@code true} if, and only if, progressive rendering should be enabled
+	 */
+	public final void setProgressive(final boolean isProgressive) {
+		this.isProgressive.set(isProgressive);
+	}
+	
+	/**
+	 * Sets whether the lights of the {@link Scene} have to be transferred to the {@code Kernel}.
+	 * <p>
+	 * If {@code true}, the lights are transferred when the next frame is prepared. If they have changed, the accumulation of samples is reset and the shading cache is invalidated.
+	 * 
+	 * @param isLightUpdateRequired {@code true} if, and only if, the lights of the {@code Scene} have to be transferred to the {@code Kernel}
+	 */
 	public final void setLightUpdateRequired(final boolean isLightUpdateRequired) {
 		this.isLightUpdateRequired.set(isLightUpdateRequired);
 	}
 	
+	/**
+	 * Sets whether all textures of the {@link Scene} have to be transferred to the {@code Kernel}.
+	 * <p>
+	 * This is needed if the {@code int} array of the textures of the {@code Scene} has been modified without recording the texture updates. If {@code true}, all textures are transferred when the next frame is prepared, and the
+	 * accumulation of samples is reset.
+	 * 
+	 * @param isTextureUpdateRequired {@code true} if, and only if, all textures of the {@code Scene} have to be transferred to the {@code Kernel}
+	 */
 	public final void setTextureUpdateRequired(final boolean isTextureUpdateRequired) {
 		this.isTextureUpdateRequired.set(isTextureUpdateRequired);
 	}
 	
+	/**
+	 * Sets whether the resolution should be adjusted by the {@link DynamicResolution} to hold its target frame time.
+	 * <p>
+	 * If enabled, the {@code DynamicResolution} is updated with the time of each frame, and the next frame is rendered at the resolution it returns. The rendered image is stretched to the size of the window. If disabled, the
+	 * maximum resolution given by {@code Constants.WIDTH / Constants.WIDTH_SCALE} and {@code Constants.HEIGHT / Constants.HEIGHT_SCALE} is rendered. Either way, the {@code DynamicResolution} starts over at the maximum resolution.
+	 * 
+	 * @param isUsingDynamicResolution {@code true} if, and only if, the resolution should be adjusted by the {@code DynamicResolution} to hold its target frame time
+	 */
+	public final void setUsingDynamicResolution(final boolean isUsingDynamicResolution) {
+		this.isUsingDynamicResolution.set(isUsingDynamicResolution);
+		this.dynamicResolution.reset();
+	}
+	
+	/**
+	 * Sets whether the rays should be cast in Java using a {@code ForkJoinPool}, rather than by executing the {@code Kernel} in its execution mode.
+	 * <p>
+	 * This is a third execution mode next to GPU and JTP (Java Thread Pool), that splits the pixels into tasks and scales with the number of cores, without using the API at all.
+	 * 
+	 * @param isUsingForkJoinPool {@code true} if, and only if, the rays should be cast in Java using a {@code ForkJoinPool}
+	 */
+	public final void setUsingForkJoinPool(final boolean isUsingForkJoinPool) {
+		this.isUsingForkJoinPool.set(isUsingForkJoinPool);
+	}
+	
 	public abstract void render(final Graphics2D graphics2D);
 	
 	/**
@@ -185,43 +589,71 @@ public abstract class Application implements KeyListener, MouseMotionListener {
 			this.jFrame.addMouseMotionListener(this);
 		});
 		
+//		Initialize the frame that is currently being rendered, if any:
+		CompletableFuture<Void> frame = null;
+		
 		while(this.isRunning.get()) {
-//			Update the current frame:
-			update();
+//			Initialize the start of this frame, which is also the start of the first stage:
+			final long frameStartNanos = System.nanoTime();
 			
-//			Perform View Frustum Culling:
-			doPerformFrustumCulling();
-			
-//			Tell the API to fetch the camera values before executing this Kernel instance (it will be transferred to the GPU every cycle):
-			this.kernel.put(this.scene.getCamera().getArray());
-			
-//			Tell the API to fetch the shape indices before executing this Kernel instance (it will be transferred to the GPU every cycle):
-			this.kernel.put(this.scene.getShapeIndices());
+//			Update the next frame, while the current frame may still be rendering:
+			update();
 			
-			if(this.isLightUpdateRequired.compareAndSet(true, false)) {
-				this.kernel.put(this.scene.getLightsAsArray());
-			}
+			long nanos = this.frameProfiler.recordSince(FrameProfiler.STAGE_UPDATE, frameStartNanos);
 			
-			if(this.isTextureUpdateRequired.compareAndSet(true, false)) {
-				this.kernel.put(this.scene.getTexturesAsArray());
+			if(frame != null) {
+//				Wait for the current frame to be rendered, so at most one frame is in flight:
+				frame.join();
+				
+				nanos = this.frameProfiler.recordSince(FrameProfiler.STAGE_WAIT, nanos);
+				
+//				Display the current frame:
+				doDisplay();
+				
+				this.frameProfiler.recordSince(FrameProfiler.STAGE_REPAINT, nanos);
 			}
 			
-//			Execute this Kernel instance:
-			this.kernel.execute(this.range);
+//			Initialize whether the next frame is rendered using the ForkJoinPool, so it is prepared and rendered the same way:
+			final boolean isUsingForkJoinPool = this.isUsingForkJoinPool.get();
 			
-//			Fetch the pick result:
-			this.kernel.get(this.pick);
+//			Transfer the state of the next frame to this Kernel instance, which is safe now that nothing is rendering:
+			doPrepare(isUsingForkJoinPool);
 			
-//			Fetch the RGB-values calculated in the GPU to the rGB array, so we can display the result:
-			this.kernel.get(this.rGB);
+			if(this.isPipelining.get()) {
+//				Render the next frame in a separate thread:
+				frame = CompletableFuture.runAsync(() -> doRender(isUsingForkJoinPool), this.executorService);
+			} else {
+//				Render and display the next frame in this thread:
+				doRender(isUsingForkJoinPool);
+				
+				nanos = System.nanoTime();
+				
+				doDisplay();
+				
+				this.frameProfiler.recordSince(FrameProfiler.STAGE_REPAINT, nanos);
+				
+				frame = null;
+			}
 			
-//			Tell the JFrame to repaint itself:
-			this.jFrame.repaint();
+			final long frameEndNanos = this.frameProfiler.recordSince(FrameProfiler.STAGE_FRAME, frameStartNanos);
 			
-//			Update the FPS in the FPSCounter:
-			this.fPSCounter.update();
+			if(this.isUsingDynamicResolution.get()) {
+//				Tell the DynamicResolution how long this frame took, so it can adjust the resolution of the frames to come:
+				this.dynamicResolution.update(frameEndNanos - frameStartNanos);
+			}
+		}
+		
+		if(frame != null) {
+//			Wait for the last frame to be rendered, before disposing of any resources:
+			frame.join();
 		}
 		
+//		Tell the ExecutorService to stop the render thread.
+		this.executorService.shutdown();
+		
+//		Tell the ForkJoinPool to stop its worker threads.
+		this.forkJoinPool.shutdown();
+		
 //		Tell the Kernel to dispose of any resources used.
 		this.kernel.dispose();
 		
@@ -231,8 +663,55 @@ public abstract class Application implements KeyListener, MouseMotionListener {
 	
 	public abstract void update();
 	
+	/**
+	 * Sets the texel at {@code x} and {@code y} in level {@code 0} of the texture at {@code textureOffset} in the {@code int} array returned by {@code getScene().getTexturesAsArray()} to {@code rGB}, when the next frame is prepared.
+	 * <p>
+	 * The texel is not set right away, as the frame that may be rendering reads the same {@code int} array. When the next frame is prepared, the texel is set by {@link Scene#updateTexel(int, int, int, int)}.
+	 * <p>
+	 * If {@code x} or {@code y} is outside of the texture, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param textureOffset the offset of the texture in the {@code int} array returned by {@code getScene().getTexturesAsArray()}
+	 * @param x the X-coordinate of the texel
+	 * @param y the Y-coordinate of the texel
+	 * @param rGB the RGB-value of the texel
+	 * @throws IllegalArgumentException thrown if, and only if, {@code x} or {@code y} is outside of the texture
+	 */
+	public final void updateTexel(final int textureOffset, final int x, final int y, final int rGB) {
+		final int[] textures = this.scene.getTexturesAsArray();
+		
+		final int width = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH];
+		final int height = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_HEIGHT];
+		
+		if(x < 0 || x >= width) {
+			throw new IllegalArgumentException(String.format("Illegal x: %s", Integer.toString(x)));
+		}
+		
+		if(y < 0 || y >= height) {
+			throw new IllegalArgumentException(String.format("Illegal y: %s", Integer.toString(y)));
+		}
+		
+		this.texelUpdates.add(new int[] {textureOffset, x, y, rGB});
+	}
+	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	private void doDisplay() {
+//		Publish the pick result of the frame that was rendered, such that update() can read it while the next frame is rendering:
+		System.arraycopy(this.renderedPick, 0, this.pick, 0, this.pick.length);
+		
+//		Initialize the BufferedImage that was rendered:
+		final BufferedImage bufferedImage = this.kernel.getRGBIndex() == 0 ? this.bufferedImage0 : this.bufferedImage1;
+		
+//		Swap the BufferedImage to display to the one that was rendered, or the upper left corner of it that was rendered at a lower resolution:
+		this.jBufferedImagePanel.setBufferedImage(this.kernel.getWidth() == bufferedImage.getWidth() && this.kernel.getHeight() == bufferedImage.getHeight() ? bufferedImage : bufferedImage.getSubimage(0, 0, this.kernel.getWidth(), this.kernel.getHeight()));
+		
+//		Tell the JFrame to repaint itself:
+		this.jFrame.repaint();
+		
+//		Update the FPS in the FPSCounter:
+		this.fPSCounter.update();
+	}
+	
 	private void doMoveMouse(final MouseEvent e) {
 		if(this.jFrame.isActive()) {
 			if(this.isRecenteringMouse.get() && this.centerPoint.x == e.getXOnScreen() && this.centerPoint.y == e.getYOnScreen()) {
@@ -263,17 +742,161 @@ public abstract class Application implements KeyListener, MouseMotionListener {
 	}
 	
 	private void doPerformFrustumCulling() {
-//		TODO: Implement View Frustum Culling here.
+//		Update the view frustum with the current camera:
+		this.frustum.update(this.scene.getCamera(), Constants.WIDTH / Constants.WIDTH_SCALE, Constants.HEIGHT / Constants.HEIGHT_SCALE);
+		
+		if(this.isKeepingShadowCasters.get()) {
+			final float[] lights = this.scene.getLightsAsArray();
+			
+//			Extend the view frustum to include the point lights, so shapes between them and the view frustum are kept as shadow casters:
+			for(int i = 0, j = 0; i < lights.length; i += j) {
+				j = (int)(lights[i + Light.RELATIVE_OFFSET_OF_SIZE]);
+				
+				if(lights[i + Light.RELATIVE_OFFSET_OF_TYPE] == PointLight.TYPE) {
+					this.frustum.extendToInclude(lights[i + PointLight.RELATIVE_OFFSET_OF_POSITION + 0], lights[i + PointLight.RELATIVE_OFFSET_OF_POSITION + 1], lights[i + PointLight.RELATIVE_OFFSET_OF_POSITION + 2]);
+				}
+			}
+		}
 		
 		final int[] shapeIndices = this.scene.getShapeIndices();
 		
 		final List<Shape> shapes = this.scene.getShapesAsList();
 		
-		for(int i = 0; i < shapeIndices.length; i++) {
-			shapeIndices[i] = shapes.get(i).getIndex();
+		int length = 0;
+		
+		this.visibleShapes.clear();
+		
+		for(final Shape shape : shapes) {
+			if(this.frustum.isVisible(shape.getBoundingBox())) {
+				shapeIndices[length++] = shape.getIndex();
+				
+				this.visibleShapes.add(shape);
+			}
+		}
+		
+		if(length < shapeIndices.length) {
+//			Terminate the shape indices with -1, as the kernel stops at the first negative shape offset:
+			shapeIndices[length] = -1;
 		}
 	}
 	
+	private void doPrepare(final boolean isUsingForkJoinPool) {
+		final long startNanos = System.nanoTime();
+		
+//		Render to the RGB-values that are not currently displayed, which are the ones not rendered to by the previous frame:
+		this.kernel.setRGBIndex(this.kernel.getRGBIndex() == 0 ? 1 : 0);
+		
+//		Initialize the resolution to render at, which is either given by the DynamicResolution or the maximum resolution:
+		final int width = this.isUsingDynamicResolution.get() ? this.dynamicResolution.getWidth() : Constants.WIDTH / Constants.WIDTH_SCALE;
+		final int height = this.isUsingDynamicResolution.get() ? this.dynamicResolution.getHeight() : Constants.HEIGHT / Constants.HEIGHT_SCALE;
+		
+		if(this.kernel.getWidth() != width || this.kernel.getHeight() != height) {
+//			Change the resolution, which only changes the number of pixels that are rendered, as all arrays are allocated for the maximum resolution:
+			this.kernel.setResolution(width, height);
+			this.tileGrid.setResolution(width, height);
+			this.range.set(doCreateRange(width, height));
+		}
+		
+		if(this.kernel.getExecutionMode() != this.executionMode.get()) {
+			this.kernel.setExecutionMode(this.executionMode.get());
+		}
+		
+		if(this.kernel.getIntersectionMode() != this.intersectionMode.get()) {
+			this.kernel.setIntersectionMode(this.intersectionMode.get());
+		}
+		
+		if(this.kernel.getPixelOrder() != this.pixelOrder.get()) {
+			this.kernel.setPixelOrder(this.pixelOrder.get());
+		}
+		
+//		Tell the API to fetch the camera values before executing this Kernel instance (it will be transferred to the GPU every cycle):
+		this.kernel.updateCamera(this.scene.getCamera().getArray());
+		
+		long nanos = this.frameProfiler.recordSince(FrameProfiler.STAGE_PUT_CAMERA, startNanos);
+		
+		if(this.kernel.getIntersectionMode() == AbstractRayCasterKernel.INTERSECTION_MODE_SHAPE_INDICES || this.kernel.getIntersectionMode() == AbstractRayCasterKernel.INTERSECTION_MODE_TILES) {
+//			Perform View Frustum Culling:
+			doPerformFrustumCulling();
+			
+			nanos = this.frameProfiler.recordSince(FrameProfiler.STAGE_FRUSTUM_CULLING, nanos);
+			
+//			Tell the API to fetch the shape indices before executing this Kernel instance (it will be transferred to the GPU every cycle):
+			this.kernel.put(this.scene.getShapeIndices());
+			
+			nanos = this.frameProfiler.recordSince(FrameProfiler.STAGE_PUT_SHAPE_INDICES, nanos);
+		}
+		
+		if(this.kernel.getIntersectionMode() == AbstractRayCasterKernel.INTERSECTION_MODE_TILES) {
+//			Bin the shapes that survived View Frustum Culling into screen tiles:
+			this.tileGrid.update(this.scene.getCamera(), this.visibleShapes);
+			
+			nanos = this.frameProfiler.recordSince(FrameProfiler.STAGE_TILE_BINNING, nanos);
+			
+//			Tell the API to fetch the tiles before executing this Kernel instance (it will be transferred to the GPU every cycle):
+			this.kernel.put(this.tileGrid.getArray());
+			
+			nanos = this.frameProfiler.recordSince(FrameProfiler.STAGE_PUT_TILES, nanos);
+		}
+		
+		if(this.isLightUpdateRequired.compareAndSet(true, false)) {
+			this.kernel.updateLights(this.scene.getLightsAsArray());
+			
+			nanos = this.frameProfiler.recordSince(FrameProfiler.STAGE_PUT_LIGHTS, nanos);
+		}
+		
+//		Set the texels requested by updateTexel(int, int, int, int) since the previous frame, which is safe now that nothing is rendering:
+		for(int[] texelUpdate = this.texelUpdates.poll(); texelUpdate != null; texelUpdate = this.texelUpdates.poll()) {
+			this.scene.updateTexel(texelUpdate[0], texelUpdate[1], texelUpdate[2], texelUpdate[3]);
+		}
+		
+		if(this.isTextureUpdateRequired.compareAndSet(true, false)) {
+			this.kernel.updateAllTextures();
+		}
+		
+		if(this.kernel.isVirtualTexturing()) {
+//			Stream the texture pages requested by the previous frame that are not resident, if any (only the fixed-size texture cache is transferred to the GPU):
+			this.kernel.updateTexturePages();
+		}
+		
+		if(!isUsingForkJoinPool || this.kernel.isVirtualTexturing()) {
+//			Tell the API to fetch the texels that have been modified since the previous frame, if any (only they will be transferred to the GPU):
+			this.kernel.updateTextures(this.scene);
+		}
+		
+		final long textureUpdateCount = this.scene.getTextureUpdateCount();
+		
+		if(this.textureUpdateCount.getAndSet(textureUpdateCount) != textureUpdateCount && isUsingForkJoinPool) {
+//			The ForkJoinPool reads the texels directly from the Scene, so the samples accumulated with the old texels have to be discarded here:
+			this.kernel.resetAccumulation();
+		}
+		
+		if(this.kernel.isAdaptive() != this.isAdaptive.get()) {
+			this.kernel.setAdaptive(this.isAdaptive.get());
+		}
+		
+		if(this.kernel.isCachingShading() != this.isCachingShading.get()) {
+			this.kernel.setCachingShading(this.isCachingShading.get());
+		}
+		
+		if(this.kernel.isCheckerboard() != this.isCheckerboard.get()) {
+			this.kernel.setCheckerboard(this.isCheckerboard.get());
+		}
+		
+		if(this.kernel.getMaximumDepth() != this.maximumDepth.get()) {
+			this.kernel.setMaximumDepth(this.maximumDepth.get());
+		}
+		
+		if(this.kernel.isMipmapping() != this.isMipmapping.get()) {
+			this.kernel.setMipmapping(this.isMipmapping.get());
+		}
+		
+		if(this.kernel.isProgressive() != this.isProgressive.get()) {
+			this.kernel.setProgressive(this.isProgressive.get());
+		}
+		
+		this.frameProfiler.recordSince(FrameProfiler.STAGE_PUT_TEXTURES, nanos);
+	}
+	
 	private void doRecenterMouse() {
 		this.centerPoint.x = this.jFrame.getWidth() / 2;
 		this.centerPoint.y = this.jFrame.getHeight() / 2;
@@ -289,6 +912,36 @@ public abstract class Application implements KeyListener, MouseMotionListener {
 		}
 	}
 	
+	private void doRender(final boolean isUsingForkJoinPool) {
+		final long startNanos = System.nanoTime();
+		
+		if(isUsingForkJoinPool) {
+//			Cast the rays in Java, which writes the pick result and the RGB-values directly:
+			this.kernel.render(this.forkJoinPool);
+			
+			this.frameProfiler.recordSince(FrameProfiler.STAGE_EXECUTE, startNanos);
+		} else {
+//			Execute this Kernel instance, including the scattering of any texture updates:
+			this.kernel.render(this.range.get());
+			
+			long nanos = this.frameProfiler.recordSince(FrameProfiler.STAGE_EXECUTE, startNanos);
+			
+//			Record the conversion and execution times reported by the API, which are given in milliseconds:
+			this.frameProfiler.record(FrameProfiler.STAGE_KERNEL_CONVERSION, (long)(this.kernel.getConversionTime() * 1000000.0D));
+			this.frameProfiler.record(FrameProfiler.STAGE_KERNEL_EXECUTION, (long)(this.kernel.getExecutionTime() * 1000000.0D));
+			
+//			Fetch the pick result:
+			this.kernel.get(this.renderedPick);
+			
+			nanos = this.frameProfiler.recordSince(FrameProfiler.STAGE_GET_PICK, nanos);
+			
+//			Fetch the RGB-values calculated in the GPU to the rGB array, so we can display the result:
+			this.kernel.get(this.kernel.getRGB());
+			
+			this.frameProfiler.recordSince(FrameProfiler.STAGE_GET_RGB, nanos);
+		}
+	}
+	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	private static int[] doToRGB(final BufferedImage bufferedImage) {
@@ -303,15 +956,24 @@ public abstract class Application implements KeyListener, MouseMotionListener {
 		return rGB;
 	}
 	
-	private static JFrame doCreateJFrame(final BufferedImage bufferedImage, final Consumer<Graphics2D> consumer) {
+	private static JBufferedImagePanel doCreateJBufferedImagePanel(final BufferedImage bufferedImage, final Consumer<Graphics2D> consumer) {
+		final
+		JBufferedImagePanel jBufferedImagePanel = new JBufferedImagePanel(bufferedImage, consumer, Constants.WIDTH_SCALE, Constants.HEIGHT_SCALE);
+		jBufferedImagePanel.setLayout(new AbsoluteLayout());
+		jBufferedImagePanel.setPreferredSize(new Dimension(bufferedImage.getWidth() * Constants.WIDTH_SCALE, bufferedImage.getHeight() * Constants.HEIGHT_SCALE));
+		
+		return jBufferedImagePanel;
+	}
+	
+	private static JFrame doCreateJFrame(final JPanel jPanel) {
 		final
 		JFrame jFrame = new JFrame();
-		jFrame.setContentPane(doCreateJPanel(bufferedImage, consumer));
+		jFrame.setContentPane(jPanel);
 		jFrame.setCursor(Toolkit.getDefaultToolkit().createCustomCursor(Toolkit.getDefaultToolkit().getImage(""), new Point(0, 0), "invisible"));
 		jFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		jFrame.setFocusTraversalKeysEnabled(false);
 		jFrame.setIgnoreRepaint(true);
-		jFrame.setSize(bufferedImage.getWidth() * Constants.WIDTH_SCALE, bufferedImage.getHeight() * Constants.HEIGHT_SCALE);
+		jFrame.setSize(jPanel.getPreferredSize());
 		jFrame.setLocationRelativeTo(null);
 		jFrame.setTitle(String.format("OpenRC v%s", Constants.getVersion()));
 		jFrame.setVisible(true);
@@ -321,13 +983,11 @@ public abstract class Application implements KeyListener, MouseMotionListener {
 		return jFrame;
 	}
 	
-	private static JPanel doCreateJPanel(final BufferedImage bufferedImage, final Consumer<Graphics2D> consumer) {
-		final
-		JPanel jPanel = new JBufferedImagePanel(bufferedImage, consumer, Constants.WIDTH_SCALE, Constants.HEIGHT_SCALE);
-		jPanel.setLayout(new AbsoluteLayout());
-		jPanel.setPreferredSize(new Dimension(bufferedImage.getWidth() * Constants.WIDTH_SCALE, bufferedImage.getHeight() * Constants.HEIGHT_SCALE));
+	private static Range doCreateRange(final int width, final int height) {
+//		The Range has to contain at least one work-item per pixel of the resolution rounded up to whole tiles, as used by the Morton order, and at least MAXIMUM_TEXTURE_UPDATES work-items. It is rounded up to a multiple of 256, such that the API may use large work-groups:
+		final int globalSize = Math.max((width + TileGrid.TILE_SIZE - 1) / TileGrid.TILE_SIZE * TileGrid.TILE_SIZE * ((height + TileGrid.TILE_SIZE - 1) / TileGrid.TILE_SIZE * TileGrid.TILE_SIZE), RayCasterKernel.MAXIMUM_TEXTURE_UPDATES);
 		
-		return jPanel;
+		return Range.create((globalSize + 255) / 256 * 256);
 	}
 	
 	private static Robot doCreateRobot() {
@@ -337,4 +997,12 @@ public abstract class Application implements KeyListener, MouseMotionListener {
 			return null;
 		}
 	}
+	
+	private static Thread doCreateRenderThread(final Runnable runnable) {
+		final
+		Thread thread = new Thread(runnable, "OpenRC Render Thread");
+		thread.setDaemon(true);
+		
+		return thread;
+	}
 }
\ No newline at end of file
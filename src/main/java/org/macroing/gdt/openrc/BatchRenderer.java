@@ -0,0 +1,264 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.imageio.ImageIO;
+
+import org.macroing.gdt.openrc.geometry.Camera;
+import org.macroing.gdt.openrc.geometry.Scene;
+import org.macroing.gdt.openrc.geometry.TileGrid;
+
+import com.amd.aparapi.Kernel.EXECUTION_MODE;
+import com.amd.aparapi.Range;
+
+/**
+ * A {@code BatchRenderer} renders a {@link Scene} from a sequence of camera poses to PNG-images, without a display.
+ * <p>
+ * The camera poses are read from a text file with one pose per line. A pose consists of the eye and look-at points, optionally followed by the up vector, as whitespace separated numbers. Empty lines and lines starting with {@code #} are
+ * ignored:
+ * <pre>
+ * # eyeX eyeY eyeZ lookAtX lookAtY lookAtZ [upX upY upZ]
+ * 500.0 0.0 500.0 0.0 0.0 0.0
+ * 400.0 -20.0 500.0 0.0 0.0 0.0 0.0 1.0 0.0
+ * </pre>
+ * <p>
+ * The frames are written to the output directory as {@code frame_00000.png}, {@code frame_00001.png} and so on, and the time it took to render each frame is written to standard output. The same {@code Scene} and camera poses always
+ * give the same images, which makes a {@code BatchRenderer} usable for performance regression runs.
+ * <p>
+ * The frames are rendered either by the {@link RayCasterKernel} or by the {@link PathTracerKernel}. The {@code PathTracerKernel} accumulates a given number of samples per pixel for each frame, starting over for each camera pose, and the
+ * number of work-items it launched for each frame is written to standard output as well. As the queues of the {@code PathTracerKernel} only change which work-items are launched, rendering with and without compaction gives the
+ * same images, but with different numbers of work-items.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class BatchRenderer {
+	private BatchRenderer() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * The entry-point of the {@code BatchRenderer}.
+	 * <p>
+	 * The arguments are the {@code Scene} file, as written by {@link Scene#write(File)} or {@link Scene#writeMapped(File)}, the camera poses file, the output directory and, optionally, the execution mode, the engine and the number of
+	 * samples per pixel. The execution mode is either {@code FORK_JOIN}, {@code GPU} or {@code JTP}. The default execution mode is {@code FORK_JOIN}, which casts the rays in Java using all cores and does not need OpenCL.
+	 * <p>
+	 * The engine is either {@code PATH_TRACER}, {@code PATH_TRACER_UNCOMPACTED} or {@code RAY_CASTER}. The default engine is {@code RAY_CASTER}. {@code PATH_TRACER_UNCOMPACTED} is the {@code PathTracerKernel} with compaction
+	 * disabled. The number of samples per pixel is only used by the {@code PathTracerKernel}, and defaults to {@code 16}.
+	 * <p>
+	 * If the number of arguments is invalid, the usage is written to standard error.
+	 * 
+	 * @param args the arguments
+	 * @throws IllegalArgumentException thrown if, and only if, the execution mode, the engine, the number of samples per pixel or a camera pose is invalid
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+	public static void main(final String[] args) {
+		if(args.length < 3 || args.length > 6) {
+			System.err.println("Usage: java org.macroing.gdt.openrc.BatchRenderer <scene file> <camera poses file> <output directory> [FORK_JOIN|GPU|JTP] [RAY_CASTER|PATH_TRACER|PATH_TRACER_UNCOMPACTED] [samples]");
+			
+			return;
+		}
+		
+//		Make sure nothing tries to connect to a display:
+		System.setProperty("java.awt.headless", "true");
+		
+		final Scene scene = Scene.read(new File(args[0]));
+		
+		final List<float[]> cameraPoses = doReadCameraPoses(new File(args[1]));
+		
+		final File directory = new File(args[2]);
+		
+		final String executionMode = args.length > 3 ? args[3] : "FORK_JOIN";
+		final String engine = args.length > 4 ? args[4] : "RAY_CASTER";
+		
+		final boolean isUsingForkJoinPool = executionMode.equals("FORK_JOIN");
+		final boolean isUsingPathTracer = engine.equals("PATH_TRACER") || engine.equals("PATH_TRACER_UNCOMPACTED");
+		
+		if(!isUsingForkJoinPool && !executionMode.equals("GPU") && !executionMode.equals("JTP")) {
+			throw new IllegalArgumentException(String.format("Illegal execution mode: %s", executionMode));
+		}
+		
+		if(!isUsingPathTracer && !engine.equals("RAY_CASTER")) {
+			throw new IllegalArgumentException(String.format("Illegal engine: %s", engine));
+		}
+		
+		final int samples = doParseSamples(args.length > 5 ? args[5] : "16");
+		
+		if(!directory.isDirectory() && !directory.mkdirs()) {
+			throw new UncheckedIOException(new IOException(String.format("Unable to create directory: %s", directory)));
+		}
+		
+		final BufferedImage bufferedImage = new BufferedImage(Constants.WIDTH / Constants.WIDTH_SCALE, Constants.HEIGHT / Constants.HEIGHT_SCALE, BufferedImage.TYPE_INT_RGB);
+		
+		final Camera camera = scene.getCamera();
+		
+		final ForkJoinPool forkJoinPool = new ForkJoinPool();
+		
+		final float[] pick = new float[Constants.SIZE_OF_PICK];
+		
+		final int[] rGB = DataBufferInt.class.cast(bufferedImage.getRaster().getDataBuffer()).getData();
+		
+		final Range range = Range.create(rGB.length);
+		
+		final RayCasterKernel rayCasterKernel = isUsingPathTracer ? null : new RayCasterKernel(pick, rGB, new int[rGB.length], scene, new TileGrid(bufferedImage.getWidth(), bufferedImage.getHeight()));
+		
+		final PathTracerKernel pathTracerKernel = isUsingPathTracer ? new PathTracerKernel(rGB, scene, bufferedImage.getWidth(), bufferedImage.getHeight()) : null;
+		
+		final AbstractRayCasterKernel kernel = isUsingPathTracer ? pathTracerKernel : rayCasterKernel;
+		
+		if(!isUsingForkJoinPool) {
+			kernel.setExecutionMode(EXECUTION_MODE.valueOf(executionMode));
+		}
+		
+		if(isUsingPathTracer) {
+			pathTracerKernel.setCompacting(engine.equals("PATH_TRACER"));
+		}
+		
+		long totalNanoseconds = 0L;
+		
+		try {
+			for(int i = 0; i < cameraPoses.size(); i++) {
+				final float[] cameraPose = cameraPoses.get(i);
+				
+				camera.setEye(cameraPose[0], cameraPose[1], cameraPose[2]);
+				camera.setLookAt(cameraPose[3], cameraPose[4], cameraPose[5]);
+				camera.setUp(cameraPose[6], cameraPose[7], cameraPose[8]);
+				camera.calculateOrthonormalBasis();
+				
+				final long startNanoseconds = System.nanoTime();
+				
+				long workItemCount = 0L;
+				
+				if(isUsingPathTracer) {
+					pathTracerKernel.updateCamera(camera.getArray());
+					pathTracerKernel.resetAccumulation();
+					
+					for(int j = 0; j < samples; j++) {
+						if(isUsingForkJoinPool) {
+							pathTracerKernel.render(forkJoinPool);
+						} else {
+							pathTracerKernel.render();
+						}
+						
+						workItemCount += pathTracerKernel.getWorkItemCount();
+					}
+					
+					if(!isUsingForkJoinPool) {
+						pathTracerKernel.get(rGB);
+					}
+				} else {
+					rayCasterKernel.updateCamera(camera.getArray());
+					rayCasterKernel.resetAccumulation();
+					
+					if(isUsingForkJoinPool) {
+						rayCasterKernel.render(forkJoinPool);
+					} else {
+						rayCasterKernel.render(range);
+						rayCasterKernel.get(rGB);
+					}
+				}
+				
+				final long elapsedNanoseconds = System.nanoTime() - startNanoseconds;
+				
+				totalNanoseconds += elapsedNanoseconds;
+				
+				if(isUsingPathTracer) {
+					System.out.printf("Frame %s: %s ms, %s work-items%n", Integer.toString(i), Double.toString(elapsedNanoseconds / 1000000.0D), Long.toString(workItemCount));
+				} else {
+					System.out.printf("Frame %s: %s ms%n", Integer.toString(i), Double.toString(elapsedNanoseconds / 1000000.0D));
+				}
+				
+				ImageIO.write(bufferedImage, "png", new File(directory, String.format("frame_%05d.png", Integer.valueOf(i))));
+			}
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			forkJoinPool.shutdown();
+			
+			kernel.dispose();
+		}
+		
+		System.out.printf("Frames: %s, Average: %s ms%n", Integer.toString(cameraPoses.size()), Double.toString(cameraPoses.isEmpty() ? 0.0D : totalNanoseconds / 1000000.0D / cameraPoses.size()));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static int doParseSamples(final String string) {
+		try {
+			final int samples = Integer.parseInt(string);
+			
+			if(samples < 1 || samples > PathTracerKernel.MAXIMUM_SAMPLES) {
+				throw new IllegalArgumentException(String.format("Illegal samples: %s", string));
+			}
+			
+			return samples;
+		} catch(final NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("Illegal samples: %s", string), e);
+		}
+	}
+	
+	private static List<float[]> doReadCameraPoses(final File file) {
+		try {
+			final List<float[]> cameraPoses = new ArrayList<>();
+			final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+			
+			for(int i = 0; i < lines.size(); i++) {
+				final String line = lines.get(i).trim();
+				
+				if(!line.isEmpty() && !line.startsWith("#")) {
+					final String[] values = line.split("\\s+");
+					
+					if(values.length != 6 && values.length != 9) {
+						throw new IllegalArgumentException(String.format("Illegal camera pose at line %s: %s", Integer.toString(i + 1), line));
+					}
+					
+//					The up vector defaults to the positive Y-axis, which is the default of the Camera:
+					final float[] cameraPose = new float[] {0.0F, 0.0F, 0.0F, 0.0F, 0.0F, 0.0F, 0.0F, 1.0F, 0.0F};
+					
+					for(int j = 0; j < values.length; j++) {
+						try {
+							cameraPose[j] = Float.parseFloat(values[j]);
+						} catch(final NumberFormatException e) {
+							throw new IllegalArgumentException(String.format("Illegal camera pose at line %s: %s", Integer.toString(i + 1), line), e);
+						}
+					}
+					
+					cameraPoses.add(cameraPose);
+				}
+			}
+			
+			return cameraPoses;
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
\ No newline at end of file
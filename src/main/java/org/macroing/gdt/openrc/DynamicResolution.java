@@ -0,0 +1,233 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc;
+
+import org.macroing.gdt.openrc.util.Ranges;
+
+/**
+ * A {@code DynamicResolution} adjusts the resolution to render at, such that the frame time is held within a target frame time.
+ * <p>
+ * The resolution is always between the minimum and maximum resolution given in the constructor, and has approximately the same aspect ratio as the maximum resolution. The time it takes to render a frame is assumed to be
+ * proportional to the number of pixels. So, given the smoothed frame time, the resolution that would render in the target frame time is found by scaling both the width and the height by the square root of their ratio.
+ * <p>
+ * The resolution is decreased as soon as the smoothed frame time exceeds the target frame time, but only increased if it is less than {@code HEADROOM} times the target frame time, and by at most {@code MAXIMUM_INCREASE} at a time.
+ * In both cases, the new resolution is the one predicted to render in the middle of that range.
+ * After each change, {@code COOLDOWN_FRAMES} frames have to be measured before the next one. This keeps the resolution from oscillating, which would otherwise reset the accumulation of samples all the time.
+ * <p>
+ * This class is thread-safe, so the frame times may be recorded in one thread and the resolution read in another.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class DynamicResolution {
+	/**
+	 * The fraction of the target frame time the smoothed frame time has to be less than, for the resolution to be increased.
+	 */
+	public static final float HEADROOM = 0.75F;
+	
+	/**
+	 * The maximum factor by which the width and height are increased at a time.
+	 */
+	public static final float MAXIMUM_INCREASE = 1.1F;
+	
+	/**
+	 * The weight of the latest frame time in the smoothed frame time.
+	 */
+	public static final float SMOOTHING = 0.25F;
+	
+	/**
+	 * The number of frames that have to be measured after the resolution has changed, before it is changed again.
+	 */
+	public static final int COOLDOWN_FRAMES = 4;
+	
+	/**
+	 * The resolution of the width and height, which are always multiples of this value, unless they are equal to the minimum or maximum resolution.
+	 */
+	public static final int GRANULARITY = 8;
+	
+	/**
+	 * The default target frame time in nanoseconds, which is that of 60 frames per second.
+	 */
+	public static final long DEFAULT_TARGET_FRAME_TIME_NANOS = 1000000000L / 60L;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final int maximumHeight;
+	private final int maximumWidth;
+	private final int minimumHeight;
+	private final int minimumWidth;
+	private float scale = 1.0F;
+	private float smoothedFrameTimeNanos;
+	private int frameCount;
+	private int height;
+	private int width;
+	private long targetFrameTimeNanos = DEFAULT_TARGET_FRAME_TIME_NANOS;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code DynamicResolution} that starts at the maximum resolution and targets {@code DEFAULT_TARGET_FRAME_TIME_NANOS}.
+	 * <p>
+	 * If either {@code minimumWidth} or {@code minimumHeight} are less than {@code 1}, or greater than {@code maximumWidth} or {@code maximumHeight}, respectively, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param maximumWidth the maximum width
+	 * @param maximumHeight the maximum height
+	 * @param minimumWidth the minimum width
+	 * @param minimumHeight the minimum height
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code minimumWidth} or {@code minimumHeight} are less than {@code 1}, or greater than {@code maximumWidth} or {@code maximumHeight}, respectively
+	 */
+	public DynamicResolution(final int maximumWidth, final int maximumHeight, final int minimumWidth, final int minimumHeight) {
+		this.minimumHeight = Ranges.requireRange(minimumHeight, 1, maximumHeight);
+		this.minimumWidth = Ranges.requireRange(minimumWidth, 1, maximumWidth);
+		this.maximumHeight = maximumHeight;
+		this.maximumWidth = maximumWidth;
+		this.height = maximumHeight;
+		this.width = maximumWidth;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Updates this {@code DynamicResolution} with the time it took to render the latest frame, and returns {@code true} if, and only if, the resolution changed.
+	 * <p>
+	 * If {@code frameTimeNanos} is less than {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param frameTimeNanos the time it took to render the latest frame, in nanoseconds
+	 * @return {@code true} if, and only if, the resolution changed
+	 * @throws IllegalArgumentException thrown if, and only if, {@code frameTimeNanos} is less than {@code 0}
+	 */
+	public synchronized boolean update(final long frameTimeNanos) {
+		if(frameTimeNanos < 0L) {
+			throw new IllegalArgumentException(String.format("%s is less than 0", Long.toString(frameTimeNanos)));
+		}
+		
+		this.smoothedFrameTimeNanos = this.smoothedFrameTimeNanos == 0.0F ? frameTimeNanos : this.smoothedFrameTimeNanos + (frameTimeNanos - this.smoothedFrameTimeNanos) * SMOOTHING;
+		this.frameCount++;
+		
+		if(this.frameCount < COOLDOWN_FRAMES) {
+			return false;
+		}
+		
+		final float targetFrameTimeNanos = this.targetFrameTimeNanos;
+		final float smoothedFrameTimeNanos = Math.max(this.smoothedFrameTimeNanos, 1.0F);
+		
+		if(smoothedFrameTimeNanos > targetFrameTimeNanos || smoothedFrameTimeNanos < targetFrameTimeNanos * HEADROOM) {
+//			Scale the width and height such that the predicted frame time is in the middle of the range that is not changed, which is between HEADROOM times the target frame time and the target frame time:
+			final float factor = (float)(Math.sqrt(targetFrameTimeNanos * (1.0F + HEADROOM) * 0.5F / smoothedFrameTimeNanos));
+			
+			return doSetScale(this.scale * Math.min(factor, MAXIMUM_INCREASE));
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns the scale of the resolution, which is the fraction of the maximum resolution that is currently rendered along each axis.
+	 * 
+	 * @return the scale of the resolution
+	 */
+	public synchronized float getScale() {
+		return this.scale;
+	}
+	
+	/**
+	 * Returns the current height.
+	 * 
+	 * @return the current height
+	 */
+	public synchronized int getHeight() {
+		return this.height;
+	}
+	
+	/**
+	 * Returns the current width.
+	 * 
+	 * @return the current width
+	 */
+	public synchronized int getWidth() {
+		return this.width;
+	}
+	
+	/**
+	 * Returns the target frame time in nanoseconds.
+	 * 
+	 * @return the target frame time in nanoseconds
+	 */
+	public synchronized long getTargetFrameTimeNanos() {
+		return this.targetFrameTimeNanos;
+	}
+	
+	/**
+	 * Resets this {@code DynamicResolution} to the maximum resolution and forgets about the frame times measured so far.
+	 */
+	public synchronized void reset() {
+		this.scale = 1.0F;
+		this.smoothedFrameTimeNanos = 0.0F;
+		this.frameCount = 0;
+		this.height = this.maximumHeight;
+		this.width = this.maximumWidth;
+	}
+	
+	/**
+	 * Sets the target frame time in nanoseconds.
+	 * <p>
+	 * If {@code targetFrameTimeNanos} is less than or equal to {@code 0}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param targetFrameTimeNanos the target frame time in nanoseconds
+	 * @throws IllegalArgumentException thrown if, and only if, {@code targetFrameTimeNanos} is less than or equal to {@code 0}
+	 */
+	public synchronized void setTargetFrameTimeNanos(final long targetFrameTimeNanos) {
+		if(targetFrameTimeNanos <= 0L) {
+			throw new IllegalArgumentException(String.format("%s is less than or equal to 0", Long.toString(targetFrameTimeNanos)));
+		}
+		
+		this.targetFrameTimeNanos = targetFrameTimeNanos;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private boolean doSetScale(final float scale) {
+		final float minimumScale = Math.max((float)(this.minimumWidth) / this.maximumWidth, (float)(this.minimumHeight) / this.maximumHeight);
+		final float newScale = Math.min(Math.max(scale, minimumScale), 1.0F);
+		
+		final int width = doToResolution(this.maximumWidth * newScale, this.minimumWidth, this.maximumWidth);
+		final int height = doToResolution(this.maximumHeight * newScale, this.minimumHeight, this.maximumHeight);
+		
+		if(width == this.width && height == this.height) {
+			return false;
+		}
+		
+//		Predict the frame time at the new resolution, until it has been measured:
+		this.smoothedFrameTimeNanos *= (float)(width * height) / (this.width * this.height);
+		this.scale = newScale;
+		this.frameCount = 0;
+		this.height = height;
+		this.width = width;
+		
+		return true;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static int doToResolution(final float value, final int minimum, final int maximum) {
+		final int resolution = Math.round(value / GRANULARITY) * GRANULARITY;
+		
+		return resolution >= maximum || value >= maximum ? maximum : Math.max(resolution, minimum);
+	}
+}
\ No newline at end of file
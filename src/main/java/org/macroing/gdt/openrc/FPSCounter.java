@@ -22,10 +22,10 @@ import java.util.concurrent.atomic.AtomicLong;
 
 public final class FPSCounter {
 	private final AtomicLong newFPS = new AtomicLong();
-	private final AtomicLong newFPSReferenceTimeMillis = new AtomicLong();
-	private final AtomicLong newFrameTimeMillis = new AtomicLong();
+	private final AtomicLong newFPSReferenceTimeNanos = new AtomicLong();
+	private final AtomicLong newFrameTimeNanos = new AtomicLong();
 	private final AtomicLong oldFPS = new AtomicLong();
-	private final AtomicLong oldFrameTimeMillis = new AtomicLong();
+	private final AtomicLong oldFrameTimeNanos = new AtomicLong();
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -40,24 +40,33 @@ public final class FPSCounter {
 	}
 	
 	public long getFrameTimeMillis() {
-		return this.oldFrameTimeMillis.get();
+		return this.oldFrameTimeNanos.get() / 1000000L;
+	}
+	
+	/**
+	 * Returns the time between the two latest calls to {@link #update()}, in nanoseconds.
+	 * 
+	 * @return the time between the two latest calls to {@code update()}, in nanoseconds
+	 */
+	public long getFrameTimeNanos() {
+		return this.oldFrameTimeNanos.get();
 	}
 	
 	public void update() {
-		final long currentTimeMillis = System.currentTimeMillis();
+		final long currentTimeNanos = System.nanoTime();
 		
 		this.newFPS.incrementAndGet();
-		this.newFPSReferenceTimeMillis.compareAndSet(0L, currentTimeMillis);
-		this.oldFrameTimeMillis.set(currentTimeMillis - this.newFrameTimeMillis.get());
-		this.newFrameTimeMillis.set(currentTimeMillis);
+		this.newFPSReferenceTimeNanos.compareAndSet(0L, currentTimeNanos);
+		this.oldFrameTimeNanos.set(this.newFrameTimeNanos.get() != 0L ? currentTimeNanos - this.newFrameTimeNanos.get() : 0L);
+		this.newFrameTimeNanos.set(currentTimeNanos);
 		
-		final long newFPSReferenceTimeMillis = this.newFPSReferenceTimeMillis.get();
-		final long newFPSElapsedTimeMillis = currentTimeMillis - newFPSReferenceTimeMillis;
+		final long newFPSReferenceTimeNanos = this.newFPSReferenceTimeNanos.get();
+		final long newFPSElapsedTimeNanos = currentTimeNanos - newFPSReferenceTimeNanos;
 		
-		if(newFPSElapsedTimeMillis >= 1000L) {
+		if(newFPSElapsedTimeNanos >= 1000000000L) {
 			this.oldFPS.set(this.newFPS.get());
 			this.newFPS.set(0L);
-			this.newFPSReferenceTimeMillis.set(currentTimeMillis);
+			this.newFPSReferenceTimeNanos.set(currentTimeNanos);
 		}
 	}
 }
\ No newline at end of file
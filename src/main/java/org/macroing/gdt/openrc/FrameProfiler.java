@@ -0,0 +1,325 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+import org.macroing.gdt.openrc.util.Ranges;
+
+/**
+ * A {@code FrameProfiler} keeps track of the time spent in each stage of a frame, with nanosecond resolution.
+ * <p>
+ * For each stage, the durations of the last {@code WINDOW_SIZE} frames are kept. From these, the percentiles p50, p95 and p99 and the maximum are calculated, so stutters show up even if the average looks fine.
+ * <p>
+ * The stages {@code STAGE_KERNEL_CONVERSION} and {@code STAGE_KERNEL_EXECUTION} are not measured by the {@code FrameProfiler} itself, but are the figures reported by the API, as returned by {@code Kernel.getConversionTime()} and
+ * {@code Kernel.getExecutionTime()}.
+ * <p>
+ * This class is thread-safe, so the stages may be recorded in one thread and displayed in another.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class FrameProfiler {
+	/**
+	 * The stage for executing the {@code Kernel}, or casting the rays using a {@code ForkJoinPool}.
+	 */
+	public static final int STAGE_EXECUTE = 9;
+	
+	/**
+	 * The stage for a whole frame, from the start of one frame to the start of the next one.
+	 */
+	public static final int STAGE_FRAME = 0;
+	
+	/**
+	 * The stage for performing view frustum culling.
+	 */
+	public static final int STAGE_FRUSTUM_CULLING = 2;
+	
+	/**
+	 * The stage for fetching the pick result from the {@code Kernel}.
+	 */
+	public static final int STAGE_GET_PICK = 12;
+	
+	/**
+	 * The stage for fetching the RGB-values from the {@code Kernel}.
+	 */
+	public static final int STAGE_GET_RGB = 13;
+	
+	/**
+	 * The stage for the conversion of the {@code Kernel}, as reported by the API.
+	 */
+	public static final int STAGE_KERNEL_CONVERSION = 10;
+	
+	/**
+	 * The stage for the execution of the {@code Kernel}, as reported by the API.
+	 */
+	public static final int STAGE_KERNEL_EXECUTION = 11;
+	
+	/**
+	 * The stage for transferring the camera to the {@code Kernel}.
+	 */
+	public static final int STAGE_PUT_CAMERA = 4;
+	
+	/**
+	 * The stage for transferring the lights to the {@code Kernel}.
+	 */
+	public static final int STAGE_PUT_LIGHTS = 7;
+	
+	/**
+	 * The stage for transferring the shape indices to the {@code Kernel}.
+	 */
+	public static final int STAGE_PUT_SHAPE_INDICES = 5;
+	
+	/**
+	 * The stage for transferring the textures, or the texture updates, to the {@code Kernel}.
+	 */
+	public static final int STAGE_PUT_TEXTURES = 8;
+	
+	/**
+	 * The stage for transferring the tiles to the {@code Kernel}.
+	 */
+	public static final int STAGE_PUT_TILES = 6;
+	
+	/**
+	 * The stage for displaying a frame and telling the {@code JFrame} to repaint itself.
+	 */
+	public static final int STAGE_REPAINT = 15;
+	
+	/**
+	 * The stage for binning the shapes into screen tiles.
+	 */
+	public static final int STAGE_TILE_BINNING = 3;
+	
+	/**
+	 * The stage for updating the application, as done by {@link Application#update()}.
+	 */
+	public static final int STAGE_UPDATE = 1;
+	
+	/**
+	 * The stage for waiting for the previous frame to be rendered.
+	 */
+	public static final int STAGE_WAIT = 14;
+	
+	/**
+	 * The number of frames that are kept for each stage.
+	 */
+	public static final int WINDOW_SIZE = 256;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final String[] STAGE_NAMES = {"Frame", "Update", "Frustum Culling", "Tile Binning", "Put Camera", "Put Shape Indices", "Put Tiles", "Put Lights", "Put Textures", "Execute", "Kernel Conversion", "Kernel Execution", "Get Pick", "Get RGB", "Wait", "Repaint"};
+	private static final int STAGE_COUNT = STAGE_NAMES.length;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final int[] counts = new int[STAGE_COUNT];
+	private final int[] indices = new int[STAGE_COUNT];
+	private final long[] latestNanos = new long[STAGE_COUNT];
+	private final long[] sortedNanos = new long[WINDOW_SIZE];
+	private final long[][] windowNanos = new long[STAGE_COUNT][WINDOW_SIZE];
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code FrameProfiler}.
+	 */
+	public FrameProfiler() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the number of durations recorded for {@code stage}, up to {@code WINDOW_SIZE}.
+	 * <p>
+	 * If {@code stage} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param stage one of the {@code STAGE_*} constants
+	 * @return the number of durations recorded for {@code stage}, up to {@code WINDOW_SIZE}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code stage} is invalid
+	 */
+	public synchronized int getCount(final int stage) {
+		return this.counts[doRequireStage(stage)];
+	}
+	
+	/**
+	 * Returns the latest duration recorded for {@code stage}, in nanoseconds.
+	 * <p>
+	 * If {@code stage} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param stage one of the {@code STAGE_*} constants
+	 * @return the latest duration recorded for {@code stage}, in nanoseconds
+	 * @throws IllegalArgumentException thrown if, and only if, {@code stage} is invalid
+	 */
+	public synchronized long getLatestNanos(final int stage) {
+		return this.latestNanos[doRequireStage(stage)];
+	}
+	
+	/**
+	 * Returns the maximum duration recorded for {@code stage} in the last {@code WINDOW_SIZE} frames, in nanoseconds.
+	 * <p>
+	 * If {@code stage} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param stage one of the {@code STAGE_*} constants
+	 * @return the maximum duration recorded for {@code stage} in the last {@code WINDOW_SIZE} frames, in nanoseconds
+	 * @throws IllegalArgumentException thrown if, and only if, {@code stage} is invalid
+	 */
+	public synchronized long getMaximumNanos(final int stage) {
+		return getPercentileNanos(stage, 100);
+	}
+	
+	/**
+	 * Returns the {@code percentile}th percentile of the durations recorded for {@code stage} in the last {@code WINDOW_SIZE} frames, in nanoseconds.
+	 * <p>
+	 * The nearest-rank method is used, so the value returned is always one of the durations recorded. If nothing has been recorded, {@code 0L} is returned.
+	 * <p>
+	 * If either {@code stage} or {@code percentile} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param stage one of the {@code STAGE_*} constants
+	 * @param percentile the percentile, from {@code 1} to {@code 100}
+	 * @return the {@code percentile}th percentile of the durations recorded for {@code stage} in the last {@code WINDOW_SIZE} frames, in nanoseconds
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code stage} is invalid or {@code percentile} is less than {@code 1} or greater than {@code 100}
+	 */
+	public synchronized long getPercentileNanos(final int stage, final int percentile) {
+		Ranges.requireRange(percentile, 1, 100);
+		
+		final int count = getCount(stage);
+		
+		if(count == 0) {
+			return 0L;
+		}
+		
+		System.arraycopy(this.windowNanos[stage], 0, this.sortedNanos, 0, count);
+		
+		Arrays.sort(this.sortedNanos, 0, count);
+		
+		return this.sortedNanos[(count * percentile + 99) / 100 - 1];
+	}
+	
+	/**
+	 * Records {@code nanos} as the duration of {@code stage} in the current frame.
+	 * <p>
+	 * If {@code stage} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param stage one of the {@code STAGE_*} constants
+	 * @param nanos the duration in nanoseconds
+	 * @throws IllegalArgumentException thrown if, and only if, {@code stage} is invalid
+	 */
+	public synchronized void record(final int stage, final long nanos) {
+		this.windowNanos[doRequireStage(stage)][this.indices[stage]] = nanos;
+		this.counts[stage] = Math.min(this.counts[stage] + 1, WINDOW_SIZE);
+		this.indices[stage] = (this.indices[stage] + 1) % WINDOW_SIZE;
+		this.latestNanos[stage] = nanos;
+	}
+	
+	/**
+	 * Records the time elapsed since {@code startNanos} as the duration of {@code stage} in the current frame.
+	 * <p>
+	 * Returns the current value of {@code System.nanoTime()}, so the next stage can be timed from where this one ended.
+	 * <p>
+	 * If {@code stage} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param stage one of the {@code STAGE_*} constants
+	 * @param startNanos the value of {@code System.nanoTime()} when {@code stage} started
+	 * @return the current value of {@code System.nanoTime()}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code stage} is invalid
+	 */
+	public long recordSince(final int stage, final long startNanos) {
+		final long currentNanos = System.nanoTime();
+		
+		record(stage, currentNanos - startNanos);
+		
+		return currentNanos;
+	}
+	
+	/**
+	 * Renders the statistics of all stages as an overlay, with its upper left corner at {@code x} and {@code y}.
+	 * <p>
+	 * The overlay is rendered using a monospaced font, so the columns line up. Each row contains the latest duration, the percentiles p50, p95 and p99 and the maximum of a stage, in milliseconds. Stages that have not been recorded are skipped.
+	 * <p>
+	 * If {@code graphics2D} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param graphics2D the {@code Graphics2D} to render with
+	 * @param x the X-coordinate of the upper left corner
+	 * @param y the Y-coordinate of the upper left corner
+	 * @throws NullPointerException thrown if, and only if, {@code graphics2D} is {@code null}
+	 */
+	public synchronized void render(final Graphics2D graphics2D, final int x, final int y) {
+		final String header = String.format("%-18s %8s %8s %8s %8s %8s", "Stage (ms)", "Latest", "p50", "p95", "p99", "Max");
+		
+		final String[] rows = new String[STAGE_COUNT + 1];
+		
+		int rowCount = 0;
+		
+		rows[rowCount++] = header;
+		
+		for(int stage = 0; stage < STAGE_COUNT; stage++) {
+			if(getCount(stage) > 0) {
+				rows[rowCount++] = String.format("%-18s %8.3f %8.3f %8.3f %8.3f %8.3f", STAGE_NAMES[stage], doToMillis(getLatestNanos(stage)), doToMillis(getPercentileNanos(stage, 50)), doToMillis(getPercentileNanos(stage, 95)), doToMillis(getPercentileNanos(stage, 99)), doToMillis(getMaximumNanos(stage)));
+			}
+		}
+		
+		final Font font = graphics2D.getFont();
+		
+		graphics2D.setFont(new Font(Font.MONOSPACED, Font.PLAIN, font.getSize()));
+		
+		final int rowHeight = graphics2D.getFontMetrics().getHeight();
+		final int width = graphics2D.getFontMetrics().stringWidth(header) + 20;
+		final int height = rowHeight * rowCount + 20;
+		
+		graphics2D.setColor(Color.BLACK);
+		graphics2D.fillRect(x, y, width, height);
+		graphics2D.setColor(Color.WHITE);
+		graphics2D.drawRect(x, y, width, height);
+		
+		for(int i = 0; i < rowCount; i++) {
+			graphics2D.drawString(rows[i], x + 10, y + 10 + rowHeight * (i + 1) - graphics2D.getFontMetrics().getDescent());
+		}
+		
+		graphics2D.setFont(font);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the name of {@code stage}.
+	 * <p>
+	 * If {@code stage} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param stage one of the {@code STAGE_*} constants
+	 * @return the name of {@code stage}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code stage} is invalid
+	 */
+	public static String getName(final int stage) {
+		return STAGE_NAMES[doRequireStage(stage)];
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double doToMillis(final long nanos) {
+		return nanos / 1000000.0D;
+	}
+	
+	private static int doRequireStage(final int stage) {
+		return Ranges.requireRange(stage, 0, STAGE_COUNT - 1);
+	}
+}
\ No newline at end of file
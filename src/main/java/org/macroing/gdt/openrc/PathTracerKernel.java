@@ -0,0 +1,971 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.macroing.gdt.openrc.geometry.Camera;
+import org.macroing.gdt.openrc.geometry.Intersection;
+import org.macroing.gdt.openrc.geometry.Light;
+import org.macroing.gdt.openrc.geometry.Material;
+import org.macroing.gdt.openrc.geometry.PointLight;
+import org.macroing.gdt.openrc.geometry.Scene;
+import org.macroing.gdt.openrc.geometry.Shape;
+import org.macroing.gdt.openrc.util.Ranges;
+
+import com.amd.aparapi.Range;
+
+/**
+ * A {@code PathTracerKernel} renders a {@link Scene} by path tracing, as a wavefront of small stages rather than a single kernel that follows each path to its end.
+ * <p>
+ * Each rendering adds one sample per pixel to an accumulation buffer of {@code float}s, and is executed as the following stages, each of which is a separate execution of this {@code PathTracerKernel}:
+ * <ol>
+ * <li>Generate - Starts a path per pixel, with a primary ray through a jittered point of the pixel, and appends all paths to the ray queue.</li>
+ * <li>Intersect - Finds the closest intersection of the ray of each path in the ray queue, and appends the paths that intersect a shape to the hit queue.</li>
+ * <li>Shade - Adds the ambient light of the primary intersections, samples a point light for each path in the hit queue and appends the path to the shadow queue if that light faces the surface, samples the direction of the next
+ * ray and appends the path to the next ray queue, unless it is terminated.</li>
+ * <li>Shadow - Adds the light sampled by each path in the shadow queue, unless its shadow ray intersects a shape.</li>
+ * <li>Accumulate - Adds the light gathered by the path of each pixel to the accumulation buffer and updates the RGB-values.</li>
+ * </ol>
+ * The stages intersect, shade and shadow are repeated for each bounce, until the maximum depth is reached or all paths have terminated. The queues contain the indices of the paths, whose rays, intersections and light are stored in
+ * arrays indexed by the path. Because the queues are compacted, by appending the paths with {@code atomicAdd}, each stage only launches work-items for the paths that are still alive. So the work-items of a bounce all have work to
+ * do, regardless of how many paths have terminated at earlier depths, which a single kernel would have to wait for.
+ * <p>
+ * The values in the {@code float} array {@code paths} consists of the following:
+ * <ol>
+ * <li>Throughput (3 values)</li>
+ * <li>Radiance (3 values)</li>
+ * <li>Shadow ray radiance (3 values)</li>
+ * <li>Shadow ray distance</li>
+ * </ol>
+ * <p>
+ * A path that has terminated has a throughput of {@code 0.0}. The rays of each path are laid out the same way as in the {@link RayCasterKernel}, where the first one is the ray of the path and the second one is its shadow ray.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class PathTracerKernel extends AbstractRayCasterKernel {
+	/**
+	 * The maximum depth of the paths that can be set by {@link #setMaximumDepth(int)}.
+	 */
+	public static final int MAXIMUM_DEPTH = 16;
+	
+	/**
+	 * The maximum number of samples per pixel that are accumulated. When reached, the image is kept as is and rendering does nothing until the accumulation is reset.
+	 */
+	public static final int MAXIMUM_SAMPLES = 1024;
+	
+	/**
+	 * The depth from which Russian roulette may terminate the paths, with a probability that increases as their throughput decreases.
+	 */
+	public static final int RUSSIAN_ROULETTE_DEPTH = 2;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final float RANDOM_RECIPROCAL = 1.0F / 16777216.0F;
+	private static final int COUNT_HITS = 2;
+	private static final int COUNT_NEXT_RAYS = 1;
+	private static final int COUNT_RAYS = 0;
+	private static final int COUNT_SHADOW_RAYS = 3;
+	private static final int RELATIVE_OFFSET_OF_RADIANCE = 3;
+	private static final int RELATIVE_OFFSET_OF_SHADOW_RAY_DISTANCE = 9;
+	private static final int RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE = 6;
+	private static final int RELATIVE_OFFSET_OF_THROUGHPUT = 0;
+	private static final int SIZE_OF_PATH = 3 + 3 + 3 + 1;
+	private static final int STAGE_ACCUMULATE = 4;
+	private static final int STAGE_GENERATE = 0;
+	private static final int STAGE_INTERSECT = 1;
+	private static final int STAGE_SHADE = 2;
+	private static final int STAGE_SHADOW = 3;
+	private static final int WORK_GROUP_SIZE = 64;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final float[] accumulation;
+	private final float[] boundingVolumeHierarchy;
+	private final float[] camera;
+	private final float[] intersections;
+	private final float[] lights;
+	private final float[] materials;
+	private final float[] paths;
+	private final float[] pick;
+	private final float[] pixels;
+	private final float[] rays;
+	private final float[] shapes;
+	private final int height;
+	private final int lightCount;
+	private final int lightsLength;
+	private final int pathCount;
+	private final int width;
+	private final int[] boundingVolumeHierarchyShapeIndices;
+	private final int[] counts;
+	private final int[] hitQueue;
+	private final int[] randoms;
+	private final int[] rayQueues;
+	private final int[] rGB;
+	private final int[] shadowQueue;
+	private final int[] textures;
+	private boolean isCompacting = true;
+	private int depth;
+	private int maximumDepth = 4;
+	private int rayQueueOffset;
+	private int sampleCount;
+	private int stage = STAGE_GENERATE;
+	private long workItemCount;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code PathTracerKernel}.
+	 * <p>
+	 * The camera and lights are copied, so the {@link Scene} may be updated while this {@code PathTracerKernel} executes. Use {@link #updateCamera(float[])} and {@link #updateLights(float[])} to transfer new values. Only point lights
+	 * are sampled.
+	 * <p>
+	 * Compaction is enabled by default, and the maximum depth of the paths is {@code 4}. See {@link #setCompacting(boolean)} and {@link #setMaximumDepth(int)}.
+	 * <p>
+	 * If either {@code rGB} or {@code scene} are {@code null}, a {@code NullPointerException} will be thrown. If either {@code width} or {@code height} are less than {@code 1}, or {@code rGB} contains less than
+	 * {@code width * height} RGB-values, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param rGB the {@code int} array to write the RGB-values to
+	 * @param scene the {@code Scene} to render
+	 * @param width the width of the screen
+	 * @param height the height of the screen
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code width} or {@code height} are less than {@code 1}, or {@code rGB} contains less than {@code width * height} RGB-values
+	 * @throws NullPointerException thrown if, and only if, either {@code rGB} or {@code scene} are {@code null}
+	 */
+	public PathTracerKernel(final int[] rGB, final Scene scene, final int width, final int height) {
+		Objects.requireNonNull(rGB, "rGB == null");
+		Objects.requireNonNull(scene, "scene == null");
+		
+		Ranges.requireRange(width, 1, Integer.MAX_VALUE);
+		Ranges.requireRange(height, 1, Integer.MAX_VALUE / width);
+		
+		if(rGB.length < width * height) {
+			throw new IllegalArgumentException(String.format("Illegal RGB-values: %s < %s", Integer.toString(rGB.length), Integer.toString(width * height)));
+		}
+		
+		this.accumulation = new float[width * height * 3];
+		this.boundingVolumeHierarchy = scene.getBoundingVolumeHierarchyAsArray();
+		this.camera = scene.getCamera().getArray().clone();
+		this.intersections = Intersection.create(width * height);
+		this.lights = scene.getLightsAsArray().clone();
+		this.materials = scene.getMaterialsAsArray();
+		this.paths = new float[width * height * SIZE_OF_PATH];
+		this.pick = new float[Constants.SIZE_OF_PICK];
+		this.pixels = new float[width * height * Constants.SIZE_OF_PIXEL];
+		this.rays = new float[width * height * Constants.SIZE_OF_RAY];
+		this.shapes = scene.getShapesAsArray();
+		this.height = height;
+		this.lightCount = doCountPointLights(this.lights);
+		this.lightsLength = this.lights.length;
+		this.pathCount = width * height;
+		this.width = width;
+		this.boundingVolumeHierarchyShapeIndices = scene.getBoundingVolumeHierarchyShapeIndices();
+		this.counts = new int[4];
+		this.hitQueue = new int[width * height];
+		this.randoms = new int[width * height];
+		this.rayQueues = new int[width * height * 2];
+		this.rGB = rGB;
+		this.shadowQueue = new int[width * height];
+		this.textures = scene.getTexturesAsArray();
+		
+//		Make the Kernel instance explicit, such that only the counts of the queues are transferred between the stages:
+		setExplicit(true);
+		
+//		Tell the API to fetch the below arrays and their values before executing this Kernel instance (they will be transferred to the GPU):
+		put(this.accumulation);
+		put(this.boundingVolumeHierarchy);
+		put(this.camera);
+		put(this.intersections);
+		put(this.lights);
+		put(this.materials);
+		put(this.paths);
+		put(this.pick);
+		put(this.pixels);
+		put(this.rays);
+		put(this.shapes);
+		put(this.boundingVolumeHierarchyShapeIndices);
+		put(this.counts);
+		put(this.hitQueue);
+		put(this.randoms);
+		put(this.rayQueues);
+		put(this.rGB);
+		put(this.shadowQueue);
+		put(this.textures);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns {@code true} if, and only if, the queues are compacted.
+	 * 
+	 * @return {@code true} if, and only if, the queues are compacted
+	 */
+	public boolean isCompacting() {
+		return this.isCompacting;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code MAXIMUM_SAMPLES} samples per pixel have been accumulated.
+	 * <p>
+	 * Once converged, rendering does nothing until the accumulation is reset.
+	 * 
+	 * @return {@code true} if, and only if, {@code MAXIMUM_SAMPLES} samples per pixel have been accumulated
+	 */
+	public boolean isConverged() {
+		return this.sampleCount >= MAXIMUM_SAMPLES;
+	}
+	
+	/**
+	 * Returns the maximum depth of the paths, which is the maximum number of rays per path, not counting the shadow rays.
+	 * 
+	 * @return the maximum depth of the paths
+	 */
+	public int getMaximumDepth() {
+		return this.maximumDepth;
+	}
+	
+	/**
+	 * Returns the number of samples per pixel that have been accumulated so far.
+	 * 
+	 * @return the number of samples per pixel that have been accumulated so far
+	 */
+	public int getSampleCount() {
+		return this.sampleCount;
+	}
+	
+	/**
+	 * Returns the number of work-items that were launched by the intersect, shade and shadow stages of the previous rendering, summed over all bounces.
+	 * <p>
+	 * If the queues are compacted, this is the number of rays, intersections and shadow rays that were processed. Otherwise it is the number of paths times the number of stages that were executed.
+	 * 
+	 * @return the number of work-items that were launched by the intersect, shade and shadow stages of the previous rendering
+	 */
+	public long getWorkItemCount() {
+		return this.workItemCount;
+	}
+	
+	/**
+	 * Renders one sample per pixel in Java, using {@code forkJoinPool}, and adds it to the accumulation.
+	 * <p>
+	 * The stages are the same as for {@link #render()}, but the work-items of each stage are split into tasks that are executed by {@code forkJoinPool}, without using the API. The RGB-values are written directly to the {@code int}
+	 * array given in the constructor.
+	 * <p>
+	 * If {@code forkJoinPool} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param forkJoinPool the {@code ForkJoinPool} to execute the tasks in
+	 * @throws NullPointerException thrown if, and only if, {@code forkJoinPool} is {@code null}
+	 */
+	public void render(final ForkJoinPool forkJoinPool) {
+		Objects.requireNonNull(forkJoinPool, "forkJoinPool == null");
+		
+		doRender(forkJoinPool);
+	}
+	
+	/**
+	 * Renders one sample per pixel by executing this {@code PathTracerKernel} in its execution mode, and adds it to the accumulation.
+	 * <p>
+	 * Each stage is a separate execution, with a {@code Range} of as many work-items as there are paths in its queue, rounded up to a multiple of the work-group size. Only the counts of the queues are transferred between the
+	 * stages. Use {@link #get(int[])} to fetch the RGB-values when done.
+	 */
+	public void render() {
+		doRender(null);
+	}
+	
+	/**
+	 * Resets the accumulation of samples, such that the next rendering starts over with a single sample per pixel.
+	 * <p>
+	 * This is done automatically by {@link #updateCamera(float[])} and {@link #updateLights(float[])} when their values change. Any other change to the rendered image, such as modified texels, has to be followed by a call to this
+	 * method.
+	 */
+	public void resetAccumulation() {
+		this.sampleCount = 0;
+	}
+	
+	/**
+	 * This is what the {@code Kernel} executes on the GPU (or in the CPU).
+	 */
+	@Override
+	public void run() {
+		doRunStage(getGlobalId());
+	}
+	
+	/**
+	 * Sets whether the queues should be compacted.
+	 * <p>
+	 * If enabled, the intersect, shade and shadow stages only launch work-items for the paths in their queues, which are compacted by appending to them with {@code atomicAdd}, and the bounces end as soon as all paths have
+	 * terminated. If disabled, each of these stages launches a work-item per path for every bounce up to the maximum depth, and the work-items of the paths that have terminated do nothing. The rendered image is the same either way.
+	 * 
+	 * @param isCompacting {@code true} if, and only if, the queues should be compacted
+	 */
+	public void setCompacting(final boolean isCompacting) {
+		this.isCompacting = isCompacting;
+	}
+	
+	/**
+	 * Sets the maximum depth of the paths, which is the maximum number of rays per path, not counting the shadow rays.
+	 * <p>
+	 * A maximum depth of {@code 1} only gathers the direct light of the primary intersections. If the maximum depth changes, the accumulation of samples is reset.
+	 * <p>
+	 * If {@code maximumDepth} is less than {@code 1} or greater than {@code MAXIMUM_DEPTH}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param maximumDepth the new maximum depth of the paths
+	 * @throws IllegalArgumentException thrown if, and only if, {@code maximumDepth} is less than {@code 1} or greater than {@code MAXIMUM_DEPTH}
+	 */
+	public void setMaximumDepth(final int maximumDepth) {
+		if(this.maximumDepth != Ranges.requireRange(maximumDepth, 1, MAXIMUM_DEPTH)) {
+			this.maximumDepth = maximumDepth;
+			
+			resetAccumulation();
+		}
+	}
+	
+	/**
+	 * Copies the values of {@code camera} to the camera of this {@code PathTracerKernel}, and tells the API to fetch them before the next execution.
+	 * <p>
+	 * If the values have changed, the accumulation of samples is reset.
+	 * <p>
+	 * If {@code camera} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param camera the {@code float} array of a {@code Camera}
+	 * @throws NullPointerException thrown if, and only if, {@code camera} is {@code null}
+	 */
+	public void updateCamera(final float[] camera) {
+		if(doCopy(camera, this.camera)) {
+			resetAccumulation();
+		}
+		
+		put(this.camera);
+	}
+	
+	/**
+	 * Copies the values of {@code lights} to the lights of this {@code PathTracerKernel}, and tells the API to fetch them before the next execution.
+	 * <p>
+	 * If the values have changed, the accumulation of samples is reset.
+	 * <p>
+	 * If {@code lights} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param lights the {@code float} array of the lights in the {@code Scene}
+	 * @throws NullPointerException thrown if, and only if, {@code lights} is {@code null}
+	 */
+	public void updateLights(final float[] lights) {
+		if(doCopy(lights, this.lights)) {
+			resetAccumulation();
+		}
+		
+		put(this.lights);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private boolean doIsAlive(final int path) {
+		return this.paths[path * SIZE_OF_PATH + RELATIVE_OFFSET_OF_THROUGHPUT + 0] + this.paths[path * SIZE_OF_PATH + RELATIVE_OFFSET_OF_THROUGHPUT + 1] + this.paths[path * SIZE_OF_PATH + RELATIVE_OFFSET_OF_THROUGHPUT + 2] > 0.0F;
+	}
+	
+	private float doRandom(final int path) {
+//		Advance the xorshift random number generator of the path, where the logical right shift is replaced by an arithmetic one and a mask:
+		int random = this.randoms[path];
+		
+		random ^= random << 13;
+		random ^= (random >> 17) & 0x7FFF;
+		random ^= random << 5;
+		
+		this.randoms[path] = random;
+		
+		return (random & 0xFFFFFF) * RANDOM_RECIPROCAL;
+	}
+	
+	private int doGetPath(final int queueIndex, final int queueOffset, final int[] queue) {
+//		The queues are only used if they are compacted. Otherwise there is a work-item per path:
+		return this.isCompacting ? queue[queueOffset + queueIndex] : queueIndex;
+	}
+	
+	private int doGetQueueLength(final int count) {
+		return this.isCompacting ? this.counts[count] : this.pathCount;
+	}
+	
+	private void doAccumulate(final int path) {
+//		Initialize the offsets of the path, its accumulated RGB-components and its pixel:
+		final int pathOffset = path * SIZE_OF_PATH;
+		final int accumulationOffset = path * 3;
+		final int pixelOffset = path * Constants.SIZE_OF_PIXEL;
+		
+		if(this.sampleCount == 0) {
+//			Start a new accumulation with the radiance of the path:
+			this.accumulation[accumulationOffset + 0] = this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 0];
+			this.accumulation[accumulationOffset + 1] = this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 1];
+			this.accumulation[accumulationOffset + 2] = this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 2];
+		} else {
+//			Add the radiance of the path to the accumulation:
+			this.accumulation[accumulationOffset + 0] += this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 0];
+			this.accumulation[accumulationOffset + 1] += this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 1];
+			this.accumulation[accumulationOffset + 2] += this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 2];
+		}
+		
+//		Update the pixel with the sum of all accumulated samples:
+		this.pixels[pixelOffset + 0] = this.accumulation[accumulationOffset + 0];
+		this.pixels[pixelOffset + 1] = this.accumulation[accumulationOffset + 1];
+		this.pixels[pixelOffset + 2] = this.accumulation[accumulationOffset + 2];
+		
+//		Update the pixel by performing gamma correction, tone mapping and scaling:
+		updatePixel(this.sampleCount + 1, this.pixels, pixelOffset, path, this.rGB);
+	}
+	
+	private void doExecute(final ForkJoinPool forkJoinPool, final int stage, final int workItemCount) {
+		this.stage = stage;
+		
+		if(forkJoinPool != null) {
+			forkJoinPool.invoke(new StageAction(this, 0, workItemCount));
+		} else {
+//			Round the number of work-items up to a multiple of the work-group size, as the work-items beyond the queue length do nothing:
+			execute(Range.create((workItemCount + WORK_GROUP_SIZE - 1) / WORK_GROUP_SIZE * WORK_GROUP_SIZE));
+		}
+	}
+	
+	private void doGenerate(final int path) {
+//		Initialize the X- and Y-coordinates of the pixel of the path:
+		final int x = path % this.width;
+		final int y = path / this.width;
+		
+//		Seed the random number generator of the path, such that every pixel and sample gets its own sequence, which must not start at 0:
+		this.randoms[path] = (((path + 1) * 0x9E3779B9) ^ ((this.sampleCount + 1) * 0x85EBCA6B)) | 1;
+		
+//		Initialize the pixel sample point, which is the center of the pixel for the first sample and a random point in the pixel for the following samples:
+		final float sampleX = this.sampleCount == 0 ? 0.5F : doRandom(path);
+		final float sampleY = this.sampleCount == 0 ? 0.5F : doRandom(path);
+		
+//		Initialize zoom factor reciprocal and the U- and V-coordinates:
+		final float zoomReciprocal = 1.0F / this.camera[Camera.ABSOLUTE_OFFSET_OF_ZOOM];
+		final float u = (x - this.width * 0.5F + sampleX) * zoomReciprocal;
+		final float v = (y - this.height * 0.5F + sampleY) * zoomReciprocal;
+		
+//		Initialize the offsets of the path and its ray:
+		final int pathOffset = path * SIZE_OF_PATH;
+		final int rayOffset = path * Constants.SIZE_OF_RAY;
+		
+//		Update the origin point and the direction vector of the primary ray:
+		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 0] = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 0];
+		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 1] = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 1];
+		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 2] = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 2];
+		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0] = this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 0] * u + this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 0] * v - this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 0] * this.camera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE];
+		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1] = this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 1] * u + this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 1] * v - this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 1] * this.camera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE];
+		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2] = this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 2] * u + this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 2] * v - this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 2] * this.camera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE];
+		
+		normalize(this.rays, rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0);
+		
+//		Start the path with full throughput and no radiance:
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 0] = 1.0F;
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 1] = 1.0F;
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 2] = 1.0F;
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 0] = 0.0F;
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 1] = 0.0F;
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 2] = 0.0F;
+		
+//		Append the path to the first ray queue, where the index of the work-item is the index in the queue:
+		this.rayQueues[path] = path;
+	}
+	
+	private void doIntersect(final int path) {
+//		Initialize the offsets of the path, its intersection and its ray:
+		final int pathOffset = path * SIZE_OF_PATH;
+		final int intersectionOffset = path * Intersection.SIZE;
+		final int rayOffset = path * Constants.SIZE_OF_RAY;
+		
+//		Calculate the distance to the closest shape, if any, by traversing the bounding volume hierarchy:
+		final float distance = findIntersectionUsingBoundingVolumeHierarchy(true, this.boundingVolumeHierarchy, this.intersections, this.rays, this.shapes, intersectionOffset, rayOffset, this.boundingVolumeHierarchyShapeIndices);
+		
+		if(distance > 0.0F && distance < Constants.MAXIMUM_DISTANCE) {
+			if(this.isCompacting) {
+//				Append the path to the hit queue, which is shaded by the next stage:
+				this.hitQueue[atomicAdd(this.counts, COUNT_HITS, 1)] = path;
+			}
+		} else {
+//			Terminate the path, as nothing is seen in the direction of its ray:
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 0] = 0.0F;
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 1] = 0.0F;
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 2] = 0.0F;
+		}
+	}
+	
+	private void doRender(final ForkJoinPool forkJoinPool) {
+		final int nextRayQueueOffset = this.pathCount;
+		
+		this.rayQueueOffset = 0;
+		this.workItemCount = 0L;
+		
+		if(isConverged()) {
+//			Do not trace any paths, as their radiance would not be accumulated anyway, and the RGB-values are still those of the last sample:
+			return;
+		}
+		
+//		Start a path per pixel, all of which are in the first ray queue:
+		doExecute(forkJoinPool, STAGE_GENERATE, this.pathCount);
+		
+		this.counts[COUNT_RAYS] = this.pathCount;
+		
+		for(int depth = 0; depth < this.maximumDepth && this.counts[COUNT_RAYS] > 0; depth++) {
+			this.counts[COUNT_NEXT_RAYS] = 0;
+			this.counts[COUNT_HITS] = 0;
+			this.counts[COUNT_SHADOW_RAYS] = 0;
+			this.depth = depth;
+			
+			if(forkJoinPool == null && this.isCompacting) {
+				put(this.counts);
+			}
+			
+			final int rayCount = doGetQueueLength(COUNT_RAYS);
+			
+			doExecute(forkJoinPool, STAGE_INTERSECT, rayCount);
+			
+			if(forkJoinPool == null && this.isCompacting) {
+				get(this.counts);
+			}
+			
+			final int hitCount = doGetQueueLength(COUNT_HITS);
+			
+			if(hitCount > 0) {
+				doExecute(forkJoinPool, STAGE_SHADE, hitCount);
+				
+				if(forkJoinPool == null && this.isCompacting) {
+					get(this.counts);
+				}
+			}
+			
+			final int shadowRayCount = hitCount > 0 ? doGetQueueLength(COUNT_SHADOW_RAYS) : 0;
+			
+			if(shadowRayCount > 0) {
+				doExecute(forkJoinPool, STAGE_SHADOW, shadowRayCount);
+			}
+			
+			this.workItemCount += rayCount + hitCount + shadowRayCount;
+			
+//			Swap the ray queues, such that the paths that are still alive are intersected by the next bounce:
+			this.counts[COUNT_RAYS] = this.isCompacting ? this.counts[COUNT_NEXT_RAYS] : this.pathCount;
+			this.rayQueueOffset = this.rayQueueOffset == 0 ? nextRayQueueOffset : 0;
+		}
+		
+//		Add the radiance of all paths to the accumulation and update the RGB-values:
+		doExecute(forkJoinPool, STAGE_ACCUMULATE, this.pathCount);
+		
+		this.sampleCount++;
+	}
+	
+	private void doRunStage(final int globalId) {
+//		Initialize the length of the queue of the current stage, where the stages generate and accumulate have a work-item per path:
+		final int queueLength = this.stage == STAGE_INTERSECT ? doGetQueueLength(COUNT_RAYS) : this.stage == STAGE_SHADE ? doGetQueueLength(COUNT_HITS) : this.stage == STAGE_SHADOW ? doGetQueueLength(COUNT_SHADOW_RAYS) : this.pathCount;
+		
+		if(globalId < queueLength) {
+//			Initialize the path of the work-item from the queue of the current stage:
+			final int path = this.stage == STAGE_INTERSECT ? doGetPath(globalId, this.rayQueueOffset, this.rayQueues) : this.stage == STAGE_SHADE ? doGetPath(globalId, 0, this.hitQueue) : this.stage == STAGE_SHADOW ? doGetPath(globalId, 0, this.shadowQueue) : globalId;
+			
+			if(this.stage == STAGE_GENERATE) {
+				doGenerate(path);
+			}
+			
+			if(this.stage == STAGE_INTERSECT && doIsAlive(path)) {
+				doIntersect(path);
+			}
+			
+			if(this.stage == STAGE_SHADE && doIsAlive(path)) {
+				doShade(path);
+			}
+			
+			if(this.stage == STAGE_SHADOW) {
+				doShadow(path);
+			}
+			
+			if(this.stage == STAGE_ACCUMULATE) {
+				doAccumulate(path);
+			}
+		}
+	}
+	
+	private void doSampleLight(final int path, final int pathOffset, final int intersectionOffset, final int materialOffset, final int pixelOffset, final int rayOffset, final int shapeOffset) {
+//		Initialize the offset of a point light that is chosen uniformly at random:
+		final int chosenLight = min((int)(doRandom(path) * this.lightCount), this.lightCount - 1);
+		
+		int lightOffset = -1;
+		
+		for(int i = 0, j = 0, k = 0; i < this.lightsLength; i += j) {
+			j = (int)(this.lights[i + Light.RELATIVE_OFFSET_OF_SIZE]);
+			
+			if(this.lights[i + Light.RELATIVE_OFFSET_OF_TYPE] == PointLight.TYPE) {
+				if(k == chosenLight) {
+					lightOffset = i;
+				}
+				
+				k++;
+			}
+		}
+		
+//		Initialize the radiance of the shadow ray, which remains 0.0 unless the point light faces the surface:
+		float radianceR = 0.0F;
+		float radianceG = 0.0F;
+		float radianceB = 0.0F;
+		
+		if(lightOffset >= 0) {
+//			Initialize the surface intersection point and the surface normal on it:
+			final float surfaceIntersectionX = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 0];
+			final float surfaceIntersectionY = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 1];
+			final float surfaceIntersectionZ = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 2];
+			final float surfaceNormalX = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 0];
+			final float surfaceNormalY = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 1];
+			final float surfaceNormalZ = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 2];
+			
+//			Calculate the incident direction vector and the distance to the point light:
+			final float deltaX = this.lights[lightOffset + PointLight.RELATIVE_OFFSET_OF_POSITION + 0] - surfaceIntersectionX;
+			final float deltaY = this.lights[lightOffset + PointLight.RELATIVE_OFFSET_OF_POSITION + 1] - surfaceIntersectionY;
+			final float deltaZ = this.lights[lightOffset + PointLight.RELATIVE_OFFSET_OF_POSITION + 2] - surfaceIntersectionZ;
+			final float distance = sqrt(deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ);
+			final float wiX = deltaX / distance;
+			final float wiY = deltaY / distance;
+			final float wiZ = deltaZ / distance;
+			
+//			Calculate the dot product between the surface normal and the incident vector:
+			final float surfaceNormalDotWi = surfaceNormalX * wiX + surfaceNormalY * wiY + surfaceNormalZ * wiZ;
+			
+			if(surfaceNormalDotWi > 0.0F) {
+//				Calculate the diffuse color the same way as the RayCasterKernel does:
+				clearPixel(this.pixels, pixelOffset);
+				
+				addDiffuseLightBRDF(false, this.intersections, this.materials, this.pick, this.pixels, this.shapes, intersectionOffset, materialOffset, pixelOffset, shapeOffset, this.textures);
+				
+				final float diffuseR = this.pixels[pixelOffset + 0];
+				final float diffuseG = this.pixels[pixelOffset + 1];
+				final float diffuseB = this.pixels[pixelOffset + 2];
+				
+//				Calculate the specular color the same way as the RayCasterKernel does:
+				clearPixel(this.pixels, pixelOffset);
+				
+				addSpecularLightBRDF(false, surfaceNormalX, surfaceNormalY, surfaceNormalZ, wiX, wiY, wiZ, -this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0], -this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1], -this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2], this.intersections, this.materials, this.pick, this.pixels, this.shapes, intersectionOffset, materialOffset, pixelOffset, shapeOffset, this.textures);
+				
+//				Initialize the weight of the light, which is the throughput divided by the probability of choosing the point light:
+				final float weight = surfaceNormalDotWi * this.lightCount;
+				
+				radianceR = (diffuseR + this.pixels[pixelOffset + 0]) * weight * this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 0];
+				radianceG = (diffuseG + this.pixels[pixelOffset + 1]) * weight * this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 1];
+				radianceB = (diffuseB + this.pixels[pixelOffset + 2]) * weight * this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 2];
+				
+//				Update the shadow ray with the origin and direction, the same way as the RayCasterKernel does:
+				this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1 + 0] = surfaceIntersectionX + wiX;
+				this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1 + 1] = surfaceIntersectionY + wiY;
+				this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1 + 2] = surfaceIntersectionZ + wiZ;
+				this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1 + 0] = wiX;
+				this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1 + 1] = wiY;
+				this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1 + 2] = wiZ;
+				
+				this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_DISTANCE] = distance;
+				
+				if(this.isCompacting) {
+//					Append the path to the shadow queue, which is traced by the shadow stage:
+					this.shadowQueue[atomicAdd(this.counts, COUNT_SHADOW_RAYS, 1)] = path;
+				}
+			}
+		}
+		
+//		Update the radiance of the shadow ray, which is added to the radiance of the path if the shadow ray does not intersect anything:
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 0] = radianceR;
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 1] = radianceG;
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 2] = radianceB;
+	}
+	
+	private void doShade(final int path) {
+//		Initialize the offsets of the path, its intersection, its pixel and its ray:
+		final int pathOffset = path * SIZE_OF_PATH;
+		final int intersectionOffset = path * Intersection.SIZE;
+		final int pixelOffset = path * Constants.SIZE_OF_PIXEL;
+		final int rayOffset = path * Constants.SIZE_OF_RAY;
+		
+//		Initialize needed offset values:
+		final int shapeOffset = (int)(this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET]);
+		final int materialOffset = (int)(this.shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_MATERIAL_OFFSET]);
+		
+//		Fetch the texels from level 0 of the mip chains, as there is no pixel footprint for the rays that are not primary:
+		this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_PIXEL_FOOTPRINT] = 0.0F;
+		
+		clearPixel(this.pixels, pixelOffset);
+		
+		performNormalMapping(false, this.intersections, this.materials, this.pick, this.pixels, this.shapes, intersectionOffset, materialOffset, pixelOffset, shapeOffset, this.textures);
+		
+		if(this.depth == 0) {
+//			Add the ambient light of the primary intersection, the same way as the RayCasterKernel does, whereas the ambient light of the other intersections is replaced by the light gathered by the paths:
+			clearPixel(this.pixels, pixelOffset);
+			
+			addAmbientLightBRDF(false, this.intersections, this.materials, this.pick, this.pixels, this.shapes, intersectionOffset, materialOffset, pixelOffset, shapeOffset, this.textures);
+			
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 0] += this.pixels[pixelOffset + 0];
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 1] += this.pixels[pixelOffset + 1];
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 2] += this.pixels[pixelOffset + 2];
+		}
+		
+		if(this.lightCount > 0) {
+//			Sample the direct light of a point light, which is added by the shadow stage unless it is occluded:
+			doSampleLight(path, pathOffset, intersectionOffset, materialOffset, pixelOffset, rayOffset, shapeOffset);
+		}
+		
+		if(this.depth + 1 < this.maximumDepth) {
+//			Sample the direction of the next ray, which terminates the path if it cannot be continued:
+			doSampleNextRay(path, pathOffset, intersectionOffset, materialOffset, pixelOffset, rayOffset, shapeOffset);
+		} else {
+//			Terminate the path, as it has reached the maximum depth:
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 0] = 0.0F;
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 1] = 0.0F;
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 2] = 0.0F;
+		}
+	}
+	
+	private void doSampleNextRay(final int path, final int pathOffset, final int intersectionOffset, final int materialOffset, final int pixelOffset, final int rayOffset, final int shapeOffset) {
+//		Initialize the direction of the ray that intersected the shape:
+		final float incidentX = this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0];
+		final float incidentY = this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1];
+		final float incidentZ = this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2];
+		
+//		Initialize the surface normal on the surface intersection point:
+		final float surfaceNormalX = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 0];
+		final float surfaceNormalY = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 1];
+		final float surfaceNormalZ = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 2];
+		
+//		Calculate the dot product between the surface normal and the incident direction, which is negative if the ray enters the shape:
+		final float surfaceNormalDotIncident = surfaceNormalX * incidentX + surfaceNormalY * incidentY + surfaceNormalZ * incidentZ;
+		
+//		Initialize the surface normal that faces against the incident direction:
+		final float sign = surfaceNormalDotIncident < 0.0F ? 1.0F : -1.0F;
+		final float orientedNormalX = surfaceNormalX * sign;
+		final float orientedNormalY = surfaceNormalY * sign;
+		final float orientedNormalZ = surfaceNormalZ * sign;
+		
+//		Calculate the albedo of the diffuse reflection, which is the diffuse color of the RayCasterKernel without the division by PI, as that cancels out with the cosine-weighted sampling:
+		clearPixel(this.pixels, pixelOffset);
+		
+		performTextureMapping(false, this.intersections, this.materials, this.pick, this.pixels, this.shapes, intersectionOffset, materialOffset, pixelOffset, shapeOffset, this.textures);
+		
+		final float diffuseIntensity = this.materials[materialOffset + Material.RELATIVE_OFFSET_OF_DIFFUSE_INTENSITY];
+		final float albedoR = (this.pixels[pixelOffset + 0] + this.materials[materialOffset + Material.RELATIVE_OFFSET_OF_DIFFUSE_COLOR + 0]) * diffuseIntensity;
+		final float albedoG = (this.pixels[pixelOffset + 1] + this.materials[materialOffset + Material.RELATIVE_OFFSET_OF_DIFFUSE_COLOR + 1]) * diffuseIntensity;
+		final float albedoB = (this.pixels[pixelOffset + 2] + this.materials[materialOffset + Material.RELATIVE_OFFSET_OF_DIFFUSE_COLOR + 2]) * diffuseIntensity;
+		
+//		Initialize the weights of the reflection, the refraction and the diffuse reflection, which are chosen with a probability proportional to their weights:
+		final float reflection = max(this.materials[materialOffset + Material.RELATIVE_OFFSET_OF_REFLECTION], 0.0F);
+		final float refraction = max(this.materials[materialOffset + Material.RELATIVE_OFFSET_OF_REFRACTION], 0.0F);
+		final float diffuse = max(max(albedoR, max(albedoG, albedoB)), 0.0F);
+		final float weightSum = reflection + refraction + diffuse;
+		
+//		Initialize a random number to choose between them, scaled by the sum of the weights:
+		final float choice = doRandom(path) * weightSum;
+		
+		float directionX = 0.0F;
+		float directionY = 0.0F;
+		float directionZ = 0.0F;
+		float scaleR = 0.0F;
+		float scaleG = 0.0F;
+		float scaleB = 0.0F;
+		
+		if(choice < reflection + refraction) {
+//			Calculate the reflected direction:
+			final float reflectionX = incidentX - 2.0F * surfaceNormalDotIncident * surfaceNormalX;
+			final float reflectionY = incidentY - 2.0F * surfaceNormalDotIncident * surfaceNormalY;
+			final float reflectionZ = incidentZ - 2.0F * surfaceNormalDotIncident * surfaceNormalZ;
+			
+//			Initialize the ratio of the indices of refraction and the cosine of the angle of incidence:
+			final float eta = surfaceNormalDotIncident < 0.0F ? 1.0F / RayCasterKernel.REFRACTIVE_INDEX : RayCasterKernel.REFRACTIVE_INDEX;
+			final float cosine = abs(surfaceNormalDotIncident);
+			
+//			Calculate the squared cosine of the angle of refraction, which is negative if total internal reflection occurs:
+			final float k = 1.0F - eta * eta * (1.0F - cosine * cosine);
+			
+//			Initialize the refraction state, which is true if, and only if, the refraction is chosen and no total internal reflection occurs:
+			final boolean isRefracting = choice >= reflection && k >= 0.0F;
+			
+			final float factor = isRefracting ? eta * cosine - sqrt(k) : 0.0F;
+			
+			directionX = isRefracting ? eta * incidentX + factor * orientedNormalX : reflectionX;
+			directionY = isRefracting ? eta * incidentY + factor * orientedNormalY : reflectionY;
+			directionZ = isRefracting ? eta * incidentZ + factor * orientedNormalZ : reflectionZ;
+			
+//			The weight of the reflection or refraction divided by the probability of choosing it is the sum of the weights:
+			scaleR = weightSum;
+			scaleG = weightSum;
+			scaleB = weightSum;
+		} else if(diffuse > 0.0F) {
+//			Sample a cosine-weighted direction in the local coordinate system of the hemisphere around the oriented surface normal:
+			final float random0 = doRandom(path);
+			final float random1 = doRandom(path);
+			final float radius = sqrt(random0);
+			final float phi = 2.0F * Constants.PI * random1;
+			final float localX = radius * cos(phi);
+			final float localY = radius * sin(phi);
+			final float localZ = sqrt(max(1.0F - random0, 0.0F));
+			
+//			Calculate a tangent that is orthogonal to the oriented surface normal, using the axis that is least parallel to it:
+			final boolean isUsingAxisY = abs(orientedNormalX) > 0.9F;
+			
+			float tangentX = isUsingAxisY ? -orientedNormalZ : 0.0F;
+			float tangentY = isUsingAxisY ? 0.0F : orientedNormalZ;
+			float tangentZ = isUsingAxisY ? orientedNormalX : -orientedNormalY;
+			
+			final float tangentLengthReciprocal = 1.0F / sqrt(tangentX * tangentX + tangentY * tangentY + tangentZ * tangentZ);
+			
+			tangentX *= tangentLengthReciprocal;
+			tangentY *= tangentLengthReciprocal;
+			tangentZ *= tangentLengthReciprocal;
+			
+//			Calculate the bitangent, which completes the orthonormal basis:
+			final float bitangentX = orientedNormalY * tangentZ - orientedNormalZ * tangentY;
+			final float bitangentY = orientedNormalZ * tangentX - orientedNormalX * tangentZ;
+			final float bitangentZ = orientedNormalX * tangentY - orientedNormalY * tangentX;
+			
+			directionX = tangentX * localX + bitangentX * localY + orientedNormalX * localZ;
+			directionY = tangentY * localX + bitangentY * localY + orientedNormalY * localZ;
+			directionZ = tangentZ * localX + bitangentZ * localY + orientedNormalZ * localZ;
+			
+//			The albedo divided by the probability of choosing the diffuse reflection:
+			scaleR = albedoR / diffuse * weightSum;
+			scaleG = albedoG / diffuse * weightSum;
+			scaleB = albedoB / diffuse * weightSum;
+		}
+		
+//		Initialize the throughput of the next ray:
+		float throughputR = this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 0] * scaleR;
+		float throughputG = this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 1] * scaleG;
+		float throughputB = this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 2] * scaleB;
+		
+		if(this.depth + 1 >= RUSSIAN_ROULETTE_DEPTH) {
+//			Perform Russian roulette, which terminates the path with a probability that increases as its throughput decreases, and compensates the paths that survive:
+			final float probability = min(max(throughputR, max(throughputG, throughputB)), 0.95F);
+			final float scale = doRandom(path) < probability ? 1.0F / probability : 0.0F;
+			
+			throughputR *= scale;
+			throughputG *= scale;
+			throughputB *= scale;
+		}
+		
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 0] = throughputR;
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 1] = throughputG;
+		this.paths[pathOffset + RELATIVE_OFFSET_OF_THROUGHPUT + 2] = throughputB;
+		
+		if(throughputR + throughputG + throughputB > 0.0F) {
+//			Update the ray of the path, where its origin is moved slightly along its direction, such that it does not intersect the same surface again:
+			this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 0] = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 0] + directionX;
+			this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 1] = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 1] + directionY;
+			this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 2] = this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 2] + directionZ;
+			this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0] = directionX;
+			this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1] = directionY;
+			this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2] = directionZ;
+			
+			normalize(this.rays, rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0);
+			
+			if(this.isCompacting) {
+//				Append the path to the next ray queue, which is intersected by the next bounce, whereas a terminated path is dropped:
+				this.rayQueues[(this.rayQueueOffset == 0 ? this.pathCount : 0) + atomicAdd(this.counts, COUNT_NEXT_RAYS, 1)] = path;
+			}
+		}
+	}
+	
+	private void doShadow(final int path) {
+//		Initialize the offsets of the path and its ray:
+		final int pathOffset = path * SIZE_OF_PATH;
+		final int rayOffset = path * Constants.SIZE_OF_RAY;
+		
+		if(this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 0] + this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 1] + this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 2] > 0.0F) {
+//			Initialize the distance to the point light:
+			final float distance0 = this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_DISTANCE];
+			
+//			Calculate the distance to any shape in front of the point light, by traversing the bounding volume hierarchy:
+			final float distance1 = findIntersectionAnyUsingBoundingVolumeHierarchy(distance0, this.boundingVolumeHierarchy, this.rays, this.shapes, rayOffset, this.boundingVolumeHierarchyShapeIndices);
+			
+			if(distance0 < distance1) {
+//				Add the radiance of the shadow ray to the radiance of the path, as the point light is not occluded:
+				this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 0] += this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 0];
+				this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 1] += this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 1];
+				this.paths[pathOffset + RELATIVE_OFFSET_OF_RADIANCE + 2] += this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 2];
+			}
+			
+//			Clear the radiance of the shadow ray, such that it is not added again by the next bounce if the path is not shaded:
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 0] = 0.0F;
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 1] = 0.0F;
+			this.paths[pathOffset + RELATIVE_OFFSET_OF_SHADOW_RAY_RADIANCE + 2] = 0.0F;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static boolean doCopy(final float[] source, final float[] destination) {
+		boolean isChanged = false;
+		
+		for(int i = 0; i < destination.length; i++) {
+			if(destination[i] != source[i]) {
+				destination[i] = source[i];
+				
+				isChanged = true;
+			}
+		}
+		
+		return isChanged;
+	}
+	
+	private static int doCountPointLights(final float[] lights) {
+		int pointLights = 0;
+		
+		for(int i = 0; i < lights.length; i += (int)(lights[i + Light.RELATIVE_OFFSET_OF_SIZE])) {
+			if(lights[i + Light.RELATIVE_OFFSET_OF_TYPE] == PointLight.TYPE) {
+				pointLights++;
+			}
+		}
+		
+		return pointLights;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class StageAction extends RecursiveAction {
+		private static final int MAXIMUM_WORK_ITEMS = 1024;
+		private static final long serialVersionUID = 1L;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private final int end;
+		private final int start;
+		private final PathTracerKernel pathTracerKernel;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public StageAction(final PathTracerKernel pathTracerKernel, final int start, final int end) {
+			this.pathTracerKernel = pathTracerKernel;
+			this.start = start;
+			this.end = end;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		protected void compute() {
+			if(this.end - this.start <= MAXIMUM_WORK_ITEMS) {
+				for(int globalId = this.start; globalId < this.end; globalId++) {
+					this.pathTracerKernel.doRunStage(globalId);
+				}
+			} else {
+				final int middle = (this.start + this.end) / 2;
+				
+				invokeAll(new StageAction(this.pathTracerKernel, this.start, middle), new StageAction(this.pathTracerKernel, middle, this.end));
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -18,10 +18,20 @@
  */
 package org.macroing.gdt.openrc;
 
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.macroing.gdt.openrc.geometry.Camera;
 import org.macroing.gdt.openrc.geometry.Intersection;
+import org.macroing.gdt.openrc.geometry.Material;
 import org.macroing.gdt.openrc.geometry.Scene;
 import org.macroing.gdt.openrc.geometry.Shape;
+import org.macroing.gdt.openrc.geometry.TextureCache;
+import org.macroing.gdt.openrc.geometry.TileGrid;
+import org.macroing.gdt.openrc.util.Ranges;
+
+import com.amd.aparapi.Range;
 
 /**
  * The values in the {@code float} array {@code rays} consists of the following:
@@ -33,132 +43,1673 @@ import org.macroing.gdt.openrc.geometry.Shape;
  * <li>Direction Y</li>
  * <li>Direction Z</li>
  * </ol>
+ * <p>
+ * Each pixel has two such rays. The first one is the primary ray, or the reflected or refracted ray that is currently being shaded. The second one is the shadow ray, or the next reflected or refracted ray that is cast.
  * 
  * @since 1.0.0
  * @author J&#246;rgen Lundgren
  */
 public final class RayCasterKernel extends AbstractRayCasterKernel {
+	/**
+	 * The maximum number of texture updates that can be transferred by {@link #updateTextures(Scene)} without transferring all textures.
+	 */
+	public static final int MAXIMUM_TEXTURE_UPDATES = 4096;
+	
+	/**
+	 * The number of additional samples per pixel that adaptive supersampling casts for the pixels on edges.
+	 */
+	public static final int ADAPTIVE_SAMPLES = 7;
+	
+	/**
+	 * The difference of any RGB-component, from {@code 0} to {@code 255}, above which adaptive supersampling considers neighbouring pixels to be on an edge.
+	 */
+	public static final int ADAPTIVE_CONTRAST_THRESHOLD = 24;
+	
+	/**
+	 * The maximum number of samples per pixel that are accumulated while progressive rendering is enabled. When reached, the image is kept as is until the accumulation is reset.
+	 */
+	public static final int MAXIMUM_SAMPLES = 1024;
+	
+	/**
+	 * The maximum depth of the reflected and refracted rays that can be set by {@link #setMaximumDepth(int)}.
+	 */
+	public static final int MAXIMUM_DEPTH = 8;
+	
+	/**
+	 * The pixel order that maps the work-items to the pixels in Morton order (also known as Z-order) within each tile of {@code TileGrid.TILE_SIZE} by {@code TileGrid.TILE_SIZE} pixels, and the tiles in row-major order.
+	 */
+	public static final int PIXEL_ORDER_MORTON = 2;
+	
+	/**
+	 * The pixel order that maps the work-items to the pixels in row-major order, one scanline after another.
+	 */
+	public static final int PIXEL_ORDER_SCANLINE = 1;
+	
+	/**
+	 * The number of frames after which the shading cache has refreshed every pixel. Each frame shades one out of {@code SHADING_CACHE_REFRESH_INTERVAL} pixels regardless of the shading cache.
+	 */
+	public static final int SHADING_CACHE_REFRESH_INTERVAL = 16;
+	
+	/**
+	 * The throughput below which a reflected or refracted ray is not cast, as its contribution to the pixel would hardly be visible.
+	 */
+	public static final float MINIMUM_THROUGHPUT = 0.01F;
+	
+	/**
+	 * The index of refraction of all materials with a refraction, which is the one of glass. The index of refraction outside of all shapes is {@code 1.0}.
+	 */
+	public static final float REFRACTIVE_INDEX = 1.5F;
+	
+	/**
+	 * The cosine of the largest angle, about 2 degrees, that the direction from a surface intersection point to the eye may have turned since its shading was cached, for the shading cache to reuse it. Beyond that, specular
+	 * highlights would visibly stick to the surfaces.
+	 */
+	public static final float SHADING_CACHE_MINIMUM_VIEW_COSINE = 0.9994F;
+	
+	/**
+	 * The distance, in pixels, that the surface intersection point of a pixel may be from the one of its reprojection into the previous frame, for the shading cache to reuse the shading of the previous frame.
+	 */
+	public static final float SHADING_CACHE_TOLERANCE = 1.0F;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final float SAMPLE_SEQUENCE_X = 0.7548776662F;
+	private static final float SAMPLE_SEQUENCE_Y = 0.5698402910F;
+//	The passes have distinct ids, in the order they are executed. A single execution only runs the passes of its mode, so the pass id of Aparapi is mapped to them by passOffset and passFollowingRayCasting:
+	private static final int PASS_EDGE_DETECTION = 3;
+	private static final int PASS_EDGE_REFINEMENT = 4;
+	private static final int PASS_RAY_CASTING = 1;
+	private static final int PASS_RECONSTRUCTION = 2;
+	private static final int PASS_TEXTURE_UPDATE = 0;
+	private static final int RENDER_MODE_FORK_JOIN = -1;
+	private static final int SIZE_OF_SHADING_CACHE_ENTRY = 11;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final float[] accumulation;
+	private final float[] boundingVolumeHierarchy;
 	private final float[] camera;
 	private final float[] intersections;
 	private final float[] lights;
 	private final float[] materials;
+	private final float[] packedPlanes;
+	private final float[] packedSpheres;
+	private final float[] packedTriangleProjections;
+	private final float[] packedTriangles;
 	private final float[] pick;
 	private final float[] pixels;
+	private final float[] previousCamera;
 	private final float[] rays;
+	private final float[] shadingCache;
 	private final float[] shapes;
-	private final int height;
 	private final int lightsLength;
+	private final int maximumHeight;
+	private final int maximumWidth;
 	private final int shapeIndicesLength;
-	private final int width;
-	private final int[] rGB;
+	private final int[] boundingVolumeHierarchyShapeIndices;
+	private final int[] edgePixelCount;
+	private final int[] edgePixels;
+	private final int[] rGB0;
+	private final int[] rGB1;
 	private final int[] shapeIndices;
+	private final int[] texturePageRequests;
+	private final int[] textureUpdates;
 	private final int[] textures;
+	private final int[] tiles;
+	private final TextureCache textureCache;
+	private boolean isAdaptive = true;
+	private boolean isCachingShading;
+	private boolean isCameraChanged;
+	private boolean isCheckerboard;
+	private boolean isMipmapping = true;
+	private boolean isProgressive = true;
+	private boolean isReusingShading;
+	private boolean isUsingTriangleProjection;
+	private float resolutionScaleX = 1.0F;
+	private float resolutionScaleY = 1.0F;
+	private int checkerboardParity = -1;
+	private int height;
+	private int historyRGBIndex = -1;
+	private int intersectionMode = INTERSECTION_MODE_BOUNDING_VOLUME_HIERARCHY;
+	private int maximumDepth;
+	private int passFollowingRayCasting = PASS_RECONSTRUCTION;
+	private int passOffset = PASS_RAY_CASTING;
+	private int pixelOrder = PIXEL_ORDER_SCANLINE;
+	private int renderMode = RENDER_MODE_FORK_JOIN;
+	private int rGBIndex;
+	private int sampleCount;
+	private int shadingCacheFrame;
+	private int shadingCacheGeneration = 1;
+	private int shadingCacheIndex;
+	private int textureUpdatesLength;
+	private int tileCount;
+	private int tileCountX;
+	private int width;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	public RayCasterKernel(final float[] pick, final int[] rGB, final Scene scene) {
-		this.camera = scene.getCamera().getArray();
-		this.intersections = Intersection.create((Constants.WIDTH / Constants.WIDTH_SCALE) * (Constants.HEIGHT / Constants.HEIGHT_SCALE));
-		this.lights = scene.getLightsAsArray();
-		this.materials = scene.getMaterialsAsArray();
+	/**
+	 * Constructs a new {@code RayCasterKernel}.
+	 * <p>
+	 * The RGB-values are written to either {@code rGB0} or {@code rGB1}, as selected by {@link #setRGBIndex(int)}, so one of them can be displayed while the other one is being rendered.
+	 * <p>
+	 * The camera and lights are copied, so the {@link Scene} may be updated while this {@code RayCasterKernel} executes. Use {@link #updateCamera(float[])} and {@link #updateLights(float[])} to transfer new values.
+	 * <p>
+	 * Adaptive supersampling, mipmapping and progressive rendering are enabled by default, whereas the shading cache and checkerboard rendering are not. See {@link #setAdaptive(boolean)}, {@link #setCachingShading(boolean)},
+	 * {@link #setCheckerboard(boolean)}, {@link #setMipmapping(boolean)} and {@link #setProgressive(boolean)}. No reflected or refracted rays are cast by default, see {@link #setMaximumDepth(int)}.
+	 * <p>
+	 * The width and height of the screen are the ones of {@code tileGrid}, which are also the maximum resolution that can be set by {@link #setResolution(int, int)}. Both {@code rGB0} and {@code rGB1} have to contain at least
+	 * {@code tileGrid.getWidth() * tileGrid.getHeight()} RGB-values.
+	 * 
+	 * @param pick the {@code float} array to write the pick to
+	 * @param rGB0 the first {@code int} array to write the RGB-values to
+	 * @param rGB1 the second {@code int} array to write the RGB-values to
+	 * @param scene the {@code Scene} to render
+	 * @param tileGrid the {@code TileGrid} of the screen, which is used in the intersection mode {@code INTERSECTION_MODE_TILES}
+	 */
+	public RayCasterKernel(final float[] pick, final int[] rGB0, final int[] rGB1, final Scene scene, final TileGrid tileGrid) {
+		this(pick, rGB0, rGB1, scene, tileGrid, null);
+	}
+	
+	/**
+	 * Constructs a new {@code RayCasterKernel} that renders the textures of {@code scene} by virtual texturing.
+	 * <p>
+	 * Only the {@code int} array of {@code textureCache} is transferred to the GPU, rather than all textures of {@code scene}, so the memory used by the textures on the GPU is bounded by its number of slots, apart from a
+	 * fixed-size header per texture. The texels are fetched from the pages that are resident, and the pages that are requested but not resident are streamed by {@link #updateTexturePages()}.
+	 * <p>
+	 * Otherwise this is the same as {@link #RayCasterKernel(float[], int[], int[], Scene, TileGrid)}.
+	 * <p>
+	 * If {@code textureCache} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param pick the {@code float} array to write the pick to
+	 * @param rGB0 the first {@code int} array to write the RGB-values to
+	 * @param rGB1 the second {@code int} array to write the RGB-values to
+	 * @param scene the {@code Scene} to render
+	 * @param textureCache the {@code TextureCache} with the textures of {@code scene}
+	 * @param tileGrid the {@code TileGrid} of the screen, which is used in the intersection mode {@code INTERSECTION_MODE_TILES}
+	 * @throws NullPointerException thrown if, and only if, {@code textureCache} is {@code null}
+	 */
+	public RayCasterKernel(final float[] pick, final int[] rGB0, final int[] rGB1, final Scene scene, final TextureCache textureCache, final TileGrid tileGrid) {
+		this(pick, rGB0, rGB1, scene, tileGrid, Objects.requireNonNull(textureCache, "textureCache == null"));
+	}
+	
+	private RayCasterKernel(final float[] pick, final int[] rGB0, final int[] rGB1, final Scene scene, final TileGrid tileGrid, final TextureCache textureCache) {
+		this.accumulation = new float[tileGrid.getWidth() * tileGrid.getHeight() * 3];
+		this.boundingVolumeHierarchy = scene.getBoundingVolumeHierarchyAsArray();
+		this.camera = scene.getCamera().getArray().clone();
+		this.intersections = Intersection.create(tileGrid.getWidth() * tileGrid.getHeight());
+		this.lights = scene.getLightsAsArray().clone();
+		this.materials = textureCache != null ? textureCache.getMaterialsAsArray() : scene.getMaterialsAsArray();
+		this.packedPlanes = scene.getPackedShapes().getPlanes();
+		this.packedSpheres = scene.getPackedShapes().getSpheres();
+		this.packedTriangleProjections = scene.getPackedShapes().getTriangleProjections();
+		this.packedTriangles = scene.getPackedShapes().getTriangles();
 		this.pick = pick;
-		this.pixels = new float[(Constants.WIDTH / Constants.WIDTH_SCALE) * (Constants.HEIGHT / Constants.HEIGHT_SCALE) * Constants.SIZE_OF_PIXEL];
-		this.rays = new float[(Constants.WIDTH / Constants.WIDTH_SCALE) * (Constants.HEIGHT / Constants.HEIGHT_SCALE) * Constants.SIZE_OF_RAY];
+		this.pixels = new float[tileGrid.getWidth() * tileGrid.getHeight() * Constants.SIZE_OF_PIXEL];
+		this.previousCamera = this.camera.clone();
+		this.rays = new float[tileGrid.getWidth() * tileGrid.getHeight() * Constants.SIZE_OF_RAY];
+		this.shadingCache = new float[tileGrid.getWidth() * tileGrid.getHeight() * SIZE_OF_SHADING_CACHE_ENTRY * 2];
 		this.shapes = scene.getShapesAsArray();
-		this.height = Constants.HEIGHT / Constants.HEIGHT_SCALE;
 		this.lightsLength = this.lights.length;
+		this.maximumHeight = tileGrid.getHeight();
+		this.maximumWidth = tileGrid.getWidth();
 		this.shapeIndicesLength = scene.getShapeCount();
-		this.width = Constants.WIDTH / Constants.WIDTH_SCALE;
-		this.rGB = rGB;
+		this.boundingVolumeHierarchyShapeIndices = scene.getBoundingVolumeHierarchyShapeIndices();
+		this.edgePixelCount = new int[1];
+		this.edgePixels = new int[tileGrid.getWidth() * tileGrid.getHeight()];
+		this.rGB0 = rGB0;
+		this.rGB1 = rGB1;
 		this.shapeIndices = scene.getShapeIndices();
-		this.textures = scene.getTexturesAsArray();
+		this.texturePageRequests = new int[tileGrid.getWidth() * tileGrid.getHeight()];
+		this.textureUpdates = new int[MAXIMUM_TEXTURE_UPDATES * 2];
+		this.textures = textureCache != null ? textureCache.getTexturesAsArray() : scene.getTexturesAsArray();
+		this.tiles = tileGrid.getArray();
+		this.textureCache = textureCache;
+		this.height = tileGrid.getHeight();
+		this.tileCount = tileGrid.getTileCount();
+		this.tileCountX = tileGrid.getTileCountX();
+		this.width = tileGrid.getWidth();
 		
 //		Make the Kernel instance explicit, such that we have to take care of all array transfers to and from the GPU:
 		setExplicit(true);
 		
 //		Tell the API to fetch the below arrays and their values before executing this Kernel instance (they will be transferred to the GPU):
+		put(this.accumulation);
+		put(this.boundingVolumeHierarchy);
+		put(this.camera);
 		put(this.intersections);
 		put(this.lights);
 		put(this.materials);
+		put(this.packedPlanes);
+		put(this.packedSpheres);
+		put(this.packedTriangleProjections);
+		put(this.packedTriangles);
 		put(this.pick);
 		put(this.pixels);
+		put(this.previousCamera);
 		put(this.rays);
+		put(this.shadingCache);
 		put(this.shapes);
-		put(this.rGB);
+		put(this.boundingVolumeHierarchyShapeIndices);
+		put(this.edgePixelCount);
+		put(this.edgePixels);
+		put(this.rGB0);
+		put(this.rGB1);
+		put(this.texturePageRequests);
+		put(this.textureUpdates);
 		put(this.textures);
+		put(this.tiles);
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	/**
+	 * Returns {@code true} if, and only if, adaptive supersampling is enabled.
+	 * 
+	 * @return {@code true} if, and only if, adaptive supersampling is enabled
+	 */
+	public boolean isAdaptive() {
+		return this.isAdaptive;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the shading cache is enabled.
+	 * 
+	 * @return {@code true} if, and only if, the shading cache is enabled
+	 */
+	public boolean isCachingShading() {
+		return this.isCachingShading;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, checkerboard rendering is enabled.
+	 * 
+	 * @return {@code true} if, and only if, checkerboard rendering is enabled
+	 */
+	public boolean isCheckerboard() {
+		return this.isCheckerboard;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, mipmapping is enabled.
+	 * 
+	 * @return {@code true} if, and only if, mipmapping is enabled
+	 */
+	public boolean isMipmapping() {
+		return this.isMipmapping;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, progressive rendering is enabled.
+	 * 
+	 * @return {@code true} if, and only if, progressive rendering is enabled
+	 */
+	public boolean isProgressive() {
+		return this.isProgressive;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the intersection mode {@code INTERSECTION_MODE_PACKED_SHAPES} tests the triangles by the intersection test of Wald.
+	 * 
+	 * @return {@code true} if, and only if, the intersection mode {@code INTERSECTION_MODE_PACKED_SHAPES} tests the triangles by the intersection test of Wald
+	 */
+	public boolean isUsingTriangleProjection() {
+		return this.isUsingTriangleProjection;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, the textures are rendered by virtual texturing, which is the case if this {@code RayCasterKernel} was constructed with a {@link TextureCache}.
+	 * 
+	 * @return {@code true} if, and only if, the textures are rendered by virtual texturing
+	 */
+	public boolean isVirtualTexturing() {
+		return this.textureCache != null;
+	}
+	
+	/**
+	 * Returns the intersection mode of this {@code RayCasterKernel}.
+	 * <p>
+	 * The intersection mode is either {@code INTERSECTION_MODE_BOUNDING_VOLUME_HIERARCHY}, {@code INTERSECTION_MODE_PACKED_SHAPES}, {@code INTERSECTION_MODE_SHAPE_INDICES} or {@code INTERSECTION_MODE_TILES}.
+	 * 
+	 * @return the intersection mode of this {@code RayCasterKernel}
+	 */
+	public int getIntersectionMode() {
+		return this.intersectionMode;
+	}
+	
+	/**
+	 * Returns the height of the resolution that is rendered.
+	 * 
+	 * @return the height of the resolution that is rendered
+	 */
+	public int getHeight() {
+		return this.height;
+	}
+	
+	/**
+	 * Returns the maximum depth of the reflected and refracted rays, where {@code 0} means that only the primary rays are cast.
+	 * 
+	 * @return the maximum depth of the reflected and refracted rays
+	 */
+	public int getMaximumDepth() {
+		return this.maximumDepth;
+	}
+	
+	/**
+	 * Returns the pixel order of this {@code RayCasterKernel}.
+	 * <p>
+	 * The pixel order is either {@code PIXEL_ORDER_MORTON} or {@code PIXEL_ORDER_SCANLINE}.
+	 * 
+	 * @return the pixel order of this {@code RayCasterKernel}
+	 */
+	public int getPixelOrder() {
+		return this.pixelOrder;
+	}
+	
+	/**
+	 * Returns the index of the {@code int} array the RGB-values are written to, which is either {@code 0} or {@code 1}.
+	 * 
+	 * @return the index of the {@code int} array the RGB-values are written to
+	 */
+	public int getRGBIndex() {
+		return this.rGBIndex;
+	}
+	
+	/**
+	 * Returns the number of samples per pixel that have been accumulated since the accumulation was last reset.
+	 * <p>
+	 * The next rendering adds one more sample, unless {@code MAXIMUM_SAMPLES} samples have been accumulated already.
+	 * 
+	 * @return the number of samples per pixel that have been accumulated since the accumulation was last reset
+	 */
+	public int getSampleCount() {
+		return this.sampleCount;
+	}
+	
+	/**
+	 * Returns the width of the resolution that is rendered.
+	 * 
+	 * @return the width of the resolution that is rendered
+	 */
+	public int getWidth() {
+		return this.width;
+	}
+	
+	/**
+	 * Returns the {@code int} array the RGB-values are written to.
+	 * 
+	 * @return the {@code int} array the RGB-values are written to
+	 */
+	public int[] getRGB() {
+		return this.rGBIndex == 0 ? this.rGB0 : this.rGB1;
+	}
+	
+	/**
+	 * Casts the rays of this {@code RayCasterKernel} in Java, by splitting the pixels into tasks executed by {@code forkJoinPool}, in the same pixel order as the work-items of {@link #render(Range)}.
+	 * <p>
+	 * The API is not used, so this works the same way regardless of the execution mode. Each task has its own intersection, pixel and ray, rather than using the ones shared by all pixels on the GPU. The textures are read directly from
+	 * the {@code int} array of the {@link Scene}, so its texture updates do not have to be transferred by {@link #updateTextures(Scene)}, unless the textures are rendered by virtual texturing.
+	 * <p>
+	 * If {@code forkJoinPool} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param forkJoinPool the {@code ForkJoinPool} to execute the tasks in
+	 * @throws NullPointerException thrown if, and only if, {@code forkJoinPool} is {@code null}
+	 */
+	public void render(final ForkJoinPool forkJoinPool) {
+		Objects.requireNonNull(forkJoinPool, "forkJoinPool == null");
+		
+		doPrepareAccumulation(RENDER_MODE_FORK_JOIN);
+		doPrepareCheckerboard();
+		doPrepareShadingCache();
+		
+		forkJoinPool.invoke(new RenderAction(this, PASS_RAY_CASTING, 0, doGetWorkItemCount()));
+		
+		if(this.checkerboardParity >= 0) {
+			forkJoinPool.invoke(new RenderAction(this, PASS_RECONSTRUCTION, 0, doGetWorkItemCount()));
+		} else if(doIsRefiningEdges()) {
+			this.edgePixelCount[0] = 0;
+			
+			forkJoinPool.invoke(new RenderAction(this, PASS_EDGE_DETECTION, 0, doGetWorkItemCount()));
+			forkJoinPool.invoke(new RenderAction(this, PASS_EDGE_REFINEMENT, 0, this.edgePixelCount[0]));
+		}
+		
+		doUpdateAccumulation();
+		doUpdateHistory();
+	}
+	
+	/**
+	 * Executes this {@code RayCasterKernel} for {@code range}.
+	 * <p>
+	 * If texture updates have been transferred by {@link #updateTextures(Scene)} since the last execution, a first pass scatters them into the textures on the GPU, before the second pass casts the rays. If adaptive supersampling is
+	 * enabled, two more passes detect the edge pixels and cast additional rays through them. For a checkerboard rendering, one more pass reconstructs the pixels that were not shaded instead. All passes are executed by a single call to the
+	 * API.
+	 * <p>
+	 * If {@code range} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param range the {@code Range} to execute, which has to contain at least one work-item per pixel of the resolution rounded up to whole tiles of {@code TileGrid.TILE_SIZE} by {@code TileGrid.TILE_SIZE} pixels and at least
+	 * {@code MAXIMUM_TEXTURE_UPDATES} work-items
+	 * @throws NullPointerException thrown if, and only if, {@code range} is {@code null}
+	 */
+	public void render(final Range range) {
+		Objects.requireNonNull(range, "range == null");
+		
+		doPrepareAccumulation(getExecutionMode().ordinal());
+		doPrepareCheckerboard();
+		doPrepareShadingCache();
+		
+		this.passOffset = this.textureUpdatesLength > 0 ? PASS_TEXTURE_UPDATE : PASS_RAY_CASTING;
+		
+		final int lastPass = doIsRefiningEdges() ? PASS_EDGE_REFINEMENT : this.checkerboardParity >= 0 ? PASS_RECONSTRUCTION : PASS_RAY_CASTING;
+		
+		this.passFollowingRayCasting = lastPass == PASS_EDGE_REFINEMENT ? PASS_EDGE_DETECTION : PASS_RECONSTRUCTION;
+		
+		execute(range, PASS_RAY_CASTING + 1 - this.passOffset + (lastPass > PASS_RAY_CASTING ? lastPass + 1 - this.passFollowingRayCasting : 0));
+		
+		this.textureUpdatesLength = 0;
+		
+		doUpdateAccumulation();
+		doUpdateHistory();
+	}
+	
+	/**
+	 * Resets the accumulation of samples, such that the next rendering starts over with a single sample per pixel, and invalidates the shading cache.
+	 * <p>
+	 * This is done automatically by {@link #updateLights(float[])} when their values change, by {@link #updateTextures(Scene)} when texels have been modified and when the execution mode changes. {@link #updateCamera(float[])} only
+	 * resets the accumulation, as the shading cache reprojects the shading of the previous frame. Any other change to the rendered image, such as modified texels that are rendered in Java by {@link #render(ForkJoinPool)}, has to be
+	 * followed by a call to this method.
+	 */
+	public void resetAccumulation() {
+		this.sampleCount = 0;
+		this.shadingCacheGeneration = this.shadingCacheGeneration % 0xFFFFFF + 1;
+	}
+	
 	/**
 	 * This is what the {@code Kernel} executes on the GPU (or in the CPU).
 	 */
 	@Override
 	public void run() {
-//		Initialize index and offset values:
-		final int index = getGlobalId();
-		final int pickIndex = this.height / 2 * this.width + this.width / 2;
-		final int pixelOffset = index * Constants.SIZE_OF_PIXEL;
-		final int rayOffset = index * Constants.SIZE_OF_RAY;
+		final int passIndex = getPassId() + this.passOffset;
+		final int pass = passIndex > PASS_RAY_CASTING ? passIndex - PASS_RAY_CASTING - 1 + this.passFollowingRayCasting : passIndex;
 		
-//		Initialize zoom factor and zoom factor reciprocal:
-		final float zoom = this.camera[Camera.ABSOLUTE_OFFSET_OF_ZOOM];
-		final float zoomReciprocal = 1.0F / zoom;
+		if(pass == PASS_TEXTURE_UPDATE) {
+//			Scatter the texture updates into the textures, before any ray is cast:
+			doUpdateTexture();
+		} else if(pass == PASS_RAY_CASTING) {
+			final int index = doGetPixelIndex(getGlobalId());
+			
+			if(getGlobalId() == 0) {
+//				Clear the compacted list of edge pixels, which is appended to by the next pass:
+				this.edgePixelCount[0] = 0;
+			}
+			
+			if(index >= 0 && doIsShading(index)) {
+//				Cast the primary ray of the pixel and shade it:
+				doRenderPixel(this.intersections, this.pixels, this.rays, index, index * Intersection.SIZE, index * Constants.SIZE_OF_PIXEL, index * Constants.SIZE_OF_RAY);
+			}
+		} else if(pass == PASS_RECONSTRUCTION) {
+			final int index = doGetPixelIndex(getGlobalId());
+			
+			if(index >= 0 && !doIsShading(index)) {
+//				Reconstruct the pixel from the previous frame, as it was not shaded by the previous pass:
+				doReconstructPixel(this.rays, index, index * Constants.SIZE_OF_RAY);
+			}
+		} else if(pass == PASS_EDGE_DETECTION) {
+			final int index = doGetPixelIndex(getGlobalId());
+			
+			if(index >= 0) {
+//				Append the pixel to the compacted list of edge pixels, if it is on an edge:
+				doDetectEdge(index);
+			}
+		} else {
+			final int edgeIndex = getGlobalId();
+			
+			if(edgeIndex < this.edgePixelCount[0]) {
+				final int index = this.edgePixels[edgeIndex];
+				
+//				Cast additional rays through the edge pixel, such that only the work-items at the start of the range have work to do:
+				doRefinePixel(this.intersections, this.pixels, this.rays, index, index * Intersection.SIZE, index * Constants.SIZE_OF_PIXEL, index * Constants.SIZE_OF_RAY);
+			}
+		}
+	}
+	
+	/**
+	 * Sets the intersection mode of this {@code RayCasterKernel}.
+	 * <p>
+	 * If {@code intersectionMode} is {@code INTERSECTION_MODE_BOUNDING_VOLUME_HIERARCHY}, all rays traverse the bounding volume hierarchy. If it is {@code INTERSECTION_MODE_SHAPE_INDICES}, all rays loop through the shape indices,
+	 * which are updated by view frustum culling. If it is {@code INTERSECTION_MODE_TILES}, primary rays loop through the shapes of the tile of their pixel and shadow rays traverse the bounding volume hierarchy. If it is
+	 * {@code INTERSECTION_MODE_PACKED_SHAPES}, all rays loop through the {@code PackedShapes} of the {@code Scene}, with one branch-free loop per type of shape.
+	 * <p>
+	 * If {@code intersectionMode} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param intersectionMode the new intersection mode
+	 * @throws IllegalArgumentException thrown if, and only if, {@code intersectionMode} is invalid
+	 */
+	public void setIntersectionMode(final int intersectionMode) {
+		if(intersectionMode != INTERSECTION_MODE_BOUNDING_VOLUME_HIERARCHY && intersectionMode != INTERSECTION_MODE_PACKED_SHAPES && intersectionMode != INTERSECTION_MODE_SHAPE_INDICES && intersectionMode != INTERSECTION_MODE_TILES) {
+			throw new IllegalArgumentException(String.format("Illegal intersection mode: %s", Integer.toString(intersectionMode)));
+		}
 		
-//		Initialize the pick update state:
-		final boolean isUpdatingPick = index == pickIndex;
+		this.intersectionMode = intersectionMode;
+	}
+	
+	/**
+	 * Sets the pixel order of this {@code RayCasterKernel}, which is the order in which the work-items are mapped to the pixels.
+	 * <p>
+	 * If {@code pixelOrder} is {@code PIXEL_ORDER_SCANLINE}, consecutive work-items render consecutive pixels of a row. If it is {@code PIXEL_ORDER_MORTON}, they render the pixels of a tile of {@code TileGrid.TILE_SIZE} by
+	 * {@code TileGrid.TILE_SIZE} pixels in Morton order, so a group of consecutive work-items covers a square block of the screen rather than a thin line. The rays of such a block are more likely to intersect the same shapes and
+	 * texels, which makes better use of the caches of both the GPU and the CPU. The RGB-values are written in row-major order regardless.
+	 * <p>
+	 * If {@code pixelOrder} is invalid, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param pixelOrder the new pixel order
+	 * @throws IllegalArgumentException thrown if, and only if, {@code pixelOrder} is invalid
+	 */
+	public void setPixelOrder(final int pixelOrder) {
+		if(pixelOrder != PIXEL_ORDER_MORTON && pixelOrder != PIXEL_ORDER_SCANLINE) {
+			throw new IllegalArgumentException(String.format("Illegal pixel order: %s", Integer.toString(pixelOrder)));
+		}
 		
-//		Update the pixels with the RGB-values reset to black:
-		clearPixel(this.pixels, pixelOffset);
+		this.pixelOrder = pixelOrder;
+	}
+	
+	/**
+	 * Sets whether adaptive supersampling should be enabled.
+	 * <p>
+	 * If enabled, two more passes follow the ray casting whenever the image is rendered with a single sample per pixel, which is the case for all images unless progressive rendering has accumulated more samples. The first pass finds
+	 * the pixels that show another shape than a neighbouring pixel, or whose color differs by more than {@code ADAPTIVE_CONTRAST_THRESHOLD} from it, and appends them to a compacted list. The second pass casts {@code ADAPTIVE_SAMPLES}
+	 * additional jittered rays for the pixels in that list only, so silhouettes and texture edges are supersampled without paying for it everywhere else.
+	 * 
+	 * @param isAdaptive {@code true} if, and only if, adaptive supersampling should be enabled
+	 */
+	public void setAdaptive(final boolean isAdaptive) {
+		this.isAdaptive = isAdaptive;
+	}
+	
+	/**
+	 * Sets whether the shading cache should be enabled.
+	 * <p>
+	 * If enabled, the ambient and direct light of each primary ray that intersects a shape is stored in a cache, together with the shape offset, the surface intersection point and the eye it was shaded from. The next frame
+	 * reprojects the surface intersection point of each pixel into the previous frame, using the camera of the previous frame, and reuses the cached shading of the pixel it lands on, if that pixel intersected the same shape at a
+	 * surface intersection point no further away than {@code SHADING_CACHE_TOLERANCE} pixels. Otherwise, such as for disoccluded pixels, the pixel is shaded as usual. The cache is invalidated whenever the accumulation is reset by
+	 * anything but the camera, such as a change of the lights or the textures.
+	 * <p>
+	 * Because specular highlights depend on the direction of the camera, the cached shading is only reused as long as the direction from the surface intersection point to the eye has turned by no more than the angle given by
+	 * {@code SHADING_CACHE_MINIMUM_VIEW_COSINE} since it was shaded. Reused shading keeps the eye it was shaded from, so the angle does not reset from frame to frame. In addition, one out of
+	 * {@code SHADING_CACHE_REFRESH_INTERVAL} pixels is shaded every frame regardless.
+	 * <p>
+	 * The shading cache is only used for the first sample of each pixel, so progressive rendering converges as usual. The pixel of the pick and the additional samples of adaptive supersampling are always shaded.
+	 * 
+	 * @param isCachingShading {@code true} if, and only if, the shading cache should be enabled
+	 */
+	public void setCachingShading(final boolean isCachingShading) {
+		this.isCachingShading = isCachingShading;
 		
-//		Update the origin point of the ray to fire:
-		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 0] = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 0];
-		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 1] = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 1];
-		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 2] = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 2];
+		resetAccumulation();
+	}
+	
+	/**
+	 * Sets whether checkerboard rendering should be enabled.
+	 * <p>
+	 * If enabled, only half of the pixels are shaded while the camera moves, in a checkerboard pattern that alternates between the frames. The other half is reconstructed from the RGB-values of the previous frame, which is why
+	 * {@link #setRGBIndex(int)} has to alternate between the frames as well. Each of those pixels is reprojected using the camera of the previous frame and the distance to the intersection that was found when it was shaded by the
+	 * previous frame, assuming the distance has not changed much. To avoid ghosting, the reprojected RGB-values are clamped to the range of the neighbouring pixels, which were shaded by the current frame. If the reprojection falls off
+	 * the screen, the average of the neighbouring pixels is used instead.
+	 * <p>
+	 * This halves the number of primary rays per frame, at a resolution that is perceived as almost the full one. If the camera is still and progressive rendering is enabled, all pixels are shaded as usual, so the image converges.
+	 * The pixel of the pick is always shaded, as are all pixels of the first frame after the resolution or the render mode has changed. Adaptive supersampling is not performed for a checkerboard rendering.
+	 * 
+	 * @param isCheckerboard {@code true} if, and only if, checkerboard rendering should be enabled
+	 */
+	public void setCheckerboard(final boolean isCheckerboard) {
+		this.isCheckerboard = isCheckerboard;
+		this.historyRGBIndex = -1;
+	}
+	
+	/**
+	 * Sets the maximum depth of the reflected and refracted rays, where {@code 0} means that only the primary rays are cast.
+	 * <p>
+	 * If greater than {@code 0}, each intersection with a shape whose material has a reflection or a refraction casts a reflected or refracted ray, Whitted-style, and adds the shading at its intersection multiplied by the reflection or
+	 * refraction to the pixel. The rays are cast in a loop rather than by recursion, such that this works on the GPU as well. If the material has both, the ray with the larger throughput is followed and the other one is deferred until
+	 * the path of the first one has terminated. At most one ray per pixel is deferred at a time, so a pixel casts at most {@code 2 * maximumDepth} additional rays, not counting the shadow rays.
+	 * <p>
+	 * The throughput of a ray is the product of the reflections and refractions along its path. A path terminates when the maximum depth is reached, when it misses all shapes, when the material it intersects has neither reflection nor
+	 * refraction or when the throughput of the next ray would be less than {@code MINIMUM_THROUGHPUT}. So pixels showing materials without reflection and refraction cost no more than before, and a work-item whose path has terminated
+	 * does not wait for the others. Refracted rays bend by {@code REFRACTIVE_INDEX}, and are reflected instead if total internal reflection occurs.
+	 * <p>
+	 * The shading cache only stores the shading of the primary rays, so the reflected and refracted rays are cast every frame. If the maximum depth changes, the accumulation of samples is reset.
+	 * <p>
+	 * If {@code maximumDepth} is less than {@code 0} or greater than {@code MAXIMUM_DEPTH}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param maximumDepth the new maximum depth of the reflected and refracted rays
+	 * @throws IllegalArgumentException thrown if, and only if, {@code maximumDepth} is less than {@code 0} or greater than {@code MAXIMUM_DEPTH}
+	 */
+	public void setMaximumDepth(final int maximumDepth) {
+		if(this.maximumDepth != Ranges.requireRange(maximumDepth, 0, MAXIMUM_DEPTH)) {
+			this.maximumDepth = maximumDepth;
+			
+			resetAccumulation();
+		}
+	}
+	
+	/**
+	 * Sets whether mipmapping should be enabled.
+	 * <p>
+	 * If enabled, the texels are fetched from the level of the mip chain of each texture where the pixel footprint covers about one texel. The pixel footprint is the width of the pixel projected onto the surface, which grows with
+	 * the distance to the surface intersection point and with the angle between the ray and the surface normal. So distant surfaces fetch their texels from the smaller levels, which reduces the memory bandwidth and the shimmering
+	 * of textures with more texels than pixels. If disabled, all texels are fetched from level {@code 0}.
+	 * 
+	 * @param isMipmapping {@code true} if, and only if, mipmapping should be enabled
+	 */
+	public void setMipmapping(final boolean isMipmapping) {
+		this.isMipmapping = isMipmapping;
 		
-//		Initialize default pixel sample count:
-		final float samples = 1.0F;
+		resetAccumulation();
+	}
+	
+	/**
+	 * Sets whether progressive rendering should be enabled.
+	 * <p>
+	 * If enabled, each rendering adds a jittered sample per pixel to an accumulation buffer and the average of the samples is displayed, for as long as nothing changes. This converges to an anti-aliased image without rendering more
+	 * than one sample per pixel and frame. The first sample is always cast through the center of the pixel, so a changing image looks the same as without progressive rendering.
+	 * <p>
+	 * The sub-pixel sample points are given by the R2 low-discrepancy sequence, rotated by an offset that is different for each pixel.
+	 * 
+	 * @param isProgressive {@code true} if, and only if, progressive rendering should be enabled
+	 */
+	public void setProgressive(final boolean isProgressive) {
+		this.isProgressive = isProgressive;
+		this.sampleCount = 0;
+	}
+	
+	/**
+	 * Sets whether the intersection mode {@code INTERSECTION_MODE_PACKED_SHAPES} should test the triangles by the intersection test of Wald, rather than the one of M&#246;ller-Trumbore.
+	 * <p>
+	 * The intersection test of Wald reads the projection data of the triangles, which the {@code PackedShapes} keep in an array of their own. It is only used for the closest intersection of the primary, reflected and refracted
+	 * rays. Shadow rays and all other intersection modes use the M&#246;ller-Trumbore intersection test either way. Both tests find the same intersections, so it is disabled by default and only there to be benchmarked against each
+	 * other.
+	 * 
+	 * @param isUsingTriangleProjection {@code true} if, and only if, the triangles should be tested by the intersection test of Wald
+	 */
+	public void setUsingTriangleProjection(final boolean isUsingTriangleProjection) {
+		this.isUsingTriangleProjection = isUsingTriangleProjection;
+	}
+	
+	/**
+	 * Sets the resolution that is rendered, which may be less than the maximum resolution given by the {@link TileGrid} in the constructor.
+	 * <p>
+	 * The arrays of this {@code RayCasterKernel} are allocated for the maximum resolution, so changing the resolution does not allocate anything, neither in Java nor on the GPU. Only the first {@code width * height} pixels are
+	 * rendered, but the RGB-values are written with rows of the maximum width, such that they form the upper left corner of an image of the maximum resolution. The field of view is kept, so a lower resolution means larger pixels.
+	 * <p>
+	 * The {@code TileGrid} has to be given the same resolution, if the intersection mode {@code INTERSECTION_MODE_TILES} is used. If the resolution changes, the accumulation of samples is reset.
+	 * <p>
+	 * If either {@code width} or {@code height} are less than {@code 1} or greater than the maximum resolution, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param width the width of the resolution to render
+	 * @param height the height of the resolution to render
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code width} or {@code height} are less than {@code 1} or greater than the maximum resolution
+	 */
+	public void setResolution(final int width, final int height) {
+		Ranges.requireRange(width, 1, this.maximumWidth);
+		Ranges.requireRange(height, 1, this.maximumHeight);
 		
-//		Initialize default pixel sample point:
-		final float sampleX = 0.5F;
-		final float sampleY = 0.5F;
+		if(this.width != width || this.height != height) {
+			this.resolutionScaleX = (float)(this.maximumWidth) / width;
+			this.resolutionScaleY = (float)(this.maximumHeight) / height;
+			this.height = height;
+			this.tileCountX = (width + TileGrid.TILE_SIZE - 1) / TileGrid.TILE_SIZE;
+			this.tileCount = this.tileCountX * ((height + TileGrid.TILE_SIZE - 1) / TileGrid.TILE_SIZE);
+			this.width = width;
+			this.historyRGBIndex = -1;
+			
+			resetAccumulation();
+		}
+	}
+	
+	/**
+	 * Sets the index of the {@code int} array the RGB-values are written to.
+	 * <p>
+	 * If {@code rGBIndex} is neither {@code 0} nor {@code 1}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param rGBIndex the index of the {@code int} array the RGB-values are written to
+	 * @throws IllegalArgumentException thrown if, and only if, {@code rGBIndex} is neither {@code 0} nor {@code 1}
+	 */
+	public void setRGBIndex(final int rGBIndex) {
+		this.rGBIndex = Ranges.requireRange(rGBIndex, 0, 1);
+	}
+	
+	/**
+	 * Transfers all textures, and resets the accumulation of samples.
+	 * <p>
+	 * This is needed if the {@code int} array of the textures of the {@link Scene} has been modified without recording the texture updates. If the textures are rendered by virtual texturing, all resident pages are streamed again
+	 * from the {@code Scene} first.
+	 */
+	public void updateAllTextures() {
+		if(this.textureCache != null) {
+			this.textureCache.updatePages(this.textureUpdates, -1);
+		}
 		
-//		Initialize the U- and V-coordinates:
-		final float u = (index % this.width - this.width * 0.5F + sampleX) * zoomReciprocal;
-		final float v = (index / this.width - this.height * 0.5F + sampleY) * zoomReciprocal;
+		put(this.textures);
 		
-//		Update the direction vector of the ray to fire:
-		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0] = this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 0] * u + this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 0] * v - this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 0] * this.camera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE];
-		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1] = this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 1] * u + this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 1] * v - this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 1] * this.camera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE];
-		this.rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2] = this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 2] * u + this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 2] * v - this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 2] * this.camera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE];
+		resetAccumulation();
+	}
+	
+	/**
+	 * Copies the values of {@code camera} to the camera of this {@code RayCasterKernel}, and tells the API to fetch them before the next execution.
+	 * <p>
+	 * If {@code camera} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param camera the {@code float} array of a {@code Camera}
+	 * @throws NullPointerException thrown if, and only if, {@code camera} is {@code null}
+	 */
+	public void updateCamera(final float[] camera) {
+		if(doCopy(camera, this.camera)) {
+			this.isCameraChanged = true;
+			this.sampleCount = 0;
+		}
 		
-//		Normalize the ray direction vector:
-		normalize(this.rays, rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0);
+		put(this.camera);
+	}
+	
+	/**
+	 * Copies the values of {@code lights} to the lights of this {@code RayCasterKernel}, and tells the API to fetch them before the next execution.
+	 * <p>
+	 * If {@code lights} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param lights the {@code float} array of the lights in the {@code Scene}
+	 * @throws NullPointerException thrown if, and only if, {@code lights} is {@code null}
+	 */
+	public void updateLights(final float[] lights) {
+		if(doCopy(lights, this.lights)) {
+			resetAccumulation();
+		}
+		
+		put(this.lights);
+	}
+	
+	/**
+	 * Transfers the texture updates recorded by {@code scene} since the last call to this method, such that only the modified texels have to be transferred to the GPU.
+	 * <p>
+	 * Because the API can only transfer whole arrays, the texture updates are transferred in a small staging array and scattered into the textures by the first pass of {@link #render(Range)}. If there are more than
+	 * {@code MAXIMUM_TEXTURE_UPDATES} texture updates, all textures are transferred instead.
+	 * <p>
+	 * If the textures are rendered by virtual texturing, the resident pages that contain texture updates are streamed again and the {@code int} array of the {@link TextureCache} is transferred instead. As this {@code int} array
+	 * is not the one of {@code scene}, this method has to be called regardless of the execution mode.
+	 * <p>
+	 * If {@code scene} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param scene the {@code Scene} whose textures are rendered by this {@code RayCasterKernel}
+	 * @throws NullPointerException thrown if, and only if, {@code scene} is {@code null}
+	 */
+	public void updateTextures(final Scene scene) {
+		final int textureUpdatesLength = scene.pollTextureUpdates(this.textureUpdates);
+		
+		if(this.textureCache != null) {
+			if(textureUpdatesLength != 0 && this.textureCache.updatePages(this.textureUpdates, textureUpdatesLength)) {
+				put(this.textures);
+				
+				resetAccumulation();
+			}
+		} else if(textureUpdatesLength > 0) {
+			this.textureUpdatesLength = textureUpdatesLength;
+			
+			put(this.textureUpdates);
+			
+			resetAccumulation();
+		} else if(textureUpdatesLength < 0) {
+			this.textureUpdatesLength = 0;
+			
+			put(this.textures);
+			
+			resetAccumulation();
+		}
+	}
+	
+	/**
+	 * Streams the texture pages requested by the previous rendering that are not resident, if the textures are rendered by virtual texturing.
+	 * <p>
+	 * Each pixel records one page request, which is the page of the texel it fetched from a coarser level because the page was not resident, or else any page it fetched from. The page requests are fetched from the GPU, unless
+	 * the previous rendering was done by {@link #render(ForkJoinPool)}, and passed to {@link TextureCache#requestPages(int[], int)}. If any page was streamed, the {@code int} array of the {@code TextureCache} is transferred and the
+	 * accumulation of samples is reset, so the next rendering fetches the texels from the new pages.
+	 * <p>
+	 * This method should be called after each rendering.
+	 */
+	public void updateTexturePages() {
+		if(this.textureCache != null) {
+			if(this.renderMode != RENDER_MODE_FORK_JOIN) {
+				get(this.texturePageRequests);
+			}
+			
+			if(this.textureCache.requestPages(this.texturePageRequests, this.width * this.height)) {
+				put(this.textures);
+				
+				resetAccumulation();
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private boolean doAttemptToReuseShading(final float[] intersections, final float[] pixels, final float distance, final int index, final int intersectionOffset, final int pixelOffset, final int shapeOffset) {
+//		Initialize the surface intersection point of the pixel:
+		final float surfaceIntersectionPointX = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 0];
+		final float surfaceIntersectionPointY = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 1];
+		final float surfaceIntersectionPointZ = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 2];
+		
+//		Initialize the refresh state, which is true if, and only if, the pixel belongs to the pixels that are shaded regardless by this frame:
+		final boolean isRefreshing = (index + this.shadingCacheFrame) % SHADING_CACHE_REFRESH_INTERVAL == 0;
+		
+//		Initialize the index of the pixel of the previous frame the surface intersection point is reprojected to, or -1 if it is not on its screen:
+		final int previousIndex = isRefreshing ? -1 : doGetPreviousIndex(surfaceIntersectionPointX - this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_EYE + 0], surfaceIntersectionPointY - this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_EYE + 1], surfaceIntersectionPointZ - this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_EYE + 2]);
+		
+//		Initialize the offset of the cache entry that was written by the previous frame for that pixel:
+		final int shadingCacheOffset = ((this.shadingCacheIndex == 0 ? 1 : 0) * this.maximumWidth * this.maximumHeight + max(previousIndex, 0)) * SIZE_OF_SHADING_CACHE_ENTRY;
+		
+//		Initialize the difference between the cached surface intersection point and the one of the pixel:
+		final float deltaX = this.shadingCache[shadingCacheOffset + 2] - surfaceIntersectionPointX;
+		final float deltaY = this.shadingCache[shadingCacheOffset + 3] - surfaceIntersectionPointY;
+		final float deltaZ = this.shadingCache[shadingCacheOffset + 4] - surfaceIntersectionPointZ;
+		
+//		Initialize the tolerance, which is the size of a pixel at the distance of the surface intersection point times SHADING_CACHE_TOLERANCE:
+		final float tolerance = distance * max(this.resolutionScaleX, this.resolutionScaleY) / (this.camera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE] * this.camera[Camera.ABSOLUTE_OFFSET_OF_ZOOM]) * SHADING_CACHE_TOLERANCE;
+		
+//		Initialize the directions from the surface intersection point to the eye the cached shading was shaded from and to the current eye, which are not normalized:
+		final float cachedViewX = this.shadingCache[shadingCacheOffset + 8] - surfaceIntersectionPointX;
+		final float cachedViewY = this.shadingCache[shadingCacheOffset + 9] - surfaceIntersectionPointY;
+		final float cachedViewZ = this.shadingCache[shadingCacheOffset + 10] - surfaceIntersectionPointZ;
+		final float viewX = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 0] - surfaceIntersectionPointX;
+		final float viewY = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 1] - surfaceIntersectionPointY;
+		final float viewZ = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 2] - surfaceIntersectionPointZ;
+		
+//		Calculate the dot product between both directions, and the product of their lengths, such that the cosine of the angle between them is their quotient:
+		final float viewDotCachedView = viewX * cachedViewX + viewY * cachedViewY + viewZ * cachedViewZ;
+		final float viewLengthTimesCachedViewLength = sqrt((viewX * viewX + viewY * viewY + viewZ * viewZ) * (cachedViewX * cachedViewX + cachedViewY * cachedViewY + cachedViewZ * cachedViewZ));
+		
+//		Initialize the reuse state, which is true if, and only if, the cache entry is valid, belongs to the same shape, is close enough to the surface intersection point and was shaded from nearly the same direction:
+		final boolean isReusingShading = previousIndex >= 0 && this.shadingCache[shadingCacheOffset + 0] == shapeOffset && this.shadingCache[shadingCacheOffset + 1] == this.shadingCacheGeneration && deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ <= tolerance * tolerance && viewDotCachedView >= viewLengthTimesCachedViewLength * SHADING_CACHE_MINIMUM_VIEW_COSINE;
 		
-//		Calculate the distance to the closest shape, if any:
-		final float distance = findIntersection(true, isUpdatingPick, this.intersections, this.pick, this.rays, this.shapes, this.shapeIndicesLength, this.shapeIndices);
+		if(isReusingShading) {
+//			Update the pixel with the cached RGB-values:
+			pixels[pixelOffset + 0] = this.shadingCache[shadingCacheOffset + 5];
+			pixels[pixelOffset + 1] = this.shadingCache[shadingCacheOffset + 6];
+			pixels[pixelOffset + 2] = this.shadingCache[shadingCacheOffset + 7];
+			
+//			Store the reused shading with the eye it was shaded from, such that the angle keeps growing until the pixel is shaded again:
+			doUpdateShadingCache(this.shadingCache[shadingCacheOffset + 8], this.shadingCache[shadingCacheOffset + 9], this.shadingCache[shadingCacheOffset + 10], intersections, pixels, index, intersectionOffset, pixelOffset, shapeOffset);
+		}
+		
+		return isReusingShading;
+	}
+	
+	private boolean doIsDifferent(final int index0, final int index1) {
+//		Initialize the RGB-values of both pixels:
+		final int rGB0 = this.rGBIndex == 0 ? this.rGB0[doGetRGBOffset(index0)] : this.rGB1[doGetRGBOffset(index0)];
+		final int rGB1 = this.rGBIndex == 0 ? this.rGB0[doGetRGBOffset(index1)] : this.rGB1[doGetRGBOffset(index1)];
+		
+//		Initialize the absolute differences of the RGB-components of both pixels:
+		final int r = abs(((rGB0 >> 16) & 0xFF) - ((rGB1 >> 16) & 0xFF));
+		final int g = abs(((rGB0 >> 8) & 0xFF) - ((rGB1 >> 8) & 0xFF));
+		final int b = abs(((rGB0 >> 0) & 0xFF) - ((rGB1 >> 0) & 0xFF));
+		
+//		Initialize the shape offsets of both pixels, which are -1 if no shape was intersected:
+		final int shapeOffset0 = (int)(this.intersections[index0 * Intersection.SIZE + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET]);
+		final int shapeOffset1 = (int)(this.intersections[index1 * Intersection.SIZE + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET]);
+		
+		return shapeOffset0 != shapeOffset1 || max(r, max(g, b)) > ADAPTIVE_CONTRAST_THRESHOLD;
+	}
+	
+	private boolean doIsRefiningEdges() {
+		return this.isAdaptive && this.sampleCount == 0 && this.checkerboardParity < 0;
+	}
+	
+	private boolean doIsShading(final int index) {
+//		All pixels are shaded, unless a checkerboard rendering is performed. Then only the pixels of the current parity are shaded, and the pixel of the pick, such that the pick is updated by every frame:
+		return this.checkerboardParity < 0 || ((index % this.width + index / this.width) & 1) == this.checkerboardParity || index == this.height / 2 * this.width + this.width / 2;
+	}
+	
+	private float doCalculatePixelFootprint(final float distance, final float[] intersections, final float[] rays, final int intersectionOffset, final int rayOffset) {
+//		Calculate the cosine of the angle between the ray and the surface normal, where grazing angles are limited such that the footprint does not grow without bounds:
+		final float cosine = max(abs(dotProduct(intersections, intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_NORMAL, rays, rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0)), 0.25F);
+		
+//		Calculate the width of the pixel at the distance of the surface intersection point, as seen by the camera, and stretch it by the angle between the ray and the surface normal:
+		return distance * max(this.resolutionScaleX, this.resolutionScaleY) / (this.camera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE] * this.camera[Camera.ABSOLUTE_OFFSET_OF_ZOOM]) / cosine;
+	}
+	
+	private float doFraction(final float value) {
+		return value - floor(value);
+	}
+	
+	private float doGetSampleX(final int x, final int y, final int sample) {
+//		Rotate the R2 sequence by an offset that depends on the pixel, such that neighbouring pixels do not use the same sample points:
+		return doFraction(x * SAMPLE_SEQUENCE_X + y * SAMPLE_SEQUENCE_Y + sample * SAMPLE_SEQUENCE_X);
+	}
+	
+	private float doGetSampleY(final int x, final int y, final int sample) {
+//		Rotate the R2 sequence by an offset that depends on the pixel, such that neighbouring pixels do not use the same sample points:
+		return doFraction(x * SAMPLE_SEQUENCE_Y + y * SAMPLE_SEQUENCE_X + sample * SAMPLE_SEQUENCE_Y);
+	}
+	
+	private int doCompactBits(final int value) {
+//		Remove every other bit of value, such that the bits at even positions are compacted into the lower half, which is the inverse of interleaving the bits of two coordinates into a Morton code:
+		int bits = value & 0x55555555;
+		
+		bits = (bits | (bits >> 1)) & 0x33333333;
+		bits = (bits | (bits >> 2)) & 0x0F0F0F0F;
+		bits = (bits | (bits >> 4)) & 0x00FF00FF;
+		bits = (bits | (bits >> 8)) & 0x0000FFFF;
+		
+		return bits;
+	}
+	
+	private int doGetPixelIndex(final int globalId) {
+		int index = -1;
+		
+		if(this.pixelOrder == PIXEL_ORDER_MORTON) {
+//			Initialize the tile of the work-item and the Morton code of the pixel within that tile:
+			final int tile = globalId / (TileGrid.TILE_SIZE * TileGrid.TILE_SIZE);
+			final int morton = globalId % (TileGrid.TILE_SIZE * TileGrid.TILE_SIZE);
+			
+//			Initialize the X- and Y-coordinates of the pixel, which may be outside of the screen if the resolution is not a multiple of the tile size:
+			final int x = (tile % this.tileCountX) * TileGrid.TILE_SIZE + doCompactBits(morton);
+			final int y = (tile / this.tileCountX) * TileGrid.TILE_SIZE + doCompactBits(morton >> 1);
+			
+			if(x < this.width && y < this.height) {
+				index = y * this.width + x;
+			}
+		} else if(globalId < this.width * this.height) {
+			index = globalId;
+		}
+		
+		return index;
+	}
+	
+	private int doGetPreviousIndex(final float pointX, final float pointY, final float pointZ) {
+//		Initialize the depth of the point, which is relative to the eye of the previous camera, and the scale of the view plane, as seen by the previous camera:
+		final float depth = -(pointX * this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 0] + pointY * this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 1] + pointZ * this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 2]);
+		final float scale = this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE] * this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_ZOOM];
+		
+//		Initialize the pixel coordinates of the point on the screen of the previous camera, which is the inverse of the mapping from pixel coordinates to the view plane, used by the primary rays:
+		final float previousX = (pointX * this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 0] + pointY * this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 1] + pointZ * this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 2]) / depth * scale / this.resolutionScaleX + this.width * 0.5F - 0.5F;
+		final float previousY = (pointX * this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 0] + pointY * this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 1] + pointZ * this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 2]) / depth * scale / this.resolutionScaleY + this.height * 0.5F - 0.5F;
+		
+//		Initialize the reprojection state, which is true if, and only if, the point is in front of the previous camera and on its screen:
+		final boolean isReprojected = depth > 0.0F && previousX > -0.5F && previousX < this.width - 0.5F && previousY > -0.5F && previousY < this.height - 0.5F;
+		
+		return isReprojected ? (int)(floor(previousY + 0.5F)) * this.width + (int)(floor(previousX + 0.5F)) : -1;
+	}
+	
+	private int doGetRGBOffset(final int index) {
+//		The RGB-values are written with rows of the maximum width, regardless of the resolution that is rendered:
+		return index / this.width * this.maximumWidth + index % this.width;
+	}
+	
+	private int doGetWorkItemCount() {
+//		The Morton order maps the work-items to whole tiles, some of which may be partially outside of the screen:
+		return this.pixelOrder == PIXEL_ORDER_MORTON ? this.tileCount * TileGrid.TILE_SIZE * TileGrid.TILE_SIZE : this.width * this.height;
+	}
+	
+	private void doCastRay(final boolean isReusingShading, final boolean isUpdatingPick, final float sampleX, final float sampleY, final float[] intersections, final float[] pixels, final float[] rays, final int index, final int intersectionOffset, final int pixelOffset, final int rayOffset) {
+//		Update the pixels with the RGB-values reset to black:
+		clearPixel(pixels, pixelOffset);
+		
+//		Update the ray to fire through the pixel sample point:
+		doUpdateRay(sampleX, sampleY, rays, index, rayOffset);
+		
+//		Initialize the tile of the pixel and the number of shapes in it, where -1 means the tile has too many shapes and the shape indices should be used instead:
+		final int tile = (index / this.width / TileGrid.TILE_SIZE) * this.tileCountX + (index % this.width) / TileGrid.TILE_SIZE;
+		final int tileShapeCount = this.tiles[tile];
+		
+//		Initialize distance to the closest shape:
+		float distance = Constants.MAXIMUM_DISTANCE;
+		
+		if(this.intersectionMode == INTERSECTION_MODE_TILES && tileShapeCount >= 0) {
+//			Calculate the distance to the closest shape, if any, by looping through the shapes in the tile:
+			distance = findIntersection(true, isUpdatingPick, intersections, this.pick, rays, this.shapes, intersectionOffset, rayOffset, tileShapeCount, this.tileCount + tile * TileGrid.MAXIMUM_SHAPES_PER_TILE, this.tiles);
+		} else if(this.intersectionMode == INTERSECTION_MODE_SHAPE_INDICES || this.intersectionMode == INTERSECTION_MODE_TILES) {
+//			Calculate the distance to the closest shape, if any, by looping through the shape indices that survived view frustum culling:
+			distance = findIntersection(true, isUpdatingPick, intersections, this.pick, rays, this.shapes, intersectionOffset, rayOffset, this.shapeIndicesLength, 0, this.shapeIndices);
+		} else if(this.intersectionMode == INTERSECTION_MODE_PACKED_SHAPES) {
+//			Calculate the distance to the closest shape, if any, by looping through the packed shapes of each type:
+			distance = findIntersectionUsingPackedShapes(true, this.isUsingTriangleProjection, intersections, this.packedPlanes, this.packedSpheres, this.packedTriangleProjections, this.packedTriangles, rays, this.shapes, intersectionOffset, rayOffset);
+		} else {
+//			Calculate the distance to the closest shape, if any, by traversing the bounding volume hierarchy:
+			distance = findIntersectionUsingBoundingVolumeHierarchy(true, this.boundingVolumeHierarchy, intersections, rays, this.shapes, intersectionOffset, rayOffset, this.boundingVolumeHierarchyShapeIndices);
+		}
 		
 		if(distance > 0.0F && distance < Constants.MAXIMUM_DISTANCE) {
 //			Initialize needed offset values:
-			final int intersectionOffset = index * Intersection.SIZE;
-			final int shapeOffset = (int)(this.intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET]);
+			final int shapeOffset = (int)(intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET]);
 			final int materialOffset = (int)(this.shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_MATERIAL_OFFSET]);
 			
-//			Calculate the ambient and direct light:
-			attemptToAddDirectLight(isUpdatingPick, this.intersections, this.lights, this.materials, this.pick, this.pixels, this.rays, this.shapes, intersectionOffset, this.lightsLength, materialOffset, pixelOffset, rayOffset, this.shapeIndicesLength, shapeOffset, this.shapeIndices, this.textures);
+//			Update the intersection with the pixel footprint, which selects the levels of the mip chains of the textures, where 0 selects level 0:
+			intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_PIXEL_FOOTPRINT] = this.isMipmapping ? doCalculatePixelFootprint(distance, intersections, rays, intersectionOffset, rayOffset) : 0.0F;
+			
+			if(!isReusingShading || isUpdatingPick || !doAttemptToReuseShading(intersections, pixels, distance, index, intersectionOffset, pixelOffset, shapeOffset)) {
+//				Calculate the ambient and direct light, unless the shading of the previous frame could be reused:
+				attemptToAddDirectLight(isUpdatingPick, this.boundingVolumeHierarchy, intersections, this.lights, this.materials, this.packedPlanes, this.packedSpheres, this.packedTriangles, this.pick, pixels, rays, this.shapes, this.intersectionMode, intersectionOffset, this.lightsLength, materialOffset, pixelOffset, rayOffset, this.shapeIndicesLength, shapeOffset, this.boundingVolumeHierarchyShapeIndices, this.shapeIndices, this.textures);
+				
+				if(isReusingShading) {
+//					Store the shading of the pixel with the current eye, such that the next frame may reuse it:
+					doUpdateShadingCache(this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 0], this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 1], this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 2], intersections, pixels, index, intersectionOffset, pixelOffset, shapeOffset);
+				}
+			}
+			
+			if(this.maximumDepth > 0) {
+//				Add the shading of the reflected and refracted rays, if the material has a reflection or a refraction:
+				doCastSecondaryRays(distance, intersections, pixels, rays, intersectionOffset, materialOffset, pixelOffset, rayOffset);
+			}
 		}
 		
+//		Store the texture page request of the pixel, by joining the two 16-bit halves of the page ID, such that the pages that are not resident can be streamed after the rendering:
+		this.texturePageRequests[index] = ((int)(intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_TEXTURE_PAGE_REQUEST + 0]) << 16) | (int)(intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_TEXTURE_PAGE_REQUEST + 1]);
+		
 		if(isUpdatingPick) {
-			this.pick[0] = (this.intersections[index * Intersection.SIZE + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET]);
+			this.pick[0] = (intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET]);
 			this.pick[1] = distance;
 			
 //			Uncomment the following code to show a white pixel at the 'center' of the screen, where the pick is used:
-//			this.pixels[pixelOffset + 0] = 1.0F;
-//			this.pixels[pixelOffset + 1] = 1.0F;
-//			this.pixels[pixelOffset + 2] = 1.0F;
+//			pixels[pixelOffset + 0] = 1.0F;
+//			pixels[pixelOffset + 1] = 1.0F;
+//			pixels[pixelOffset + 2] = 1.0F;
 		}
+	}
+	
+	private void doCastRays(final int startGlobalId, final int endGlobalId) {
+//		Initialize the pixel and ray of the current task, such that no values are shared with other tasks:
+		final float[] pixels = new float[Constants.SIZE_OF_PIXEL];
+		final float[] rays = new float[Constants.SIZE_OF_RAY];
 		
-//		Update the pixel by performing gamma correction, tone mapping and scaling:
-		updatePixel(samples, this.pixels, pixelOffset, index, this.rGB);
+		for(int globalId = startGlobalId; globalId < endGlobalId; globalId++) {
+			final int index = doGetPixelIndex(globalId);
+			
+			if(index >= 0 && doIsShading(index)) {
+				doRenderPixel(this.intersections, pixels, rays, index, index * Intersection.SIZE, 0, 0);
+			}
+		}
+	}
+	
+	private void doCastSecondaryRays(final float distance, final float[] intersections, final float[] pixels, final float[] rays, final int intersectionOffset, final int materialOffset, final int pixelOffset, final int rayOffset) {
+//		Initialize the shape offset of the primary intersection, which is restored when all paths have terminated, as the edge detection, the reconstruction and the pick depend on it:
+		final float primaryShapeOffset = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET];
+		
+//		Initialize the RGB-components of the pixel, to which the shading of each intersection along the paths is added:
+		float r = pixels[pixelOffset + 0];
+		float g = pixels[pixelOffset + 1];
+		float b = pixels[pixelOffset + 2];
+		
+//		Initialize the state of the current path, which starts at the primary intersection:
+		boolean isIntersecting = true;
+		float pathDistance = distance;
+		float throughput = 1.0F;
+		int depth = 0;
+		int currentMaterialOffset = materialOffset;
+		
+//		Initialize the state of the deferred path, which is cast when the current path has terminated, where a throughput of 0.0 means that no path is deferred:
+		float deferredOriginX = 0.0F;
+		float deferredOriginY = 0.0F;
+		float deferredOriginZ = 0.0F;
+		float deferredDirectionX = 0.0F;
+		float deferredDirectionY = 0.0F;
+		float deferredDirectionZ = 0.0F;
+		float deferredPathDistance = 0.0F;
+		float deferredThroughput = 0.0F;
+		int deferredDepth = 0;
+		
+		boolean isCasting = true;
+		
+		while(isCasting) {
+//			Initialize the origin, direction and throughput of the next ray, where a throughput of 0.0 means that the current path has terminated:
+			float originX = 0.0F;
+			float originY = 0.0F;
+			float originZ = 0.0F;
+			float directionX = 0.0F;
+			float directionY = 0.0F;
+			float directionZ = 0.0F;
+			float nextThroughput = 0.0F;
+			
+			if(isIntersecting && depth < this.maximumDepth) {
+//				Initialize the throughput of the reflected and refracted rays:
+				final float reflectionThroughput = throughput * this.materials[currentMaterialOffset + Material.RELATIVE_OFFSET_OF_REFLECTION];
+				final float refractionThroughput = throughput * this.materials[currentMaterialOffset + Material.RELATIVE_OFFSET_OF_REFRACTION];
+				
+				if(reflectionThroughput >= MINIMUM_THROUGHPUT || refractionThroughput >= MINIMUM_THROUGHPUT) {
+//					Initialize the direction of the ray that intersected the shape:
+					final float incidentX = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0];
+					final float incidentY = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1];
+					final float incidentZ = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2];
+					
+//					Initialize the surface normal on the surface intersection point:
+					final float surfaceNormalX = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 0];
+					final float surfaceNormalY = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 1];
+					final float surfaceNormalZ = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 2];
+					
+//					Initialize the surface intersection point:
+					final float surfaceIntersectionX = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 0];
+					final float surfaceIntersectionY = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 1];
+					final float surfaceIntersectionZ = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 2];
+					
+//					Calculate the dot product between the surface normal and the incident direction, which is negative if the ray enters the shape:
+					final float surfaceNormalDotIncident = surfaceNormalX * incidentX + surfaceNormalY * incidentY + surfaceNormalZ * incidentZ;
+					
+//					Calculate the reflected direction:
+					final float reflectionX = incidentX - 2.0F * surfaceNormalDotIncident * surfaceNormalX;
+					final float reflectionY = incidentY - 2.0F * surfaceNormalDotIncident * surfaceNormalY;
+					final float reflectionZ = incidentZ - 2.0F * surfaceNormalDotIncident * surfaceNormalZ;
+					
+//					Initialize the ratio of the indices of refraction, the cosine of the angle of incidence and the sign of the surface normal, which faces against the incident direction:
+					final float eta = surfaceNormalDotIncident < 0.0F ? 1.0F / REFRACTIVE_INDEX : REFRACTIVE_INDEX;
+					final float cosine = abs(surfaceNormalDotIncident);
+					final float sign = surfaceNormalDotIncident < 0.0F ? 1.0F : -1.0F;
+					
+//					Calculate the squared cosine of the angle of refraction, which is negative if total internal reflection occurs:
+					final float k = 1.0F - eta * eta * (1.0F - cosine * cosine);
+					
+//					Calculate the refracted direction, or the reflected direction if total internal reflection occurs:
+					final float factor = k < 0.0F ? 0.0F : (eta * cosine - sqrt(k)) * sign;
+					final float refractionX = k < 0.0F ? reflectionX : eta * incidentX + factor * surfaceNormalX;
+					final float refractionY = k < 0.0F ? reflectionY : eta * incidentY + factor * surfaceNormalY;
+					final float refractionZ = k < 0.0F ? reflectionZ : eta * incidentZ + factor * surfaceNormalZ;
+					
+//					Follow the ray with the larger throughput and consider the other one for deferral:
+					final boolean isReflecting = reflectionThroughput >= refractionThroughput;
+					final float otherThroughput = isReflecting ? refractionThroughput : reflectionThroughput;
+					
+					if(otherThroughput >= MINIMUM_THROUGHPUT && deferredThroughput == 0.0F) {
+//						Defer the other ray until the current path has terminated:
+						deferredDirectionX = isReflecting ? refractionX : reflectionX;
+						deferredDirectionY = isReflecting ? refractionY : reflectionY;
+						deferredDirectionZ = isReflecting ? refractionZ : reflectionZ;
+						deferredOriginX = surfaceIntersectionX + deferredDirectionX;
+						deferredOriginY = surfaceIntersectionY + deferredDirectionY;
+						deferredOriginZ = surfaceIntersectionZ + deferredDirectionZ;
+						deferredPathDistance = pathDistance;
+						deferredThroughput = otherThroughput;
+						deferredDepth = depth;
+					}
+					
+//					Update the next ray, where its origin is moved slightly along its direction, such that it does not intersect the same surface again:
+					directionX = isReflecting ? reflectionX : refractionX;
+					directionY = isReflecting ? reflectionY : refractionY;
+					directionZ = isReflecting ? reflectionZ : refractionZ;
+					originX = surfaceIntersectionX + directionX;
+					originY = surfaceIntersectionY + directionY;
+					originZ = surfaceIntersectionZ + directionZ;
+					nextThroughput = isReflecting ? reflectionThroughput : refractionThroughput;
+				}
+			}
+			
+			if(nextThroughput < MINIMUM_THROUGHPUT && deferredThroughput > 0.0F) {
+//				The current path has terminated, so continue with the deferred path:
+				originX = deferredOriginX;
+				originY = deferredOriginY;
+				originZ = deferredOriginZ;
+				directionX = deferredDirectionX;
+				directionY = deferredDirectionY;
+				directionZ = deferredDirectionZ;
+				nextThroughput = deferredThroughput;
+				pathDistance = deferredPathDistance;
+				depth = deferredDepth;
+				deferredThroughput = 0.0F;
+			}
+			
+			if(nextThroughput >= MINIMUM_THROUGHPUT) {
+//				Update the secondary ray with the origin and direction:
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1 + 0] = originX;
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1 + 1] = originY;
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1 + 2] = originZ;
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1 + 0] = directionX;
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1 + 1] = directionY;
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1 + 2] = directionZ;
+				
+				normalize(rays, rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1);
+				
+//				Calculate the distance to the closest shape, if any, using the packed shapes or the bounding volume hierarchy, as the tiles and the shape indices only contain the shapes that are visible to the camera:
+				final float secondaryDistance = this.intersectionMode == INTERSECTION_MODE_PACKED_SHAPES ? findIntersectionUsingPackedShapes(false, this.isUsingTriangleProjection, intersections, this.packedPlanes, this.packedSpheres, this.packedTriangleProjections, this.packedTriangles, rays, this.shapes, intersectionOffset, rayOffset) : findIntersectionUsingBoundingVolumeHierarchy(false, this.boundingVolumeHierarchy, intersections, rays, this.shapes, intersectionOffset, rayOffset, this.boundingVolumeHierarchyShapeIndices);
+				
+//				Copy the secondary ray to the first ray, which is the one the shading is calculated for, as the secondary ray is used by the shadow rays:
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 0] = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1 + 0];
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 1] = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1 + 1];
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 2] = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_1 + 2];
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0] = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1 + 0];
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1] = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1 + 1];
+				rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2] = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_1 + 2];
+				
+				isIntersecting = secondaryDistance > 0.0F && secondaryDistance < Constants.MAXIMUM_DISTANCE;
+				throughput = nextThroughput;
+				depth++;
+				
+				if(isIntersecting) {
+//					Initialize needed offset values:
+					final int shapeOffset = (int)(intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET]);
+					
+					currentMaterialOffset = (int)(this.shapes[shapeOffset + Shape.RELATIVE_OFFSET_OF_MATERIAL_OFFSET]);
+					
+//					Update the length of the path, which selects the levels of the mip chains of the textures as if the surface was seen at that distance:
+					pathDistance += secondaryDistance;
+					
+					intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_PIXEL_FOOTPRINT] = this.isMipmapping ? doCalculatePixelFootprint(pathDistance, intersections, rays, intersectionOffset, rayOffset) : 0.0F;
+					
+//					Calculate the ambient and direct light at the intersection:
+					clearPixel(pixels, pixelOffset);
+					
+					attemptToAddDirectLight(false, this.boundingVolumeHierarchy, intersections, this.lights, this.materials, this.packedPlanes, this.packedSpheres, this.packedTriangles, this.pick, pixels, rays, this.shapes, this.intersectionMode, intersectionOffset, this.lightsLength, currentMaterialOffset, pixelOffset, rayOffset, this.shapeIndicesLength, shapeOffset, this.boundingVolumeHierarchyShapeIndices, this.shapeIndices, this.textures);
+					
+//					Add the light multiplied by the throughput to the RGB-components of the pixel:
+					r += pixels[pixelOffset + 0] * throughput;
+					g += pixels[pixelOffset + 1] * throughput;
+					b += pixels[pixelOffset + 2] * throughput;
+				}
+			} else {
+				isCasting = false;
+			}
+		}
+		
+//		Update the pixel with the sum of the shading of all intersections:
+		pixels[pixelOffset + 0] = r;
+		pixels[pixelOffset + 1] = g;
+		pixels[pixelOffset + 2] = b;
+		
+//		Restore the shape offset and distance of the primary intersection:
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET] = primaryShapeOffset;
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_DISTANCE] = distance;
+	}
+	
+	private void doDetectEdge(final int index) {
+//		Initialize the X- and Y-coordinates of the pixel:
+		final int x = index % this.width;
+		final int y = index / this.width;
+		
+//		Initialize the edge state, which is true if, and only if, any neighbouring pixel shows another shape or differs too much in color:
+		final boolean isEdge = x > 0 && doIsDifferent(index, index - 1) || x + 1 < this.width && doIsDifferent(index, index + 1) || y > 0 && doIsDifferent(index, index - this.width) || y + 1 < this.height && doIsDifferent(index, index + this.width);
+		
+		if(isEdge) {
+//			Append the pixel to the compacted list of edge pixels:
+			this.edgePixels[atomicAdd(this.edgePixelCount, 0, 1)] = index;
+		}
+	}
+	
+	private void doDetectEdges(final int startGlobalId, final int endGlobalId) {
+		for(int globalId = startGlobalId; globalId < endGlobalId; globalId++) {
+			final int index = doGetPixelIndex(globalId);
+			
+			if(index >= 0) {
+				doDetectEdge(index);
+			}
+		}
+	}
+	
+	private void doPrepareAccumulation(final int renderMode) {
+		if(this.renderMode != renderMode) {
+//			The accumulation of the previous render mode may not be available in this one, so start over:
+			this.historyRGBIndex = -1;
+			this.renderMode = renderMode;
+			
+			resetAccumulation();
+		}
+	}
+	
+	private void doPrepareCheckerboard() {
+//		Initialize the history state, which is true if, and only if, the other int array holds the RGB-values of the previous frame at the same resolution:
+		final boolean hasHistory = this.historyRGBIndex >= 0 && this.historyRGBIndex != this.rGBIndex;
+		
+		if(this.isCheckerboard && hasHistory && this.sampleCount == 0 && (this.isCameraChanged || !this.isProgressive)) {
+//			Shade the other half of the pixels than the previous checkerboard rendering:
+			this.checkerboardParity = this.checkerboardParity == 0 ? 1 : 0;
+		} else {
+			this.checkerboardParity = -1;
+		}
+	}
+	
+	private void doPrepareShadingCache() {
+		if(this.isCachingShading && this.sampleCount == 0) {
+//			Write the shading cache to the other half than the previous frame did, such that it can be read while being written, and move the pixels that are shaded regardless:
+			this.isReusingShading = true;
+			this.shadingCacheFrame = (this.shadingCacheFrame + 1) % SHADING_CACHE_REFRESH_INTERVAL;
+			this.shadingCacheIndex = this.shadingCacheIndex == 0 ? 1 : 0;
+		} else {
+			this.isReusingShading = false;
+		}
+	}
+	
+	private void doReconstructPixel(final float[] rays, final int index, final int rayOffset) {
+//		Initialize the X- and Y-coordinates of the pixel:
+		final int x = index % this.width;
+		final int y = index / this.width;
+		
+//		Update the ray through the center of the pixel, as seen by the current camera:
+		doUpdateRay(0.5F, 0.5F, rays, index, rayOffset);
+		
+//		Initialize the direction of the ray:
+		final float directionX = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0];
+		final float directionY = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1];
+		final float directionZ = rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2];
+		
+//		Initialize the shape offset and distance of the intersection that was found when the pixel was shaded by the previous frame:
+		final int shapeOffset = (int)(this.intersections[index * Intersection.SIZE + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET]);
+		final float distance = this.intersections[index * Intersection.SIZE + Intersection.RELATIVE_OFFSET_OF_DISTANCE];
+		
+//		Initialize the point along the ray at that distance relative to the eye of the previous camera, or only the direction of the ray if no shape was intersected, as it is infinitely far away:
+		final float pointX = shapeOffset < 0 ? directionX : this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 0] + directionX * distance - this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_EYE + 0];
+		final float pointY = shapeOffset < 0 ? directionY : this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 1] + directionY * distance - this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_EYE + 1];
+		final float pointZ = shapeOffset < 0 ? directionZ : this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 2] + directionZ * distance - this.previousCamera[Camera.ABSOLUTE_OFFSET_OF_EYE + 2];
+		
+//		Initialize the index of the closest pixel of the previous frame, or -1 if the point is not on its screen:
+		final int previousIndex = doGetPreviousIndex(pointX, pointY, pointZ);
+		
+//		Initialize the reprojection state and the RGB-values of that pixel, if the point is on its screen:
+		final boolean isReprojected = previousIndex >= 0;
+		final int previousRGB = isReprojected ? this.rGBIndex == 0 ? this.rGB1[doGetRGBOffset(previousIndex)] : this.rGB0[doGetRGBOffset(previousIndex)] : 0;
+		
+		int minimumR = 255;
+		int minimumG = 255;
+		int minimumB = 255;
+		int maximumR = 0;
+		int maximumG = 0;
+		int maximumB = 0;
+		int sumR = 0;
+		int sumG = 0;
+		int sumB = 0;
+		int neighbours = 0;
+		
+		for(int i = 0; i < 4; i++) {
+//			Initialize the X- and Y-coordinates of the neighbouring pixel to the left, right, top or bottom, which were shaded by the current frame:
+			final int neighbourX = x + (i == 0 ? -1 : i == 1 ? 1 : 0);
+			final int neighbourY = y + (i == 2 ? -1 : i == 3 ? 1 : 0);
+			
+			if(neighbourX >= 0 && neighbourX < this.width && neighbourY >= 0 && neighbourY < this.height) {
+				final int neighbourIndex = neighbourY * this.width + neighbourX;
+				final int neighbourRGB = this.rGBIndex == 0 ? this.rGB0[doGetRGBOffset(neighbourIndex)] : this.rGB1[doGetRGBOffset(neighbourIndex)];
+				final int neighbourR = (neighbourRGB >> 16) & 0xFF;
+				final int neighbourG = (neighbourRGB >> 8) & 0xFF;
+				final int neighbourB = (neighbourRGB >> 0) & 0xFF;
+				
+//				Update the range and the sum of the RGB-components of the neighbouring pixels:
+				minimumR = min(minimumR, neighbourR);
+				minimumG = min(minimumG, neighbourG);
+				minimumB = min(minimumB, neighbourB);
+				maximumR = max(maximumR, neighbourR);
+				maximumG = max(maximumG, neighbourG);
+				maximumB = max(maximumB, neighbourB);
+				sumR += neighbourR;
+				sumG += neighbourG;
+				sumB += neighbourB;
+				neighbours++;
+			}
+		}
+		
+//		Initialize the RGB-components of the pixel, which are the reprojected ones clamped to the range of the neighbouring pixels, or the average of the neighbouring pixels if the point could not be reprojected:
+		final int r = neighbours == 0 ? (previousRGB >> 16) & 0xFF : isReprojected ? min(max((previousRGB >> 16) & 0xFF, minimumR), maximumR) : sumR / neighbours;
+		final int g = neighbours == 0 ? (previousRGB >> 8) & 0xFF : isReprojected ? min(max((previousRGB >> 8) & 0xFF, minimumG), maximumG) : sumG / neighbours;
+		final int b = neighbours == 0 ? (previousRGB >> 0) & 0xFF : isReprojected ? min(max((previousRGB >> 0) & 0xFF, minimumB), maximumB) : sumB / neighbours;
+		
+		if(this.rGBIndex == 0) {
+			this.rGB0[doGetRGBOffset(index)] = (r << 16) | (g << 8) | b;
+		} else {
+			this.rGB1[doGetRGBOffset(index)] = (r << 16) | (g << 8) | b;
+		}
+	}
+	
+	private void doReconstructPixels(final int startGlobalId, final int endGlobalId) {
+//		Initialize the ray of the current task, such that no values are shared with other tasks:
+		final float[] rays = new float[Constants.SIZE_OF_RAY];
+		
+		for(int globalId = startGlobalId; globalId < endGlobalId; globalId++) {
+			final int index = doGetPixelIndex(globalId);
+			
+			if(index >= 0 && !doIsShading(index)) {
+				doReconstructPixel(rays, index, 0);
+			}
+		}
+	}
+	
+	private void doRefineEdges(final int startIndex, final int endIndex) {
+//		Initialize the pixel and ray of the current task, such that no values are shared with other tasks:
+		final float[] pixels = new float[Constants.SIZE_OF_PIXEL];
+		final float[] rays = new float[Constants.SIZE_OF_RAY];
+		
+		for(int edgeIndex = startIndex; edgeIndex < endIndex; edgeIndex++) {
+			final int index = this.edgePixels[edgeIndex];
+			
+			doRefinePixel(this.intersections, pixels, rays, index, index * Intersection.SIZE, 0, 0);
+		}
+	}
+	
+	private void doRefinePixel(final float[] intersections, final float[] pixels, final float[] rays, final int index, final int intersectionOffset, final int pixelOffset, final int rayOffset) {
+//		Initialize the X- and Y-coordinates of the pixel:
+		final int x = index % this.width;
+		final int y = index / this.width;
+		
+//		Initialize the offset of the accumulated RGB-components of the pixel:
+		final int accumulationOffset = index * 3;
+		
+//		Initialize the sum of the RGB-components with the first sample, which is the only one accumulated so far:
+		float r = this.accumulation[accumulationOffset + 0];
+		float g = this.accumulation[accumulationOffset + 1];
+		float b = this.accumulation[accumulationOffset + 2];
+		
+//		Initialize the shape offset and distance of the primary intersection, which are restored when all samples have been cast, as the reconstruction and the pick depend on them:
+		final float primaryShapeOffset = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET];
+		final float primaryDistance = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_DISTANCE];
+		
+		for(int sample = 1; sample <= ADAPTIVE_SAMPLES; sample++) {
+//			Cast a ray through the next point of the R2 sequence and add its RGB-components to the sum:
+			doCastRay(false, false, doGetSampleX(x, y, sample), doGetSampleY(x, y, sample), intersections, pixels, rays, index, intersectionOffset, pixelOffset, rayOffset);
+			
+			r += pixels[pixelOffset + 0];
+			g += pixels[pixelOffset + 1];
+			b += pixels[pixelOffset + 2];
+		}
+		
+//		Restore the shape offset and distance of the primary intersection:
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SHAPE_OFFSET] = primaryShapeOffset;
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_DISTANCE] = primaryDistance;
+		
+//		Initialize the reciprocal of the number of samples:
+		final float samplesReciprocal = 1.0F / (ADAPTIVE_SAMPLES + 1);
+		
+//		Replace the accumulated first sample with the average of all samples, which counts as a single sample if progressive rendering continues:
+		this.accumulation[accumulationOffset + 0] = r * samplesReciprocal;
+		this.accumulation[accumulationOffset + 1] = g * samplesReciprocal;
+		this.accumulation[accumulationOffset + 2] = b * samplesReciprocal;
+		
+//		Update the pixel with the average of all samples:
+		pixels[pixelOffset + 0] = this.accumulation[accumulationOffset + 0];
+		pixels[pixelOffset + 1] = this.accumulation[accumulationOffset + 1];
+		pixels[pixelOffset + 2] = this.accumulation[accumulationOffset + 2];
+		
+		if(this.rGBIndex == 0) {
+//			Update the pixel by performing gamma correction, tone mapping and scaling:
+			updatePixel(1.0F, pixels, pixelOffset, doGetRGBOffset(index), this.rGB0);
+		} else {
+//			Update the pixel by performing gamma correction, tone mapping and scaling:
+			updatePixel(1.0F, pixels, pixelOffset, doGetRGBOffset(index), this.rGB1);
+		}
+	}
+	
+	private void doRenderPixel(final float[] intersections, final float[] pixels, final float[] rays, final int index, final int intersectionOffset, final int pixelOffset, final int rayOffset) {
+//		Initialize the pick index:
+		final int pickIndex = this.height / 2 * this.width + this.width / 2;
+		
+//		Initialize the pick update state:
+		final boolean isUpdatingPick = index == pickIndex;
+		
+//		Initialize the X- and Y-coordinates of the pixel:
+		final int x = index % this.width;
+		final int y = index / this.width;
+		
+//		Initialize the number of samples accumulated so far:
+		final int sampleCount = this.sampleCount;
+		
+//		Initialize the pixel sample point, which is the center of the pixel for the first sample and the next point of the R2 sequence for the following samples:
+		final float sampleX = sampleCount == 0 ? 0.5F : doGetSampleX(x, y, sampleCount);
+		final float sampleY = sampleCount == 0 ? 0.5F : doGetSampleY(x, y, sampleCount);
+		
+//		Clear the texture page request, which is updated when texels of virtual textures are fetched by this ray and by any rays cast through the pixel by adaptive supersampling:
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_TEXTURE_PAGE_REQUEST + 0] = -1.0F;
+		intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_TEXTURE_PAGE_REQUEST + 1] = 0.0F;
+		
+//		Cast the primary ray through the pixel sample point and shade it:
+		doCastRay(this.isReusingShading, isUpdatingPick, sampleX, sampleY, intersections, pixels, rays, index, intersectionOffset, pixelOffset, rayOffset);
+		
+//		Initialize the offset of the accumulated RGB-components of the pixel:
+		final int accumulationOffset = index * 3;
+		
+		if(sampleCount == 0) {
+//			Start a new accumulation with the current sample:
+			this.accumulation[accumulationOffset + 0] = pixels[pixelOffset + 0];
+			this.accumulation[accumulationOffset + 1] = pixels[pixelOffset + 1];
+			this.accumulation[accumulationOffset + 2] = pixels[pixelOffset + 2];
+		} else if(sampleCount < MAXIMUM_SAMPLES) {
+//			Add the current sample to the accumulation:
+			this.accumulation[accumulationOffset + 0] += pixels[pixelOffset + 0];
+			this.accumulation[accumulationOffset + 1] += pixels[pixelOffset + 1];
+			this.accumulation[accumulationOffset + 2] += pixels[pixelOffset + 2];
+		}
+		
+//		Update the pixel with the sum of all accumulated samples:
+		pixels[pixelOffset + 0] = this.accumulation[accumulationOffset + 0];
+		pixels[pixelOffset + 1] = this.accumulation[accumulationOffset + 1];
+		pixels[pixelOffset + 2] = this.accumulation[accumulationOffset + 2];
+		
+//		Initialize the pixel sample count, by which the sum of all accumulated samples is divided:
+		final float samples = min(sampleCount + 1, MAXIMUM_SAMPLES);
+		
+		if(this.rGBIndex == 0) {
+//			Update the pixel by performing gamma correction, tone mapping and scaling:
+			updatePixel(samples, pixels, pixelOffset, doGetRGBOffset(index), this.rGB0);
+		} else {
+//			Update the pixel by performing gamma correction, tone mapping and scaling:
+			updatePixel(samples, pixels, pixelOffset, doGetRGBOffset(index), this.rGB1);
+		}
+	}
+	
+	private void doUpdateAccumulation() {
+		if(this.isProgressive && this.checkerboardParity < 0) {
+			this.sampleCount = min(this.sampleCount + 1, MAXIMUM_SAMPLES);
+		}
+	}
+	
+	private void doUpdateHistory() {
+//		Keep the RGB-index and the camera of this frame, such that the next frame may be reconstructed from it and reproject its shading cache:
+		this.historyRGBIndex = this.rGBIndex;
+		this.isCameraChanged = false;
+		
+		if(doCopy(this.camera, this.previousCamera)) {
+			put(this.previousCamera);
+		}
+	}
+	
+	private void doUpdateRay(final float sampleX, final float sampleY, final float[] rays, final int index, final int rayOffset) {
+//		Initialize zoom factor and zoom factor reciprocal:
+		final float zoom = this.camera[Camera.ABSOLUTE_OFFSET_OF_ZOOM];
+		final float zoomReciprocal = 1.0F / zoom;
+		
+//		Update the origin point of the ray to fire:
+		rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 0] = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 0];
+		rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 1] = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 1];
+		rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_ORIGIN_0 + 2] = this.camera[Camera.ABSOLUTE_OFFSET_OF_EYE + 2];
+		
+//		Initialize the X- and Y-coordinates of the pixel:
+		final int x = index % this.width;
+		final int y = index / this.width;
+		
+//		Initialize the U- and V-coordinates, where the pixels are scaled up if the resolution is less than the maximum one, so the field of view is kept:
+		final float u = (x - this.width * 0.5F + sampleX) * this.resolutionScaleX * zoomReciprocal;
+		final float v = (y - this.height * 0.5F + sampleY) * this.resolutionScaleY * zoomReciprocal;
+		
+//		Update the direction vector of the ray to fire:
+		rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 0] = this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 0] * u + this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 0] * v - this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 0] * this.camera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE];
+		rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 1] = this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 1] * u + this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 1] * v - this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 1] * this.camera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE];
+		rays[rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0 + 2] = this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 2] * u + this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 2] * v - this.camera[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 2] * this.camera[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE];
+		
+//		Normalize the ray direction vector:
+		normalize(rays, rayOffset + Constants.RELATIVE_OFFSET_OF_RAY_DIRECTION_0);
+	}
+	
+	private void doUpdateShadingCache(final float eyeX, final float eyeY, final float eyeZ, final float[] intersections, final float[] pixels, final int index, final int intersectionOffset, final int pixelOffset, final int shapeOffset) {
+//		Initialize the offset of the cache entry of the pixel in the half that is written by this frame:
+		final int shadingCacheOffset = (this.shadingCacheIndex * this.maximumWidth * this.maximumHeight + index) * SIZE_OF_SHADING_CACHE_ENTRY;
+		
+//		Update the cache entry with the shape offset, the generation, the surface intersection point, the RGB-values of the pixel and the eye it was shaded from:
+		this.shadingCache[shadingCacheOffset + 0] = shapeOffset;
+		this.shadingCache[shadingCacheOffset + 1] = this.shadingCacheGeneration;
+		this.shadingCache[shadingCacheOffset + 2] = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 0];
+		this.shadingCache[shadingCacheOffset + 3] = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 1];
+		this.shadingCache[shadingCacheOffset + 4] = intersections[intersectionOffset + Intersection.RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT + 2];
+		this.shadingCache[shadingCacheOffset + 5] = pixels[pixelOffset + 0];
+		this.shadingCache[shadingCacheOffset + 6] = pixels[pixelOffset + 1];
+		this.shadingCache[shadingCacheOffset + 7] = pixels[pixelOffset + 2];
+		this.shadingCache[shadingCacheOffset + 8] = eyeX;
+		this.shadingCache[shadingCacheOffset + 9] = eyeY;
+		this.shadingCache[shadingCacheOffset + 10] = eyeZ;
+	}
+	
+	private void doUpdateTexture() {
+		final int index = getGlobalId();
+		
+		if(index < this.textureUpdatesLength) {
+			this.textures[this.textureUpdates[index * 2 + 0]] = this.textureUpdates[index * 2 + 1];
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static boolean doCopy(final float[] source, final float[] destination) {
+		boolean isChanged = false;
+		
+		for(int i = 0; i < destination.length; i++) {
+			if(destination[i] != source[i]) {
+				destination[i] = source[i];
+				
+				isChanged = true;
+			}
+		}
+		
+		return isChanged;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class RenderAction extends RecursiveAction {
+		private static final int MAXIMUM_EDGE_PIXELS = 256;
+		private static final int MAXIMUM_PIXELS = 4096;
+		private static final long serialVersionUID = 1L;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private final int end;
+		private final int pass;
+		private final int start;
+		private final RayCasterKernel rayCasterKernel;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public RenderAction(final RayCasterKernel rayCasterKernel, final int pass, final int start, final int end) {
+			this.rayCasterKernel = rayCasterKernel;
+			this.pass = pass;
+			this.start = start;
+			this.end = end;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		protected void compute() {
+//			The passes for ray casting, reconstruction and edge detection split the work-items of the pixel order, whereas the pass for edge refinement splits the compacted list of edge pixels:
+			if(this.end - this.start <= (this.pass == PASS_EDGE_REFINEMENT ? MAXIMUM_EDGE_PIXELS : MAXIMUM_PIXELS)) {
+				if(this.pass == PASS_RAY_CASTING) {
+					this.rayCasterKernel.doCastRays(this.start, this.end);
+				} else if(this.pass == PASS_RECONSTRUCTION) {
+					this.rayCasterKernel.doReconstructPixels(this.start, this.end);
+				} else if(this.pass == PASS_EDGE_DETECTION) {
+					this.rayCasterKernel.doDetectEdges(this.start, this.end);
+				} else {
+					this.rayCasterKernel.doRefineEdges(this.start, this.end);
+				}
+			} else {
+				final int middle = (this.start + this.end) / 2;
+				
+				invokeAll(new RenderAction(this.rayCasterKernel, this.pass, this.start, middle), new RenderAction(this.rayCasterKernel, this.pass, middle, this.end));
+			}
+		}
 	}
 }
\ No newline at end of file
@@ -30,6 +30,7 @@ import org.macroing.gdt.openrc.geometry.Scene;
 import org.macroing.gdt.openrc.geometry.Shape;
 import org.macroing.gdt.openrc.geometry.Sphere;
 import org.macroing.gdt.openrc.geometry.Texture;
+import org.macroing.gdt.openrc.geometry.TextureCache;
 import org.macroing.gdt.openrc.swing.SwingUtilities2;
 
 import com.amd.aparapi.Kernel.EXECUTION_MODE;
@@ -60,14 +61,27 @@ import com.amd.aparapi.Kernel.EXECUTION_MODE;
  * Supported Controls:
  * <ul>
  * <li>A - Move left.</li>
+ * <li>B - Cycle the maximum depth of the reflected and refracted rays from 0, which casts none, to 8.</li>
+ * <li>C - Cycle between the four intersection modes, bounding volume hierarchy, view frustum culled shape indices, screen tiles and packed shapes.</li>
  * <li>D - Move right.</li>
  * <li>E - Display the current execution mode to standard output.</li>
  * <li>ESC - Exit the program. You may have to press a few times if you're using the execution mode JTP (Java Thread Pool), as it's pretty unresponsive.</li>
  * <li>F - Fire invisible bullets to make the shapes bleed.</li>
+ * <li>G - Toggle whether the light follows the camera. It stays in place by default, as every move of the light invalidates the shading cache.</li>
+ * <li>H - Toggle the shading cache, which reuses the shading of the previous frame for the pixels that still show the same surface, as long as the lights do not change.</li>
+ * <li>K - Toggle checkerboard rendering, which shades half of the pixels per frame while moving and reconstructs the other half from the previous frame.</li>
+ * <li>L - Toggle mipmapping, which fetches the texels of distant surfaces from the smaller levels of the mip chains of the textures.</li>
+ * <li>M - Toggle progressive rendering, which anti-aliases the image by accumulating jittered samples for as long as the camera is still.</li>
  * <li>MOUSE - Look around.</li>
+ * <li>O - Toggle the overlay that shows the time spent in each stage of the frames.</li>
+ * <li>P - Toggle between pipelined and synchronous rendering.</li>
+ * <li>R - Toggle dynamic resolution, which lowers the resolution to render at whenever the frames take longer than 1/60th of a second.</li>
  * <li>S - Move backward.</li>
- * <li>T - Toggle between the two execution modes GPU and JTP (Java Thread Pool).</li>
+ * <li>T - Cycle between the three execution modes GPU, JTP (Java Thread Pool) and Fork/Join, where Fork/Join casts the rays in Java without using the API.</li>
+ * <li>V - Toggle whether view frustum culling keeps the shapes that may cast shadows into the view frustum.</li>
  * <li>W - Move forward.</li>
+ * <li>X - Toggle adaptive supersampling, which casts additional jittered rays for the pixels on edges only.</li>
+ * <li>Z - Toggle between the scanline and Morton pixel orders, where the Morton order renders square blocks of pixels together for better cache coherence.</li>
  * </ul>
  * <p>
  * Note: More supported shapes, lights, materials, textures and texture mapping algorithms may very well be added in the future. The simple camera may be updated to support walking- and looking around like in an FPS-game.
@@ -76,10 +90,24 @@ import com.amd.aparapi.Kernel.EXECUTION_MODE;
  * @author J&#246;rgen Lundgren
  */
 public final class TestGame extends Application {
+	private final AtomicBoolean isLightFollowingCamera = new AtomicBoolean();
 	private final AtomicBoolean isPrintingExecutionMode = new AtomicBoolean();
 	private final AtomicBoolean isRunning = new AtomicBoolean();
 	private final AtomicBoolean isTerminationRequested = new AtomicBoolean();
+	private final AtomicBoolean isTogglingAdaptive = new AtomicBoolean();
+	private final AtomicBoolean isTogglingCachingShading = new AtomicBoolean();
+	private final AtomicBoolean isTogglingCheckerboard = new AtomicBoolean();
 	private final AtomicBoolean isTogglingExecutionMode = new AtomicBoolean();
+	private final AtomicBoolean isTogglingFrameProfiler = new AtomicBoolean();
+	private final AtomicBoolean isTogglingIntersectionMode = new AtomicBoolean();
+	private final AtomicBoolean isTogglingKeepingShadowCasters = new AtomicBoolean();
+	private final AtomicBoolean isTogglingLightFollowingCamera = new AtomicBoolean();
+	private final AtomicBoolean isTogglingMaximumDepth = new AtomicBoolean();
+	private final AtomicBoolean isTogglingMipmapping = new AtomicBoolean();
+	private final AtomicBoolean isTogglingPipelining = new AtomicBoolean();
+	private final AtomicBoolean isTogglingPixelOrder = new AtomicBoolean();
+	private final AtomicBoolean isTogglingProgressive = new AtomicBoolean();
+	private final AtomicBoolean isTogglingUsingDynamicResolution = new AtomicBoolean();
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -87,6 +115,10 @@ public final class TestGame extends Application {
 		super(scene);
 	}
 	
+	private TestGame(final Scene scene, final TextureCache textureCache) {
+		super(scene, textureCache);
+	}
+	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	@Override
@@ -99,20 +131,25 @@ public final class TestGame extends Application {
 		final String x = Float.toString(camera.getEyeX());
 		final String y = Float.toString(camera.getEyeY());
 		final String z = Float.toString(camera.getEyeZ());
-		final String string = String.format("FPS: %s    Location: %s, %s, %s", fPS, x, y, z);
+		final String resolution = isUsingDynamicResolution() ? String.format("%sx%s", Integer.toString(getDynamicResolution().getWidth()), Integer.toString(getDynamicResolution().getHeight())) : "Maximum";
+		final String string = String.format("FPS: %s    Location: %s, %s, %s    Resolution: %s", fPS, x, y, z, resolution);
 		
 		graphics2D.setColor(Color.BLACK);
 		graphics2D.fillRect(10, 10, graphics2D.getFontMetrics().stringWidth(string) + 20, graphics2D.getFontMetrics().getHeight() + 20);
 		graphics2D.setColor(Color.WHITE);
 		graphics2D.drawRect(10, 10, graphics2D.getFontMetrics().stringWidth(string) + 20, graphics2D.getFontMetrics().getHeight() + 20);
 		graphics2D.drawString(string, 20, 30);
+		
+		if(isShowingFrameProfiler()) {
+			getFrameProfiler().render(graphics2D, 10, graphics2D.getFontMetrics().getHeight() + 40);
+		}
 	}
 	
 	@Override
 	public void update() {
 //		Calculate the movement based on some velocity, calculated as the distance moved per second:
 		final float velocity = 250.0F;
-		final float movement = getFPSCounter().getFrameTimeMillis() / 1000.0F * velocity;
+		final float movement = getFPSCounter().getFrameTimeNanos() / 1000000000.0F * velocity;
 		
 		final Camera camera = getScene().getCamera();
 		
@@ -123,12 +160,24 @@ public final class TestGame extends Application {
 			camera.moveLeft(movement);
 		}
 		
+		if(isKeyPressed(KeyEvent.VK_B) && this.isTogglingMaximumDepth.compareAndSet(false, true)) {
+			setMaximumDepth((getMaximumDepth() + 1) % (RayCasterKernel.MAXIMUM_DEPTH + 1));
+		} else if(!isKeyPressed(KeyEvent.VK_B)) {
+			this.isTogglingMaximumDepth.compareAndSet(true, false);
+		}
+		
+		if(isKeyPressed(KeyEvent.VK_C) && this.isTogglingIntersectionMode.compareAndSet(false, true)) {
+			setIntersectionMode(getIntersectionMode() == AbstractRayCasterKernel.INTERSECTION_MODE_BOUNDING_VOLUME_HIERARCHY ? AbstractRayCasterKernel.INTERSECTION_MODE_SHAPE_INDICES : getIntersectionMode() == AbstractRayCasterKernel.INTERSECTION_MODE_SHAPE_INDICES ? AbstractRayCasterKernel.INTERSECTION_MODE_TILES : getIntersectionMode() == AbstractRayCasterKernel.INTERSECTION_MODE_TILES ? AbstractRayCasterKernel.INTERSECTION_MODE_PACKED_SHAPES : AbstractRayCasterKernel.INTERSECTION_MODE_BOUNDING_VOLUME_HIERARCHY);
+		} else if(!isKeyPressed(KeyEvent.VK_C)) {
+			this.isTogglingIntersectionMode.compareAndSet(true, false);
+		}
+		
 		if(isKeyPressed(KeyEvent.VK_D)) {
 			camera.moveLeft(-movement);
 		}
 		
 		if(isKeyPressed(KeyEvent.VK_E) && this.isPrintingExecutionMode.compareAndSet(false, true)) {
-			System.out.printf("ExecutionMode: %s%n", getKernel().getExecutionMode());
+			System.out.printf("ExecutionMode: %s%n", isUsingForkJoinPool() ? "Fork/Join" : getExecutionMode());
 		} else if(!isKeyPressed(KeyEvent.VK_E)) {
 			this.isPrintingExecutionMode.compareAndSet(true, false);
 		}
@@ -141,7 +190,7 @@ public final class TestGame extends Application {
 			this.isTerminationRequested.compareAndSet(true, false);
 		}
 		
-		if(isKeyPressed(KeyEvent.VK_F)) {
+		if(isKeyPressed(KeyEvent.VK_F) && getScene().getTexturesAsArray().length > 0) {
 			final int textureOffset = (int)(getPick()[Constants.RELATIVE_OFFSET_OF_PICK_TEXTURE_OFFSET]);
 			final int textureU = (int)(getPick()[Constants.RELATIVE_OFFSET_OF_PICK_TEXTURE_UV + 0]);
 			final int textureV = (int)(getPick()[Constants.RELATIVE_OFFSET_OF_PICK_TEXTURE_UV + 1]);
@@ -149,6 +198,7 @@ public final class TestGame extends Application {
 			final int[] textures = getScene().getTexturesAsArray();
 			
 			final int width = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH];
+			final int height = textures[textureOffset + Texture.RELATIVE_OFFSET_OF_HEIGHT];
 			final int startX = textureU - 5;
 			final int startY = textureV - 5;
 			final int radius = 2;
@@ -159,15 +209,60 @@ public final class TestGame extends Application {
 						if(ThreadLocalRandom.current().nextGaussian() < 0.1D) {
 							final int rGB = ((ThreadLocalRandom.current().nextInt(100, 255) & 0xFF) << 16) | ((0 & 0xFF) << 8) | ((0 & 0xFF) << 0);
 							
-							final int offset = (startY + y) * width + (startX + x);
-							
-							textures[textureOffset + Texture.RELATIVE_OFFSET_OF_DATA + offset] = rGB;
+//							Wrap the texel around the texture, like the texture mapping does, such that the update stays inside the texture (it is set when the next frame is prepared):
+							updateTexel(textureOffset, Math.floorMod(startX + x, width), Math.floorMod(startY + y, height), rGB);
 						}
 					}
 				}
 			}
-			
-			setTextureUpdateRequired(true);
+		}
+		
+		if(isKeyPressed(KeyEvent.VK_G) && this.isTogglingLightFollowingCamera.compareAndSet(false, true)) {
+			this.isLightFollowingCamera.set(!this.isLightFollowingCamera.get());
+		} else if(!isKeyPressed(KeyEvent.VK_G)) {
+			this.isTogglingLightFollowingCamera.compareAndSet(true, false);
+		}
+		
+		if(isKeyPressed(KeyEvent.VK_H) && this.isTogglingCachingShading.compareAndSet(false, true)) {
+			setCachingShading(!isCachingShading());
+		} else if(!isKeyPressed(KeyEvent.VK_H)) {
+			this.isTogglingCachingShading.compareAndSet(true, false);
+		}
+		
+		if(isKeyPressed(KeyEvent.VK_K) && this.isTogglingCheckerboard.compareAndSet(false, true)) {
+			setCheckerboard(!isCheckerboard());
+		} else if(!isKeyPressed(KeyEvent.VK_K)) {
+			this.isTogglingCheckerboard.compareAndSet(true, false);
+		}
+		
+		if(isKeyPressed(KeyEvent.VK_L) && this.isTogglingMipmapping.compareAndSet(false, true)) {
+			setMipmapping(!isMipmapping());
+		} else if(!isKeyPressed(KeyEvent.VK_L)) {
+			this.isTogglingMipmapping.compareAndSet(true, false);
+		}
+		
+		if(isKeyPressed(KeyEvent.VK_M) && this.isTogglingProgressive.compareAndSet(false, true)) {
+			setProgressive(!isProgressive());
+		} else if(!isKeyPressed(KeyEvent.VK_M)) {
+			this.isTogglingProgressive.compareAndSet(true, false);
+		}
+		
+		if(isKeyPressed(KeyEvent.VK_O) && this.isTogglingFrameProfiler.compareAndSet(false, true)) {
+			setShowingFrameProfiler(!isShowingFrameProfiler());
+		} else if(!isKeyPressed(KeyEvent.VK_O)) {
+			this.isTogglingFrameProfiler.compareAndSet(true, false);
+		}
+		
+		if(isKeyPressed(KeyEvent.VK_P) && this.isTogglingPipelining.compareAndSet(false, true)) {
+			setPipelining(!isPipelining());
+		} else if(!isKeyPressed(KeyEvent.VK_P)) {
+			this.isTogglingPipelining.compareAndSet(true, false);
+		}
+		
+		if(isKeyPressed(KeyEvent.VK_R) && this.isTogglingUsingDynamicResolution.compareAndSet(false, true)) {
+			setUsingDynamicResolution(!isUsingDynamicResolution());
+		} else if(!isKeyPressed(KeyEvent.VK_R)) {
+			this.isTogglingUsingDynamicResolution.compareAndSet(true, false);
 		}
 		
 		if(isKeyPressed(KeyEvent.VK_S)) {
@@ -175,46 +270,85 @@ public final class TestGame extends Application {
 		}
 		
 		if(isKeyPressed(KeyEvent.VK_T) && this.isTogglingExecutionMode.compareAndSet(false, true)) {
-			getKernel().setExecutionMode(getKernel().getExecutionMode() == EXECUTION_MODE.GPU ? EXECUTION_MODE.JTP : EXECUTION_MODE.GPU);
+			if(isUsingForkJoinPool()) {
+				setUsingForkJoinPool(false);
+				
+				setExecutionMode(EXECUTION_MODE.GPU);
+			} else if(getExecutionMode() == EXECUTION_MODE.GPU) {
+				setExecutionMode(EXECUTION_MODE.JTP);
+			} else {
+				setUsingForkJoinPool(true);
+			}
 		} else if(!isKeyPressed(KeyEvent.VK_T)) {
 			this.isTogglingExecutionMode.compareAndSet(true, false);
 		}
 		
+		if(isKeyPressed(KeyEvent.VK_V) && this.isTogglingKeepingShadowCasters.compareAndSet(false, true)) {
+			setKeepingShadowCasters(!isKeepingShadowCasters());
+		} else if(!isKeyPressed(KeyEvent.VK_V)) {
+			this.isTogglingKeepingShadowCasters.compareAndSet(true, false);
+		}
+		
 		if(isKeyPressed(KeyEvent.VK_W)) {
 			camera.moveBackward(movement);
 		}
 		
-		final Scene scene = getScene();
-		
-		final float[] lights = scene.getLightsAsArray();
+		if(isKeyPressed(KeyEvent.VK_X) && this.isTogglingAdaptive.compareAndSet(false, true)) {
+			setAdaptive(!isAdaptive());
+		} else if(!isKeyPressed(KeyEvent.VK_X)) {
+			this.isTogglingAdaptive.compareAndSet(true, false);
+		}
 		
-		lights[2] = camera.getEyeX() + (camera.getLookAtX() - camera.getEyeX()) * 50.0F;
-		lights[3] = camera.getEyeY() + (camera.getLookAtY() - camera.getEyeY()) * 50.0F;
-		lights[4] = camera.getEyeZ() + (camera.getLookAtZ() - camera.getEyeZ()) * 50.0F;
+		if(isKeyPressed(KeyEvent.VK_Z) && this.isTogglingPixelOrder.compareAndSet(false, true)) {
+			setPixelOrder(getPixelOrder() == RayCasterKernel.PIXEL_ORDER_SCANLINE ? RayCasterKernel.PIXEL_ORDER_MORTON : RayCasterKernel.PIXEL_ORDER_SCANLINE);
+		} else if(!isKeyPressed(KeyEvent.VK_Z)) {
+			this.isTogglingPixelOrder.compareAndSet(true, false);
+		}
 		
-		setLightUpdateRequired(true);
+		if(this.isLightFollowingCamera.get()) {
+			final Scene scene = getScene();
+			
+			final float[] lights = scene.getLightsAsArray();
+			
+			lights[2] = camera.getEyeX() + (camera.getLookAtX() - camera.getEyeX()) * 50.0F;
+			lights[3] = camera.getEyeY() + (camera.getLookAtY() - camera.getEyeY()) * 50.0F;
+			lights[4] = camera.getEyeZ() + (camera.getLookAtZ() - camera.getEyeZ()) * 50.0F;
+			
+			setLightUpdateRequired(true);
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	/**
 	 * The entry-point of this application.
+	 * <p>
+	 * The first argument is an optional {@code Scene} file, which is read if it exists. The second argument is an optional number of slots of a {@link TextureCache}, which enables virtual texturing, such that at most that
+	 * many pages of {@code TextureCache.PAGE_SIZE} by {@code TextureCache.PAGE_SIZE} texels are resident on the GPU. If the {@code Scene} file has been written by {@link Scene#writeMapped(File)}, its textures are not read, but
+	 * streamed from it by the {@code TextureCache}, in which case the F key does nothing.
 	 * 
-	 * @param args these are not used
+	 * @param args the arguments
+	 * @throws NumberFormatException thrown if, and only if, the number of slots is not a number
 	 */
 	public static void main(final String[] args) {
-		final Scene scene = createScene(args);
+		final File file = args.length > 0 ? new File(args[0]) : null;
+		
+		final int slotCount = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+		
+		final boolean isStreamingTextures = slotCount > 0 && file != null && file.exists() && Scene.isMapped(file);
+		
+		final Scene scene = isStreamingTextures ? Scene.readMapped(file, false) : createScene(file);
+		
+		final TextureCache textureCache = isStreamingTextures ? new TextureCache(scene, file, slotCount) : slotCount > 0 ? new TextureCache(scene, slotCount) : null;
 		
 		final
-		Application application = SwingUtilities2.runInEDT(() -> new TestGame(scene));
+		Application application = SwingUtilities2.runInEDT(() -> textureCache != null ? new TestGame(scene, textureCache) : new TestGame(scene));
 		application.start();
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private static Scene createScene(final String[] args) {
-		final File file = args.length > 0 ? new File(args[0]) : null;
-		
+	private static Scene createScene(final File file) {
 		return file != null && file.exists() ? Scene.read(file) : Scene.create(new Camera((x, y, z, scene) -> {
 			final boolean[] test = new boolean[] {true, true, true};
 			
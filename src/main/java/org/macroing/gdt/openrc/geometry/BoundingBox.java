@@ -0,0 +1,160 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.geometry;
+
+/**
+ * A {@code BoundingBox} is an axis-aligned box, given by its minimum and maximum points.
+ * <p>
+ * An unbounded {@code BoundingBox}, such as the one of a {@link Plane}, uses {@code -Float.MAX_VALUE} and {@code Float.MAX_VALUE} as its minimum and maximum values.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class BoundingBox {
+	/**
+	 * An empty {@code BoundingBox}. It is the identity of the {@link #union(BoundingBox)} operation.
+	 */
+	public static final BoundingBox EMPTY = new BoundingBox(Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+	
+	/**
+	 * An infinite {@code BoundingBox}. It is used by unbounded shapes.
+	 */
+	public static final BoundingBox INFINITE = new BoundingBox(-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE);
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final float maximumX;
+	private final float maximumY;
+	private final float maximumZ;
+	private final float minimumX;
+	private final float minimumY;
+	private final float minimumZ;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code BoundingBox} given its minimum and maximum points.
+	 * 
+	 * @param minimumX the X-component of the minimum point
+	 * @param minimumY the Y-component of the minimum point
+	 * @param minimumZ the Z-component of the minimum point
+	 * @param maximumX the X-component of the maximum point
+	 * @param maximumY the Y-component of the maximum point
+	 * @param maximumZ the Z-component of the maximum point
+	 */
+	public BoundingBox(final float minimumX, final float minimumY, final float minimumZ, final float maximumX, final float maximumY, final float maximumZ) {
+		this.minimumX = minimumX;
+		this.minimumY = minimumY;
+		this.minimumZ = minimumZ;
+		this.maximumX = maximumX;
+		this.maximumY = maximumY;
+		this.maximumZ = maximumZ;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns a new {@code BoundingBox} that encloses both this {@code BoundingBox} and {@code boundingBox}.
+	 * <p>
+	 * If {@code boundingBox} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param boundingBox the {@code BoundingBox} to enclose
+	 * @return a new {@code BoundingBox} that encloses both this {@code BoundingBox} and {@code boundingBox}
+	 * @throws NullPointerException thrown if, and only if, {@code boundingBox} is {@code null}
+	 */
+	public BoundingBox union(final BoundingBox boundingBox) {
+		return new BoundingBox(Math.min(this.minimumX, boundingBox.minimumX), Math.min(this.minimumY, boundingBox.minimumY), Math.min(this.minimumZ, boundingBox.minimumZ), Math.max(this.maximumX, boundingBox.maximumX), Math.max(this.maximumY, boundingBox.maximumY), Math.max(this.maximumZ, boundingBox.maximumZ));
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, this {@code BoundingBox} is bounded in all dimensions.
+	 * 
+	 * @return {@code true} if, and only if, this {@code BoundingBox} is bounded in all dimensions
+	 */
+	public boolean isBounded() {
+		return this.minimumX > -Float.MAX_VALUE && this.minimumY > -Float.MAX_VALUE && this.minimumZ > -Float.MAX_VALUE && this.maximumX < Float.MAX_VALUE && this.maximumY < Float.MAX_VALUE && this.maximumZ < Float.MAX_VALUE;
+	}
+	
+	/**
+	 * Returns {@code true} if, and only if, this {@code BoundingBox} is empty.
+	 * 
+	 * @return {@code true} if, and only if, this {@code BoundingBox} is empty
+	 */
+	public boolean isEmpty() {
+		return this.minimumX > this.maximumX || this.minimumY > this.maximumY || this.minimumZ > this.maximumZ;
+	}
+	
+	public float getCenterX() {
+		return (this.minimumX + this.maximumX) * 0.5F;
+	}
+	
+	public float getCenterY() {
+		return (this.minimumY + this.maximumY) * 0.5F;
+	}
+	
+	public float getCenterZ() {
+		return (this.minimumZ + this.maximumZ) * 0.5F;
+	}
+	
+	public float getMaximumX() {
+		return this.maximumX;
+	}
+	
+	public float getMaximumY() {
+		return this.maximumY;
+	}
+	
+	public float getMaximumZ() {
+		return this.maximumZ;
+	}
+	
+	public float getMinimumX() {
+		return this.minimumX;
+	}
+	
+	public float getMinimumY() {
+		return this.minimumY;
+	}
+	
+	public float getMinimumZ() {
+		return this.minimumZ;
+	}
+	
+	/**
+	 * Returns the surface area of this {@code BoundingBox}, or {@code 0.0F} if it is empty.
+	 * 
+	 * @return the surface area of this {@code BoundingBox}, or {@code 0.0F} if it is empty
+	 */
+	public float getSurfaceArea() {
+		if(isEmpty()) {
+			return 0.0F;
+		}
+		
+		final float x = this.maximumX - this.minimumX;
+		final float y = this.maximumY - this.minimumY;
+		final float z = this.maximumZ - this.minimumZ;
+		
+		return 2.0F * (x * y + y * z + z * x);
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("BoundingBox: [Minimum=%s,%s,%s], [Maximum=%s,%s,%s]", Float.toString(this.minimumX), Float.toString(this.minimumY), Float.toString(this.minimumZ), Float.toString(this.maximumX), Float.toString(this.maximumY), Float.toString(this.maximumZ));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,403 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@code BoundingVolumeHierarchy} is a binary tree of {@link BoundingBox}es over the shapes of a {@link Scene}, built using the Surface Area Heuristic (SAH).
+ * <p>
+ * The tree is flattened in depth-first order into a {@code float} array, such that it can be traversed without a stack. The left child of an inner node always follows its parent, and each node stores the offset of the node to
+ * continue with when the node has been missed or fully processed.
+ * <p>
+ * The values in the {@code float} array returned by the {@code getNodes()} method consists of the following, for each node:
+ * <ol>
+ * <li>Minimum X</li>
+ * <li>Minimum Y</li>
+ * <li>Minimum Z</li>
+ * <li>Maximum X</li>
+ * <li>Maximum Y</li>
+ * <li>Maximum Z</li>
+ * <li>Next offset (or -1, if there are no more nodes to process)</li>
+ * <li>Shape index (the index of the first shape offset of a leaf in the {@code int} array returned by the {@code getShapeIndices()} method)</li>
+ * <li>Shape count (0, if the node is an inner node)</li>
+ * </ol>
+ * <p>
+ * Unbounded shapes, such as planes, are placed in a leaf with an infinite {@code BoundingBox}, before the root of the tree.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class BoundingVolumeHierarchy {
+	public static final int RELATIVE_OFFSET_OF_MAXIMUM = 3;
+	public static final int RELATIVE_OFFSET_OF_MINIMUM = 0;
+	public static final int RELATIVE_OFFSET_OF_NEXT_OFFSET = 6;
+	public static final int RELATIVE_OFFSET_OF_SHAPE_COUNT = 8;
+	public static final int RELATIVE_OFFSET_OF_SHAPE_INDEX = 7;
+	public static final int SIZE = 3 + 3 + 1 + 1 + 1;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final float COST_OF_INTERSECTION = 1.0F;
+	private static final float COST_OF_TRAVERSAL = 1.0F;
+	private static final int BIN_COUNT = 16;
+	private static final int MAXIMUM_SHAPES_PER_LEAF = 4;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final float[] nodes;
+	private final int[] shapeIndices;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	BoundingVolumeHierarchy(final float[] nodes, final int[] shapeIndices) {
+		this.nodes = nodes;
+		this.shapeIndices = shapeIndices;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public float[] getNodes() {
+		return this.nodes;
+	}
+	
+	public int getNodeCount() {
+		return this.nodes.length / SIZE;
+	}
+	
+	public int[] getShapeIndices() {
+		return this.shapeIndices;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns a new {@code BoundingVolumeHierarchy} for {@code shapes}.
+	 * <p>
+	 * The shape offsets stored in the {@code BoundingVolumeHierarchy} are the ones returned by {@link Shape#getIndex()}, so the shapes should have been added to a {@link Scene.Builder} first.
+	 * <p>
+	 * If {@code shapes} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param shapes the {@code Shape}s to build the {@code BoundingVolumeHierarchy} for
+	 * @return a new {@code BoundingVolumeHierarchy} for {@code shapes}
+	 * @throws NullPointerException thrown if, and only if, {@code shapes} is {@code null}
+	 */
+	public static BoundingVolumeHierarchy create(final List<Shape> shapes) {
+		final List<Shape> boundedShapes = new ArrayList<>();
+		final List<Shape> unboundedShapes = new ArrayList<>();
+		
+		for(final Shape shape : Objects.requireNonNull(shapes, "shapes == null")) {
+			if(shape.getBoundingBox().isBounded()) {
+				boundedShapes.add(shape);
+			} else {
+				unboundedShapes.add(shape);
+			}
+		}
+		
+		final Builder builder = new Builder(boundedShapes);
+		
+		final Node root = boundedShapes.size() > 0 ? builder.build(0, boundedShapes.size()) : null;
+		
+		final int nodeCount = (unboundedShapes.size() > 0 ? 1 : 0) + (root != null ? root.getNodeCount() : 0);
+		
+		final float[] nodes = new float[Math.max(nodeCount, 1) * SIZE];
+		final int[] shapeIndices = new int[shapes.size()];
+		
+		if(nodeCount == 0) {
+			doSetNode(nodes, 0, BoundingBox.EMPTY, -1, 0, 0);
+		} else {
+			int offset = 0;
+			int shapeIndex = 0;
+			
+			if(unboundedShapes.size() > 0) {
+				for(final Shape shape : unboundedShapes) {
+					shapeIndices[shapeIndex++] = shape.getIndex();
+				}
+				
+				doSetNode(nodes, offset, BoundingBox.INFINITE, root != null ? SIZE : -1, 0, unboundedShapes.size());
+				
+				offset += SIZE;
+			}
+			
+			if(root != null) {
+				root.flatten(nodes, offset, -1, shapeIndices, shapeIndex, builder.getShapeIndices());
+			}
+		}
+		
+		return new BoundingVolumeHierarchy(nodes, shapeIndices);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static void doSetNode(final float[] nodes, final int offset, final BoundingBox boundingBox, final int nextOffset, final int shapeIndex, final int shapeCount) {
+		nodes[offset + RELATIVE_OFFSET_OF_MINIMUM + 0] = boundingBox.getMinimumX();
+		nodes[offset + RELATIVE_OFFSET_OF_MINIMUM + 1] = boundingBox.getMinimumY();
+		nodes[offset + RELATIVE_OFFSET_OF_MINIMUM + 2] = boundingBox.getMinimumZ();
+		nodes[offset + RELATIVE_OFFSET_OF_MAXIMUM + 0] = boundingBox.getMaximumX();
+		nodes[offset + RELATIVE_OFFSET_OF_MAXIMUM + 1] = boundingBox.getMaximumY();
+		nodes[offset + RELATIVE_OFFSET_OF_MAXIMUM + 2] = boundingBox.getMaximumZ();
+		nodes[offset + RELATIVE_OFFSET_OF_NEXT_OFFSET] = nextOffset;
+		nodes[offset + RELATIVE_OFFSET_OF_SHAPE_INDEX] = shapeIndex;
+		nodes[offset + RELATIVE_OFFSET_OF_SHAPE_COUNT] = shapeCount;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Builder {
+		private final float[] centers;
+		private final float[] maximums;
+		private final float[] minimums;
+		private final int[] order;
+		private final int[] shapeIndices;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Builder(final List<Shape> shapes) {
+			this.centers = new float[shapes.size() * 3];
+			this.maximums = new float[shapes.size() * 3];
+			this.minimums = new float[shapes.size() * 3];
+			this.order = new int[shapes.size()];
+			this.shapeIndices = new int[shapes.size()];
+			
+			for(int i = 0; i < shapes.size(); i++) {
+				final Shape shape = shapes.get(i);
+				
+				final BoundingBox boundingBox = shape.getBoundingBox();
+				
+				this.minimums[i * 3 + 0] = boundingBox.getMinimumX();
+				this.minimums[i * 3 + 1] = boundingBox.getMinimumY();
+				this.minimums[i * 3 + 2] = boundingBox.getMinimumZ();
+				this.maximums[i * 3 + 0] = boundingBox.getMaximumX();
+				this.maximums[i * 3 + 1] = boundingBox.getMaximumY();
+				this.maximums[i * 3 + 2] = boundingBox.getMaximumZ();
+				this.centers[i * 3 + 0] = boundingBox.getCenterX();
+				this.centers[i * 3 + 1] = boundingBox.getCenterY();
+				this.centers[i * 3 + 2] = boundingBox.getCenterZ();
+				this.order[i] = i;
+				this.shapeIndices[i] = shape.getIndex();
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public int[] getShapeIndices() {
+			final int[] shapeIndices = new int[this.order.length];
+			
+			for(int i = 0; i < this.order.length; i++) {
+				shapeIndices[i] = this.shapeIndices[this.order[i]];
+			}
+			
+			return shapeIndices;
+		}
+		
+		public Node build(final int start, final int end) {
+			final BoundingBox boundingBox = doCalculateBoundingBox(start, end, this.minimums, this.maximums);
+			final BoundingBox centerBoundingBox = doCalculateBoundingBox(start, end, this.centers, this.centers);
+			
+			final int count = end - start;
+			
+			if(count == 1) {
+				return new Node(boundingBox, start, count);
+			}
+			
+			final float[] centerMinimum = {centerBoundingBox.getMinimumX(), centerBoundingBox.getMinimumY(), centerBoundingBox.getMinimumZ()};
+			final float[] centerMaximum = {centerBoundingBox.getMaximumX(), centerBoundingBox.getMaximumY(), centerBoundingBox.getMaximumZ()};
+			
+			final float surfaceAreaReciprocal = 1.0F / Math.max(boundingBox.getSurfaceArea(), Float.MIN_NORMAL);
+			
+			float bestCost = Float.MAX_VALUE;
+			
+			int bestAxis = -1;
+			int bestBin = -1;
+			
+			for(int axis = 0; axis < 3; axis++) {
+				final float extent = centerMaximum[axis] - centerMinimum[axis];
+				
+				if(extent <= 0.0F) {
+					continue;
+				}
+				
+				final int[] binCounts = new int[BIN_COUNT];
+				
+				final BoundingBox[] binBoundingBoxes = new BoundingBox[BIN_COUNT];
+				
+				Arrays.fill(binBoundingBoxes, BoundingBox.EMPTY);
+				
+				for(int i = start; i < end; i++) {
+					final int bin = doCalculateBin(this.centers[this.order[i] * 3 + axis], centerMinimum[axis], extent);
+					
+					binCounts[bin]++;
+					binBoundingBoxes[bin] = binBoundingBoxes[bin].union(doCreateBoundingBox(this.order[i]));
+				}
+				
+				final float[] leftSurfaceAreas = new float[BIN_COUNT - 1];
+				
+				final int[] leftCounts = new int[BIN_COUNT - 1];
+				
+				BoundingBox leftBoundingBox = BoundingBox.EMPTY;
+				
+				int leftCount = 0;
+				
+				for(int i = 0; i < BIN_COUNT - 1; i++) {
+					leftBoundingBox = leftBoundingBox.union(binBoundingBoxes[i]);
+					leftCount += binCounts[i];
+					leftSurfaceAreas[i] = leftBoundingBox.getSurfaceArea();
+					leftCounts[i] = leftCount;
+				}
+				
+				BoundingBox rightBoundingBox = BoundingBox.EMPTY;
+				
+				int rightCount = 0;
+				
+				for(int i = BIN_COUNT - 1; i > 0; i--) {
+					rightBoundingBox = rightBoundingBox.union(binBoundingBoxes[i]);
+					rightCount += binCounts[i];
+					
+					if(leftCounts[i - 1] > 0 && rightCount > 0) {
+						final float cost = COST_OF_TRAVERSAL + (leftSurfaceAreas[i - 1] * leftCounts[i - 1] + rightBoundingBox.getSurfaceArea() * rightCount) * surfaceAreaReciprocal * COST_OF_INTERSECTION;
+						
+						if(cost < bestCost) {
+							bestCost = cost;
+							bestAxis = axis;
+							bestBin = i - 1;
+						}
+					}
+				}
+			}
+			
+			final float leafCost = count * COST_OF_INTERSECTION;
+			
+			if(bestAxis == -1 || bestCost >= leafCost && count <= MAXIMUM_SHAPES_PER_LEAF) {
+				return new Node(boundingBox, start, count);
+			}
+			
+			final float extent = centerMaximum[bestAxis] - centerMinimum[bestAxis];
+			
+			int middle = start;
+			
+			for(int i = start; i < end; i++) {
+				if(doCalculateBin(this.centers[this.order[i] * 3 + bestAxis], centerMinimum[bestAxis], extent) <= bestBin) {
+					final int index = this.order[i];
+					
+					this.order[i] = this.order[middle];
+					this.order[middle] = index;
+					
+					middle++;
+				}
+			}
+			
+			if(middle == start || middle == end) {
+				middle = start + count / 2;
+			}
+			
+			return new Node(boundingBox, build(start, middle), build(middle, end));
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private BoundingBox doCalculateBoundingBox(final int start, final int end, final float[] minimums, final float[] maximums) {
+			float minimumX = Float.MAX_VALUE;
+			float minimumY = Float.MAX_VALUE;
+			float minimumZ = Float.MAX_VALUE;
+			float maximumX = -Float.MAX_VALUE;
+			float maximumY = -Float.MAX_VALUE;
+			float maximumZ = -Float.MAX_VALUE;
+			
+			for(int i = start; i < end; i++) {
+				final int index = this.order[i] * 3;
+				
+				minimumX = Math.min(minimumX, minimums[index + 0]);
+				minimumY = Math.min(minimumY, minimums[index + 1]);
+				minimumZ = Math.min(minimumZ, minimums[index + 2]);
+				maximumX = Math.max(maximumX, maximums[index + 0]);
+				maximumY = Math.max(maximumY, maximums[index + 1]);
+				maximumZ = Math.max(maximumZ, maximums[index + 2]);
+			}
+			
+			return new BoundingBox(minimumX, minimumY, minimumZ, maximumX, maximumY, maximumZ);
+		}
+		
+		private BoundingBox doCreateBoundingBox(final int index) {
+			return new BoundingBox(this.minimums[index * 3 + 0], this.minimums[index * 3 + 1], this.minimums[index * 3 + 2], this.maximums[index * 3 + 0], this.maximums[index * 3 + 1], this.maximums[index * 3 + 2]);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static int doCalculateBin(final float center, final float centerMinimum, final float extent) {
+			return Math.min((int)((center - centerMinimum) / extent * BIN_COUNT), BIN_COUNT - 1);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Node {
+		private final BoundingBox boundingBox;
+		private final Node left;
+		private final Node right;
+		private final int count;
+		private final int nodeCount;
+		private final int start;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Node(final BoundingBox boundingBox, final int start, final int count) {
+			this.boundingBox = boundingBox;
+			this.left = null;
+			this.right = null;
+			this.count = count;
+			this.nodeCount = 1;
+			this.start = start;
+		}
+		
+		public Node(final BoundingBox boundingBox, final Node left, final Node right) {
+			this.boundingBox = boundingBox;
+			this.left = left;
+			this.right = right;
+			this.count = 0;
+			this.nodeCount = 1 + left.nodeCount + right.nodeCount;
+			this.start = 0;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public int flatten(final float[] nodes, final int offset, final int nextOffset, final int[] shapeIndices, final int shapeIndex, final int[] orderedShapeIndices) {
+			if(this.left == null) {
+				System.arraycopy(orderedShapeIndices, this.start, shapeIndices, shapeIndex, this.count);
+				
+				doSetNode(nodes, offset, this.boundingBox, nextOffset, shapeIndex, this.count);
+				
+				return shapeIndex + this.count;
+			}
+			
+			final int leftOffset = offset + SIZE;
+			final int rightOffset = leftOffset + this.left.nodeCount * SIZE;
+			
+			doSetNode(nodes, offset, this.boundingBox, nextOffset, 0, 0);
+			
+			return this.right.flatten(nodes, rightOffset, nextOffset, shapeIndices, this.left.flatten(nodes, leftOffset, rightOffset, shapeIndices, shapeIndex, orderedShapeIndices), orderedShapeIndices);
+		}
+		
+		public int getNodeCount() {
+			return this.nodeCount;
+		}
+	}
+}
\ No newline at end of file
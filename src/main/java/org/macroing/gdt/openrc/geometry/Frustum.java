@@ -0,0 +1,165 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.geometry;
+
+import java.util.Objects;
+
+/**
+ * A {@code Frustum} is the view frustum of a {@link Camera}, given by the planes through the eye and the edges of the view plane, and the plane through the eye facing the view direction.
+ * <p>
+ * The planes of a {@code Frustum} point inwards, such that a point is inside a plane if, and only if, the dot product between the normal and the point, plus the plane constant, is greater than or equal to {@code 0.0F}.
+ * <p>
+ * A plane can be disabled by calling {@link #extendToInclude(float, float, float)}. This is used to keep the shapes that may cast shadows into the view frustum, when a light is located outside of it.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class Frustum {
+	private static final int PLANE_BOTTOM = 3;
+	private static final int PLANE_COUNT = 5;
+	private static final int PLANE_LEFT = 0;
+	private static final int PLANE_NEAR = 4;
+	private static final int PLANE_RIGHT = 1;
+	private static final int PLANE_TOP = 2;
+	private static final int SIZE_OF_PLANE = 4;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final boolean[] isPlaneEnabled = new boolean[PLANE_COUNT];
+	private final float[] planes = new float[PLANE_COUNT * SIZE_OF_PLANE];
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code Frustum}.
+	 * <p>
+	 * All planes are disabled until {@link #update(Camera, float, float)} has been called.
+	 */
+	public Frustum() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns {@code true} if, and only if, {@code boundingBox} is inside or intersects this {@code Frustum}.
+	 * <p>
+	 * An unbounded {@link BoundingBox} is always considered visible.
+	 * <p>
+	 * If {@code boundingBox} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param boundingBox the {@code BoundingBox} to test
+	 * @return {@code true} if, and only if, {@code boundingBox} is inside or intersects this {@code Frustum}
+	 * @throws NullPointerException thrown if, and only if, {@code boundingBox} is {@code null}
+	 */
+	public boolean isVisible(final BoundingBox boundingBox) {
+		if(!Objects.requireNonNull(boundingBox, "boundingBox == null").isBounded()) {
+			return true;
+		}
+		
+		for(int i = 0; i < PLANE_COUNT; i++) {
+			if(this.isPlaneEnabled[i]) {
+				final float normalX = this.planes[i * SIZE_OF_PLANE + 0];
+				final float normalY = this.planes[i * SIZE_OF_PLANE + 1];
+				final float normalZ = this.planes[i * SIZE_OF_PLANE + 2];
+				final float constant = this.planes[i * SIZE_OF_PLANE + 3];
+				
+//				The corner of the bounding box that is furthest along the normal of the plane:
+				final float x = normalX >= 0.0F ? boundingBox.getMaximumX() : boundingBox.getMinimumX();
+				final float y = normalY >= 0.0F ? boundingBox.getMaximumY() : boundingBox.getMinimumY();
+				final float z = normalZ >= 0.0F ? boundingBox.getMaximumZ() : boundingBox.getMinimumZ();
+				
+				if(normalX * x + normalY * y + normalZ * z + constant < 0.0F) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Extends this {@code Frustum} so it contains the point given by {@code x}, {@code y} and {@code z}, by disabling every plane the point is outside of.
+	 * <p>
+	 * If the point is the location of a light, any shape that may cast a shadow into the original {@code Frustum} is contained in the extended one.
+	 * 
+	 * @param x the X-coordinate of the point
+	 * @param y the Y-coordinate of the point
+	 * @param z the Z-coordinate of the point
+	 */
+	public void extendToInclude(final float x, final float y, final float z) {
+		for(int i = 0; i < PLANE_COUNT; i++) {
+			if(this.planes[i * SIZE_OF_PLANE + 0] * x + this.planes[i * SIZE_OF_PLANE + 1] * y + this.planes[i * SIZE_OF_PLANE + 2] * z + this.planes[i * SIZE_OF_PLANE + 3] < 0.0F) {
+				this.isPlaneEnabled[i] = false;
+			}
+		}
+	}
+	
+	/**
+	 * Updates this {@code Frustum} given {@code camera} and the size of the view plane in pixels.
+	 * <p>
+	 * All planes are enabled after this method has been called.
+	 * <p>
+	 * If {@code camera} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param camera the {@code Camera} to use
+	 * @param width the width of the view plane in pixels
+	 * @param height the height of the view plane in pixels
+	 * @throws NullPointerException thrown if, and only if, {@code camera} is {@code null}
+	 */
+	public void update(final Camera camera, final float width, final float height) {
+		final float[] array = camera.getArray();
+		
+		final float eyeX = array[Camera.ABSOLUTE_OFFSET_OF_EYE + 0];
+		final float eyeY = array[Camera.ABSOLUTE_OFFSET_OF_EYE + 1];
+		final float eyeZ = array[Camera.ABSOLUTE_OFFSET_OF_EYE + 2];
+		final float uX = array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 0];
+		final float uY = array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 1];
+		final float uZ = array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 2];
+		final float vX = array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 0];
+		final float vY = array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 1];
+		final float vZ = array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 2];
+		final float wX = array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 0];
+		final float wY = array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 1];
+		final float wZ = array[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 2];
+		final float viewPlaneDistance = array[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE];
+		final float zoom = array[Camera.ABSOLUTE_OFFSET_OF_ZOOM];
+		
+//		The half extents of the view plane, in the same units as the view plane distance:
+		final float halfWidth = width * 0.5F / zoom;
+		final float halfHeight = height * 0.5F / zoom;
+		
+//		A point P, relative to the eye, is inside the left and right planes if |dot(P, U)| * viewPlaneDistance <= halfWidth * dot(P, -W), and similarly for the top and bottom planes:
+		doSetPlane(PLANE_LEFT, uX * viewPlaneDistance - wX * halfWidth, uY * viewPlaneDistance - wY * halfWidth, uZ * viewPlaneDistance - wZ * halfWidth, eyeX, eyeY, eyeZ);
+		doSetPlane(PLANE_RIGHT, -uX * viewPlaneDistance - wX * halfWidth, -uY * viewPlaneDistance - wY * halfWidth, -uZ * viewPlaneDistance - wZ * halfWidth, eyeX, eyeY, eyeZ);
+		doSetPlane(PLANE_TOP, vX * viewPlaneDistance - wX * halfHeight, vY * viewPlaneDistance - wY * halfHeight, vZ * viewPlaneDistance - wZ * halfHeight, eyeX, eyeY, eyeZ);
+		doSetPlane(PLANE_BOTTOM, -vX * viewPlaneDistance - wX * halfHeight, -vY * viewPlaneDistance - wY * halfHeight, -vZ * viewPlaneDistance - wZ * halfHeight, eyeX, eyeY, eyeZ);
+		doSetPlane(PLANE_NEAR, -wX, -wY, -wZ, eyeX, eyeY, eyeZ);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private void doSetPlane(final int plane, final float normalX, final float normalY, final float normalZ, final float x, final float y, final float z) {
+		this.planes[plane * SIZE_OF_PLANE + 0] = normalX;
+		this.planes[plane * SIZE_OF_PLANE + 1] = normalY;
+		this.planes[plane * SIZE_OF_PLANE + 2] = normalZ;
+		this.planes[plane * SIZE_OF_PLANE + 3] = -(normalX * x + normalY * y + normalZ * z);
+		this.isPlaneEnabled[plane] = true;
+	}
+}
\ No newline at end of file
@@ -25,17 +25,29 @@ import org.macroing.gdt.openrc.Constants;
  * <ol>
  * <li>Shape offset</li>
  * <li>Shape distance (T)</li>
+ * <li>Surface intersection point (3 values)</li>
+ * <li>Surface normal (3 values)</li>
+ * <li>Pixel footprint</li>
+ * <li>Texture page request (2 values)</li>
  * </ol>
+ * <p>
+ * The pixel footprint is the width of the pixel projected onto the surface at the surface intersection point, which is used to select the level of the mip chain of the textures. A pixel footprint of {@code 0} selects level
+ * {@code 0}.
+ * <p>
+ * The texture page request is the ID of the page of a virtual texture that the shading of the intersection requested, split into its upper and lower 16 bits such that both are exact as {@code float} values, or {@code -1}
+ * and {@code 0} if none. It is used by the {@link TextureCache} to stream the pages that are not resident.
  * 
  * @since 1.0.0
  * @author J&#246;rgen Lundgren
  */
 public final class Intersection {
 	public static final int RELATIVE_OFFSET_OF_DISTANCE = 1;
+	public static final int RELATIVE_OFFSET_OF_PIXEL_FOOTPRINT = 8;
 	public static final int RELATIVE_OFFSET_OF_SHAPE_OFFSET = 0;
 	public static final int RELATIVE_OFFSET_OF_SURFACE_INTERSECTION_POINT = 2;
 	public static final int RELATIVE_OFFSET_OF_SURFACE_NORMAL = 5;
-	public static final int SIZE = 1 + 1 + 3 + 3;
+	public static final int RELATIVE_OFFSET_OF_TEXTURE_PAGE_REQUEST = 9;
+	public static final int SIZE = 1 + 1 + 3 + 3 + 1 + 2;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -57,6 +69,9 @@ public final class Intersection {
 			intersections[i + RELATIVE_OFFSET_OF_SURFACE_NORMAL + 0] = 0.0F;
 			intersections[i + RELATIVE_OFFSET_OF_SURFACE_NORMAL + 1] = 0.0F;
 			intersections[i + RELATIVE_OFFSET_OF_SURFACE_NORMAL + 2] = 0.0F;
+			intersections[i + RELATIVE_OFFSET_OF_PIXEL_FOOTPRINT] = 0.0F;
+			intersections[i + RELATIVE_OFFSET_OF_TEXTURE_PAGE_REQUEST + 0] = -1.0F;
+			intersections[i + RELATIVE_OFFSET_OF_TEXTURE_PAGE_REQUEST + 1] = 0.0F;
 		}
 		
 		return intersections;
@@ -52,8 +52,8 @@ public final class Material {
 	private float diffuseColorG = 32.0F / 255.0F;
 	private float diffuseColorR = 32.0F / 255.0F;
 	private float diffuseIntensity = 1.0F;
-	private float reflection = 1.0F;
-	private float refraction = 1.0F;
+	private float reflection = 0.0F;
+	private float refraction = 0.0F;
 	private float specularColorA = 255.0F / 255.0F;
 	private float specularColorB = 255.0F / 255.0F;
 	private float specularColorG = 255.0F / 255.0F;
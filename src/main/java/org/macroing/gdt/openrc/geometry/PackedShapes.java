@@ -0,0 +1,240 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.geometry;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@code PackedShapes} is an alternative layout of the shapes of a {@link Scene}, where each type of shape lives in its own tightly packed {@code float} array in Structure of Arrays (SoA) form.
+ * <p>
+ * Unlike the {@code float} array returned by {@link Scene#getShapesAsArray()}, where shapes of all types are interleaved, these arrays can be looped through by one branch-free loop per type. Data that would otherwise be calculated
+ * per ray, such as the edges of a triangle or the squared radius of a sphere, is precomputed.
+ * <p>
+ * Each {@code float} array starts with the number of shapes in it. It is followed by one field at a time, where the value of field {@code f} of shape {@code i} is found at {@code RELATIVE_OFFSET_OF_FIELDS + f * count + i}. So,
+ * adjacent work-items that test the same field of adjacent shapes read adjacent values.
+ * <p>
+ * The fields of the {@code float} array returned by the {@code getPlanes()} method consists of the following:
+ * <ol>
+ * <li>Surface Normal X</li>
+ * <li>Surface Normal Y</li>
+ * <li>Surface Normal Z</li>
+ * <li>Shape offset</li>
+ * </ol>
+ * <p>
+ * The fields of the {@code float} array returned by the {@code getSpheres()} method consists of the following:
+ * <ol>
+ * <li>Position X</li>
+ * <li>Position Y</li>
+ * <li>Position Z</li>
+ * <li>Radius squared</li>
+ * <li>Shape offset</li>
+ * </ol>
+ * <p>
+ * The fields of the {@code float} array returned by the {@code getTriangles()} method consists of the following:
+ * <ol>
+ * <li>A X</li>
+ * <li>A Y</li>
+ * <li>A Z</li>
+ * <li>Edge 0 X (B - A)</li>
+ * <li>Edge 0 Y (B - A)</li>
+ * <li>Edge 0 Z (B - A)</li>
+ * <li>Edge 1 X (C - A)</li>
+ * <li>Edge 1 Y (C - A)</li>
+ * <li>Edge 1 Z (C - A)</li>
+ * <li>Shape offset</li>
+ * </ol>
+ * <p>
+ * The fields of the {@code float} array returned by the {@code getTriangleProjections()} method consists of the following, for the triangles in the same order as the ones returned by {@code getTriangles()}:
+ * <ol>
+ * <li>Projection axis</li>
+ * <li>Projection normal U, V and D</li>
+ * <li>Projection beta U, V and D</li>
+ * <li>Projection gamma U, V and D</li>
+ * </ol>
+ * <p>
+ * These are the values returned by {@link Triangle#toProjectionArray()}, which are only read by the intersection test of Wald. They are kept apart from the triangles, so the M&#246;ller-Trumbore intersection test does not have to
+ * skip over them.
+ * <p>
+ * The shape offset is the one returned by {@link Shape#getIndex()}, so the rest of the data of an intersected shape, such as its material, is still resolved through the {@code float} array returned by
+ * {@code Scene.getShapesAsArray()}.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class PackedShapes {
+	public static final int PLANE_FIELD_COUNT = 3 + 1;
+	public static final int PLANE_FIELD_OF_SHAPE_OFFSET = 3;
+	public static final int PLANE_FIELD_OF_SURFACE_NORMAL = 0;
+	public static final int RELATIVE_OFFSET_OF_COUNT = 0;
+	public static final int RELATIVE_OFFSET_OF_FIELDS = 1;
+	public static final int SPHERE_FIELD_COUNT = 3 + 1 + 1;
+	public static final int SPHERE_FIELD_OF_POSITION = 0;
+	public static final int SPHERE_FIELD_OF_RADIUS_SQUARED = 3;
+	public static final int SPHERE_FIELD_OF_SHAPE_OFFSET = 4;
+	public static final int TRIANGLE_FIELD_COUNT = 3 + 3 + 3 + 1;
+	public static final int TRIANGLE_FIELD_OF_A = 0;
+	public static final int TRIANGLE_FIELD_OF_EDGE_0 = 3;
+	public static final int TRIANGLE_FIELD_OF_EDGE_1 = 6;
+	public static final int TRIANGLE_FIELD_OF_SHAPE_OFFSET = 9;
+	public static final int TRIANGLE_PROJECTION_FIELD_COUNT = 1 + 3 + 3 + 3;
+	public static final int TRIANGLE_PROJECTION_FIELD_OF_AXIS = 0;
+	public static final int TRIANGLE_PROJECTION_FIELD_OF_BETA = 4;
+	public static final int TRIANGLE_PROJECTION_FIELD_OF_GAMMA = 7;
+	public static final int TRIANGLE_PROJECTION_FIELD_OF_NORMAL = 1;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final float[] planes;
+	private final float[] spheres;
+	private final float[] triangleProjections;
+	private final float[] triangles;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	PackedShapes(final float[] planes, final float[] spheres, final float[] triangleProjections, final float[] triangles) {
+		this.planes = planes;
+		this.spheres = spheres;
+		this.triangleProjections = triangleProjections;
+		this.triangles = triangles;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public float[] getPlanes() {
+		return this.planes;
+	}
+	
+	public float[] getSpheres() {
+		return this.spheres;
+	}
+	
+	public float[] getTriangleProjections() {
+		return this.triangleProjections;
+	}
+	
+	public float[] getTriangles() {
+		return this.triangles;
+	}
+	
+	public int getPlaneCount() {
+		return (int)(this.planes[RELATIVE_OFFSET_OF_COUNT]);
+	}
+	
+	public int getSphereCount() {
+		return (int)(this.spheres[RELATIVE_OFFSET_OF_COUNT]);
+	}
+	
+	public int getTriangleCount() {
+		return (int)(this.triangles[RELATIVE_OFFSET_OF_COUNT]);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns a new {@code PackedShapes} for {@code shapes}.
+	 * <p>
+	 * The shape offsets stored in the {@code PackedShapes} are the ones returned by {@link Shape#getIndex()}, so the shapes should have been added to a {@link Scene.Builder} first.
+	 * <p>
+	 * If {@code shapes} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param shapes the {@code Shape}s to create the {@code PackedShapes} for
+	 * @return a new {@code PackedShapes} for {@code shapes}
+	 * @throws NullPointerException thrown if, and only if, {@code shapes} is {@code null}
+	 */
+	public static PackedShapes create(final List<Shape> shapes) {
+		int planeCount = 0;
+		int sphereCount = 0;
+		int triangleCount = 0;
+		
+		for(final Shape shape : Objects.requireNonNull(shapes, "shapes == null")) {
+			if(shape instanceof Plane) {
+				planeCount++;
+			} else if(shape instanceof Sphere) {
+				sphereCount++;
+			} else if(shape instanceof Triangle) {
+				triangleCount++;
+			}
+		}
+		
+		final float[] planes = doCreateArray(planeCount, PLANE_FIELD_COUNT);
+		final float[] spheres = doCreateArray(sphereCount, SPHERE_FIELD_COUNT);
+		final float[] triangleProjections = doCreateArray(triangleCount, TRIANGLE_PROJECTION_FIELD_COUNT);
+		final float[] triangles = doCreateArray(triangleCount, TRIANGLE_FIELD_COUNT);
+		
+		int planeIndex = 0;
+		int sphereIndex = 0;
+		int triangleIndex = 0;
+		
+		for(final Shape shape : shapes) {
+			final float[] shapeArray = shape.toFloatArray();
+			
+			if(shape instanceof Plane) {
+				doSet(planes, planeCount, planeIndex, PLANE_FIELD_OF_SURFACE_NORMAL + 0, shapeArray[Plane.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 0]);
+				doSet(planes, planeCount, planeIndex, PLANE_FIELD_OF_SURFACE_NORMAL + 1, shapeArray[Plane.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 1]);
+				doSet(planes, planeCount, planeIndex, PLANE_FIELD_OF_SURFACE_NORMAL + 2, shapeArray[Plane.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 2]);
+				doSet(planes, planeCount, planeIndex, PLANE_FIELD_OF_SHAPE_OFFSET, shape.getIndex());
+				
+				planeIndex++;
+			} else if(shape instanceof Sphere) {
+				final float radius = shapeArray[Sphere.RELATIVE_OFFSET_OF_RADIUS];
+				
+				doSet(spheres, sphereCount, sphereIndex, SPHERE_FIELD_OF_POSITION + 0, shapeArray[Sphere.RELATIVE_OFFSET_OF_POSITION + 0]);
+				doSet(spheres, sphereCount, sphereIndex, SPHERE_FIELD_OF_POSITION + 1, shapeArray[Sphere.RELATIVE_OFFSET_OF_POSITION + 1]);
+				doSet(spheres, sphereCount, sphereIndex, SPHERE_FIELD_OF_POSITION + 2, shapeArray[Sphere.RELATIVE_OFFSET_OF_POSITION + 2]);
+				doSet(spheres, sphereCount, sphereIndex, SPHERE_FIELD_OF_RADIUS_SQUARED, radius * radius);
+				doSet(spheres, sphereCount, sphereIndex, SPHERE_FIELD_OF_SHAPE_OFFSET, shape.getIndex());
+				
+				sphereIndex++;
+			} else if(shape instanceof Triangle) {
+				for(int i = 0; i < 3; i++) {
+					doSet(triangles, triangleCount, triangleIndex, TRIANGLE_FIELD_OF_A + i, shapeArray[Triangle.RELATIVE_OFFSET_OF_A + i]);
+					doSet(triangles, triangleCount, triangleIndex, TRIANGLE_FIELD_OF_EDGE_0 + i, shapeArray[Triangle.RELATIVE_OFFSET_OF_EDGE_0 + i]);
+					doSet(triangles, triangleCount, triangleIndex, TRIANGLE_FIELD_OF_EDGE_1 + i, shapeArray[Triangle.RELATIVE_OFFSET_OF_EDGE_1 + i]);
+				}
+				
+				doSet(triangles, triangleCount, triangleIndex, TRIANGLE_FIELD_OF_SHAPE_OFFSET, shape.getIndex());
+				
+				final float[] projectionArray = Triangle.class.cast(shape).toProjectionArray();
+				
+				for(int i = 0; i < TRIANGLE_PROJECTION_FIELD_COUNT; i++) {
+					doSet(triangleProjections, triangleCount, triangleIndex, i, projectionArray[i]);
+				}
+				
+				triangleIndex++;
+			}
+		}
+		
+		return new PackedShapes(planes, spheres, triangleProjections, triangles);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static float[] doCreateArray(final int count, final int fieldCount) {
+		final float[] array = new float[RELATIVE_OFFSET_OF_FIELDS + count * fieldCount];
+		
+		array[RELATIVE_OFFSET_OF_COUNT] = count;
+		
+		return array;
+	}
+	
+	private static void doSet(final float[] array, final int count, final int index, final int field, final float value) {
+		array[RELATIVE_OFFSET_OF_FIELDS + field * count + index] = value;
+	}
+}
\ No newline at end of file
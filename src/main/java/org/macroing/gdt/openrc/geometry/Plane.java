@@ -45,6 +45,11 @@ public final class Plane extends Shape {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	@Override
+	public BoundingBox getBoundingBox() {
+		return BoundingBox.INFINITE;
+	}
+	
 	@Override
 	public float getType() {
 		return TYPE;
@@ -29,33 +29,82 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 public final class Scene {
+	/**
+	 * The magic number that starts a file written by {@link #writeMapped(File)}, which is the bytes {@code ORCS} in little-endian byte order.
+	 */
+	public static final int MAPPED_FORMAT_MAGIC = 0x5343524F;
+	
+	/**
+	 * The version of the format written by {@link #writeMapped(File)}.
+	 */
+	public static final int MAPPED_FORMAT_VERSION = 2;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final int MAPPED_CHUNK_LENGTH = 1 << 24;
+	private static final int MAPPED_SECTION_ALIGNMENT = 64;
+	private static final int MAPPED_SECTION_BOUNDING_VOLUME_HIERARCHY = 6;
+	private static final int MAPPED_SECTION_BOUNDING_VOLUME_HIERARCHY_SHAPE_INDICES = 7;
+	private static final int MAPPED_SECTION_CAMERA = 0;
+	private static final int MAPPED_SECTION_COUNT = 12;
+	private static final int MAPPED_SECTION_LIGHTS = 1;
+	private static final int MAPPED_SECTION_MATERIALS = 2;
+	private static final int MAPPED_SECTION_PACKED_PLANES = 8;
+	private static final int MAPPED_SECTION_PACKED_SPHERES = 9;
+	private static final int MAPPED_SECTION_PACKED_TRIANGLE_PROJECTIONS = 11;
+	private static final int MAPPED_SECTION_PACKED_TRIANGLES = 10;
+	private static final int MAPPED_SECTION_SHAPES = 3;
+	private static final int MAPPED_SECTION_SHAPE_INDICES = 4;
+	private static final int MAPPED_SECTION_TEXTURES = 5;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final AtomicLong textureUpdateCount = new AtomicLong();
+	private final BitSet textureUpdates = new BitSet();
+	private final BoundingVolumeHierarchy boundingVolumeHierarchy;
 	private final Camera camera;
 	private final float[] lightsAsArray;
 	private final float[] materialsAsArray;
 	private final float[] shapesAsArray;
 	private final int[] shapeIndices;
 	private final int[] texturesAsArray;
-	private final List<Light> lightsAsList;
-	private final List<Material> materialsAsList;
-	private final List<Shape> shapesAsList;
-	private final List<Texture> texturesAsList;
+	private final PackedShapes packedShapes;
+	private List<Light> lightsAsList;
+	private List<Material> materialsAsList;
+	private List<Shape> shapesAsList;
+	private List<Texture> texturesAsList;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	Scene(final Camera camera, final float[] lightsAsArray, final float[] materialsAsArray, final float[] shapesAsArray, final int[] shapeIndices, final int[] texturesAsArray, final List<Light> lightsAsList, final List<Material> materialsAsList, final List<Shape> shapesAsList, final List<Texture> texturesAsList) {
+	Scene(final BoundingVolumeHierarchy boundingVolumeHierarchy, final Camera camera, final float[] lightsAsArray, final float[] materialsAsArray, final float[] shapesAsArray, final int[] shapeIndices, final int[] texturesAsArray, final List<Light> lightsAsList, final List<Material> materialsAsList, final List<Shape> shapesAsList, final List<Texture> texturesAsList, final PackedShapes packedShapes) {
+		this.boundingVolumeHierarchy = boundingVolumeHierarchy;
 		this.camera = camera;
 		this.lightsAsArray = lightsAsArray;
 		this.materialsAsArray = materialsAsArray;
 		this.shapesAsArray = shapesAsArray;
 		this.shapeIndices = shapeIndices;
 		this.texturesAsArray = texturesAsArray;
+		this.packedShapes = packedShapes;
 		this.lightsAsList = lightsAsList;
 		this.materialsAsList = materialsAsList;
 		this.shapesAsList = shapesAsList;
@@ -64,10 +113,18 @@ public final class Scene {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	public BoundingVolumeHierarchy getBoundingVolumeHierarchy() {
+		return this.boundingVolumeHierarchy;
+	}
+	
 	public Camera getCamera() {
 		return this.camera;
 	}
 	
+	public float[] getBoundingVolumeHierarchyAsArray() {
+		return this.boundingVolumeHierarchy.getNodes();
+	}
+	
 	public float[] getLightsAsArray() {
 		return this.lightsAsArray;
 	}
@@ -85,7 +142,22 @@ public final class Scene {
 	}
 	
 	public int getShapeCount() {
-		return this.shapesAsList.size();
+		return this.shapeIndices.length;
+	}
+	
+	/**
+	 * Returns the total number of texture updates done by {@link #updateTexel(int, int, int, int)} and {@link #updateTexture(int, int)}.
+	 * <p>
+	 * Unlike the texture updates polled by {@link #pollTextureUpdates(int[])}, this number is never reset, so it can be used to find out whether any texel has been modified since it was last checked.
+	 * 
+	 * @return the total number of texture updates done by {@code updateTexel(int, int, int, int)} and {@code updateTexture(int, int)}
+	 */
+	public long getTextureUpdateCount() {
+		return this.textureUpdateCount.get();
+	}
+	
+	public int[] getBoundingVolumeHierarchyShapeIndices() {
+		return this.boundingVolumeHierarchy.getShapeIndices();
 	}
 	
 	public int[] getShapeIndices() {
@@ -96,47 +168,217 @@ public final class Scene {
 		return this.texturesAsArray;
 	}
 	
-	public List<Light> getLightsAsList() {
+	/**
+	 * Returns the {@link Light}s of this {@code Scene}.
+	 * <p>
+	 * If this {@code Scene} was read by {@link #readMapped(File)}, the {@code Light}s are created from the {@code float} array returned by {@link #getLightsAsArray()} the first time this method is called.
+	 * 
+	 * @return the {@code Light}s of this {@code Scene}
+	 */
+	public synchronized List<Light> getLightsAsList() {
+		if(this.lightsAsList == null) {
+			this.lightsAsList = doCreateLightsAsList(this.lightsAsArray);
+		}
+		
 		return this.lightsAsList;
 	}
 	
-	public List<Material> getMaterialsAsList() {
+	/**
+	 * Returns the {@link Material}s of this {@code Scene}.
+	 * <p>
+	 * If this {@code Scene} was read by {@link #readMapped(File)}, the {@code Material}s are created from the {@code float} array returned by {@link #getMaterialsAsArray()} the first time this method is called.
+	 * 
+	 * @return the {@code Material}s of this {@code Scene}
+	 */
+	public synchronized List<Material> getMaterialsAsList() {
+		if(this.materialsAsList == null) {
+			this.materialsAsList = doCreateMaterialsAsList(this.materialsAsArray);
+		}
+		
 		return this.materialsAsList;
 	}
 	
-	public List<Shape> getShapesAsList() {
+	/**
+	 * Returns the {@link Shape}s of this {@code Scene}.
+	 * <p>
+	 * If this {@code Scene} was read by {@link #readMapped(File)}, the {@code Shape}s are created from the {@code float} array returned by {@link #getShapesAsArray()} the first time this method is called.
+	 * 
+	 * @return the {@code Shape}s of this {@code Scene}
+	 */
+	public synchronized List<Shape> getShapesAsList() {
+		if(this.shapesAsList == null) {
+			this.shapesAsList = doCreateShapesAsList(this.shapesAsArray);
+		}
+		
 		return this.shapesAsList;
 	}
 	
-	public List<Texture> getTexturesAsList() {
+	/**
+	 * Returns the {@link Texture}s of this {@code Scene}.
+	 * <p>
+	 * If this {@code Scene} was read by {@link #readMapped(File)}, the {@code Texture}s are created from the {@code int} array returned by {@link #getTexturesAsArray()} the first time this method is called. Their data is then
+	 * decoded from level {@code 0} of the textures, in their current state.
+	 * 
+	 * @return the {@code Texture}s of this {@code Scene}
+	 */
+	public synchronized List<Texture> getTexturesAsList() {
+		if(this.texturesAsList == null) {
+			this.texturesAsList = doCreateTexturesAsList(this.texturesAsArray);
+		}
+		
 		return this.texturesAsList;
 	}
 	
+	/**
+	 * Returns the {@link PackedShapes} of this {@code Scene}, which is the Structure of Arrays (SoA) layout of its shapes, with one tightly packed {@code float} array per type of shape.
+	 * 
+	 * @return the {@code PackedShapes} of this {@code Scene}
+	 */
+	public PackedShapes getPackedShapes() {
+		return this.packedShapes;
+	}
+	
+	/**
+	 * Polls the texture updates recorded by {@link #updateTexel(int, int, int, int)} and {@link #updateTexture(int, int)} into {@code textureUpdates}, and returns the number of texture updates.
+	 * <p>
+	 * The texture updates are written in order of their indices, as the index into the {@code int} array returned by {@link #getTexturesAsArray()} followed by the value at that index. The recorded texture updates are cleared.
+	 * <p>
+	 * If there are more texture updates than fit in {@code textureUpdates}, none of them are written and {@code -1} is returned, which means all textures have to be transferred.
+	 * <p>
+	 * If {@code textureUpdates} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param textureUpdates the {@code int} array to write the texture updates to
+	 * @return the number of texture updates, or {@code -1} if they do not fit in {@code textureUpdates}
+	 * @throws NullPointerException thrown if, and only if, {@code textureUpdates} is {@code null}
+	 */
+	public int pollTextureUpdates(final int[] textureUpdates) {
+		final int length = this.textureUpdates.cardinality();
+		
+		if(length * 2 > textureUpdates.length) {
+			this.textureUpdates.clear();
+			
+			return -1;
+		}
+		
+		int textureUpdateOffset = 0;
+		
+//		Loop through the modified spans of texels, where the span starts at a set bit and ends at the next clear bit:
+		for(int start = this.textureUpdates.nextSetBit(0); start >= 0; start = this.textureUpdates.nextSetBit(start)) {
+			final int end = this.textureUpdates.nextClearBit(start);
+			
+			for(int i = start; i < end; i++) {
+				textureUpdates[textureUpdateOffset + 0] = i;
+				textureUpdates[textureUpdateOffset + 1] = this.texturesAsArray[i];
+				
+				textureUpdateOffset += 2;
+			}
+			
+			start = end;
+		}
+		
+		this.textureUpdates.clear();
+		
+		return length;
+	}
+	
+	/**
+	 * Sets the texel at {@code x} and {@code y} in level {@code 0} of the texture at {@code textureOffset} in the {@code int} array returned by {@link #getTexturesAsArray()} to {@code rGB}, and records the texture update.
+	 * <p>
+	 * The RGB-value is encoded in the format of the texture, so all {@code int} values that store the texel are recorded. The texels covering it in the other levels of the mip chain are updated and recorded as well.
+	 * <p>
+	 * If {@code x} or {@code y} is outside of the texture, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param textureOffset the offset of the texture in the {@code int} array returned by {@code getTexturesAsArray()}
+	 * @param x the X-coordinate of the texel
+	 * @param y the Y-coordinate of the texel
+	 * @param rGB the RGB-value of the texel
+	 * @throws IllegalArgumentException thrown if, and only if, {@code x} or {@code y} is outside of the texture
+	 */
+	public void updateTexel(final int textureOffset, final int x, final int y, final int rGB) {
+		final int width = this.texturesAsArray[textureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH];
+		final int height = this.texturesAsArray[textureOffset + Texture.RELATIVE_OFFSET_OF_HEIGHT];
+		final int levelCount = this.texturesAsArray[textureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_COUNT];
+		
+		if(x < 0 || x >= width) {
+			throw new IllegalArgumentException(String.format("Illegal x: %s", Integer.toString(x)));
+		}
+		
+		if(y < 0 || y >= height) {
+			throw new IllegalArgumentException(String.format("Illegal y: %s", Integer.toString(y)));
+		}
+		
+		doUpdateTexel(textureOffset, 0, x, y, rGB);
+		
+		int levelX = x;
+		int levelY = y;
+		
+		for(int level = 1; level < levelCount; level++) {
+			final int levelWidth = Math.max(width >> level, 1);
+			final int levelHeight = Math.max(height >> level, 1);
+			
+			levelX /= 2;
+			levelY /= 2;
+			
+//			The last column or row of a level with an odd width or height is not covered by the next level:
+			if(levelX >= levelWidth || levelY >= levelHeight) {
+				return;
+			}
+			
+			doUpdateTexel(textureOffset, level, levelX, levelY, Texture.filter(this.texturesAsArray, textureOffset, level, levelX, levelY));
+		}
+	}
+	
+	/**
+	 * Sets the value at {@code index} in the {@code int} array returned by {@link #getTexturesAsArray()} to {@code value}, and records the texture update.
+	 * <p>
+	 * The recorded texture updates are polled by {@link #pollTextureUpdates(int[])}, so only the modified texels have to be transferred to the GPU.
+	 * <p>
+	 * The value is stored as is, regardless of the format of the texture it belongs to, and the other levels of the mip chain are not updated. Use {@link #updateTexel(int, int, int, int)} to update a texel given its RGB-value.
+	 * <p>
+	 * If {@code index} is less than {@code 0}, or greater than or equal to the length of the {@code int} array returned by {@code getTexturesAsArray()}, an {@code ArrayIndexOutOfBoundsException} will be thrown.
+	 * 
+	 * @param index the index into the {@code int} array returned by {@code getTexturesAsArray()}
+	 * @param value the new value
+	 * @throws ArrayIndexOutOfBoundsException thrown if, and only if, {@code index} is less than {@code 0}, or greater than or equal to the length of the {@code int} array returned by {@code getTexturesAsArray()}
+	 */
+	public void updateTexture(final int index, final int value) {
+		this.texturesAsArray[index] = value;
+		
+		this.textureUpdates.set(index);
+		this.textureUpdateCount.incrementAndGet();
+	}
+	
 	public void write(final DataOutput dataOutput) {
 		try {
 			this.camera.write(dataOutput);
 			
-			dataOutput.writeFloat(Float.intBitsToFloat(this.texturesAsArray.length));
+			int texturesLength = 0;
+			
+			for(final Texture texture : getTexturesAsList()) {
+				texturesLength += texture.sizeWritten();
+			}
+			
+			dataOutput.writeFloat(Float.intBitsToFloat(texturesLength));
 			
-			for(final Texture texture : this.texturesAsList) {
+			for(final Texture texture : getTexturesAsList()) {
 				texture.write(dataOutput);
 			}
 			
 			dataOutput.writeFloat(Float.intBitsToFloat(this.materialsAsArray.length));
 			
-			for(final Material material : this.materialsAsList) {
+			for(final Material material : getMaterialsAsList()) {
 				material.write(dataOutput);
 			}
 			
 			dataOutput.writeFloat(Float.intBitsToFloat(this.lightsAsArray.length));
 			
-			for(final Light light : this.lightsAsList) {
+			for(final Light light : getLightsAsList()) {
 				light.write(dataOutput);
 			}
 			
 			dataOutput.writeFloat(Float.intBitsToFloat(this.shapesAsArray.length));
 			
-			for(final Shape shape : this.shapesAsList) {
+			for(final Shape shape : getShapesAsList()) {
 				shape.write(dataOutput);
 			}
 		} catch(final IOException e) {
@@ -152,8 +394,119 @@ public final class Scene {
 		}
 	}
 	
+	/**
+	 * Writes this {@code Scene} to {@code file}, in a versioned binary format whose sections are the arrays used by the kernel, such that it can be read by {@link #readMapped(File)} without creating any objects.
+	 * <p>
+	 * All values are stored in little-endian byte order. The file starts with a header, which consists of the following:
+	 * <ol>
+	 * <li>Magic number ({@code MAPPED_FORMAT_MAGIC}, as an {@code int})</li>
+	 * <li>Version ({@code MAPPED_FORMAT_VERSION}, as an {@code int})</li>
+	 * <li>Section count (as an {@code int})</li>
+	 * <li>Offset in bytes and length in values of each section (as two {@code long}s per section)</li>
+	 * </ol>
+	 * <p>
+	 * The sections of version {@code 2} consists of the following, in order:
+	 * <ol>
+	 * <li>Camera (the eye, up and look-at points, the view-plane distance and the zoom, as {@code float}s)</li>
+	 * <li>Lights (the {@code float} array returned by {@link #getLightsAsArray()})</li>
+	 * <li>Materials (the {@code float} array returned by {@link #getMaterialsAsArray()})</li>
+	 * <li>Shapes (the {@code float} array returned by {@link #getShapesAsArray()})</li>
+	 * <li>Shape indices (the offsets of all shapes, as in the {@code int} array returned by {@link #getShapeIndices()} before any frustum culling)</li>
+	 * <li>Textures (the {@code int} array returned by {@link #getTexturesAsArray()}, including all levels)</li>
+	 * <li>Bounding volume hierarchy (the {@code float} array returned by {@link #getBoundingVolumeHierarchyAsArray()})</li>
+	 * <li>Bounding volume hierarchy shape indices (the {@code int} array returned by {@link #getBoundingVolumeHierarchyShapeIndices()})</li>
+	 * <li>Packed planes, spheres and triangles (the {@code float} arrays of the {@link PackedShapes})</li>
+	 * <li>Packed triangle projections (the {@code float} array returned by {@link PackedShapes#getTriangleProjections()})</li>
+	 * </ol>
+	 * <p>
+	 * Each section starts at an offset that is a multiple of {@code 64} bytes.
+	 * <p>
+	 * If {@code file} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param file the {@code File} to write to
+	 * @throws NullPointerException thrown if, and only if, {@code file} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+	public void writeMapped(final File file) {
+		final float[] cameraAsArray = new float[] {this.camera.getEyeX(), this.camera.getEyeY(), this.camera.getEyeZ(), this.camera.getUpX(), this.camera.getUpY(), this.camera.getUpZ(), this.camera.getLookAtX(), this.camera.getLookAtY(), this.camera.getLookAtZ(), this.camera.getViewPlaneDistance(), this.camera.getZoom()};
+		
+		final Object[] sections = new Object[MAPPED_SECTION_COUNT];
+		
+		sections[MAPPED_SECTION_CAMERA] = cameraAsArray;
+		sections[MAPPED_SECTION_LIGHTS] = this.lightsAsArray;
+		sections[MAPPED_SECTION_MATERIALS] = this.materialsAsArray;
+		sections[MAPPED_SECTION_SHAPES] = this.shapesAsArray;
+		sections[MAPPED_SECTION_SHAPE_INDICES] = doCreateShapeIndices(this.shapesAsArray);
+		sections[MAPPED_SECTION_TEXTURES] = this.texturesAsArray;
+		sections[MAPPED_SECTION_BOUNDING_VOLUME_HIERARCHY] = this.boundingVolumeHierarchy.getNodes();
+		sections[MAPPED_SECTION_BOUNDING_VOLUME_HIERARCHY_SHAPE_INDICES] = this.boundingVolumeHierarchy.getShapeIndices();
+		sections[MAPPED_SECTION_PACKED_PLANES] = this.packedShapes.getPlanes();
+		sections[MAPPED_SECTION_PACKED_SPHERES] = this.packedShapes.getSpheres();
+		sections[MAPPED_SECTION_PACKED_TRIANGLES] = this.packedShapes.getTriangles();
+		sections[MAPPED_SECTION_PACKED_TRIANGLE_PROJECTIONS] = this.packedShapes.getTriangleProjections();
+		
+		final long[] offsets = new long[MAPPED_SECTION_COUNT];
+		final long[] lengths = new long[MAPPED_SECTION_COUNT];
+		
+		long offset = doAlign(4L + 4L + 4L + MAPPED_SECTION_COUNT * 16L);
+		
+		for(int i = 0; i < MAPPED_SECTION_COUNT; i++) {
+			offsets[i] = offset;
+			lengths[i] = sections[i] instanceof float[] ? float[].class.cast(sections[i]).length : int[].class.cast(sections[i]).length;
+			
+			offset = doAlign(offset + lengths[i] * 4L);
+		}
+		
+		try(final FileChannel fileChannel = FileChannel.open(Objects.requireNonNull(file, "file == null").toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			final ByteBuffer header = ByteBuffer.allocate((int)(offsets[0])).order(ByteOrder.LITTLE_ENDIAN);
+			
+			header.putInt(MAPPED_FORMAT_MAGIC);
+			header.putInt(MAPPED_FORMAT_VERSION);
+			header.putInt(MAPPED_SECTION_COUNT);
+			
+			for(int i = 0; i < MAPPED_SECTION_COUNT; i++) {
+				header.putLong(offsets[i]);
+				header.putLong(lengths[i]);
+			}
+			
+			header.rewind();
+			
+			while(header.hasRemaining()) {
+				fileChannel.write(header, header.position());
+			}
+			
+			for(int i = 0; i < MAPPED_SECTION_COUNT; i++) {
+				if(sections[i] instanceof float[]) {
+					doWriteMapped(fileChannel, offsets[i], float[].class.cast(sections[i]));
+				} else {
+					doWriteMapped(fileChannel, offsets[i], int[].class.cast(sections[i]));
+				}
+			}
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	/**
+	 * Returns {@code true} if, and only if, {@code file} starts with {@code MAPPED_FORMAT_MAGIC}, such that it has been written by {@link #writeMapped(File)}.
+	 * <p>
+	 * If {@code file} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param file the {@code File} to check
+	 * @return {@code true} if, and only if, {@code file} starts with {@code MAPPED_FORMAT_MAGIC}
+	 * @throws NullPointerException thrown if, and only if, {@code file} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+	public static boolean isMapped(final File file) {
+		try(final DataInputStream dataInputStream = new DataInputStream(new FileInputStream(Objects.requireNonNull(file, "file == null")))) {
+			return file.length() >= 4L && Integer.reverseBytes(dataInputStream.readInt()) == MAPPED_FORMAT_MAGIC;
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
 	public static Scene create() {
 		return create(new Camera());
 	}
@@ -173,10 +526,10 @@ public final class Scene {
 //		builder.addTexture(Texture.createSolidTexture("Texture_9.jpg"));
 //		builder.addTexture(Texture.createNormalMapTexture("NormalMap.jpg"));
 //		builder.addTexture(Texture.createNormalMapTexture("NormalMap_1.jpg"));
-		builder.addTexture(Texture.createSolidTexture("154.JPG"));
-		builder.addTexture(Texture.createNormalMapTexture("154_norm.JPG"));
-		builder.addTexture(Texture.createSolidTexture("197.JPG"));
-		builder.addTexture(Texture.createNormalMapTexture("197_norm.JPG"));
+		builder.addTexture(() -> Texture.createTexture(Texture.TYPE_SOLID_RGB565, "154.JPG"));
+		builder.addTexture(() -> Texture.createTexture(Texture.TYPE_NORMAL_MAP_XY, "154_norm.JPG"));
+		builder.addTexture(() -> Texture.createTexture(Texture.TYPE_SOLID_RGB565, "197.JPG"));
+		builder.addTexture(() -> Texture.createTexture(Texture.TYPE_NORMAL_MAP_XY, "197_norm.JPG"));
 		
 		final int[] textureOffsets = builder.calculateTextureOffsets();
 		
@@ -221,7 +574,7 @@ public final class Scene {
 			for(int i = 0; i < texturesLength;) {
 				final Texture texture = Texture.read(dataInput);
 				
-				i += texture.size();
+				i += texture.sizeWritten();
 				
 				builder.addTexture(texture);
 			}
@@ -262,7 +615,23 @@ public final class Scene {
 		}
 	}
 	
+	/**
+	 * Reads a {@code Scene} from {@code file}, which has been written by either {@link #write(File)} or {@link #writeMapped(File)}.
+	 * <p>
+	 * If {@code file} starts with {@code MAPPED_FORMAT_MAGIC}, it is read by {@link #readMapped(File)}.
+	 * <p>
+	 * If {@code file} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param file the {@code File} to read from
+	 * @return a {@code Scene} read from {@code file}
+	 * @throws NullPointerException thrown if, and only if, {@code file} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
 	public static Scene read(final File file) {
+		if(isMapped(file)) {
+			return readMapped(file);
+		}
+		
 		try(final DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
 			return read(dataInputStream);
 		} catch(final IOException e) {
@@ -270,15 +639,153 @@ public final class Scene {
 		}
 	}
 	
+	/**
+	 * Reads a {@code Scene} from {@code file}, which has been written by {@link #writeMapped(File)}.
+	 * <p>
+	 * Calling this method is equivalent to calling {@code Scene.readMapped(file, true)}.
+	 * <p>
+	 * If {@code file} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code file} does not start with {@code MAPPED_FORMAT_MAGIC}, or its version is not supported, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param file the {@code File} to read from
+	 * @return a {@code Scene} read from {@code file}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code file} does not start with {@code MAPPED_FORMAT_MAGIC}, or its version is not supported
+	 * @throws NullPointerException thrown if, and only if, {@code file} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+	public static Scene readMapped(final File file) {
+		return readMapped(file, true);
+	}
+	
+	/**
+	 * Reads a {@code Scene} from {@code file}, which has been written by {@link #writeMapped(File)}.
+	 * <p>
+	 * The sections of {@code file} are memory-mapped and copied in bulk into the arrays used by the kernel, so the time it takes is bounded by the bandwidth of the disk. The bounding volume hierarchy and the packed shapes are read
+	 * as well, rather than built again. The {@link Light}s, {@link Material}s, {@link Shape}s and {@link Texture}s are only created when they are first requested, by {@link #getLightsAsList()} and the like.
+	 * <p>
+	 * If {@code isReadingTextures} is {@code false}, the textures are not read, so the {@code int} array returned by {@link #getTexturesAsArray()} is empty. This is meant for a {@link TextureCache} that streams the pages of the
+	 * textures from {@code file} instead, such that they are never held in memory as a whole. The texture offsets of the materials still refer to the textures in {@code file}.
+	 * <p>
+	 * If {@code file} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code file} does not start with {@code MAPPED_FORMAT_MAGIC}, or its version is not supported, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param file the {@code File} to read from
+	 * @param isReadingTextures {@code true} if, and only if, the textures should be read
+	 * @return a {@code Scene} read from {@code file}
+	 * @throws IllegalArgumentException thrown if, and only if, {@code file} does not start with {@code MAPPED_FORMAT_MAGIC}, or its version is not supported
+	 * @throws NullPointerException thrown if, and only if, {@code file} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+	public static Scene readMapped(final File file, final boolean isReadingTextures) {
+		try(final FileChannel fileChannel = FileChannel.open(Objects.requireNonNull(file, "file == null").toPath(), StandardOpenOption.READ)) {
+			final long[] offsets = new long[MAPPED_SECTION_COUNT];
+			final long[] lengths = new long[MAPPED_SECTION_COUNT];
+			
+			doReadMappedHeader(fileChannel, offsets, lengths);
+			
+			final float[] cameraAsArray = doReadMappedFloats(fileChannel, offsets[MAPPED_SECTION_CAMERA], lengths[MAPPED_SECTION_CAMERA]);
+			final float[] lightsAsArray = doReadMappedFloats(fileChannel, offsets[MAPPED_SECTION_LIGHTS], lengths[MAPPED_SECTION_LIGHTS]);
+			final float[] materialsAsArray = doReadMappedFloats(fileChannel, offsets[MAPPED_SECTION_MATERIALS], lengths[MAPPED_SECTION_MATERIALS]);
+			final float[] shapesAsArray = doReadMappedFloats(fileChannel, offsets[MAPPED_SECTION_SHAPES], lengths[MAPPED_SECTION_SHAPES]);
+			final float[] nodes = doReadMappedFloats(fileChannel, offsets[MAPPED_SECTION_BOUNDING_VOLUME_HIERARCHY], lengths[MAPPED_SECTION_BOUNDING_VOLUME_HIERARCHY]);
+			final float[] planes = doReadMappedFloats(fileChannel, offsets[MAPPED_SECTION_PACKED_PLANES], lengths[MAPPED_SECTION_PACKED_PLANES]);
+			final float[] spheres = doReadMappedFloats(fileChannel, offsets[MAPPED_SECTION_PACKED_SPHERES], lengths[MAPPED_SECTION_PACKED_SPHERES]);
+			final float[] triangleProjections = doReadMappedFloats(fileChannel, offsets[MAPPED_SECTION_PACKED_TRIANGLE_PROJECTIONS], lengths[MAPPED_SECTION_PACKED_TRIANGLE_PROJECTIONS]);
+			final float[] triangles = doReadMappedFloats(fileChannel, offsets[MAPPED_SECTION_PACKED_TRIANGLES], lengths[MAPPED_SECTION_PACKED_TRIANGLES]);
+			final int[] shapeIndices = doReadMappedInts(fileChannel, offsets[MAPPED_SECTION_SHAPE_INDICES], lengths[MAPPED_SECTION_SHAPE_INDICES]);
+			final int[] texturesAsArray = isReadingTextures ? doReadMappedInts(fileChannel, offsets[MAPPED_SECTION_TEXTURES], lengths[MAPPED_SECTION_TEXTURES]) : new int[0];
+			final int[] boundingVolumeHierarchyShapeIndices = doReadMappedInts(fileChannel, offsets[MAPPED_SECTION_BOUNDING_VOLUME_HIERARCHY_SHAPE_INDICES], lengths[MAPPED_SECTION_BOUNDING_VOLUME_HIERARCHY_SHAPE_INDICES]);
+			
+			final
+			Camera camera = new Camera();
+			camera.setEye(cameraAsArray[0], cameraAsArray[1], cameraAsArray[2]);
+			camera.setUp(cameraAsArray[3], cameraAsArray[4], cameraAsArray[5]);
+			camera.setLookAt(cameraAsArray[6], cameraAsArray[7], cameraAsArray[8]);
+			camera.setViewPlaneDistance(cameraAsArray[9]);
+			camera.setZoom(cameraAsArray[10]);
+			camera.calculateOrthonormalBasis();
+			
+			return new Scene(new BoundingVolumeHierarchy(nodes, boundingVolumeHierarchyShapeIndices), camera, lightsAsArray, materialsAsArray, shapesAsArray, shapeIndices, texturesAsArray, null, null, null, null, new PackedShapes(planes, spheres, triangleProjections, triangles));
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Memory-maps the textures of {@code file}, which has been written by {@link #writeMapped(File)}, and returns them as {@code IntBuffer}s of at most {@code 1 << 24} {@code int} values each, in order.
+	 * <p>
+	 * Together, the {@code IntBuffer}s hold the values of the {@code int} array returned by {@link #getTexturesAsArray()} when {@code file} was written. The mappings remain valid after this method returns, and the operating system
+	 * only reads the parts of {@code file} that are accessed.
+	 * <p>
+	 * If {@code file} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * <p>
+	 * If {@code file} does not start with {@code MAPPED_FORMAT_MAGIC}, or its version is not supported, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param file the {@code File} to read from
+	 * @return the textures of {@code file} as {@code IntBuffer}s
+	 * @throws IllegalArgumentException thrown if, and only if, {@code file} does not start with {@code MAPPED_FORMAT_MAGIC}, or its version is not supported
+	 * @throws NullPointerException thrown if, and only if, {@code file} is {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+	static IntBuffer[] readMappedTextures(final File file) {
+		try(final FileChannel fileChannel = FileChannel.open(Objects.requireNonNull(file, "file == null").toPath(), StandardOpenOption.READ)) {
+			final long[] offsets = new long[MAPPED_SECTION_COUNT];
+			final long[] lengths = new long[MAPPED_SECTION_COUNT];
+			
+			doReadMappedHeader(fileChannel, offsets, lengths);
+			
+			final int length = doRequireValidLength(lengths[MAPPED_SECTION_TEXTURES]);
+			
+			final IntBuffer[] intBuffers = new IntBuffer[(length + MAPPED_CHUNK_LENGTH - 1) / MAPPED_CHUNK_LENGTH];
+			
+			for(int i = 0; i < intBuffers.length; i++) {
+				final int chunkLength = Math.min(length - i * MAPPED_CHUNK_LENGTH, MAPPED_CHUNK_LENGTH);
+				
+				intBuffers[i] = fileChannel.map(MapMode.READ_ONLY, offsets[MAPPED_SECTION_TEXTURES] + i * (long)(MAPPED_CHUNK_LENGTH) * 4L, chunkLength * 4L).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			}
+			
+			return intBuffers;
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	private void doUpdateTexel(final int textureOffset, final int level, final int x, final int y, final int rGB) {
+		final int index = Texture.getTexelIndex(this.texturesAsArray, textureOffset, level, x, y);
+		final int length = Texture.getTexelLength(this.texturesAsArray, textureOffset);
+		
+		Texture.setTexel(this.texturesAsArray, textureOffset, level, x, y, rGB);
+		
+		this.textureUpdates.set(index, index + length);
+		this.textureUpdateCount.incrementAndGet();
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * A {@code Builder} is used to build a {@link Scene}.
+	 * <p>
+	 * Textures can be added as a {@code Supplier}, such as {@code () -> Texture.createSolidTexture("154.JPG")}, in which case they are decoded concurrently by the {@code Executor} of the {@code Builder}, while the rest of the
+	 * {@code Scene} is added. The texture atlas is assembled, with the level offsets and formats of all textures, once all of them are ready, which is when {@link #calculateTextureOffsets()} or {@link #build()} is called. The
+	 * mip chains and formats of the textures are created concurrently by the {@code Executor} as well.
+	 * <p>
+	 * The default {@code Executor} is {@code ForkJoinPool.commonPool()}, whose parallelism is bounded by the number of processors.
+	 * 
+	 * @since 1.0.0
+	 * @author J&#246;rgen Lundgren
+	 */
 	public static final class Builder {
 		private final AtomicInteger index = new AtomicInteger();
 		private final Camera camera;
+		private final Executor executor;
+		private final List<CompletableFuture<Texture>> textures = new ArrayList<>();
 		private final List<Light> lights = new ArrayList<>();
 		private final List<Material> materials = new ArrayList<>();
 		private final List<Shape> shapes = new ArrayList<>();
-		private final List<Texture> textures = new ArrayList<>();
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
@@ -287,7 +794,21 @@ public final class Scene {
 		}
 		
 		public Builder(final Camera camera) {
+			this(camera, ForkJoinPool.commonPool());
+		}
+		
+		/**
+		 * Constructs a new {@code Builder} with {@code camera}, that decodes the textures added as a {@code Supplier} on {@code executor}.
+		 * <p>
+		 * If {@code executor} is {@code null}, a {@code NullPointerException} will be thrown.
+		 * 
+		 * @param camera the {@link Camera} of the {@code Scene}
+		 * @param executor the {@code Executor} to decode the textures on
+		 * @throws NullPointerException thrown if, and only if, {@code executor} is {@code null}
+		 */
+		public Builder(final Camera camera, final Executor executor) {
 			this.camera = camera;
+			this.executor = Objects.requireNonNull(executor, "executor == null");
 		}
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -313,7 +834,27 @@ public final class Scene {
 		}
 		
 		public Builder addTexture(final Texture texture) {
-			this.textures.add(Objects.requireNonNull(texture, "texture == null"));
+			this.textures.add(CompletableFuture.completedFuture(Objects.requireNonNull(texture, "texture == null")));
+			
+			return this;
+		}
+		
+		/**
+		 * Adds the {@link Texture} supplied by {@code textureSupplier}, which is called on the {@code Executor} of this {@code Builder}, so the {@code Texture} is decoded concurrently with the other ones.
+		 * <p>
+		 * The {@code Texture}s keep the order in which they were added, regardless of when they are decoded.
+		 * <p>
+		 * If {@code textureSupplier} is {@code null}, a {@code NullPointerException} will be thrown. If {@code textureSupplier} returns {@code null}, a {@code NullPointerException} will be thrown by {@code calculateTextureOffsets()} or
+		 * {@code build()}.
+		 * 
+		 * @param textureSupplier the {@code Supplier} of the {@code Texture}
+		 * @return this {@code Builder}
+		 * @throws NullPointerException thrown if, and only if, {@code textureSupplier} is {@code null}
+		 */
+		public Builder addTexture(final Supplier<Texture> textureSupplier) {
+			Objects.requireNonNull(textureSupplier, "textureSupplier == null");
+			
+			this.textures.add(CompletableFuture.supplyAsync(() -> Objects.requireNonNull(textureSupplier.get(), "texture == null"), this.executor));
 			
 			return this;
 		}
@@ -331,21 +872,31 @@ public final class Scene {
 			return materialOffsets;
 		}
 		
+		/**
+		 * Returns the offsets of the {@link Texture}s added so far, in the {@code int} array returned by {@link Scene#getTexturesAsArray()}.
+		 * <p>
+		 * This method waits for all {@code Texture}s to be decoded, as their sizes are given by their widths and heights.
+		 * 
+		 * @return the offsets of the {@code Texture}s added so far
+		 */
 		public int[] calculateTextureOffsets() {
-			final int[] textureOffsets = new int[this.textures.size()];
-			final int[] textures = doCreateTextures();
+			final List<Texture> textures = doGetTextures();
+			
+			final int[] textureOffsets = new int[textures.size()];
 			
-			for(int i = 0, j = 0; i < this.textures.size() && j < textures.length; i++) {
+			for(int i = 0, j = 0; i < textures.size(); i++) {
 				textureOffsets[i] = j;
 				
-				j += textures[j + Texture.RELATIVE_OFFSET_OF_SIZE];
+				j += textures.get(i).size();
 			}
 			
 			return textureOffsets;
 		}
 		
 		public Scene build() {
-			return new Scene(this.camera, doCreateLights(), doCreateMaterials(), doCreateShapes(), doCreateShapeIndices(), doCreateTextures(), this.lights, this.materials, this.shapes, this.textures);
+			final List<Texture> textures = doGetTextures();
+			
+			return new Scene(BoundingVolumeHierarchy.create(this.shapes), this.camera, doCreateLights(), doCreateMaterials(), doCreateShapes(), doCreateShapeIndices(), doCreateTextures(textures), this.lights, this.materials, this.shapes, textures, PackedShapes.create(this.shapes));
 		}
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -427,31 +978,253 @@ public final class Scene {
 			return shapeIndices;
 		}
 		
-		private int[] doCreateTextures() {
+		private int[] doCreateTextures(final List<Texture> textures) {
 			int length = 0;
 			int offset = 0;
 			
-			for(final Texture texture : this.textures) {
+			for(final Texture texture : textures) {
 				length += texture.size();
 			}
 			
 			final int[] array0 = new int[length];
 			
-			for(final Texture texture : this.textures) {
-				final int[] array1 = texture.toIntArray();
+			final List<CompletableFuture<Void>> futures = new ArrayList<>();
+			
+//			Create the mip chains and formats of the textures concurrently, as each one is copied to its own part of the texture atlas:
+			for(final Texture texture : textures) {
+				final int textureOffset = offset;
 				
-				System.arraycopy(array1, 0, array0, offset, array1.length);
+				futures.add(CompletableFuture.runAsync(() -> {
+					final int[] array1 = texture.toIntArray();
+					
+					System.arraycopy(array1, 0, array0, textureOffset, array1.length);
+				}, this.executor));
 				
-				offset += array1.length;
+				offset += texture.size();
+			}
+			
+			for(final CompletableFuture<Void> future : futures) {
+				doJoin(future);
 			}
 			
 			return array0;
 		}
+		
+		private List<Texture> doGetTextures() {
+			final List<Texture> textures = new ArrayList<>();
+			
+			for(final CompletableFuture<Texture> future : this.textures) {
+				textures.add(doJoin(future));
+			}
+			
+			return textures;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static <T> T doJoin(final CompletableFuture<T> future) {
+			try {
+				return future.join();
+			} catch(final CompletionException e) {
+				final Throwable cause = e.getCause();
+				
+				if(cause instanceof RuntimeException) {
+					throw RuntimeException.class.cast(cause);
+				}
+				
+				if(cause instanceof Error) {
+					throw Error.class.cast(cause);
+				}
+				
+				throw e;
+			}
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	private static float[] doReadMappedFloats(final FileChannel fileChannel, final long offset, final long length) throws IOException {
+		final float[] array = new float[doRequireValidLength(length)];
+		
+		for(int i = 0; i < array.length; i += MAPPED_CHUNK_LENGTH) {
+			final int chunkLength = Math.min(array.length - i, MAPPED_CHUNK_LENGTH);
+			
+			fileChannel.map(MapMode.READ_ONLY, offset + i * 4L, chunkLength * 4L).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(array, i, chunkLength);
+		}
+		
+		return array;
+	}
+	
 	private static int doRandom(final int bound) {
 		return ThreadLocalRandom.current().nextInt(bound);
 	}
+	
+	private static int doRequireValidLength(final long length) {
+		if(length < 0L || length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(String.format("Illegal length: %s", Long.toString(length)));
+		}
+		
+		return (int)(length);
+	}
+	
+	private static int[] doCreateShapeIndices(final float[] shapesAsArray) {
+		int shapeCount = 0;
+		
+		for(int i = 0; i < shapesAsArray.length; i += (int)(shapesAsArray[i + Shape.RELATIVE_OFFSET_OF_SIZE])) {
+			shapeCount++;
+		}
+		
+		final int[] shapeIndices = new int[shapeCount];
+		
+		for(int i = 0, j = 0; i < shapesAsArray.length; i += (int)(shapesAsArray[i + Shape.RELATIVE_OFFSET_OF_SIZE]), j++) {
+			shapeIndices[j] = i;
+		}
+		
+		return shapeIndices;
+	}
+	
+	private static int[] doReadMappedInts(final FileChannel fileChannel, final long offset, final long length) throws IOException {
+		final int[] array = new int[doRequireValidLength(length)];
+		
+		for(int i = 0; i < array.length; i += MAPPED_CHUNK_LENGTH) {
+			final int chunkLength = Math.min(array.length - i, MAPPED_CHUNK_LENGTH);
+			
+			fileChannel.map(MapMode.READ_ONLY, offset + i * 4L, chunkLength * 4L).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(array, i, chunkLength);
+		}
+		
+		return array;
+	}
+	
+	private static List<Light> doCreateLightsAsList(final float[] lightsAsArray) {
+		final List<Light> lights = new ArrayList<>();
+		
+		for(int i = 0; i < lightsAsArray.length; i += (int)(lightsAsArray[i + Light.RELATIVE_OFFSET_OF_SIZE])) {
+			if(lightsAsArray[i + Light.RELATIVE_OFFSET_OF_TYPE] == PointLight.TYPE) {
+				lights.add(new PointLight(lightsAsArray[i + PointLight.RELATIVE_OFFSET_OF_POSITION + 0], lightsAsArray[i + PointLight.RELATIVE_OFFSET_OF_POSITION + 1], lightsAsArray[i + PointLight.RELATIVE_OFFSET_OF_POSITION + 2], lightsAsArray[i + PointLight.RELATIVE_OFFSET_OF_DISTANCE_FALLOFF]));
+			}
+		}
+		
+		return lights;
+	}
+	
+	private static List<Material> doCreateMaterialsAsList(final float[] materialsAsArray) {
+		final List<Material> materials = new ArrayList<>();
+		
+		for(int i = 0; i < materialsAsArray.length; i += (int)(materialsAsArray[i + Material.RELATIVE_OFFSET_OF_SIZE])) {
+			final float[] textureOffsets = new float[(int)(materialsAsArray[i + Material.RELATIVE_OFFSET_OF_TEXTURE_COUNT])];
+			
+			System.arraycopy(materialsAsArray, i + Material.RELATIVE_OFFSET_OF_TEXTURE_COUNT + 1, textureOffsets, 0, textureOffsets.length);
+			
+			final
+			Material material = new Material();
+			material.setAmbientColor(materialsAsArray[i + Material.RELATIVE_OFFSET_OF_AMBIENT_COLOR + 0], materialsAsArray[i + Material.RELATIVE_OFFSET_OF_AMBIENT_COLOR + 1], materialsAsArray[i + Material.RELATIVE_OFFSET_OF_AMBIENT_COLOR + 2], materialsAsArray[i + Material.RELATIVE_OFFSET_OF_AMBIENT_COLOR + 3]);
+			material.setAmbientIntensity(materialsAsArray[i + Material.RELATIVE_OFFSET_OF_AMBIENT_INTENSITY]);
+			material.setDiffuseColor(materialsAsArray[i + Material.RELATIVE_OFFSET_OF_DIFFUSE_COLOR + 0], materialsAsArray[i + Material.RELATIVE_OFFSET_OF_DIFFUSE_COLOR + 1], materialsAsArray[i + Material.RELATIVE_OFFSET_OF_DIFFUSE_COLOR + 2], materialsAsArray[i + Material.RELATIVE_OFFSET_OF_DIFFUSE_COLOR + 3]);
+			material.setDiffuseIntensity(materialsAsArray[i + Material.RELATIVE_OFFSET_OF_DIFFUSE_INTENSITY]);
+			material.setSpecularColor(materialsAsArray[i + Material.RELATIVE_OFFSET_OF_SPECULAR_COLOR + 0], materialsAsArray[i + Material.RELATIVE_OFFSET_OF_SPECULAR_COLOR + 1], materialsAsArray[i + Material.RELATIVE_OFFSET_OF_SPECULAR_COLOR + 2], materialsAsArray[i + Material.RELATIVE_OFFSET_OF_SPECULAR_COLOR + 3]);
+			material.setSpecularIntensity(materialsAsArray[i + Material.RELATIVE_OFFSET_OF_SPECULAR_INTENSITY]);
+			material.setSpecularPower(materialsAsArray[i + Material.RELATIVE_OFFSET_OF_SPECULAR_POWER]);
+			material.setReflection(materialsAsArray[i + Material.RELATIVE_OFFSET_OF_REFLECTION]);
+			material.setRefraction(materialsAsArray[i + Material.RELATIVE_OFFSET_OF_REFRACTION]);
+			material.setTextureOffsets(textureOffsets);
+			
+			materials.add(material);
+		}
+		
+		return materials;
+	}
+	
+	private static List<Shape> doCreateShapesAsList(final float[] shapesAsArray) {
+		final List<Shape> shapes = new ArrayList<>();
+		
+		for(int i = 0; i < shapesAsArray.length; i += (int)(shapesAsArray[i + Shape.RELATIVE_OFFSET_OF_SIZE])) {
+			final float type = shapesAsArray[i + Shape.RELATIVE_OFFSET_OF_TYPE];
+			final float materialOffset = shapesAsArray[i + Shape.RELATIVE_OFFSET_OF_MATERIAL_OFFSET];
+			
+			Shape shape = null;
+			
+			if(type == Plane.TYPE) {
+				shape = new Plane(materialOffset, shapesAsArray[i + Plane.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 0], shapesAsArray[i + Plane.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 1], shapesAsArray[i + Plane.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 2]);
+			} else if(type == Sphere.TYPE) {
+				shape = new Sphere(materialOffset, shapesAsArray[i + Sphere.RELATIVE_OFFSET_OF_POSITION + 0], shapesAsArray[i + Sphere.RELATIVE_OFFSET_OF_POSITION + 1], shapesAsArray[i + Sphere.RELATIVE_OFFSET_OF_POSITION + 2], shapesAsArray[i + Sphere.RELATIVE_OFFSET_OF_RADIUS]);
+			} else if(type == Triangle.TYPE) {
+				final float aX = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_A + 0];
+				final float aY = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_A + 1];
+				final float aZ = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_A + 2];
+				final float bX = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_B + 0];
+				final float bY = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_B + 1];
+				final float bZ = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_B + 2];
+				final float cX = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_C + 0];
+				final float cY = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_C + 1];
+				final float cZ = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_C + 2];
+				final float surfaceNormalX = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 0];
+				final float surfaceNormalY = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 1];
+				final float surfaceNormalZ = shapesAsArray[i + Triangle.RELATIVE_OFFSET_OF_SURFACE_NORMAL + 2];
+				
+				shape = new Triangle(materialOffset, aX, aY, aZ, bX, bY, bZ, cX, cY, cZ, surfaceNormalX, surfaceNormalY, surfaceNormalZ);
+			}
+			
+			if(shape == null) {
+				throw new IllegalArgumentException(String.format("Illegal shape type: %s", Float.toString(type)));
+			}
+			
+			shape.setIndex(i);
+			
+			shapes.add(shape);
+		}
+		
+		return shapes;
+	}
+	
+	private static List<Texture> doCreateTexturesAsList(final int[] texturesAsArray) {
+		final List<Texture> textures = new ArrayList<>();
+		
+		for(int i = 0; i < texturesAsArray.length; i += texturesAsArray[i + Texture.RELATIVE_OFFSET_OF_SIZE]) {
+			textures.add(Texture.fromIntArray(texturesAsArray, i));
+		}
+		
+		return textures;
+	}
+	
+	private static long doAlign(final long offset) {
+		return (offset + MAPPED_SECTION_ALIGNMENT - 1L) / MAPPED_SECTION_ALIGNMENT * MAPPED_SECTION_ALIGNMENT;
+	}
+	
+	private static void doReadMappedHeader(final FileChannel fileChannel, final long[] offsets, final long[] lengths) throws IOException {
+		final ByteBuffer header = fileChannel.map(MapMode.READ_ONLY, 0L, Math.min(fileChannel.size(), 4L + 4L + 4L + MAPPED_SECTION_COUNT * 16L)).order(ByteOrder.LITTLE_ENDIAN);
+		
+		final int magic = header.remaining() >= 12 ? header.getInt() : 0;
+		
+		if(magic != MAPPED_FORMAT_MAGIC) {
+			throw new IllegalArgumentException(String.format("Illegal magic number: %s", Integer.toHexString(magic)));
+		}
+		
+		final int version = header.getInt();
+		final int sectionCount = header.getInt();
+		
+		if(version != MAPPED_FORMAT_VERSION || sectionCount != MAPPED_SECTION_COUNT) {
+			throw new IllegalArgumentException(String.format("Illegal version: %s", Integer.toString(version)));
+		}
+		
+		for(int i = 0; i < MAPPED_SECTION_COUNT; i++) {
+			offsets[i] = header.getLong();
+			lengths[i] = header.getLong();
+		}
+	}
+	
+	private static void doWriteMapped(final FileChannel fileChannel, final long offset, final float[] array) throws IOException {
+		for(int i = 0; i < array.length; i += MAPPED_CHUNK_LENGTH) {
+			final int chunkLength = Math.min(array.length - i, MAPPED_CHUNK_LENGTH);
+			
+			fileChannel.map(MapMode.READ_WRITE, offset + i * 4L, chunkLength * 4L).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().put(array, i, chunkLength);
+		}
+	}
+	
+	private static void doWriteMapped(final FileChannel fileChannel, final long offset, final int[] array) throws IOException {
+		for(int i = 0; i < array.length; i += MAPPED_CHUNK_LENGTH) {
+			final int chunkLength = Math.min(array.length - i, MAPPED_CHUNK_LENGTH);
+			
+			fileChannel.map(MapMode.READ_WRITE, offset + i * 4L, chunkLength * 4L).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(array, i, chunkLength);
+		}
+	}
 }
\ No newline at end of file
@@ -53,6 +53,8 @@ public abstract class Shape {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	public abstract BoundingBox getBoundingBox();
+	
 	public final float getMaterialOffset() {
 		return this.materialOffset;
 	}
@@ -94,7 +96,7 @@ public abstract class Shape {
 				final float radius = dataInput.readFloat();
 				
 				return new Sphere(materialOffset, x, y, z, radius);
-			} else if(type == Triangle.TYPE && size == Triangle.SIZE) {
+			} else if(type == Triangle.TYPE && size == Triangle.SIZE_WRITTEN) {
 				final float aX = dataInput.readFloat();
 				final float aY = dataInput.readFloat();
 				final float aZ = dataInput.readFloat();
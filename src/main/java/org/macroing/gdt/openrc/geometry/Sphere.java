@@ -49,6 +49,11 @@ public final class Sphere extends Shape {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	@Override
+	public BoundingBox getBoundingBox() {
+		return new BoundingBox(this.x - this.radius, this.y - this.radius, this.z - this.radius, this.x + this.radius, this.y + this.radius, this.z + this.radius);
+	}
+	
 	public float getRadius() {
 		return this.radius;
 	}
@@ -32,19 +32,65 @@ import java.io.UncheckedIOException;
 
 import javax.imageio.ImageIO;
 
+/**
+ * The values in the {@code int} array created by the {@code toIntArray()} method consists of the following:
+ * <ol>
+ * <li>Type</li>
+ * <li>Size</li>
+ * <li>Width</li>
+ * <li>Height</li>
+ * <li>Format</li>
+ * <li>Level count</li>
+ * <li>Level offsets ({@code MAXIMUM_LEVEL_COUNT} values)</li>
+ * <li>Data of all levels</li>
+ * </ol>
+ * <p>
+ * The levels form a mip chain, where level {@code 0} is the original data and each following level is half the width and height of the previous one, down to {@code 1} by {@code 1} texels. Each texel of a level is the average of
+ * the up to four texels it covers in the previous level. The level offsets are relative to the offset of the texture, so the data of level {@code 0} starts at {@code RELATIVE_OFFSET_OF_DATA}.
+ * <p>
+ * The type is one of {@code TYPE_DECAL}, {@code TYPE_NORMAL_MAP} and {@code TYPE_SOLID}, and the format tells how the texels of the levels are stored:
+ * <ul>
+ * <li>{@code FORMAT_RGB} - One texel per {@code int}, as {@code 0xRRGGBB}.</li>
+ * <li>{@code FORMAT_RGB565} - Two texels per {@code int}, with 5 bits for R, 6 bits for G and 5 bits for B. The texel with the even index is stored in the lower 16 bits.</li>
+ * <li>{@code FORMAT_XY} - Two texels per {@code int}, with 8 bits for each of X (R) and Y (G) of a normal map, where Z (B) is reconstructed as the positive Z of the unit vector.</li>
+ * <li>{@code FORMAT_BLOCK_COMPRESSED} - Blocks of 4 by 4 texels in two {@code int} values each, which is similar to BC1 (DXT1). The first {@code int} holds two RGB565 endpoints, the first one in the lower 16 bits. The second
+ * one holds a 2-bit index per texel, in row-major order starting at the lowest bits, that selects the first endpoint, the second endpoint, or the colors one third and two thirds of the way from the first to the second.</li>
+ * </ul>
+ * <p>
+ * Each format is selected by a {@code TYPE_*} variant, such as {@code TYPE_SOLID_RGB565}, which is returned by {@link #getType()}. The mip chain is created from the full RGB-values before each level is converted to the format.
+ * <p>
+ * Only the data of level {@code 0} is written by the {@code write(DataOutput)} method, as RGB-values. The other levels, and the conversion to the format, are created again by the {@code toIntArray()} method.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
 public final class Texture {
-	public static final int RELATIVE_OFFSET_OF_DATA = 4;
+	public static final int FORMAT_BLOCK_COMPRESSED = 4;
+	public static final int FORMAT_RGB = 1;
+	public static final int FORMAT_RGB565 = 2;
+	public static final int FORMAT_XY = 3;
+	public static final int MAXIMUM_LEVEL_COUNT = 16;
+	public static final int RELATIVE_OFFSET_OF_DATA = 6 + MAXIMUM_LEVEL_COUNT;
+	public static final int RELATIVE_OFFSET_OF_FORMAT = 4;
 	public static final int RELATIVE_OFFSET_OF_HEIGHT = 3;
+	public static final int RELATIVE_OFFSET_OF_LEVEL_COUNT = 5;
+	public static final int RELATIVE_OFFSET_OF_LEVEL_OFFSETS = 6;
 	public static final int RELATIVE_OFFSET_OF_SIZE = 1;
 	public static final int RELATIVE_OFFSET_OF_TYPE = 0;
 	public static final int RELATIVE_OFFSET_OF_WIDTH = 2;
 	public static final int TYPE_DECAL = 2;
+	public static final int TYPE_DECAL_BLOCK_COMPRESSED = 8;
+	public static final int TYPE_DECAL_RGB565 = 5;
 	public static final int TYPE_NORMAL_MAP = 3;
+	public static final int TYPE_NORMAL_MAP_XY = 6;
 	public static final int TYPE_SOLID = 1;
+	public static final int TYPE_SOLID_BLOCK_COMPRESSED = 7;
+	public static final int TYPE_SOLID_RGB565 = 4;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private static final int SIZE = 1 + 1 + 1 + 1;
+	private static final int SIZE = 1 + 1 + 1 + 1 + 1 + 1 + MAXIMUM_LEVEL_COUNT;
+	private static final int SIZE_WRITTEN = 1 + 1 + 1 + 1;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -64,10 +110,34 @@ public final class Texture {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	/**
+	 * Returns the format of the texels of this {@code Texture} in the {@code int} array created by {@link #toIntArray()}, which is given by its type.
+	 * 
+	 * @return the format of the texels of this {@code Texture} in the {@code int} array created by {@code toIntArray()}
+	 */
+	public int getFormat() {
+		return doGetFormat(this.type);
+	}
+	
 	public int getHeight() {
 		return this.height;
 	}
 	
+	/**
+	 * Returns the number of levels in the mip chain of this {@code Texture}, including level {@code 0}.
+	 * 
+	 * @return the number of levels in the mip chain of this {@code Texture}, including level {@code 0}
+	 */
+	public int getLevelCount() {
+		int levelCount = 1;
+		
+		while(levelCount < MAXIMUM_LEVEL_COUNT && (this.width >> levelCount > 0 || this.height >> levelCount > 0)) {
+			levelCount++;
+		}
+		
+		return levelCount;
+	}
+	
 	public int getType() {
 		return this.type;
 	}
@@ -76,24 +146,69 @@ public final class Texture {
 		return this.width;
 	}
 	
+	/**
+	 * Returns the size of the {@code int} array created by {@link #toIntArray()}, which includes all levels of the mip chain.
+	 * 
+	 * @return the size of the {@code int} array created by {@code toIntArray()}
+	 */
 	public int size() {
-		return SIZE + this.data.length;
+		int size = SIZE;
+		
+		for(int level = 0; level < getLevelCount(); level++) {
+			size += doGetLevelSize(getFormat(), doGetLevelWidth(this.width, level), doGetLevelHeight(this.height, level));
+		}
+		
+		return size;
 	}
 	
+	/**
+	 * Returns the number of {@code int} values written by {@link #write(DataOutput)}, which only includes level {@code 0} of the mip chain.
+	 * 
+	 * @return the number of {@code int} values written by {@code write(DataOutput)}
+	 */
+	public int sizeWritten() {
+		return SIZE_WRITTEN + this.data.length;
+	}
+	
+	/**
+	 * Returns the data of level {@code 0}, as RGB-values regardless of the format.
+	 * 
+	 * @return the data of level {@code 0}
+	 */
 	public int[] getData() {
 		return this.data;
 	}
 	
 	public int[] toIntArray() {
+		final int format = getFormat();
+		final int levelCount = getLevelCount();
+		
 		final int[] array = new int[size()];
 		
-		array[0] = getType();
-		array[1] = size();
-		array[2] = getWidth();
-		array[3] = getHeight();
+		array[RELATIVE_OFFSET_OF_TYPE] = doGetBaseType(this.type);
+		array[RELATIVE_OFFSET_OF_SIZE] = size();
+		array[RELATIVE_OFFSET_OF_WIDTH] = getWidth();
+		array[RELATIVE_OFFSET_OF_HEIGHT] = getHeight();
+		array[RELATIVE_OFFSET_OF_FORMAT] = format;
+		array[RELATIVE_OFFSET_OF_LEVEL_COUNT] = levelCount;
+		
+		for(int level = 0, levelOffset = RELATIVE_OFFSET_OF_DATA; level < levelCount; level++) {
+			array[RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level] = levelOffset;
+			
+			levelOffset += doGetLevelSize(format, doGetLevelWidth(this.width, level), doGetLevelHeight(this.height, level));
+		}
+		
+		int[] levelData = this.data;
 		
-		for(int i = 0; i < this.data.length; i++) {
-			array[i + 4] = this.data[i];
+		for(int level = 0; level < levelCount; level++) {
+			final int levelWidth = doGetLevelWidth(this.width, level);
+			final int levelHeight = doGetLevelHeight(this.height, level);
+			
+			if(level > 0) {
+				levelData = doCreateLevelData(levelData, doGetLevelWidth(this.width, level - 1), doGetLevelHeight(this.height, level - 1), levelWidth, levelHeight);
+			}
+			
+			doEncodeLevel(levelData, levelWidth, levelHeight, format, array, array[RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level]);
 		}
 		
 		return array;
@@ -102,7 +217,7 @@ public final class Texture {
 	public void write(final DataOutput dataOutput) {
 		try {
 			dataOutput.writeInt(getType());
-			dataOutput.writeInt(size());
+			dataOutput.writeInt(sizeWritten());
 			dataOutput.writeInt(getWidth());
 			dataOutput.writeInt(getHeight());
 			
@@ -165,6 +280,24 @@ public final class Texture {
 		}
 	}
 	
+	public static Texture createTexture(final int type) {
+		return new Texture(1, 1, doRequireValidType(type), new int[] {255});
+	}
+	
+	public static Texture createTexture(final int type, final InputStream inputStream) {
+		return doCreateTexture(doRequireValidType(type), inputStream);
+	}
+	
+	public static Texture createTexture(final int type, final String name) {
+		doRequireValidType(type);
+		
+		try {
+			return createTexture(type, Texture.class.getResourceAsStream(name));
+		} catch(final Exception e) {
+			return Texture.createTexture(type);
+		}
+	}
+	
 	public static Texture read(final DataInput dataInput) {
 		try {
 			final int type = dataInput.readInt();
@@ -172,7 +305,7 @@ public final class Texture {
 			final int width = dataInput.readInt();
 			final int height = dataInput.readInt();
 			
-			final int[] data = new int[size - 4];
+			final int[] data = new int[size - SIZE_WRITTEN];
 			
 			for(int i = 0; i < data.length; i++) {
 				data[i] = dataInput.readInt();
@@ -186,6 +319,165 @@ public final class Texture {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	/**
+	 * Returns a new {@code Texture} from the texture at {@code textureOffset} in {@code textures}, as created by {@link #toIntArray()}.
+	 * <p>
+	 * The data of the new {@code Texture} is decoded from level {@code 0}, so it is only equal to the original data if the format is {@code FORMAT_RGB}.
+	 * 
+	 * @param textures the {@code int} array with the texture
+	 * @param textureOffset the offset of the texture in {@code textures}
+	 * @return a new {@code Texture} from the texture at {@code textureOffset} in {@code textures}
+	 * @throws IllegalArgumentException thrown if, and only if, the type or format of the texture is not valid
+	 */
+	static Texture fromIntArray(final int[] textures, final int textureOffset) {
+		final int width = textures[textureOffset + RELATIVE_OFFSET_OF_WIDTH];
+		final int height = textures[textureOffset + RELATIVE_OFFSET_OF_HEIGHT];
+		final int type = doGetType(textures[textureOffset + RELATIVE_OFFSET_OF_TYPE], textures[textureOffset + RELATIVE_OFFSET_OF_FORMAT]);
+		
+		final int[] data = new int[width * height];
+		
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				data[y * width + x] = getTexel(textures, textureOffset, 0, x, y);
+			}
+		}
+		
+		return new Texture(width, height, type, data);
+	}
+	
+	/**
+	 * Returns the RGB-value of the texel at {@code x} and {@code y} in level {@code level} of the texture at {@code textureOffset} in {@code textures}, as the average of the up to four texels it covers in level {@code level - 1}.
+	 * <p>
+	 * The header of the texture, including its level offsets, has to be written to {@code textures} already, as has level {@code level - 1}.
+	 * 
+	 * @param textures the {@code int} array with the texture
+	 * @param textureOffset the offset of the texture in {@code textures}
+	 * @param level the level of the texel, which is at least {@code 1}
+	 * @param x the X-coordinate of the texel
+	 * @param y the Y-coordinate of the texel
+	 * @return the RGB-value of the texel at {@code x} and {@code y} in level {@code level}
+	 */
+	static int filter(final int[] textures, final int textureOffset, final int level, final int x, final int y) {
+		final int previousLevelWidth = doGetLevelWidth(textures[textureOffset + RELATIVE_OFFSET_OF_WIDTH], level - 1);
+		final int previousLevelHeight = doGetLevelHeight(textures[textureOffset + RELATIVE_OFFSET_OF_HEIGHT], level - 1);
+		final int previousX0 = Math.min(x * 2 + 0, previousLevelWidth - 1);
+		final int previousX1 = Math.min(x * 2 + 1, previousLevelWidth - 1);
+		final int previousY0 = Math.min(y * 2 + 0, previousLevelHeight - 1);
+		final int previousY1 = Math.min(y * 2 + 1, previousLevelHeight - 1);
+		
+		final int rGB0 = getTexel(textures, textureOffset, level - 1, previousX0, previousY0);
+		final int rGB1 = getTexel(textures, textureOffset, level - 1, previousX1, previousY0);
+		final int rGB2 = getTexel(textures, textureOffset, level - 1, previousX0, previousY1);
+		final int rGB3 = getTexel(textures, textureOffset, level - 1, previousX1, previousY1);
+		
+		return doAverage(rGB0, rGB1, rGB2, rGB3);
+	}
+	
+	/**
+	 * Returns the RGB-value of the texel at {@code x} and {@code y} in level {@code level} of the texture at {@code textureOffset} in {@code textures}, decoded from the format of the texture.
+	 * 
+	 * @param textures the {@code int} array with the texture
+	 * @param textureOffset the offset of the texture in {@code textures}
+	 * @param level the level of the texel
+	 * @param x the X-coordinate of the texel
+	 * @param y the Y-coordinate of the texel
+	 * @return the RGB-value of the texel at {@code x} and {@code y} in level {@code level}
+	 */
+	static int getTexel(final int[] textures, final int textureOffset, final int level, final int x, final int y) {
+		final int format = textures[textureOffset + RELATIVE_OFFSET_OF_FORMAT];
+		final int index = getTexelIndex(textures, textureOffset, level, x, y);
+		final int levelWidth = doGetLevelWidth(textures[textureOffset + RELATIVE_OFFSET_OF_WIDTH], level);
+		
+		switch(format) {
+			case FORMAT_BLOCK_COMPRESSED:
+				return doDecodeBlockCompressed(textures[index + 0], textures[index + 1], (y & 3) * 4 + (x & 3));
+			case FORMAT_RGB565:
+				return doDecodeRGB565((textures[index] >>> (((y * levelWidth + x) & 1) * 16)) & 0xFFFF);
+			case FORMAT_XY:
+				return doDecodeXY((textures[index] >>> (((y * levelWidth + x) & 1) * 16)) & 0xFFFF);
+			default:
+				return textures[index];
+		}
+	}
+	
+	/**
+	 * Returns the index in {@code textures} of the first {@code int} that stores the texel at {@code x} and {@code y} in level {@code level} of the texture at {@code textureOffset}.
+	 * <p>
+	 * The number of {@code int} values that store the texel is returned by {@link #getTexelLength(int[], int)}.
+	 * 
+	 * @param textures the {@code int} array with the texture
+	 * @param textureOffset the offset of the texture in {@code textures}
+	 * @param level the level of the texel
+	 * @param x the X-coordinate of the texel
+	 * @param y the Y-coordinate of the texel
+	 * @return the index in {@code textures} of the first {@code int} that stores the texel at {@code x} and {@code y} in level {@code level}
+	 */
+	static int getTexelIndex(final int[] textures, final int textureOffset, final int level, final int x, final int y) {
+		final int format = textures[textureOffset + RELATIVE_OFFSET_OF_FORMAT];
+		final int levelOffset = textureOffset + textures[textureOffset + RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level];
+		final int levelWidth = doGetLevelWidth(textures[textureOffset + RELATIVE_OFFSET_OF_WIDTH], level);
+		
+		switch(format) {
+			case FORMAT_BLOCK_COMPRESSED:
+				return levelOffset + ((y / 4) * ((levelWidth + 3) / 4) + x / 4) * 2;
+			case FORMAT_RGB565:
+			case FORMAT_XY:
+				return levelOffset + (y * levelWidth + x) / 2;
+			default:
+				return levelOffset + y * levelWidth + x;
+		}
+	}
+	
+	/**
+	 * Returns the number of {@code int} values that store a texel of the texture at {@code textureOffset} in {@code textures}, starting at the index returned by {@link #getTexelIndex(int[], int, int, int, int)}.
+	 * 
+	 * @param textures the {@code int} array with the texture
+	 * @param textureOffset the offset of the texture in {@code textures}
+	 * @return the number of {@code int} values that store a texel of the texture at {@code textureOffset}
+	 */
+	static int getTexelLength(final int[] textures, final int textureOffset) {
+		return textures[textureOffset + RELATIVE_OFFSET_OF_FORMAT] == FORMAT_BLOCK_COMPRESSED ? 2 : 1;
+	}
+	
+	/**
+	 * Sets the texel at {@code x} and {@code y} in level {@code level} of the texture at {@code textureOffset} in {@code textures} to {@code rGB}, encoded in the format of the texture.
+	 * <p>
+	 * If the format is {@code FORMAT_BLOCK_COMPRESSED}, the whole block of the texel is encoded again.
+	 * 
+	 * @param textures the {@code int} array with the texture
+	 * @param textureOffset the offset of the texture in {@code textures}
+	 * @param level the level of the texel
+	 * @param x the X-coordinate of the texel
+	 * @param y the Y-coordinate of the texel
+	 * @param rGB the RGB-value of the texel
+	 */
+	static void setTexel(final int[] textures, final int textureOffset, final int level, final int x, final int y, final int rGB) {
+		final int format = textures[textureOffset + RELATIVE_OFFSET_OF_FORMAT];
+		final int index = getTexelIndex(textures, textureOffset, level, x, y);
+		final int levelWidth = doGetLevelWidth(textures[textureOffset + RELATIVE_OFFSET_OF_WIDTH], level);
+		final int shift = ((y * levelWidth + x) & 1) * 16;
+		
+		if(format == FORMAT_BLOCK_COMPRESSED) {
+			final int[] block = new int[16];
+			
+			for(int i = 0; i < block.length; i++) {
+				block[i] = doDecodeBlockCompressed(textures[index + 0], textures[index + 1], i);
+			}
+			
+			block[(y & 3) * 4 + (x & 3)] = rGB;
+			
+			doEncodeBlockCompressed(block, textures, index);
+		} else if(format == FORMAT_RGB565) {
+			textures[index] = (textures[index] & ~(0xFFFF << shift)) | (doEncodeRGB565(rGB) << shift);
+		} else if(format == FORMAT_XY) {
+			textures[index] = (textures[index] & ~(0xFFFF << shift)) | (doEncodeXY(rGB) << shift);
+		} else {
+			textures[index] = rGB;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
 	private static BufferedImage doCreateBufferedImageFrom(final InputStream inputStream) {
 		try(final BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream)) {
 			BufferedImage bufferedImage0 = ImageIO.read(bufferedInputStream);
@@ -207,6 +499,157 @@ public final class Texture {
 		}
 	}
 	
+	private static int doAverage(final int rGB0, final int rGB1, final int rGB2, final int rGB3) {
+		final int r = (((rGB0 >> 16) & 0xFF) + ((rGB1 >> 16) & 0xFF) + ((rGB2 >> 16) & 0xFF) + ((rGB3 >> 16) & 0xFF) + 2) / 4;
+		final int g = (((rGB0 >> 8) & 0xFF) + ((rGB1 >> 8) & 0xFF) + ((rGB2 >> 8) & 0xFF) + ((rGB3 >> 8) & 0xFF) + 2) / 4;
+		final int b = (((rGB0 >> 0) & 0xFF) + ((rGB1 >> 0) & 0xFF) + ((rGB2 >> 0) & 0xFF) + ((rGB3 >> 0) & 0xFF) + 2) / 4;
+		
+		return (r << 16) | (g << 8) | (b << 0);
+	}
+	
+	private static int doDecodeBlockCompressed(final int endpoints, final int indices, final int texelIndex) {
+		final int rGB0 = doDecodeRGB565(endpoints & 0xFFFF);
+		final int rGB1 = doDecodeRGB565((endpoints >>> 16) & 0xFFFF);
+		
+//		The index selects the weight of the first endpoint, in thirds:
+		final int index = (indices >>> (texelIndex * 2)) & 3;
+		final int weight = index == 0 ? 3 : index == 1 ? 0 : index == 2 ? 2 : 1;
+		
+		final int r = (((rGB0 >> 16) & 0xFF) * weight + ((rGB1 >> 16) & 0xFF) * (3 - weight) + 1) / 3;
+		final int g = (((rGB0 >> 8) & 0xFF) * weight + ((rGB1 >> 8) & 0xFF) * (3 - weight) + 1) / 3;
+		final int b = (((rGB0 >> 0) & 0xFF) * weight + ((rGB1 >> 0) & 0xFF) * (3 - weight) + 1) / 3;
+		
+		return (r << 16) | (g << 8) | (b << 0);
+	}
+	
+	private static int doDecodeRGB565(final int bits) {
+		final int r = (bits >> 11) & 0x1F;
+		final int g = (bits >> 5) & 0x3F;
+		final int b = (bits >> 0) & 0x1F;
+		
+		return (((r << 3) | (r >> 2)) << 16) | (((g << 2) | (g >> 4)) << 8) | (((b << 3) | (b >> 2)) << 0);
+	}
+	
+	private static int doDecodeXY(final int bits) {
+		final int r = (bits >> 8) & 0xFF;
+		final int g = (bits >> 0) & 0xFF;
+		
+		final float x = r * (2.0F / 255.0F) - 1.0F;
+		final float y = g * (2.0F / 255.0F) - 1.0F;
+		final float z = (float)(Math.sqrt(Math.max(1.0F - x * x - y * y, 0.0F)));
+		
+		final int b = (int)((z * 0.5F + 0.5F) * 255.0F + 0.5F);
+		
+		return (r << 16) | (g << 8) | (b << 0);
+	}
+	
+	private static int doEncodeRGB565(final int rGB) {
+		final int r = (((rGB >> 16) & 0xFF) * 31 + 127) / 255;
+		final int g = (((rGB >> 8) & 0xFF) * 63 + 127) / 255;
+		final int b = (((rGB >> 0) & 0xFF) * 31 + 127) / 255;
+		
+		return (r << 11) | (g << 5) | (b << 0);
+	}
+	
+	private static int doEncodeXY(final int rGB) {
+		return (((rGB >> 16) & 0xFF) << 8) | (((rGB >> 8) & 0xFF) << 0);
+	}
+	
+	private static int doGetBaseType(final int type) {
+		switch(type) {
+			case TYPE_DECAL:
+			case TYPE_DECAL_BLOCK_COMPRESSED:
+			case TYPE_DECAL_RGB565:
+				return TYPE_DECAL;
+			case TYPE_NORMAL_MAP:
+			case TYPE_NORMAL_MAP_XY:
+				return TYPE_NORMAL_MAP;
+			case TYPE_SOLID:
+			case TYPE_SOLID_BLOCK_COMPRESSED:
+			case TYPE_SOLID_RGB565:
+				return TYPE_SOLID;
+			default:
+				throw new IllegalArgumentException(String.format("Illegal type: %s", Integer.toString(type)));
+		}
+	}
+	
+	private static int doGetFormat(final int type) {
+		switch(type) {
+			case TYPE_DECAL:
+			case TYPE_NORMAL_MAP:
+			case TYPE_SOLID:
+				return FORMAT_RGB;
+			case TYPE_DECAL_BLOCK_COMPRESSED:
+			case TYPE_SOLID_BLOCK_COMPRESSED:
+				return FORMAT_BLOCK_COMPRESSED;
+			case TYPE_DECAL_RGB565:
+			case TYPE_SOLID_RGB565:
+				return FORMAT_RGB565;
+			case TYPE_NORMAL_MAP_XY:
+				return FORMAT_XY;
+			default:
+				throw new IllegalArgumentException(String.format("Illegal type: %s", Integer.toString(type)));
+		}
+	}
+	
+	private static int doGetLevelHeight(final int height, final int level) {
+		return Math.max(height >> level, 1);
+	}
+	
+	private static int doGetLevelSize(final int format, final int levelWidth, final int levelHeight) {
+		switch(format) {
+			case FORMAT_BLOCK_COMPRESSED:
+				return ((levelWidth + 3) / 4) * ((levelHeight + 3) / 4) * 2;
+			case FORMAT_RGB565:
+			case FORMAT_XY:
+				return (levelWidth * levelHeight + 1) / 2;
+			default:
+				return levelWidth * levelHeight;
+		}
+	}
+	
+	private static int doGetLevelWidth(final int width, final int level) {
+		return Math.max(width >> level, 1);
+	}
+	
+	private static int doGetType(final int baseType, final int format) {
+		for(int type = TYPE_SOLID; type <= TYPE_DECAL_BLOCK_COMPRESSED; type++) {
+			if(doGetBaseType(type) == baseType && doGetFormat(type) == format) {
+				return type;
+			}
+		}
+		
+		throw new IllegalArgumentException(String.format("Illegal type and format: %s, %s", Integer.toString(baseType), Integer.toString(format)));
+	}
+	
+	private static int doRequireValidType(final int type) {
+		doGetFormat(type);
+		
+		return type;
+	}
+	
+	private static int[] doCreateLevelData(final int[] previousLevelData, final int previousLevelWidth, final int previousLevelHeight, final int levelWidth, final int levelHeight) {
+		final int[] levelData = new int[levelWidth * levelHeight];
+		
+		for(int y = 0; y < levelHeight; y++) {
+			for(int x = 0; x < levelWidth; x++) {
+				final int previousX0 = Math.min(x * 2 + 0, previousLevelWidth - 1);
+				final int previousX1 = Math.min(x * 2 + 1, previousLevelWidth - 1);
+				final int previousY0 = Math.min(y * 2 + 0, previousLevelHeight - 1);
+				final int previousY1 = Math.min(y * 2 + 1, previousLevelHeight - 1);
+				
+				final int rGB0 = previousLevelData[previousY0 * previousLevelWidth + previousX0];
+				final int rGB1 = previousLevelData[previousY0 * previousLevelWidth + previousX1];
+				final int rGB2 = previousLevelData[previousY1 * previousLevelWidth + previousX0];
+				final int rGB3 = previousLevelData[previousY1 * previousLevelWidth + previousX1];
+				
+				levelData[y * levelWidth + x] = doAverage(rGB0, rGB1, rGB2, rGB3);
+			}
+		}
+		
+		return levelData;
+	}
+	
 	private static int[] doGetDataFrom(final BufferedImage bufferedImage) {
 		final WritableRaster writableRaster = bufferedImage.getRaster();
 		
@@ -219,6 +662,101 @@ public final class Texture {
 		return data;
 	}
 	
+	private static void doEncodeBlockCompressed(final int[] block, final int[] array, final int offset) {
+		int minimumR = 255;
+		int minimumG = 255;
+		int minimumB = 255;
+		int maximumR = 0;
+		int maximumG = 0;
+		int maximumB = 0;
+		int sumR = 0;
+		int sumG = 0;
+		int sumB = 0;
+		
+		for(final int rGB : block) {
+			final int r = (rGB >> 16) & 0xFF;
+			final int g = (rGB >> 8) & 0xFF;
+			final int b = (rGB >> 0) & 0xFF;
+			
+			minimumR = Math.min(minimumR, r);
+			minimumG = Math.min(minimumG, g);
+			minimumB = Math.min(minimumB, b);
+			maximumR = Math.max(maximumR, r);
+			maximumG = Math.max(maximumG, g);
+			maximumB = Math.max(maximumB, b);
+			sumR += r;
+			sumG += g;
+			sumB += b;
+		}
+		
+		long covarianceRG = 0L;
+		long covarianceRB = 0L;
+		
+		for(final int rGB : block) {
+			final int r = ((rGB >> 16) & 0xFF) * block.length - sumR;
+			final int g = ((rGB >> 8) & 0xFF) * block.length - sumG;
+			final int b = ((rGB >> 0) & 0xFF) * block.length - sumB;
+			
+			covarianceRG += r * g;
+			covarianceRB += r * b;
+		}
+		
+//		Use the diagonal of the bounding box of the colors that follows their correlation, such that the endpoints span the colors along a line:
+		final int endpoint0 = doEncodeRGB565((maximumR << 16) | ((covarianceRG < 0L ? minimumG : maximumG) << 8) | ((covarianceRB < 0L ? minimumB : maximumB) << 0));
+		final int endpoint1 = doEncodeRGB565((minimumR << 16) | ((covarianceRG < 0L ? maximumG : minimumG) << 8) | ((covarianceRB < 0L ? maximumB : minimumB) << 0));
+		final int endpoints = endpoint0 | (endpoint1 << 16);
+		
+		int indices = 0;
+		
+		for(int i = 0; i < block.length; i++) {
+			int closestIndex = 0;
+			int closestDistance = Integer.MAX_VALUE;
+			
+			for(int index = 0; index < 4; index++) {
+				final int rGB = doDecodeBlockCompressed(endpoints, index * 0x55555555, 0);
+				
+				final int r = ((rGB >> 16) & 0xFF) - ((block[i] >> 16) & 0xFF);
+				final int g = ((rGB >> 8) & 0xFF) - ((block[i] >> 8) & 0xFF);
+				final int b = ((rGB >> 0) & 0xFF) - ((block[i] >> 0) & 0xFF);
+				
+				final int distance = r * r + g * g + b * b;
+				
+				if(distance < closestDistance) {
+					closestIndex = index;
+					closestDistance = distance;
+				}
+			}
+			
+			indices |= closestIndex << (i * 2);
+		}
+		
+		array[offset + 0] = endpoints;
+		array[offset + 1] = indices;
+	}
+	
+	private static void doEncodeLevel(final int[] levelData, final int levelWidth, final int levelHeight, final int format, final int[] array, final int levelOffset) {
+		if(format == FORMAT_BLOCK_COMPRESSED) {
+			final int[] block = new int[16];
+			
+			for(int blockY = 0, blockOffset = levelOffset; blockY < levelHeight; blockY += 4) {
+				for(int blockX = 0; blockX < levelWidth; blockX += 4, blockOffset += 2) {
+//					The texels outside of the level repeat the last column or row, so they do not affect the endpoints:
+					for(int i = 0; i < block.length; i++) {
+						block[i] = levelData[Math.min(blockY + i / 4, levelHeight - 1) * levelWidth + Math.min(blockX + i % 4, levelWidth - 1)];
+					}
+					
+					doEncodeBlockCompressed(block, array, blockOffset);
+				}
+			}
+		} else if(format == FORMAT_RGB565 || format == FORMAT_XY) {
+			for(int i = 0; i < levelData.length; i++) {
+				array[levelOffset + i / 2] |= (format == FORMAT_RGB565 ? doEncodeRGB565(levelData[i]) : doEncodeXY(levelData[i])) << ((i & 1) * 16);
+			}
+		} else {
+			System.arraycopy(levelData, 0, array, levelOffset, levelData.length);
+		}
+	}
+	
 	private static Texture doCreateTexture(final int type, final InputStream inputStream) {
 		final BufferedImage bufferedImage = doCreateBufferedImageFrom(inputStream);
 		
@@ -0,0 +1,661 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.geometry;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * A {@code TextureCache} keeps a bounded part of the textures of a {@link Scene} resident, for virtual texturing.
+ * <p>
+ * Each level of the mip chain of a texture is split into pages of {@code PAGE_SIZE} by {@code PAGE_SIZE} texels, and each page of every texture has a unique ID. The pages that are resident are stored in a fixed number of slots of
+ * {@code SLOT_SIZE} {@code int} values each, and they are found by a hashed page table with a fixed number of entries, which is the smallest power of two that is at least twice the number of slots. So the memory used by the pages
+ * and the page table is bounded by the number of slots, regardless of how much texture content the {@code Scene} references. The only part that scales with the {@code Scene} is a virtual texture of {@code VIRTUAL_TEXTURE_SIZE}
+ * {@code int} values per texture, like the materials do. The {@code int} array returned by the {@code getTexturesAsArray()} method consists of the following:
+ * <ol>
+ * <li>Page table[Page Table Length * PAGE_TABLE_ENTRY_SIZE]</li>
+ * <li>Slots[Slot Count * SLOT_SIZE]</li>
+ * <li>Virtual textures[Texture Count * VIRTUAL_TEXTURE_SIZE]</li>
+ * </ol>
+ * <p>
+ * A page table entry of {@code PAGE_TABLE_ENTRY_SIZE} {@code int} values is the ID of a resident page, followed by the absolute offset of the slot it is stored in, or {@code -1} if the entry is empty. The entry of a page is found
+ * by linear probing, starting at the entry given by a hash of its ID.
+ * <p>
+ * A virtual texture has the same header as a {@link Texture}, except that {@code FORMAT_FLAG_VIRTUAL} is set in its format and its level offsets are the IDs of the first pages of the levels, where the pages of a level are in
+ * row-major order. The header is followed by these values:
+ * <ul>
+ * <li>{@code RELATIVE_OFFSET_OF_TEXTURE_OFFSET} - The offset of the texture in the {@code int} array of the {@code Scene}, or in the {@code Scene} file.</li>
+ * <li>{@code RELATIVE_OFFSET_OF_FALLBACK_RGB} - The RGB-value of the single texel of the last level, which is used when no level has a resident page.</li>
+ * <li>{@code RELATIVE_OFFSET_OF_PAGE_TABLE_LENGTH} - The number of entries of the page table.</li>
+ * </ul>
+ * <p>
+ * A page is stored in the format of its texture, as if it was a level of {@code min(levelWidth, PAGE_SIZE)} texels per row.
+ * <p>
+ * The kernel fetches each texel from the page it requested, or from the closest coarser level that is resident, and records the ID of the page it requested. These page requests are passed to {@link #requestPages(int[], int)},
+ * which streams at most {@code MAXIMUM_PAGES_PER_REQUEST} pages that are not resident into the slots, evicting the least recently used pages. The pages are streamed either from the {@code int} array of the {@code Scene}, or from
+ * the textures of a file written by {@link Scene#writeMapped(File)}, which are memory-mapped, such that the textures are never held in memory as a whole.
+ * <p>
+ * The texture offsets of the materials of the {@code Scene} are not valid for the virtual textures, so the materials have to be taken from {@link #getMaterialsAsArray()}.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class TextureCache {
+	public static final int FORMAT_FLAG_VIRTUAL = 16;
+	public static final int MAXIMUM_PAGES_PER_REQUEST = 32;
+	public static final int PAGE_SIZE = 32;
+	public static final int PAGE_TABLE_ENTRY_SIZE = 2;
+	public static final int RELATIVE_OFFSET_OF_FALLBACK_RGB = Texture.RELATIVE_OFFSET_OF_DATA + 1;
+	public static final int RELATIVE_OFFSET_OF_PAGE_TABLE_LENGTH = Texture.RELATIVE_OFFSET_OF_DATA + 2;
+	public static final int RELATIVE_OFFSET_OF_TEXTURE_OFFSET = Texture.RELATIVE_OFFSET_OF_DATA;
+	public static final int SLOT_SIZE = PAGE_SIZE * PAGE_SIZE;
+	public static final int VIRTUAL_TEXTURE_SIZE = Texture.RELATIVE_OFFSET_OF_DATA + 3;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final int CHUNK_LENGTH = 1 << 24;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final BitSet slots;
+	private final float[] materialsAsArray;
+	private final int pageTableLength;
+	private final int slotsOffset;
+	private final int[] firstPageIds;
+	private final int[] pageIds;
+	private final int[] sceneTextureOffsets;
+	private final int[] slotFrames;
+	private final int[] slotPageIds;
+	private final int[] texturesAsArray;
+	private final int[] virtualTextureOffsets;
+	private final IntBuffer[] chunks;
+	private int frame;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code TextureCache} for the textures of {@code scene}, with {@code slotCount} slots.
+	 * <p>
+	 * The pages are streamed from the {@code int} array returned by {@link Scene#getTexturesAsArray()}, so the texture updates of {@code scene} can be streamed again by {@link #updatePages(int[], int)}.
+	 * <p>
+	 * If {@code scene} is {@code null}, a {@code NullPointerException} will be thrown. If {@code slotCount} is less than {@code 1}, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param scene the {@code Scene} with the textures
+	 * @param slotCount the number of slots
+	 * @throws IllegalArgumentException thrown if, and only if, {@code slotCount} is less than {@code 1}
+	 * @throws NullPointerException thrown if, and only if, {@code scene} is {@code null}
+	 */
+	public TextureCache(final Scene scene, final int slotCount) {
+		this(Objects.requireNonNull(scene, "scene == null").getMaterialsAsArray(), doCreateChunks(scene.getTexturesAsArray()), slotCount);
+	}
+	
+	/**
+	 * Constructs a new {@code TextureCache} for the textures of {@code file}, which is the file {@code scene} was read from, with {@code slotCount} slots.
+	 * <p>
+	 * The textures of {@code file} are memory-mapped, and the pages are streamed from them. So {@code scene} can be read by {@code Scene.readMapped(file, false)}, such that its textures are not read at all. The texture updates of
+	 * {@code scene} are not streamed, as they are not written to {@code file}.
+	 * <p>
+	 * If either {@code scene} or {@code file} are {@code null}, a {@code NullPointerException} will be thrown. If {@code slotCount} is less than {@code 1}, or {@code file} has not been written by {@link Scene#writeMapped(File)}, an
+	 * {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param scene the {@code Scene} read from {@code file}
+	 * @param file the {@code File} with the textures
+	 * @param slotCount the number of slots
+	 * @throws IllegalArgumentException thrown if, and only if, {@code slotCount} is less than {@code 1}, or {@code file} has not been written by {@code Scene.writeMapped(File)}
+	 * @throws NullPointerException thrown if, and only if, either {@code scene} or {@code file} are {@code null}
+	 * @throws UncheckedIOException thrown if, and only if, an I/O error occurs
+	 */
+	public TextureCache(final Scene scene, final File file, final int slotCount) {
+		this(Objects.requireNonNull(scene, "scene == null").getMaterialsAsArray(), Scene.readMappedTextures(file), slotCount);
+	}
+	
+	private TextureCache(final float[] materials, final IntBuffer[] chunks, final int slotCount) {
+		if(slotCount < 1) {
+			throw new IllegalArgumentException(String.format("Illegal slot count: %s", Integer.toString(slotCount)));
+		}
+		
+		this.chunks = chunks;
+		
+		int length = 0;
+		
+		for(final IntBuffer chunk : chunks) {
+			length += chunk.limit();
+		}
+		
+		int textureCount = 0;
+		
+		for(int textureOffset = 0; textureOffset < length; textureOffset += doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_SIZE)) {
+			textureCount++;
+		}
+		
+		int pageTableLength = 1;
+		
+		while(pageTableLength < slotCount * 2) {
+			pageTableLength *= 2;
+		}
+		
+		this.pageTableLength = pageTableLength;
+		this.slotsOffset = pageTableLength * PAGE_TABLE_ENTRY_SIZE;
+		this.firstPageIds = new int[textureCount];
+		this.pageIds = new int[MAXIMUM_PAGES_PER_REQUEST];
+		this.sceneTextureOffsets = new int[textureCount];
+		this.slotFrames = new int[slotCount];
+		this.slotPageIds = new int[slotCount];
+		this.slots = new BitSet(slotCount);
+		this.texturesAsArray = new int[this.slotsOffset + slotCount * SLOT_SIZE + textureCount * VIRTUAL_TEXTURE_SIZE];
+		this.virtualTextureOffsets = new int[textureCount];
+		
+		Arrays.fill(this.slotPageIds, -1);
+		Arrays.fill(this.texturesAsArray, 0, this.slotsOffset, -1);
+		
+		for(int i = 0, pageId = 0, textureOffset = 0; i < textureCount; textureOffset += doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_SIZE), i++) {
+			this.firstPageIds[i] = pageId;
+			this.sceneTextureOffsets[i] = textureOffset;
+			this.virtualTextureOffsets[i] = this.slotsOffset + slotCount * SLOT_SIZE + i * VIRTUAL_TEXTURE_SIZE;
+			
+			pageId = doCreateVirtualTexture(textureOffset, this.virtualTextureOffsets[i], pageId);
+		}
+		
+		this.materialsAsArray = doCreateMaterialsAsArray(materials);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Streams the pages requested by the first {@code length} values of {@code pageRequests} that are not resident into the slots, and returns {@code true} if, and only if, any page was streamed.
+	 * <p>
+	 * A page request is the ID of a page, as recorded by the kernel. Values that are not the ID of a page, such as {@code -1}, are ignored, and each page is only streamed once.
+	 * <p>
+	 * The requested pages that are resident are marked as used first, such that they are not evicted. Then at most {@code MAXIMUM_PAGES_PER_REQUEST} pages are streamed, each into the slot of the least recently used page. Pages that
+	 * were used by this request are never evicted, so if the slots cannot hold all requested pages, the remaining ones are streamed by a later request.
+	 * <p>
+	 * If {@code pageRequests} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param pageRequests the {@code int} array with the page requests
+	 * @param length the number of page requests in {@code pageRequests}
+	 * @return {@code true} if, and only if, any page was streamed
+	 * @throws NullPointerException thrown if, and only if, {@code pageRequests} is {@code null}
+	 */
+	public boolean requestPages(final int[] pageRequests, final int length) {
+		Objects.requireNonNull(pageRequests, "pageRequests == null");
+		
+		this.frame++;
+		
+		final int pageCount = doGetPageCount();
+		
+		int pageIdCount = 0;
+		
+		for(int i = 0; i < length; i++) {
+			final int pageId = pageRequests[i];
+			
+			if(pageId >= 0 && pageId < pageCount) {
+				final int pageTableIndex = doFindPageTableIndex(pageId);
+				
+				if(pageTableIndex >= 0) {
+					this.slotFrames[(this.texturesAsArray[pageTableIndex * PAGE_TABLE_ENTRY_SIZE + 1] - this.slotsOffset) / SLOT_SIZE] = this.frame;
+				} else if(pageIdCount < this.pageIds.length && !doContains(this.pageIds, pageIdCount, pageId)) {
+					this.pageIds[pageIdCount++] = pageId;
+				}
+			}
+		}
+		
+		int streamedPageCount = 0;
+		
+		for(int i = 0; i < pageIdCount; i++) {
+			final int slot = doFindLeastRecentlyUsedSlot();
+			
+			if(slot < 0) {
+				break;
+			}
+			
+			doEvictPage(slot);
+			doStreamPage(this.pageIds[i], slot);
+			doInsertPage(this.pageIds[i], slot);
+			
+			this.slotFrames[slot] = this.frame;
+			
+			streamedPageCount++;
+		}
+		
+		return streamedPageCount > 0;
+	}
+	
+	/**
+	 * Streams the resident pages that contain the texture updates in {@code textureUpdates} again, and returns {@code true} if, and only if, any page was streamed.
+	 * <p>
+	 * The texture updates are the ones written by {@link Scene#pollTextureUpdates(int[])}, and {@code textureUpdatesLength} is the value it returned. If {@code textureUpdatesLength} is {@code -1}, all resident pages are streamed
+	 * again. The fallback RGB-values of the textures are updated as well.
+	 * <p>
+	 * If {@code textureUpdates} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param textureUpdates the {@code int} array with the texture updates
+	 * @param textureUpdatesLength the number of texture updates in {@code textureUpdates}, or {@code -1} if all resident pages should be streamed again
+	 * @return {@code true} if, and only if, any page was streamed
+	 * @throws NullPointerException thrown if, and only if, {@code textureUpdates} is {@code null}
+	 */
+	public boolean updatePages(final int[] textureUpdates, final int textureUpdatesLength) {
+		Objects.requireNonNull(textureUpdates, "textureUpdates == null");
+		
+		if(textureUpdatesLength < 0) {
+			for(int i = 0; i < this.sceneTextureOffsets.length; i++) {
+				this.texturesAsArray[this.virtualTextureOffsets[i] + RELATIVE_OFFSET_OF_FALLBACK_RGB] = doGetFallbackRGB(this.sceneTextureOffsets[i]);
+			}
+			
+			for(int slot = 0; slot < this.slotPageIds.length; slot++) {
+				if(this.slotPageIds[slot] >= 0) {
+					doStreamPage(this.slotPageIds[slot], slot);
+				}
+			}
+			
+			return true;
+		}
+		
+		boolean isUpdated = false;
+		
+		for(int i = 0; i < textureUpdatesLength; i++) {
+			isUpdated |= doAddResidentPage(textureUpdates[i * 2]);
+		}
+		
+		for(int slot = this.slots.nextSetBit(0); slot >= 0; slot = this.slots.nextSetBit(slot + 1)) {
+			doStreamPage(this.slotPageIds[slot], slot);
+			
+			isUpdated = true;
+		}
+		
+		this.slots.clear();
+		
+		return isUpdated;
+	}
+	
+	/**
+	 * Returns a copy of the {@code float} array of the materials of the {@link Scene}, with the texture offsets replaced by the offsets of the virtual textures in the {@code int} array returned by {@link #getTexturesAsArray()}.
+	 * 
+	 * @return a copy of the {@code float} array of the materials of the {@code Scene}, with the texture offsets of the virtual textures
+	 */
+	public float[] getMaterialsAsArray() {
+		return this.materialsAsArray;
+	}
+	
+	/**
+	 * Returns the number of entries of the page table, which is the smallest power of two that is at least twice the number of slots.
+	 * 
+	 * @return the number of entries of the page table
+	 */
+	public int getPageTableLength() {
+		return this.pageTableLength;
+	}
+	
+	/**
+	 * Returns the number of pages that are resident.
+	 * 
+	 * @return the number of pages that are resident
+	 */
+	public int getResidentPageCount() {
+		int residentPageCount = 0;
+		
+		for(int slot = 0; slot < this.slotPageIds.length; slot++) {
+			if(this.slotPageIds[slot] >= 0) {
+				residentPageCount++;
+			}
+		}
+		
+		return residentPageCount;
+	}
+	
+	/**
+	 * Returns the number of slots.
+	 * 
+	 * @return the number of slots
+	 */
+	public int getSlotCount() {
+		return this.slotPageIds.length;
+	}
+	
+	/**
+	 * Returns the {@code int} array with the page table, the slots and the virtual textures, which is the one the kernel fetches the texels from.
+	 * <p>
+	 * The length of the {@code int} array never changes.
+	 * 
+	 * @return the {@code int} array with the page table, the slots and the virtual textures
+	 */
+	public int[] getTexturesAsArray() {
+		return this.texturesAsArray;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private boolean doAddResidentPage(final int index) {
+		final int textureIndex = doFindTextureIndex(this.sceneTextureOffsets, index);
+		final int textureOffset = this.sceneTextureOffsets[textureIndex];
+		final int virtualTextureOffset = this.virtualTextureOffsets[textureIndex];
+		final int format = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_FORMAT);
+		final int width = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH);
+		final int levelCount = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_COUNT);
+		
+//		Find the level with the index, if any, where the indices of the header are before level 0:
+		for(int level = levelCount - 1; level >= 0; level--) {
+			final int levelOffset = textureOffset + doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level);
+			
+			if(index >= levelOffset) {
+				final int levelWidth = Math.max(width >> level, 1);
+				final int levelIndex = index - levelOffset;
+				
+				if(format == Texture.FORMAT_BLOCK_COMPRESSED) {
+					final int blockCount = (levelWidth + 3) / 4;
+					
+					doAddResidentPage(virtualTextureOffset, level, levelIndex / 2 % blockCount * 4, levelIndex / 2 / blockCount * 4);
+				} else if(format == Texture.FORMAT_RGB565 || format == Texture.FORMAT_XY) {
+					doAddResidentPage(virtualTextureOffset, level, levelIndex * 2 % levelWidth, levelIndex * 2 / levelWidth);
+					doAddResidentPage(virtualTextureOffset, level, (levelIndex * 2 + 1) % levelWidth, (levelIndex * 2 + 1) / levelWidth);
+				} else {
+					doAddResidentPage(virtualTextureOffset, level, levelIndex % levelWidth, levelIndex / levelWidth);
+				}
+				
+				if(level == levelCount - 1) {
+//					The last level has been updated, so update the fallback RGB-value as well:
+					this.texturesAsArray[virtualTextureOffset + RELATIVE_OFFSET_OF_FALLBACK_RGB] = doGetFallbackRGB(textureOffset);
+					
+					return true;
+				}
+				
+				return false;
+			}
+		}
+		
+		return false;
+	}
+	
+	private float[] doCreateMaterialsAsArray(final float[] materials) {
+		final float[] materialsAsArray = materials.clone();
+		
+		for(int materialOffset = 0; materialOffset < materialsAsArray.length; materialOffset += (int)(materialsAsArray[materialOffset + Material.RELATIVE_OFFSET_OF_SIZE])) {
+			final int textureCount = (int)(materialsAsArray[materialOffset + Material.RELATIVE_OFFSET_OF_TEXTURE_COUNT]);
+			
+			for(int i = 0; i < textureCount; i++) {
+				final int index = Arrays.binarySearch(this.sceneTextureOffsets, (int)(materialsAsArray[materialOffset + Material.RELATIVE_OFFSET_OF_TEXTURE_COUNT + i + 1]));
+				
+				if(index >= 0) {
+					materialsAsArray[materialOffset + Material.RELATIVE_OFFSET_OF_TEXTURE_COUNT + i + 1] = this.virtualTextureOffsets[index];
+				}
+			}
+		}
+		
+		return materialsAsArray;
+	}
+	
+	private int doCreateVirtualTexture(final int textureOffset, final int virtualTextureOffset, final int firstPageId) {
+		final int width = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH);
+		final int height = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_HEIGHT);
+		final int levelCount = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_COUNT);
+		
+		this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_TYPE] = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_TYPE);
+		this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_SIZE] = VIRTUAL_TEXTURE_SIZE;
+		this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH] = width;
+		this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_HEIGHT] = height;
+		this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_FORMAT] = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_FORMAT) | FORMAT_FLAG_VIRTUAL;
+		this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_COUNT] = levelCount;
+		this.texturesAsArray[virtualTextureOffset + RELATIVE_OFFSET_OF_TEXTURE_OFFSET] = textureOffset;
+		this.texturesAsArray[virtualTextureOffset + RELATIVE_OFFSET_OF_FALLBACK_RGB] = doGetFallbackRGB(textureOffset);
+		this.texturesAsArray[virtualTextureOffset + RELATIVE_OFFSET_OF_PAGE_TABLE_LENGTH] = this.pageTableLength;
+		
+		int pageId = firstPageId;
+		
+		for(int level = 0; level < levelCount; level++) {
+			this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level] = pageId;
+			
+			pageId += doGetPageCount(width, height, level);
+		}
+		
+		return pageId;
+	}
+	
+	private int doFindLeastRecentlyUsedSlot() {
+		int leastRecentlyUsedSlot = -1;
+		
+		for(int slot = 0; slot < this.slotFrames.length; slot++) {
+			if(this.slotFrames[slot] < this.frame && (leastRecentlyUsedSlot < 0 || this.slotFrames[slot] < this.slotFrames[leastRecentlyUsedSlot])) {
+				leastRecentlyUsedSlot = slot;
+			}
+		}
+		
+		return leastRecentlyUsedSlot;
+	}
+	
+	private int doFindPageTableIndex(final int pageId) {
+		for(int i = 0, pageTableIndex = doHash(pageId) & (this.pageTableLength - 1); i < this.pageTableLength; i++, pageTableIndex = (pageTableIndex + 1) & (this.pageTableLength - 1)) {
+			final int entryPageId = this.texturesAsArray[pageTableIndex * PAGE_TABLE_ENTRY_SIZE];
+			
+			if(entryPageId == pageId) {
+				return pageTableIndex;
+			} else if(entryPageId < 0) {
+				return -1;
+			}
+		}
+		
+		return -1;
+	}
+	
+	private int doGet(final int index) {
+		return this.chunks[index / CHUNK_LENGTH].get(index % CHUNK_LENGTH);
+	}
+	
+	private int doGetFallbackRGB(final int textureOffset) {
+		final int level = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_COUNT) - 1;
+		final int levelOffset = textureOffset + doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level);
+		
+//		Copy the header and the single texel of the last level, such that the texel can be decoded by Texture, regardless of where the textures are streamed from:
+		final int[] texture = new int[Texture.RELATIVE_OFFSET_OF_DATA + 2];
+		
+		for(int i = 0; i < Texture.RELATIVE_OFFSET_OF_DATA; i++) {
+			texture[i] = doGet(textureOffset + i);
+		}
+		
+		texture[Texture.RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level] = Texture.RELATIVE_OFFSET_OF_DATA;
+		texture[Texture.RELATIVE_OFFSET_OF_DATA + 0] = doGet(levelOffset);
+		texture[Texture.RELATIVE_OFFSET_OF_DATA + 1] = Texture.getTexelLength(texture, 0) > 1 ? doGet(levelOffset + 1) : 0;
+		
+		return Texture.getTexel(texture, 0, level, 0, 0);
+	}
+	
+	private int doGetPageCount() {
+		final int textureCount = this.virtualTextureOffsets.length;
+		
+		if(textureCount == 0) {
+			return 0;
+		}
+		
+		final int virtualTextureOffset = this.virtualTextureOffsets[textureCount - 1];
+		final int width = this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH];
+		final int height = this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_HEIGHT];
+		final int level = this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_COUNT] - 1;
+		
+		return this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level] + doGetPageCount(width, height, level);
+	}
+	
+	private int doGetTexelIndex(final int textureOffset, final int level, final int x, final int y) {
+		final int format = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_FORMAT);
+		final int levelOffset = textureOffset + doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level);
+		final int levelWidth = Math.max(doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH) >> level, 1);
+		
+		switch(format) {
+			case Texture.FORMAT_BLOCK_COMPRESSED:
+				return levelOffset + ((y / 4) * ((levelWidth + 3) / 4) + x / 4) * 2;
+			case Texture.FORMAT_RGB565:
+			case Texture.FORMAT_XY:
+				return levelOffset + (y * levelWidth + x) / 2;
+			default:
+				return levelOffset + y * levelWidth + x;
+		}
+	}
+	
+	private void doAddResidentPage(final int virtualTextureOffset, final int level, final int x, final int y) {
+		final int levelWidth = Math.max(this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH] >> level, 1);
+		final int levelHeight = Math.max(this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_HEIGHT] >> level, 1);
+		
+		if(y < levelHeight) {
+			final int pageId = this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level] + y / PAGE_SIZE * ((levelWidth + PAGE_SIZE - 1) / PAGE_SIZE) + x / PAGE_SIZE;
+			final int pageTableIndex = doFindPageTableIndex(pageId);
+			
+			if(pageTableIndex >= 0) {
+				this.slots.set((this.texturesAsArray[pageTableIndex * PAGE_TABLE_ENTRY_SIZE + 1] - this.slotsOffset) / SLOT_SIZE);
+			}
+		}
+	}
+	
+	private void doEvictPage(final int slot) {
+		final int pageId = this.slotPageIds[slot];
+		
+		if(pageId >= 0) {
+			final int mask = this.pageTableLength - 1;
+			
+			int pageTableIndex = doFindPageTableIndex(pageId);
+			
+//			Remove the entry by shifting the following entries of its run back, such that no entry is separated from the entry given by the hash of its page ID by an empty entry:
+			for(int i = (pageTableIndex + 1) & mask; this.texturesAsArray[i * PAGE_TABLE_ENTRY_SIZE] >= 0; i = (i + 1) & mask) {
+				final int hashIndex = doHash(this.texturesAsArray[i * PAGE_TABLE_ENTRY_SIZE]) & mask;
+				
+				if(((i - hashIndex) & mask) >= ((i - pageTableIndex) & mask)) {
+					this.texturesAsArray[pageTableIndex * PAGE_TABLE_ENTRY_SIZE + 0] = this.texturesAsArray[i * PAGE_TABLE_ENTRY_SIZE + 0];
+					this.texturesAsArray[pageTableIndex * PAGE_TABLE_ENTRY_SIZE + 1] = this.texturesAsArray[i * PAGE_TABLE_ENTRY_SIZE + 1];
+					
+					pageTableIndex = i;
+				}
+			}
+			
+			this.texturesAsArray[pageTableIndex * PAGE_TABLE_ENTRY_SIZE + 0] = -1;
+			this.texturesAsArray[pageTableIndex * PAGE_TABLE_ENTRY_SIZE + 1] = -1;
+			this.slotPageIds[slot] = -1;
+		}
+	}
+	
+	private void doInsertPage(final int pageId, final int slot) {
+		int pageTableIndex = doHash(pageId) & (this.pageTableLength - 1);
+		
+//		Find the first empty entry, which exists as the page table has at least twice as many entries as there are slots:
+		while(this.texturesAsArray[pageTableIndex * PAGE_TABLE_ENTRY_SIZE] >= 0) {
+			pageTableIndex = (pageTableIndex + 1) & (this.pageTableLength - 1);
+		}
+		
+		this.texturesAsArray[pageTableIndex * PAGE_TABLE_ENTRY_SIZE + 0] = pageId;
+		this.texturesAsArray[pageTableIndex * PAGE_TABLE_ENTRY_SIZE + 1] = this.slotsOffset + slot * SLOT_SIZE;
+		this.slotPageIds[slot] = pageId;
+	}
+	
+	private void doStreamPage(final int pageId, final int slot) {
+		final int textureIndex = doFindTextureIndex(this.firstPageIds, pageId);
+		final int textureOffset = this.sceneTextureOffsets[textureIndex];
+		final int virtualTextureOffset = this.virtualTextureOffsets[textureIndex];
+		final int format = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_FORMAT);
+		final int width = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_WIDTH);
+		final int height = doGet(textureOffset + Texture.RELATIVE_OFFSET_OF_HEIGHT);
+		
+//		Find the level of the page, which is the last level whose first page ID is less than or equal to it:
+		int level = this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_COUNT] - 1;
+		
+		while(level > 0 && this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level] > pageId) {
+			level--;
+		}
+		
+		final int levelWidth = Math.max(width >> level, 1);
+		final int levelHeight = Math.max(height >> level, 1);
+		final int page = pageId - this.texturesAsArray[virtualTextureOffset + Texture.RELATIVE_OFFSET_OF_LEVEL_OFFSETS + level];
+		final int pageCountX = (levelWidth + PAGE_SIZE - 1) / PAGE_SIZE;
+		final int pageWidth = Math.min(levelWidth, PAGE_SIZE);
+		final int startX = page % pageCountX * PAGE_SIZE;
+		final int startY = page / pageCountX * PAGE_SIZE;
+		final int endX = Math.min(startX + PAGE_SIZE, levelWidth);
+		final int endY = Math.min(startY + PAGE_SIZE, levelHeight);
+		final int slotOffset = this.slotsOffset + slot * SLOT_SIZE;
+		
+//		Copy the texels of the page into the slot in the format of the texture, as if the page was a level with rows of pageWidth texels:
+		if(format == Texture.FORMAT_BLOCK_COMPRESSED) {
+			for(int y = startY; y < endY; y += 4) {
+				for(int x = startX; x < endX; x += 4) {
+					final int index = doGetTexelIndex(textureOffset, level, x, y);
+					final int slotIndex = slotOffset + ((y - startY) / 4 * ((pageWidth + 3) / 4) + (x - startX) / 4) * 2;
+					
+					this.texturesAsArray[slotIndex + 0] = doGet(index + 0);
+					this.texturesAsArray[slotIndex + 1] = doGet(index + 1);
+				}
+			}
+		} else if(format == Texture.FORMAT_RGB565 || format == Texture.FORMAT_XY) {
+			for(int y = startY; y < endY; y++) {
+				for(int x = startX; x < endX; x++) {
+					final int index = doGetTexelIndex(textureOffset, level, x, y);
+					final int pageIndex = (y - startY) * pageWidth + (x - startX);
+					final int shift = (pageIndex & 1) * 16;
+					final int bits = (doGet(index) >>> (((y * levelWidth + x) & 1) * 16)) & 0xFFFF;
+					
+					this.texturesAsArray[slotOffset + pageIndex / 2] = (this.texturesAsArray[slotOffset + pageIndex / 2] & ~(0xFFFF << shift)) | (bits << shift);
+				}
+			}
+		} else {
+			for(int y = startY; y < endY; y++) {
+				for(int x = startX; x < endX; x++) {
+					this.texturesAsArray[slotOffset + (y - startY) * pageWidth + (x - startX)] = doGet(doGetTexelIndex(textureOffset, level, x, y));
+				}
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static boolean doContains(final int[] array, final int length, final int value) {
+		for(int i = 0; i < length; i++) {
+			if(array[i] == value) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private static int doFindTextureIndex(final int[] offsets, final int offset) {
+		final int index = Arrays.binarySearch(offsets, offset);
+		
+		return index >= 0 ? index : -index - 2;
+	}
+	
+	private static int doGetPageCount(final int width, final int height, final int level) {
+		final int levelWidth = Math.max(width >> level, 1);
+		final int levelHeight = Math.max(height >> level, 1);
+		
+		return ((levelWidth + PAGE_SIZE - 1) / PAGE_SIZE) * ((levelHeight + PAGE_SIZE - 1) / PAGE_SIZE);
+	}
+	
+	private static int doHash(final int pageId) {
+		final int hash = (pageId ^ (pageId >> 16)) * 0x45D9F3B;
+		
+		return hash ^ (hash >> 16);
+	}
+	
+	private static IntBuffer[] doCreateChunks(final int[] textures) {
+		final IntBuffer[] chunks = new IntBuffer[(textures.length + CHUNK_LENGTH - 1) / CHUNK_LENGTH];
+		
+		for(int i = 0; i < chunks.length; i++) {
+			chunks[i] = IntBuffer.wrap(textures, i * CHUNK_LENGTH, Math.min(textures.length - i * CHUNK_LENGTH, CHUNK_LENGTH)).slice();
+		}
+		
+		return chunks;
+	}
+}
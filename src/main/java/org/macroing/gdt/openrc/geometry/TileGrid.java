@@ -0,0 +1,243 @@
+/**
+ * Copyright 2009 - 2016 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.macroing.gdt.openrc.
+ * 
+ * org.macroing.gdt.openrc is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.macroing.gdt.openrc is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.macroing.gdt.openrc. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.macroing.gdt.openrc.geometry;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.macroing.gdt.openrc.util.Ranges;
+
+/**
+ * A {@code TileGrid} divides the screen into tiles of {@code TILE_SIZE} by {@code TILE_SIZE} pixels, and keeps a list of the shapes that may be seen by the primary rays of each tile.
+ * <p>
+ * The values in the {@code int} array returned by the {@code getArray()} method consists of the following:
+ * <ol>
+ * <li>Shape Count[Tile Count]</li>
+ * <li>Shape Offsets[Tile Count * MAXIMUM_SHAPES_PER_TILE]</li>
+ * </ol>
+ * <p>
+ * The shape offsets of tile {@code i} start at {@code getTileCount() + i * MAXIMUM_SHAPES_PER_TILE}. If more than {@code MAXIMUM_SHAPES_PER_TILE} shapes overlap a tile, its shape count is set to {@code -1}, which means the
+ * tile should fall back to all shapes that survived view frustum culling.
+ * <p>
+ * The resolution of the screen may be decreased by {@link #setResolution(int, int)}. The {@code int} array is allocated for the resolution given in the constructor, which is the maximum resolution, so it is never reallocated.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
+public final class TileGrid {
+	public static final int MAXIMUM_SHAPES_PER_TILE = 64;
+	public static final int TILE_SIZE = 16;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final int maximumHeight;
+	private final int maximumWidth;
+	private final int[] array;
+	private int height;
+	private int tileCount;
+	private int tileCountX;
+	private int tileCountY;
+	private int width;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Constructs a new {@code TileGrid} for a screen of {@code width} by {@code height} pixels.
+	 * <p>
+	 * This is also the maximum resolution of this {@code TileGrid}.
+	 * 
+	 * @param width the width of the screen in pixels
+	 * @param height the height of the screen in pixels
+	 */
+	public TileGrid(final int width, final int height) {
+		this.maximumHeight = height;
+		this.maximumWidth = width;
+		
+		setResolution(width, height);
+		
+		this.array = new int[this.tileCount + this.tileCount * MAXIMUM_SHAPES_PER_TILE];
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public int getHeight() {
+		return this.height;
+	}
+	
+	public int getTileCount() {
+		return this.tileCount;
+	}
+	
+	public int getTileCountX() {
+		return this.tileCountX;
+	}
+	
+	public int getTileCountY() {
+		return this.tileCountY;
+	}
+	
+	public int getWidth() {
+		return this.width;
+	}
+	
+	public int[] getArray() {
+		return this.array;
+	}
+	
+	/**
+	 * Sets the resolution of the screen, which may be less than the maximum resolution given in the constructor.
+	 * <p>
+	 * The tiles are laid out for the new resolution the next time {@link #update(Camera, List)} is called. The field of view is the same as for the maximum resolution, so a lower resolution means larger pixels.
+	 * <p>
+	 * If either {@code width} or {@code height} are less than {@code 1} or greater than the maximum resolution, an {@code IllegalArgumentException} will be thrown.
+	 * 
+	 * @param width the width of the screen in pixels
+	 * @param height the height of the screen in pixels
+	 * @throws IllegalArgumentException thrown if, and only if, either {@code width} or {@code height} are less than {@code 1} or greater than the maximum resolution
+	 */
+	public void setResolution(final int width, final int height) {
+		this.height = Ranges.requireRange(height, 1, this.maximumHeight);
+		this.width = Ranges.requireRange(width, 1, this.maximumWidth);
+		this.tileCountX = (width + TILE_SIZE - 1) / TILE_SIZE;
+		this.tileCountY = (height + TILE_SIZE - 1) / TILE_SIZE;
+		this.tileCount = this.tileCountX * this.tileCountY;
+	}
+	
+	/**
+	 * Updates this {@code TileGrid} by projecting the {@link BoundingBox} of each {@link Shape} in {@code shapes} onto the screen of {@code camera}, and adding the shape to all tiles it overlaps.
+	 * <p>
+	 * Shapes that are unbounded or partially behind the eye are added to all tiles. Shapes that are entirely behind the eye or off-screen are not added at all.
+	 * <p>
+	 * If either {@code camera} or {@code shapes} are {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param camera the {@code Camera} to use
+	 * @param shapes the {@code Shape}s to add, usually the ones that survived view frustum culling
+	 * @throws NullPointerException thrown if, and only if, either {@code camera} or {@code shapes} are {@code null}
+	 */
+	public void update(final Camera camera, final List<Shape> shapes) {
+		final float[] cameraArray = camera.getArray();
+		
+		final int[] array = this.array;
+		
+		for(int i = 0; i < this.tileCount; i++) {
+			array[i] = 0;
+		}
+		
+		for(final Shape shape : Objects.requireNonNull(shapes, "shapes == null")) {
+			final BoundingBox boundingBox = shape.getBoundingBox();
+			
+			if(boundingBox.isBounded()) {
+				doAdd(shape.getIndex(), boundingBox, cameraArray);
+			} else {
+				doAdd(shape.getIndex(), 0, 0, this.tileCountX - 1, this.tileCountY - 1);
+			}
+		}
+		
+		for(int i = 0; i < this.tileCount; i++) {
+			if(array[i] > MAXIMUM_SHAPES_PER_TILE) {
+				array[i] = -1;
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private void doAdd(final int shapeOffset, final BoundingBox boundingBox, final float[] cameraArray) {
+		final float eyeX = cameraArray[Camera.ABSOLUTE_OFFSET_OF_EYE + 0];
+		final float eyeY = cameraArray[Camera.ABSOLUTE_OFFSET_OF_EYE + 1];
+		final float eyeZ = cameraArray[Camera.ABSOLUTE_OFFSET_OF_EYE + 2];
+		final float uX = cameraArray[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 0];
+		final float uY = cameraArray[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 1];
+		final float uZ = cameraArray[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_U + 2];
+		final float vX = cameraArray[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 0];
+		final float vY = cameraArray[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 1];
+		final float vZ = cameraArray[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_V + 2];
+		final float wX = cameraArray[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 0];
+		final float wY = cameraArray[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 1];
+		final float wZ = cameraArray[Camera.ABSOLUTE_OFFSET_OF_ORTHONORMAL_BASIS_W + 2];
+		final float scale = cameraArray[Camera.ABSOLUTE_OFFSET_OF_VIEW_PLANE_DISTANCE] * cameraArray[Camera.ABSOLUTE_OFFSET_OF_ZOOM];
+		final float scaleX = scale * this.width / this.maximumWidth;
+		final float scaleY = scale * this.height / this.maximumHeight;
+		
+		float minimumX = Float.MAX_VALUE;
+		float minimumY = Float.MAX_VALUE;
+		float maximumX = -Float.MAX_VALUE;
+		float maximumY = -Float.MAX_VALUE;
+		
+		int cornersBehind = 0;
+		
+		for(int i = 0; i < 8; i++) {
+			final float x = ((i & 1) == 0 ? boundingBox.getMinimumX() : boundingBox.getMaximumX()) - eyeX;
+			final float y = ((i & 2) == 0 ? boundingBox.getMinimumY() : boundingBox.getMaximumY()) - eyeY;
+			final float z = ((i & 4) == 0 ? boundingBox.getMinimumZ() : boundingBox.getMaximumZ()) - eyeZ;
+			
+			final float depth = -(x * wX + y * wY + z * wZ);
+			
+			if(depth <= 0.0F) {
+				cornersBehind++;
+			} else {
+//				This is the inverse of the mapping from pixel coordinates to the view plane, used by the primary rays:
+				final float screenX = (x * uX + y * uY + z * uZ) / depth * scaleX + this.width * 0.5F - 0.5F;
+				final float screenY = (x * vX + y * vY + z * vZ) / depth * scaleY + this.height * 0.5F - 0.5F;
+				
+				minimumX = Math.min(minimumX, screenX);
+				minimumY = Math.min(minimumY, screenY);
+				maximumX = Math.max(maximumX, screenX);
+				maximumY = Math.max(maximumY, screenY);
+			}
+		}
+		
+		if(cornersBehind == 8) {
+			return;
+		}
+		
+		if(cornersBehind > 0) {
+			doAdd(shapeOffset, 0, 0, this.tileCountX - 1, this.tileCountY - 1);
+			
+			return;
+		}
+		
+		if(maximumX < -1.0F || maximumY < -1.0F || minimumX > this.width || minimumY > this.height) {
+			return;
+		}
+		
+//		Add a margin of one pixel, to be conservative with regards to rounding:
+		final int tileX0 = (int)(Math.max(minimumX - 1.0F, 0.0F)) / TILE_SIZE;
+		final int tileY0 = (int)(Math.max(minimumY - 1.0F, 0.0F)) / TILE_SIZE;
+		final int tileX1 = (int)(Math.min(maximumX + 1.0F, this.width - 1)) / TILE_SIZE;
+		final int tileY1 = (int)(Math.min(maximumY + 1.0F, this.height - 1)) / TILE_SIZE;
+		
+		doAdd(shapeOffset, tileX0, tileY0, tileX1, tileY1);
+	}
+	
+	private void doAdd(final int shapeOffset, final int tileX0, final int tileY0, final int tileX1, final int tileY1) {
+		final int[] array = this.array;
+		
+		for(int tileY = tileY0; tileY <= tileY1; tileY++) {
+			for(int tileX = tileX0; tileX <= tileX1; tileX++) {
+				final int tile = tileY * this.tileCountX + tileX;
+				final int shapeCount = array[tile]++;
+				
+				if(shapeCount < MAXIMUM_SHAPES_PER_TILE) {
+					array[this.tileCount + tile * MAXIMUM_SHAPES_PER_TILE + shapeCount] = shapeOffset;
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
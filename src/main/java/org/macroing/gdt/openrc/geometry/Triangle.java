@@ -22,13 +22,46 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 
+/**
+ * The values in the {@code float} array created by the {@code toFloatArray()} method consists of the following, after the values described by {@link Shape}:
+ * <ol>
+ * <li>A X, Y and Z</li>
+ * <li>B X, Y and Z</li>
+ * <li>C X, Y and Z</li>
+ * <li>Surface Normal X, Y and Z</li>
+ * <li>Edge 0 X, Y and Z (B - A)</li>
+ * <li>Edge 1 X, Y and Z (C - A)</li>
+ * <li>Area reciprocal (the reciprocal of the length of the cross product between A - B and A - C, which is twice the area of the triangle)</li>
+ * </ol>
+ * <p>
+ * Everything from the edges and onwards is derived from A, B and C, so it is not written by {@code write(DataOutput)}. The first {@code SIZE_WRITTEN} values are written instead, and {@link Shape#read(java.io.DataInput)} derives the
+ * rest again. The edges and the area reciprocal save arithmetic in the M&#246;ller-Trumbore intersection test and in planar triangle texture mapping.
+ * <p>
+ * The values in the {@code float} array created by the {@code toProjectionArray()} method are used by the intersection test of Wald instead, and consists of the following:
+ * <ol>
+ * <li>Projection axis (0, 1 or 2 for X, Y or Z, which is the dominant axis of the geometric normal)</li>
+ * <li>Projection normal U, V and D (the plane equation of the triangle, divided by the component of the geometric normal along the projection axis)</li>
+ * <li>Projection beta U, V and D (the barycentric coordinate of B as a linear function of the point projected onto the U- and V-axes)</li>
+ * <li>Projection gamma U, V and D (the barycentric coordinate of C as a linear function of the point projected onto the U- and V-axes)</li>
+ * </ol>
+ * <p>
+ * They are not part of the {@code float} array created by {@code toFloatArray()}, as only the {@link PackedShapes} keep them, in a separate array, such that the shapes read by all other intersection modes stay small.
+ * 
+ * @since 1.0.0
+ * @author J&#246;rgen Lundgren
+ */
 public final class Triangle extends Shape {
 	public static final float TYPE = 3.0F;
 	public static final int RELATIVE_OFFSET_OF_A = 3;
+	public static final int RELATIVE_OFFSET_OF_AREA_RECIPROCAL = 21;
 	public static final int RELATIVE_OFFSET_OF_B = 6;
 	public static final int RELATIVE_OFFSET_OF_C = 9;
+	public static final int RELATIVE_OFFSET_OF_EDGE_0 = 15;
+	public static final int RELATIVE_OFFSET_OF_EDGE_1 = 18;
 	public static final int RELATIVE_OFFSET_OF_SURFACE_NORMAL = 12;
-	public static final int SIZE = 1 + 1 + 1 + 3 + 3 + 3 + 3;
+	public static final int PROJECTION_SIZE = 1 + 3 + 3 + 3;
+	public static final int SIZE = 1 + 1 + 1 + 3 + 3 + 3 + 3 + 3 + 3 + 1;
+	public static final int SIZE_WRITTEN = 1 + 1 + 1 + 3 + 3 + 3 + 3;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -85,6 +118,11 @@ public final class Triangle extends Shape {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	@Override
+	public BoundingBox getBoundingBox() {
+		return new BoundingBox(Math.min(this.aX, Math.min(this.bX, this.cX)), Math.min(this.aY, Math.min(this.bY, this.cY)), Math.min(this.aZ, Math.min(this.bZ, this.cZ)), Math.max(this.aX, Math.max(this.bX, this.cX)), Math.max(this.aY, Math.max(this.bY, this.cY)), Math.max(this.aZ, Math.max(this.bZ, this.cZ)));
+	}
+	
 	@Override
 	public float getType() {
 		return TYPE;
@@ -92,6 +130,26 @@ public final class Triangle extends Shape {
 	
 	@Override
 	public float[] toFloatArray() {
+//		Calculate the edges in the same way as the kernel used to, so the intersection test gives the same results:
+		final float edge0X = this.bX - this.aX;
+		final float edge0Y = this.bY - this.aY;
+		final float edge0Z = this.bZ - this.aZ;
+		final float edge1X = this.cX - this.aX;
+		final float edge1Y = this.cY - this.aY;
+		final float edge1Z = this.cZ - this.aZ;
+		
+//		Calculate the reciprocal of twice the area in the same way as planar triangle texture mapping used to:
+		final float deltaABX = this.aX - this.bX;
+		final float deltaABY = this.aY - this.bY;
+		final float deltaABZ = this.aZ - this.bZ;
+		final float deltaACX = this.aX - this.cX;
+		final float deltaACY = this.aY - this.cY;
+		final float deltaACZ = this.aZ - this.cZ;
+		final float crossProductX = deltaABY * deltaACZ - deltaABZ * deltaACY;
+		final float crossProductY = deltaABZ * deltaACX - deltaABX * deltaACZ;
+		final float crossProductZ = deltaABX * deltaACY - deltaABY * deltaACX;
+		final float areaReciprocal = 1.0F / (float)(Math.sqrt(crossProductX * crossProductX + crossProductY * crossProductY + crossProductZ * crossProductZ));
+		
 		return new float[] {
 			getType(),
 			size(),
@@ -107,10 +165,26 @@ public final class Triangle extends Shape {
 			this.cZ,
 			this.surfaceNormalX,
 			this.surfaceNormalY,
-			this.surfaceNormalZ
+			this.surfaceNormalZ,
+			edge0X,
+			edge0Y,
+			edge0Z,
+			edge1X,
+			edge1Y,
+			edge1Z,
+			areaReciprocal
 		};
 	}
 	
+	/**
+	 * Returns a new {@code float} array with the projection data used by the intersection test of Wald, which consists of {@code PROJECTION_SIZE} values.
+	 * 
+	 * @return a new {@code float} array with the projection data used by the intersection test of Wald
+	 */
+	public float[] toProjectionArray() {
+		return doCreateProjection(this.aX, this.aY, this.aZ, this.bX - this.aX, this.bY - this.aY, this.bZ - this.aZ, this.cX - this.aX, this.cY - this.aY, this.cZ - this.aZ);
+	}
+	
 	@Override
 	public int size() {
 		return SIZE;
@@ -120,7 +194,7 @@ public final class Triangle extends Shape {
 	public void write(final DataOutput dataOutput) {
 		try {
 			dataOutput.writeFloat(getType());
-			dataOutput.writeFloat(size());
+			dataOutput.writeFloat(SIZE_WRITTEN);
 			dataOutput.writeFloat(getMaterialOffset());
 			dataOutput.writeFloat(this.aX);
 			dataOutput.writeFloat(this.aY);
@@ -138,4 +212,40 @@ public final class Triangle extends Shape {
 			throw new UncheckedIOException(e);
 		}
 	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static float[] doCreateProjection(final float aX, final float aY, final float aZ, final float edge0X, final float edge0Y, final float edge0Z, final float edge1X, final float edge1Y, final float edge1Z) {
+		final double[] a = {aX, aY, aZ};
+		final double[] b = {edge1X, edge1Y, edge1Z};
+		final double[] c = {edge0X, edge0Y, edge0Z};
+		final double[] n = {c[1] * b[2] - c[2] * b[1], c[2] * b[0] - c[0] * b[2], c[0] * b[1] - c[1] * b[0]};
+		
+		final int k = Math.abs(n[0]) > Math.abs(n[1]) ? Math.abs(n[0]) > Math.abs(n[2]) ? 0 : 2 : Math.abs(n[1]) > Math.abs(n[2]) ? 1 : 2;
+		final int u = (k + 1) % 3;
+		final int v = (k + 2) % 3;
+		
+		final double determinant = c[u] * b[v] - c[v] * b[u];
+		
+		if(n[k] == 0.0D || determinant == 0.0D) {
+//			The triangle is degenerate, so the barycentric coordinate of B is always -1.0, which means it is never intersected:
+			return new float[] {k, 0.0F, 0.0F, 0.0F, 0.0F, 0.0F, -1.0F, 0.0F, 0.0F, 0.0F};
+		}
+		
+		final double nKReciprocal = 1.0D / n[k];
+		final double determinantReciprocal = 1.0D / determinant;
+		
+		return new float[] {
+			k,
+			(float)(n[u] * nKReciprocal),
+			(float)(n[v] * nKReciprocal),
+			(float)((n[0] * a[0] + n[1] * a[1] + n[2] * a[2]) * nKReciprocal),
+			(float)(b[v] * determinantReciprocal),
+			(float)(-b[u] * determinantReciprocal),
+			(float)((b[u] * a[v] - b[v] * a[u]) * determinantReciprocal),
+			(float)(-c[v] * determinantReciprocal),
+			(float)(c[u] * determinantReciprocal),
+			(float)((c[v] * a[u] - c[u] * a[v]) * determinantReciprocal)
+		};
+	}
 }
\ No newline at end of file
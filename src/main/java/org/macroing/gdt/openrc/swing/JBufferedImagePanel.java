@@ -23,6 +23,7 @@ import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import javax.swing.JPanel;
@@ -32,7 +33,10 @@ import org.macroing.gdt.openrc.util.Ranges;
 /**
  * A {@code JBufferedImagePanel} draws a {@code BufferedImage}, and optionally delegates further rendering to a {@code Consumer} of a {@code Graphics2D} instance.
  * <p>
- * Another useful feature supported by this class is image scaling.
+ * Another useful feature supported by this class is image scaling. The {@code BufferedImage} to draw may also be swapped, which allows for double buffering.
+ * <p>
+ * The size on screen is given by the first {@code BufferedImage} and the width- and height scales. Any {@code BufferedImage} drawn later on is stretched to the same size. If it has the same size as the first one, it is scaled
+ * using nearest neighbour interpolation, which keeps the pixels sharp. Otherwise, which is the case if a lower resolution is drawn, it is scaled using bilinear interpolation, which is smoother.
  * 
  * @since 1.0.0
  * @author J&#246;rgen Lundgren
@@ -42,10 +46,12 @@ public final class JBufferedImagePanel extends JPanel {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private final BufferedImage bufferedImage;
+	private final AtomicReference<BufferedImage> bufferedImage = new AtomicReference<>();
 	private final Consumer<Graphics2D> consumer;
 	private final int heightScale;
+	private final int heightScaled;
 	private final int widthScale;
+	private final int widthScaled;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -93,10 +99,38 @@ public final class JBufferedImagePanel extends JPanel {
 	 * @throws NullPointerException thrown if, and only if, either {@code bufferedImage} or {@code consumer} are {@code null}
 	 */
 	public JBufferedImagePanel(final BufferedImage bufferedImage, final Consumer<Graphics2D> consumer, final int widthScale, final int heightScale) {
-		this.bufferedImage = Objects.requireNonNull(bufferedImage, "bufferedImage == null");
+		this.bufferedImage.set(Objects.requireNonNull(bufferedImage, "bufferedImage == null"));
 		this.consumer = Objects.requireNonNull(consumer, "consumer == null");
 		this.widthScale = Ranges.requireRange(widthScale, 1, Integer.MAX_VALUE);
+		this.widthScaled = bufferedImage.getWidth() * widthScale;
 		this.heightScale = Ranges.requireRange(heightScale, 1, Integer.MAX_VALUE);
+		this.heightScaled = bufferedImage.getHeight() * heightScale;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Returns the {@code BufferedImage} to draw.
+	 * 
+	 * @return the {@code BufferedImage} to draw
+	 */
+	public BufferedImage getBufferedImage() {
+		return this.bufferedImage.get();
+	}
+	
+	/**
+	 * Sets the {@code BufferedImage} to draw.
+	 * <p>
+	 * This method may be called from any thread. The new {@code BufferedImage} will be drawn the next time this {@code JBufferedImagePanel} is painted. It is stretched to the same size on screen as the first one, so it may have a different size,
+	 * such as a sub-image of a lower resolution.
+	 * <p>
+	 * If {@code bufferedImage} is {@code null}, a {@code NullPointerException} will be thrown.
+	 * 
+	 * @param bufferedImage the {@code BufferedImage} to draw
+	 * @throws NullPointerException thrown if, and only if, {@code bufferedImage} is {@code null}
+	 */
+	public void setBufferedImage(final BufferedImage bufferedImage) {
+		this.bufferedImage.set(Objects.requireNonNull(bufferedImage, "bufferedImage == null"));
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -113,21 +147,22 @@ public final class JBufferedImagePanel extends JPanel {
 	@Override
 	protected void paintComponent(final Graphics graphics) {
 //		Get the BufferedImage:
-		final BufferedImage bufferedImage = this.bufferedImage;
+		final BufferedImage bufferedImage = this.bufferedImage.get();
 		
-//		Calculate the scaled width and height:
+//		Initialize the width and height, and the scaled width and height, which are the same for all BufferedImages:
 		final int width = bufferedImage.getWidth();
-		final int widthScale = this.widthScale;
-		final int widthScaled = width * widthScale;
+		final int widthScaled = this.widthScaled;
 		final int height = bufferedImage.getHeight();
-		final int heightScale = this.heightScale;
-		final int heightScaled = height * heightScale;
+		final int heightScaled = this.heightScaled;
+		
+//		Initialize the interpolation, which is nearest neighbour if the BufferedImage is scaled by the width- and height scales and bilinear otherwise:
+		final Object interpolation = width * this.widthScale == widthScaled && height * this.heightScale == heightScaled ? RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR : RenderingHints.VALUE_INTERPOLATION_BILINEAR;
 		
 //		Set the RenderingHints for the Graphics2D instance and draw the BufferedImage:
 		final
 		Graphics2D graphics2D = Graphics2D.class.cast(graphics);
 		graphics2D.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_SPEED);
-		graphics2D.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+		graphics2D.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
 		graphics2D.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
 		graphics2D.drawImage(bufferedImage, 0, 0, widthScaled, heightScaled, this);
 		